@@ -0,0 +1,105 @@
+package com.distributed_system.purchasement.common.codec;
+
+import com.distributed_system.purchasement.common.event.BaseEvent;
+import com.distributed_system.purchasement.common.event.OrderEvent;
+import com.distributed_system.purchasement.common.event.PaymentEvent;
+import com.distributed_system.purchasement.common.event.UserEvent;
+import org.apache.kafka.common.header.Headers;
+import org.apache.kafka.common.header.internals.RecordHeaders;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.kafka.support.JacksonUtils;
+import org.springframework.kafka.support.serializer.JsonDeserializer;
+import org.springframework.kafka.support.serializer.JsonSerializer;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Producer and consumer cost of one event, binary codec vs JSON, through the serializers
+ * KafkaConfig installs (EventCodecSerializer, TopicTypedDeserializer):
+ * mvn -Pjmh test-compile exec:exec -Djmh.args="EventCodec -prof gc"
+ * Bytes per event are asserted in EventBinaryCodecTest.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class EventCodecBenchmark {
+
+    private static final String TOPIC = "benchmark-events";
+
+    @Param({"USER", "ORDER", "PAYMENT"})
+    public String type;
+
+    private BaseEvent event;
+    private EventCodecSerializer binarySerializer;
+    private EventCodecSerializer jsonSerializer;
+    private TopicTypedDeserializer deserializer;
+    private byte[] binaryBytes;
+    private Headers binaryHeaders;
+    private byte[] jsonBytes;
+    private Headers jsonHeaders;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        event = sampleEvent(type);
+        binarySerializer = new EventCodecSerializer(new JsonSerializer<>(), true);
+        jsonSerializer = new EventCodecSerializer(new JsonSerializer<>(), false);
+        deserializer = new TopicTypedDeserializer(Map.of(TOPIC, event.getClass()),
+                JacksonUtils.enhancedObjectMapper(), new EventCodecDeserializer(new JsonDeserializer<>()));
+
+        binaryHeaders = new RecordHeaders();
+        binaryBytes = binarySerializer.serialize(TOPIC, binaryHeaders, event);
+        jsonHeaders = new RecordHeaders();
+        jsonBytes = jsonSerializer.serialize(TOPIC, jsonHeaders, event);
+    }
+
+    @Benchmark
+    public byte[] binaryEncode() {
+        return binarySerializer.serialize(TOPIC, new RecordHeaders(), event);
+    }
+
+    @Benchmark
+    public byte[] jsonEncode() {
+        return jsonSerializer.serialize(TOPIC, new RecordHeaders(), event);
+    }
+
+    @Benchmark
+    public Object binaryDecode() {
+        return deserializer.deserialize(TOPIC, binaryHeaders, binaryBytes);
+    }
+
+    @Benchmark
+    public Object jsonDecode() {
+        return deserializer.deserialize(TOPIC, jsonHeaders, jsonBytes);
+    }
+
+    static BaseEvent sampleEvent(String type) {
+        return switch (type) {
+            case "USER" -> UserEvent.created(1_024_001L, "alice", "alice@example.com", 31);
+            case "ORDER" -> OrderEvent.created(2_048_001L, 1_024_001L, List.of(
+                    new OrderEvent.OrderItem(501L, "Mechanical keyboard", 1, new BigDecimal("399.00")),
+                    new OrderEvent.OrderItem(502L, "USB-C cable", 2, new BigDecimal("29.90")),
+                    new OrderEvent.OrderItem(503L, "Desk mat", 1, new BigDecimal("59.00"))),
+                    new BigDecimal("517.80"));
+            case "PAYMENT" -> PaymentEvent.initiated(4_096_001L, 2_048_001L, 1_024_001L,
+                    new BigDecimal("517.80"), "CNY", "ALIPAY");
+            default -> throw new IllegalArgumentException("Unknown event type " + type);
+        };
+    }
+}
@@ -0,0 +1,87 @@
+package com.distributed_system.purchasement.common.codec;
+
+import com.distributed_system.purchasement.common.event.BaseEvent;
+import org.apache.kafka.common.header.Headers;
+import org.apache.kafka.common.header.internals.RecordHeaders;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.kafka.support.JacksonUtils;
+import org.springframework.kafka.support.serializer.ErrorHandlingDeserializer;
+import org.springframework.kafka.support.serializer.JsonDeserializer;
+import org.springframework.kafka.support.serializer.JsonSerializer;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Consumer-side cost of one JSON record:
+ * - headerTyped: JsonDeserializer with every package trusted, type from the __TypeId__ header
+ *   (the consumer before topic bindings)
+ * - topicTyped: ErrorHandlingDeserializer over TopicTypedDeserializer, type bound to the topic
+ * - malformed: a JSON map on an event topic, rejected by topicTyped (null value + exception header)
+ * mvn -Pjmh test-compile exec:exec -Djmh.args="TopicTyped -prof gc"
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class TopicTypedDeserializerBenchmark {
+
+    private static final String TOPIC = "benchmark-events";
+
+    @Param({"USER", "ORDER", "PAYMENT"})
+    public String type;
+
+    private JsonDeserializer<Object> headerTyped;
+    private ErrorHandlingDeserializer<Object> topicTyped;
+    private byte[] bytes;
+    private Headers headers;
+    private byte[] malformed;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        BaseEvent event = EventCodecBenchmark.sampleEvent(type);
+        headerTyped = new JsonDeserializer<>();
+        headerTyped.addTrustedPackages("*");
+        // The same headers are read on every invocation
+        headerTyped.setRemoveTypeHeaders(false);
+        JsonDeserializer<Object> fallback = new JsonDeserializer<>();
+        fallback.addTrustedPackages(BaseEvent.class.getPackageName());
+        topicTyped = new ErrorHandlingDeserializer<>(new TopicTypedDeserializer(Map.of(TOPIC, event.getClass()),
+                JacksonUtils.enhancedObjectMapper(), new EventCodecDeserializer(fallback)));
+
+        headers = new RecordHeaders();
+        try (JsonSerializer<Object> serializer = new JsonSerializer<>()) {
+            bytes = serializer.serialize(TOPIC, headers, event);
+        }
+        malformed = "{\"message\":\"not an event\",\"userId\":1}".getBytes(StandardCharsets.UTF_8);
+    }
+
+    @Benchmark
+    public Object headerTyped() {
+        return headerTyped.deserialize(TOPIC, headers, bytes);
+    }
+
+    @Benchmark
+    public Object topicTyped() {
+        return topicTyped.deserialize(TOPIC, headers, bytes);
+    }
+
+    @Benchmark
+    public Object malformed() {
+        return topicTyped.deserialize(TOPIC, new RecordHeaders(), malformed);
+    }
+}
@@ -0,0 +1,127 @@
+package com.distributed_system.purchasement.common.collection;
+
+import com.distributed_system.purchasement.common.codec.UserStateCodec;
+import com.distributed_system.purchasement.common.event.UserEvent;
+import com.distributed_system.purchasement.common.service.userstate.UserState;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.BenchmarkParams;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * UserStateView lookups: userId -> encoded state in LongBytesMap against boxed HashMaps
+ * - bytesMap / hashMap: raw value lookup (LongBytesMap vs HashMap<Long, byte[]>)
+ * - bytesMapDecoded / stateHashMap: lookup of a UserState, decoded per call (the view) or
+ *   kept decoded (HashMap<Long, UserState>)
+ * Each invocation looks up the next 4096 of 1M random users, so most lookups of the large maps
+ * miss the CPU caches as in production. A fork only builds the map its benchmark reads.
+ * Retained heap is measured in UserStateMemoryBenchmarkTest (-Pbenchmark).
+ * mvn -Pjmh test-compile exec:exec -Djmh.args="LongBytesMapBenchmark -prof gc"
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx2g")
+public class LongBytesMapBenchmark {
+
+    private static final int LOOKUPS = 4096;
+    private static final int KEYS = 1 << 20;
+    private static final long FIRST_USER_ID = 1_000_000L;
+
+    @Param({"100000", "1000000"})
+    public int users;
+
+    private LongBytesMap bytesMap;
+    private Map<Long, byte[]> hashMap;
+    private Map<Long, UserState> stateHashMap;
+    private final long[] keys = new long[KEYS];
+    private int next;
+
+    @Setup(Level.Trial)
+    public void setUp(BenchmarkParams params) {
+        String benchmark = params.getBenchmark();
+        bytesMap = new LongBytesMap(users);
+        hashMap = new HashMap<>();
+        stateHashMap = new HashMap<>();
+        for (int i = 0; i < users; i++) {
+            long userId = FIRST_USER_ID + i;
+            byte[] value = UserStateCodec.encode(UserEvent.updated(userId, "user" + userId,
+                    "user" + userId + "@example.com", 20 + i % 50));
+            if (benchmark.endsWith(".stateHashMap")) {
+                stateHashMap.put(userId, UserStateCodec.decode(userId, value));
+            } else if (benchmark.endsWith(".hashMap")) {
+                hashMap.put(userId, value);
+            } else {
+                bytesMap.put(userId, value);
+            }
+        }
+        Random random = new Random(21);
+        for (int i = 0; i < KEYS; i++) {
+            keys[i] = FIRST_USER_ID + random.nextInt(users);
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(LOOKUPS)
+    public void bytesMap(Blackhole blackhole) {
+        int from = nextLookups();
+        for (int i = from; i < from + LOOKUPS; i++) {
+            blackhole.consume(bytesMap.get(keys[i]));
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(LOOKUPS)
+    public void hashMap(Blackhole blackhole) {
+        int from = nextLookups();
+        for (int i = from; i < from + LOOKUPS; i++) {
+            blackhole.consume(hashMap.get(keys[i]));
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(LOOKUPS)
+    public void bytesMapDecoded(Blackhole blackhole) {
+        int from = nextLookups();
+        for (int i = from; i < from + LOOKUPS; i++) {
+            long key = keys[i];
+            blackhole.consume(UserStateCodec.decode(key, bytesMap.get(key)));
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(LOOKUPS)
+    public void stateHashMap(Blackhole blackhole) {
+        int from = nextLookups();
+        for (int i = from; i < from + LOOKUPS; i++) {
+            blackhole.consume(stateHashMap.get(keys[i]));
+        }
+    }
+
+    /**
+     * Start of the next LOOKUPS keys
+     */
+    private int nextLookups() {
+        int from = next;
+        next = (next + LOOKUPS) & (KEYS - 1);
+        return from;
+    }
+}
@@ -0,0 +1,108 @@
+package com.distributed_system.purchasement.common.service.analytics;
+
+import com.distributed_system.purchasement.common.service.analytics.WindowAggregate.EventKind;
+import org.apache.kafka.common.TopicPartition;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Per-event cost of the analytics stage without the consumer: watermark observe + WindowedAggregator.add
+ * for every record of a 500-record poll, then one advance, as OrderAnalyticsStage.follow does
+ * - 500 events per second of event time over 9 partitions, up to 3s out of order, 1 in 1000 events
+ *   90s late (past allowed-lateness-ms: dropped)
+ * - windows: a single 1m tumbling window, or the application-dev.yml set (1m, 1h, 1h hopping by 5m:
+ *   14 windows per event)
+ * - checkpoint: serializing a day of state (full history-size 1440) as the periodic checkpoint does,
+ *   into memory; one op is the whole checkpoint
+ * mvn -Pjmh test-compile exec:exec -Djmh.args="WindowedAggregatorBenchmark -prof gc"
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class WindowedAggregatorBenchmark {
+
+    private static final int POLL = 500;
+    private static final int PARTITIONS = 9;
+    private static final long EVENT_SPACING_MS = 2;
+    private static final EventKind[] KINDS = EventKind.values();
+
+    @Param({"1m=60000", "1m=60000,1h=3600000,1h-hop-5m=3600000/300000"})
+    public String windows;
+
+    private WindowedAggregator aggregator;
+    private WatermarkTracker watermarks;
+    private final TopicPartition[] partitions = new TopicPartition[PARTITIONS];
+    private final List<WindowResult> results = new ArrayList<>();
+    private final ByteArrayOutputStream checkpoint = new ByteArrayOutputStream(1 << 20);
+    private final Random random = new Random(24);
+    private long clock;
+    private long event;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        aggregator = new WindowedAggregator(WindowSpec.parse(windows), 60_000, 1440);
+        watermarks = new WatermarkTracker(5_000, 30_000);
+        for (int p = 0; p < PARTITIONS; p++) {
+            partitions[p] = new TopicPartition("order-completed", p);
+        }
+        // A day of event time, one event per second: every window spec has a full history
+        for (int second = 0; second < 86_400; second++) {
+            long eventTime = second * 1000L;
+            watermarks.observe(partitions[second % PARTITIONS], eventTime, eventTime);
+            aggregator.add(EventKind.ORDER_COMPLETED, eventTime, 9_990, results);
+            if (second % 10 == 0) {
+                aggregator.advance(watermarks.advance(eventTime));
+            }
+        }
+        clock = 86_400_000L;
+        results.clear();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(POLL)
+    public List<WindowResult> poll() {
+        results.clear();
+        for (int i = 0; i < POLL; i++, event++) {
+            clock += EVENT_SPACING_MS;
+            long eventTime = clock - random.nextInt(3_000);
+            if (event % 1000 == 999) {
+                eventTime -= 90_000;
+            }
+            watermarks.observe(partitions[(int) (event % PARTITIONS)], eventTime, clock);
+            aggregator.add(KINDS[(int) (event % KINDS.length)], eventTime, 5_000 + event % 20_000, results);
+        }
+        results.addAll(aggregator.advance(watermarks.advance(clock)));
+        return results;
+    }
+
+    @Benchmark
+    public int checkpoint() throws IOException {
+        checkpoint.reset();
+        DataOutputStream out = new DataOutputStream(checkpoint);
+        watermarks.write(out);
+        aggregator.write(out);
+        return checkpoint.size();
+    }
+}
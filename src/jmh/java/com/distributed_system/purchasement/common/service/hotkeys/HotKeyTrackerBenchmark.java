@@ -0,0 +1,124 @@
+package com.distributed_system.purchasement.common.service.hotkeys;
+
+import com.distributed_system.purchasement.common.event.OrderEvent;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * HotKeyTracker on the send and consume paths, default settings (8 stripes of a 4 x 2048 sketch,
+ * 100 candidates, 60s window in 6 buckets):
+ * - recordProduce: one send of a user-created key, 1 in 10 sends to one hot key, the rest spread over
+ *   distinctKeys keys
+ * - exactCounts: the same sends counted exactly in ConcurrentHashMap<String, LongAdder> by topic/key,
+ *   memory grows with distinctKeys (memory by cardinality: HotKeyTrackerBenchmarkTest, -Pbenchmark)
+ * - recordOrder: one order-created event with 3 items
+ * - top: the merged top-20 of all three trackers, as the endpoint and refreshMetrics read it
+ * Single-threaded: the stripes only matter under concurrent sends, which one CPU cannot show.
+ * mvn -Pjmh test-compile exec:exec -Djmh.args="HotKeyTrackerBenchmark -prof gc"
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx2g")
+public class HotKeyTrackerBenchmark {
+
+    private static final String TOPIC = "user-created";
+    private static final int SENDS = 4096;
+    private static final int KEYS = 1 << 20;
+
+    @Param({"1000", "1000000"})
+    public int distinctKeys;
+
+    private HotKeyTracker tracker;
+    private final Map<String, LongAdder> exact = new ConcurrentHashMap<>();
+    private final String[] keys = new String[KEYS];
+    private final List<OrderEvent> orders = new ArrayList<>();
+    private int next;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        tracker = new HotKeyTracker(new SimpleMeterRegistry(), true, 20, 100, 4, 2048, 60_000, 6, 8);
+        Random random = new Random(25);
+        // Distinct instances, as keys arrive from different requests
+        for (int i = 0; i < KEYS; i++) {
+            keys[i] = String.valueOf(random.nextInt(10) == 0 ? 1_000_000 : 2_000_000 + random.nextInt(distinctKeys));
+        }
+        for (int i = 0; i < 1024; i++) {
+            List<OrderEvent.OrderItem> items = new ArrayList<>();
+            for (int j = 0; j < 3; j++) {
+                long productId = random.nextInt(10) == 0 ? 1 : 100 + random.nextInt(distinctKeys);
+                items.add(new OrderEvent.OrderItem(productId, "product-" + productId, 1 + random.nextInt(3),
+                        BigDecimal.TEN));
+            }
+            orders.add(OrderEvent.created(5_000_000L + i, 1_000_000L + random.nextInt(distinctKeys), items,
+                    BigDecimal.valueOf(30)));
+        }
+        for (int i = 0; i < KEYS; i++) {
+            tracker.recordProduce(TOPIC, keys[i]);
+        }
+        recordOrder();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(SENDS)
+    public void recordProduce() {
+        int from = nextSends();
+        for (int i = from; i < from + SENDS; i++) {
+            tracker.recordProduce(TOPIC, keys[i]);
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(SENDS)
+    public void exactCounts() {
+        int from = nextSends();
+        for (int i = from; i < from + SENDS; i++) {
+            exact.computeIfAbsent(TOPIC + "/" + keys[i], k -> new LongAdder()).increment();
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(1024)
+    public void recordOrder() {
+        for (OrderEvent order : orders) {
+            tracker.recordOrder(order);
+        }
+    }
+
+    @Benchmark
+    public Map<String, List<HeavyHitter>> top() {
+        return tracker.top();
+    }
+
+    /**
+     * Start of the next SENDS keys
+     */
+    private int nextSends() {
+        int from = next;
+        next = (next + SENDS) & (KEYS - 1);
+        return from;
+    }
+}
@@ -0,0 +1,127 @@
+package com.distributed_system.purchasement.common.service.kafka.filter;
+
+import com.distributed_system.purchasement.common.codec.EventCodecDeserializer;
+import com.distributed_system.purchasement.common.codec.EventCodecSerializer;
+import com.distributed_system.purchasement.common.codec.LazyPayload;
+import com.distributed_system.purchasement.common.codec.LazyPayloadDeserializer;
+import com.distributed_system.purchasement.common.codec.TopicTypedDeserializer;
+import com.distributed_system.purchasement.common.event.BaseEvent;
+import com.distributed_system.purchasement.common.event.UserEvent;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.common.header.Headers;
+import org.apache.kafka.common.header.internals.RecordHeaders;
+import org.apache.kafka.common.record.TimestampType;
+import org.apache.kafka.common.serialization.Deserializer;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.springframework.kafka.support.JacksonUtils;
+import org.springframework.kafka.support.serializer.JsonDeserializer;
+import org.springframework.kafka.support.serializer.JsonSerializer;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Per-record consumer cost of one poll of user-updated records, part of them carrying an ignored
+ * event type (dropPercent):
+ * - eager: every value decoded at poll time, the listener ignores the unwanted ones
+ * - lazy: LazyPayloadDeserializer + EventTypeRecordFilter, only kept records are decoded
+ * mvn -Pjmh test-compile exec:exec -Djmh.args="EventTypeRecordFilter -prof gc"
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class EventTypeRecordFilterBenchmark {
+
+    private static final String TOPIC = "user-updated";
+    private static final String KEPT_TYPE = "USER_UPDATED";
+    private static final String IGNORED_TYPE = "USER_VIEWED";
+    private static final int POLL = 100;
+
+    @Param({"0", "50", "90"})
+    public int dropPercent;
+
+    @Param({"BINARY", "JSON"})
+    public String format;
+
+    private final List<byte[]> values = new ArrayList<>(POLL);
+    private final List<Headers> headers = new ArrayList<>(POLL);
+    private Deserializer<Object> typed;
+    private LazyPayloadDeserializer lazy;
+    private EventTypeRecordFilter filter;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        JsonDeserializer<Object> fallback = new JsonDeserializer<>();
+        fallback.addTrustedPackages(BaseEvent.class.getPackageName());
+        typed = new TopicTypedDeserializer(Map.of(TOPIC, UserEvent.class), JacksonUtils.enhancedObjectMapper(),
+                new EventCodecDeserializer(fallback));
+        lazy = new LazyPayloadDeserializer(typed);
+        filter = new EventTypeRecordFilter(List.of(IGNORED_TYPE));
+
+        List<String> eventTypes = new ArrayList<>(POLL);
+        for (int i = 0; i < POLL; i++) {
+            eventTypes.add(i < POLL * dropPercent / 100 ? IGNORED_TYPE : KEPT_TYPE);
+        }
+        Collections.shuffle(eventTypes, new Random(7));
+        EventCodecSerializer serializer = new EventCodecSerializer(new JsonSerializer<>(), "BINARY".equals(format));
+        for (int i = 0; i < POLL; i++) {
+            UserEvent event = UserEvent.updated(1_000L + i, "user" + i, "user" + i + "@example.com", 30);
+            event.setEventType(eventTypes.get(i));
+            Headers recordHeaders = new RecordHeaders();
+            values.add(serializer.serialize(TOPIC, recordHeaders, event));
+            recordHeaders.add(EventTypeRecordFilter.EVENT_TYPE_HEADER, eventTypes.get(i).getBytes(StandardCharsets.UTF_8));
+            headers.add(recordHeaders);
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(POLL)
+    public void eager(Blackhole blackhole) {
+        for (int i = 0; i < POLL; i++) {
+            Object value = typed.deserialize(TOPIC, headers.get(i), values.get(i));
+            ConsumerRecord<String, Object> record = record(i, value);
+            if (KEPT_TYPE.equals(((BaseEvent) record.value()).getEventType())) {
+                blackhole.consume(record.value());
+            }
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(POLL)
+    public void lazy(Blackhole blackhole) {
+        for (int i = 0; i < POLL; i++) {
+            Object value = lazy.deserialize(TOPIC, headers.get(i), values.get(i));
+            ConsumerRecord<String, Object> record = record(i, value);
+            if (!filter.filter(record)) {
+                blackhole.consume(LazyPayload.unwrap(record.value()));
+            }
+        }
+    }
+
+    private ConsumerRecord<String, Object> record(int offset, Object value) {
+        return new ConsumerRecord<>(TOPIC, 0, offset, 0L, TimestampType.CREATE_TIME, 4, values.get(offset).length,
+                "user", value, headers.get(offset), Optional.empty());
+    }
+}
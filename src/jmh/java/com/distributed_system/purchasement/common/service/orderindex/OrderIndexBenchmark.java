@@ -0,0 +1,147 @@
+package com.distributed_system.purchasement.common.service.orderindex;
+
+import com.distributed_system.purchasement.common.event.OrderEvent;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.BenchmarkParams;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Order index operations on 1M orders of 250k users (4 orders per user)
+ * - find / hashMap: point lookup of a random order, OrderIndex (optimistic read, summary built per
+ *   call) against a HashMap<Long, OrderSummary> of ready summaries
+ * - findByUser: all orders of a random user
+ * - applyAll: a poll of 500 order-completed events for existing orders, as OrderIndexer applies them
+ * Each invocation uses the next 4096 of 1M random keys, so lookups miss the CPU caches as in
+ * production. A fork only builds the structure its benchmark reads.
+ * Retained heap and snapshot restore are measured in OrderIndexBenchmarkTest (-Pbenchmark).
+ * mvn -Pjmh test-compile exec:exec -Djmh.args="OrderIndexBenchmark -prof gc"
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx2g")
+public class OrderIndexBenchmark {
+
+    private static final int ORDERS = 1_000_000;
+    private static final int ORDERS_PER_USER = 4;
+    private static final int LOOKUPS = 4096;
+    private static final int BATCH = 500;
+    private static final int KEYS = 1 << 20;
+    private static final long FIRST_ORDER_ID = 10_000_000L;
+    private static final long FIRST_USER_ID = 1_000_000L;
+
+    private OrderIndex index;
+    private Map<Long, OrderSummary> hashMap;
+    private final long[] orderIds = new long[KEYS];
+    private final long[] userIds = new long[KEYS];
+    private final List<List<OrderEvent>> batches = new ArrayList<>();
+    private int next;
+    private int nextBatch;
+
+    @Setup(Level.Trial)
+    public void setUp(BenchmarkParams params) {
+        index = new OrderIndex(ORDERS);
+        hashMap = new HashMap<>();
+        boolean boxed = params.getBenchmark().endsWith(".hashMap");
+        List<OrderEvent> created = new ArrayList<>(BATCH);
+        for (int i = 0; i < ORDERS; i++) {
+            long orderId = FIRST_ORDER_ID + i;
+            long userId = FIRST_USER_ID + i / ORDERS_PER_USER;
+            BigDecimal total = BigDecimal.valueOf(1_000 + i % 50_000, 2);
+            if (boxed) {
+                long now = System.currentTimeMillis();
+                hashMap.put(orderId, new OrderSummary(orderId, userId, OrderStatus.CREATED, total, now, now));
+                continue;
+            }
+            created.add(OrderEvent.created(orderId, userId, List.of(), total));
+            if (created.size() == BATCH) {
+                index.applyAll(created);
+                created.clear();
+            }
+        }
+
+        Random random = new Random(22);
+        for (int i = 0; i < KEYS; i++) {
+            orderIds[i] = FIRST_ORDER_ID + random.nextInt(ORDERS);
+            userIds[i] = FIRST_USER_ID + random.nextInt(ORDERS / ORDERS_PER_USER);
+        }
+        for (int b = 0; b < 64; b++) {
+            List<OrderEvent> batch = new ArrayList<>(BATCH);
+            for (int i = 0; i < BATCH; i++) {
+                long orderId = orderIds[b * BATCH + i];
+                batch.add(OrderEvent.completed(orderId, FIRST_USER_ID + (orderId - FIRST_ORDER_ID) / ORDERS_PER_USER,
+                        BigDecimal.TEN));
+            }
+            batches.add(batch);
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(LOOKUPS)
+    public void find(Blackhole blackhole) {
+        int from = nextLookups();
+        for (int i = from; i < from + LOOKUPS; i++) {
+            blackhole.consume(index.find(orderIds[i]));
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(LOOKUPS)
+    public void hashMap(Blackhole blackhole) {
+        int from = nextLookups();
+        for (int i = from; i < from + LOOKUPS; i++) {
+            blackhole.consume(hashMap.get(orderIds[i]));
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(LOOKUPS)
+    public void findByUser(Blackhole blackhole) {
+        int from = nextLookups();
+        for (int i = from; i < from + LOOKUPS; i++) {
+            blackhole.consume(index.findByUser(userIds[i], 0, Long.MAX_VALUE, null, 100));
+        }
+    }
+
+    /**
+     * Re-applies the same events; their timestamps are not older than the rows, so each one is
+     * applied again rather than skipped
+     */
+    @Benchmark
+    @OperationsPerInvocation(BATCH)
+    public int applyAll() {
+        List<OrderEvent> batch = batches.get(nextBatch);
+        nextBatch = (nextBatch + 1) % batches.size();
+        return index.applyAll(batch);
+    }
+
+    /**
+     * Start of the next LOOKUPS keys
+     */
+    private int nextLookups() {
+        int from = next;
+        next = (next + LOOKUPS) & (KEYS - 1);
+        return from;
+    }
+}
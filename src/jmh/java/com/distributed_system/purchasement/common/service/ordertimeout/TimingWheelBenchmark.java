@@ -0,0 +1,127 @@
+package com.distributed_system.purchasement.common.service.ordertimeout;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.BenchmarkParams;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Per-order timer cost of OrderTimeoutService in steady state (30 min timeout, 1s ticks, 4 x 64 slots):
+ * ordersPerSecond orders are created, 9 in 10 are paid after 60s (close), the rest expire. One op is
+ * one order: schedule, its share of the closes and of advancing the clock.
+ * - wheel: TimingWheel, a paid order leaves a closed marker for the timeout
+ * - heap: PriorityQueue + HashMap of timer objects (HeapTimers), cancelled timers stay queued
+ * Steady state holds ~1850 timers per order/s (armed + markers): ~110k at 60/s, ~1.1M at 600/s.
+ * The clock is simulated, so a benchmark second is many simulated minutes. A fork only drives the
+ * implementation its benchmark reads.
+ * Retained heap is measured in TimingWheelBenchmarkTest (-Pbenchmark).
+ * mvn -Pjmh test-compile exec:exec -Djmh.args="TimingWheelBenchmark -prof gc"
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx2g")
+public class TimingWheelBenchmark {
+
+    private static final long TIMEOUT_MS = 30 * 60 * 1000L;
+    private static final int PAID_AFTER_SECONDS = 60;
+    private static final int ORDERS = 100;
+    private static final TimingWheel.ExpiryHandler IGNORE = (id, payload) -> {
+    };
+
+    @Param({"60", "600"})
+    public int ordersPerSecond;
+
+    private TimingWheel wheel;
+    private HeapTimers heap;
+    private long nextOrder;
+    private long second;
+
+    @Setup(Level.Trial)
+    public void setUp(BenchmarkParams params) {
+        wheel = new TimingWheel(1000, 6, 4, 1_000_000, 0);
+        heap = new HeapTimers();
+        boolean onWheel = params.getBenchmark().endsWith(".wheel");
+        // Until paid and expiring orders balance new ones
+        long warmOrders = (TIMEOUT_MS / 1000 + 2 * PAID_AFTER_SECONDS) * ordersPerSecond;
+        for (nextOrder = 0; nextOrder < warmOrders; nextOrder++) {
+            if (onWheel) {
+                wheelOrder();
+            } else {
+                heapOrder();
+            }
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(ORDERS)
+    public int wheel() {
+        for (int i = 0; i < ORDERS; i++) {
+            wheelOrder();
+            nextOrder++;
+        }
+        return wheel.size();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(ORDERS)
+    public int heap() {
+        for (int i = 0; i < ORDERS; i++) {
+            heapOrder();
+            nextOrder++;
+        }
+        return heap.armedCount();
+    }
+
+    private void wheelOrder() {
+        long nowMs = nowMs();
+        if (nowMs / 1000 != second) {
+            second = nowMs / 1000;
+            wheel.advance(nowMs, IGNORE);
+        }
+        wheel.schedule(nextOrder, nextOrder, nowMs + TIMEOUT_MS);
+        long paid = paidOrder();
+        if (paid >= 0) {
+            wheel.close(paid, nowMs + TIMEOUT_MS);
+        }
+    }
+
+    private void heapOrder() {
+        long nowMs = nowMs();
+        if (nowMs / 1000 != second) {
+            second = nowMs / 1000;
+            heap.advance(nowMs, IGNORE);
+        }
+        heap.schedule(nextOrder, nextOrder, nowMs + TIMEOUT_MS);
+        long paid = paidOrder();
+        if (paid >= 0) {
+            heap.cancel(paid);
+        }
+    }
+
+    private long nowMs() {
+        return nextOrder * 1000 / ordersPerSecond;
+    }
+
+    /**
+     * Order paid now, -1 if the order created PAID_AFTER_SECONDS ago is one that expires
+     */
+    private long paidOrder() {
+        long paid = nextOrder - (long) PAID_AFTER_SECONDS * ordersPerSecond;
+        return paid >= 0 && paid % 10 != 0 ? paid : -1;
+    }
+}
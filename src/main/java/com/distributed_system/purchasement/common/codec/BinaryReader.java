@@ -0,0 +1,101 @@
+package com.distributed_system.purchasement.common.codec;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Reader for the format produced by BinaryWriter
+ */
+final class BinaryReader {
+
+    private final byte[] buffer;
+    private int position;
+
+    BinaryReader(byte[] buffer) {
+        this.buffer = buffer;
+    }
+
+    int readByte() {
+        check(1);
+        return buffer[position++] & 0xFF;
+    }
+
+    int readVarInt() {
+        int result = 0;
+        for (int shift = 0; shift < 32; shift += 7) {
+            int b = readByte();
+            result |= (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                return result;
+            }
+        }
+        throw new IllegalArgumentException("Malformed varint");
+    }
+
+    long readVarLong() {
+        long result = 0;
+        for (int shift = 0; shift < 64; shift += 7) {
+            int b = readByte();
+            result |= (long) (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                return result;
+            }
+        }
+        throw new IllegalArgumentException("Malformed varlong");
+    }
+
+    int readZigZagInt() {
+        int value = readVarInt();
+        return (value >>> 1) ^ -(value & 1);
+    }
+
+    long readZigZagLong() {
+        long value = readVarLong();
+        return (value >>> 1) ^ -(value & 1);
+    }
+
+    Long readNullableLong() {
+        return readByte() == 0 ? null : readZigZagLong();
+    }
+
+    String readString() {
+        int length = readVarInt() - 1;
+        if (length < 0) {
+            return null;
+        }
+        check(length);
+        String value = new String(buffer, position, length, StandardCharsets.UTF_8);
+        position += length;
+        return value;
+    }
+
+    BigDecimal readDecimal() {
+        int tag = readByte();
+        switch (tag) {
+            case 0:
+                return null;
+            case 1: {
+                int scale = readZigZagInt();
+                return BigDecimal.valueOf(readZigZagLong(), scale);
+            }
+            case 2: {
+                int scale = readZigZagInt();
+                int length = readVarInt();
+                check(length);
+                byte[] bytes = new byte[length];
+                System.arraycopy(buffer, position, bytes, 0, length);
+                position += length;
+                return new BigDecimal(new BigInteger(bytes), scale);
+            }
+            default:
+                throw new IllegalArgumentException("Unknown decimal tag " + tag);
+        }
+    }
+
+    private void check(int length) {
+        if (length < 0 || position + length > buffer.length) {
+            throw new IllegalArgumentException("Truncated event payload");
+        }
+    }
+}
@@ -0,0 +1,225 @@
+package com.distributed_system.purchasement.common.codec;
+
+import com.distributed_system.purchasement.common.event.BaseEvent;
+import com.distributed_system.purchasement.common.event.OrderEvent;
+import com.distributed_system.purchasement.common.event.PaymentEvent;
+import com.distributed_system.purchasement.common.event.UserEvent;
+
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Schema-versioned binary codec for the BaseEvent hierarchy
+ *
+ * Layout: magic | type | version | base fields | type specific fields
+ * - Integers are varints (zigzag for signed values), strings are length-prefixed UTF-8
+ * - LocalDateTime is epoch seconds + nanos, BigDecimal is scale + unscaled long
+ * - version is BaseEvent.version, decode() dispatches on it for schema evolution
+ *
+ * Encoding reuses a per-thread buffer, decoding calls constructors and setters directly (no reflection).
+ */
+public final class EventBinaryCodec {
+
+    public static final byte MAGIC = (byte) 0xE7;
+    public static final int CURRENT_VERSION = 1;
+
+    // ==================== Type Ids ====================
+    private static final int TYPE_USER = 1;
+    private static final int TYPE_ORDER = 2;
+    private static final int TYPE_PAYMENT = 3;
+
+    private static final int INITIAL_BUFFER_SIZE = 512;
+    private static final int MAX_RETAINED_BUFFER_SIZE = 64 * 1024;
+
+    private static final ThreadLocal<BinaryWriter> WRITER =
+            ThreadLocal.withInitial(() -> new BinaryWriter(INITIAL_BUFFER_SIZE));
+
+    private EventBinaryCodec() {
+        // Prevent instantiation
+    }
+
+    /**
+     * Whether the event type has a binary schema
+     */
+    public static boolean supports(Object value) {
+        return value instanceof UserEvent || value instanceof OrderEvent || value instanceof PaymentEvent;
+    }
+
+    // ==================== Encode ====================
+
+    public static byte[] encode(BaseEvent event) {
+        BinaryWriter writer = WRITER.get();
+        writer.reset();
+
+        writer.writeByte(MAGIC);
+        if (event instanceof UserEvent userEvent) {
+            writer.writeByte(TYPE_USER);
+            writeBase(writer, event);
+            writeUser(writer, userEvent);
+        } else if (event instanceof OrderEvent orderEvent) {
+            writer.writeByte(TYPE_ORDER);
+            writeBase(writer, event);
+            writeOrder(writer, orderEvent);
+        } else if (event instanceof PaymentEvent paymentEvent) {
+            writer.writeByte(TYPE_PAYMENT);
+            writeBase(writer, event);
+            writePayment(writer, paymentEvent);
+        } else {
+            throw new IllegalArgumentException("No binary schema for " + event.getClass().getName());
+        }
+
+        byte[] bytes = writer.toByteArray();
+        if (writer.size() > MAX_RETAINED_BUFFER_SIZE) {
+            // Do not keep an oversized buffer alive on this thread
+            WRITER.remove();
+        }
+        return bytes;
+    }
+
+    private static void writeBase(BinaryWriter writer, BaseEvent event) {
+        writer.writeVarInt(event.getVersion() > 0 ? event.getVersion() : CURRENT_VERSION);
+        writer.writeString(event.getEventId());
+        writer.writeString(event.getEventType());
+        LocalDateTime timestamp = event.getTimestamp();
+        if (timestamp == null) {
+            writer.writeByte(0);
+        } else {
+            writer.writeByte(1);
+            writer.writeZigZagLong(timestamp.toEpochSecond(ZoneOffset.UTC));
+            writer.writeVarInt(timestamp.getNano());
+        }
+        writer.writeString(event.getSource());
+        writer.writeString(event.getCorrelationId());
+    }
+
+    private static void writeUser(BinaryWriter writer, UserEvent event) {
+        writer.writeNullableLong(event.getUserId());
+        writer.writeString(event.getUsername());
+        writer.writeString(event.getEmail());
+        writer.writeZigZagInt(event.getAge());
+        writer.writeString(event.getAction());
+    }
+
+    private static void writeOrder(BinaryWriter writer, OrderEvent event) {
+        writer.writeNullableLong(event.getOrderId());
+        writer.writeNullableLong(event.getUserId());
+        List<OrderEvent.OrderItem> items = event.getItems();
+        if (items == null) {
+            writer.writeVarInt(0);
+        } else {
+            writer.writeVarInt(items.size() + 1);
+            for (OrderEvent.OrderItem item : items) {
+                writer.writeNullableLong(item.getProductId());
+                writer.writeString(item.getProductName());
+                writer.writeZigZagInt(item.getQuantity());
+                writer.writeDecimal(item.getPrice());
+            }
+        }
+        writer.writeDecimal(event.getTotalAmount());
+        writer.writeString(event.getStatus());
+        writer.writeString(event.getAction());
+    }
+
+    private static void writePayment(BinaryWriter writer, PaymentEvent event) {
+        writer.writeNullableLong(event.getPaymentId());
+        writer.writeNullableLong(event.getOrderId());
+        writer.writeNullableLong(event.getUserId());
+        writer.writeDecimal(event.getAmount());
+        writer.writeString(event.getCurrency());
+        writer.writeString(event.getPaymentMethod());
+        writer.writeString(event.getStatus());
+        writer.writeString(event.getFailureReason());
+        writer.writeString(event.getTransactionId());
+    }
+
+    // ==================== Decode ====================
+
+    public static BaseEvent decode(byte[] data) {
+        BinaryReader reader = new BinaryReader(data);
+        if ((byte) reader.readByte() != MAGIC) {
+            throw new IllegalArgumentException("Not a binary event payload");
+        }
+        int type = reader.readByte();
+        int version = reader.readVarInt();
+        if (version > CURRENT_VERSION) {
+            throw new IllegalArgumentException("Unsupported event schema version " + version);
+        }
+
+        BaseEvent event;
+        switch (type) {
+            case TYPE_USER:
+                event = new UserEvent();
+                readBase(reader, event, version);
+                readUser(reader, (UserEvent) event);
+                break;
+            case TYPE_ORDER:
+                event = new OrderEvent();
+                readBase(reader, event, version);
+                readOrder(reader, (OrderEvent) event);
+                break;
+            case TYPE_PAYMENT:
+                event = new PaymentEvent();
+                readBase(reader, event, version);
+                readPayment(reader, (PaymentEvent) event);
+                break;
+            default:
+                throw new IllegalArgumentException("Unknown event type id " + type);
+        }
+        return event;
+    }
+
+    private static void readBase(BinaryReader reader, BaseEvent event, int version) {
+        event.setVersion(version);
+        event.setEventId(reader.readString());
+        event.setEventType(reader.readString());
+        if (reader.readByte() == 1) {
+            long epochSecond = reader.readZigZagLong();
+            int nanos = reader.readVarInt();
+            event.setTimestamp(LocalDateTime.ofEpochSecond(epochSecond, nanos, ZoneOffset.UTC));
+        }
+        event.setSource(reader.readString());
+        event.setCorrelationId(reader.readString());
+    }
+
+    private static void readUser(BinaryReader reader, UserEvent event) {
+        event.setUserId(reader.readNullableLong());
+        event.setUsername(reader.readString());
+        event.setEmail(reader.readString());
+        event.setAge(reader.readZigZagInt());
+        event.setAction(reader.readString());
+    }
+
+    private static void readOrder(BinaryReader reader, OrderEvent event) {
+        event.setOrderId(reader.readNullableLong());
+        event.setUserId(reader.readNullableLong());
+        int itemCount = reader.readVarInt() - 1;
+        if (itemCount >= 0) {
+            List<OrderEvent.OrderItem> items = new ArrayList<>(itemCount);
+            for (int i = 0; i < itemCount; i++) {
+                items.add(new OrderEvent.OrderItem(
+                        reader.readNullableLong(),
+                        reader.readString(),
+                        reader.readZigZagInt(),
+                        reader.readDecimal()));
+            }
+            event.setItems(items);
+        }
+        event.setTotalAmount(reader.readDecimal());
+        event.setStatus(reader.readString());
+        event.setAction(reader.readString());
+    }
+
+    private static void readPayment(BinaryReader reader, PaymentEvent event) {
+        event.setPaymentId(reader.readNullableLong());
+        event.setOrderId(reader.readNullableLong());
+        event.setUserId(reader.readNullableLong());
+        event.setAmount(reader.readDecimal());
+        event.setCurrency(reader.readString());
+        event.setPaymentMethod(reader.readString());
+        event.setStatus(reader.readString());
+        event.setFailureReason(reader.readString());
+        event.setTransactionId(reader.readString());
+    }
+}
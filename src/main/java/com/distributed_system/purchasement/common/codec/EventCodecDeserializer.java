@@ -0,0 +1,60 @@
+package com.distributed_system.purchasement.common.codec;
+
+import org.apache.kafka.common.header.Header;
+import org.apache.kafka.common.header.Headers;
+import org.apache.kafka.common.serialization.Deserializer;
+import org.springframework.kafka.support.serializer.JsonDeserializer;
+
+import java.util.Arrays;
+import java.util.Map;
+
+/**
+ * Value deserializer that understands both formats
+ * Binary when the content-type header says so, JSON (type headers) otherwise,
+ * so producers can switch format without a coordinated consumer rollout.
+ */
+public class EventCodecDeserializer implements Deserializer<Object> {
+
+    private static final byte[] BINARY_CONTENT_TYPE_BYTES =
+            EventCodecSerializer.BINARY_CONTENT_TYPE.getBytes(java.nio.charset.StandardCharsets.UTF_8);
+
+    private final JsonDeserializer<Object> jsonDeserializer;
+
+    public EventCodecDeserializer(JsonDeserializer<Object> jsonDeserializer) {
+        this.jsonDeserializer = jsonDeserializer;
+    }
+
+    /**
+     * Whether the record headers mark a binary event payload
+     */
+    public static boolean isBinary(Headers headers) {
+        Header header = headers.lastHeader(EventCodecSerializer.CONTENT_TYPE_HEADER);
+        return header != null && Arrays.equals(header.value(), BINARY_CONTENT_TYPE_BYTES);
+    }
+
+    @Override
+    public void configure(Map<String, ?> configs, boolean isKey) {
+        jsonDeserializer.configure(configs, isKey);
+    }
+
+    @Override
+    public Object deserialize(String topic, byte[] data) {
+        return jsonDeserializer.deserialize(topic, data);
+    }
+
+    @Override
+    public Object deserialize(String topic, Headers headers, byte[] data) {
+        if (data == null) {
+            return null;
+        }
+        if (isBinary(headers)) {
+            return EventBinaryCodec.decode(data);
+        }
+        return jsonDeserializer.deserialize(topic, headers, data);
+    }
+
+    @Override
+    public void close() {
+        jsonDeserializer.close();
+    }
+}
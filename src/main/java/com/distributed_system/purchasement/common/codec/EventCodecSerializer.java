@@ -0,0 +1,63 @@
+package com.distributed_system.purchasement.common.codec;
+
+import com.distributed_system.purchasement.common.event.BaseEvent;
+import org.apache.kafka.common.header.Headers;
+import org.apache.kafka.common.header.internals.RecordHeader;
+import org.apache.kafka.common.serialization.Serializer;
+import org.springframework.kafka.support.serializer.JsonSerializer;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+
+/**
+ * Value serializer: binary codec for events, JSON for everything else
+ * Binary records are marked with a content-type header so consumers can pick the decoder.
+ * byte[] values and LazyPayloads are already serialized (DLQ copies of undeserializable records,
+ * forwarded records) and pass through unchanged.
+ */
+public class EventCodecSerializer implements Serializer<Object> {
+
+    public static final String CONTENT_TYPE_HEADER = "contentType";
+    public static final String BINARY_CONTENT_TYPE = "application/vnd.purchasement.event+binary";
+
+    private static final byte[] BINARY_CONTENT_TYPE_BYTES = BINARY_CONTENT_TYPE.getBytes(StandardCharsets.UTF_8);
+
+    private final JsonSerializer<Object> jsonSerializer;
+    private final boolean binaryEnabled;
+
+    public EventCodecSerializer(JsonSerializer<Object> jsonSerializer, boolean binaryEnabled) {
+        this.jsonSerializer = jsonSerializer;
+        this.binaryEnabled = binaryEnabled;
+    }
+
+    @Override
+    public void configure(Map<String, ?> configs, boolean isKey) {
+        jsonSerializer.configure(configs, isKey);
+    }
+
+    @Override
+    public byte[] serialize(String topic, Object data) {
+        return jsonSerializer.serialize(topic, data);
+    }
+
+    @Override
+    public byte[] serialize(String topic, Headers headers, Object data) {
+        if (data instanceof byte[] raw) {
+            return raw;
+        }
+        if (data instanceof LazyPayload lazy) {
+            return lazy.getBytes();
+        }
+        headers.remove(CONTENT_TYPE_HEADER);
+        if (binaryEnabled && EventBinaryCodec.supports(data)) {
+            headers.add(new RecordHeader(CONTENT_TYPE_HEADER, BINARY_CONTENT_TYPE_BYTES));
+            return EventBinaryCodec.encode((BaseEvent) data);
+        }
+        return jsonSerializer.serialize(topic, headers, data);
+    }
+
+    @Override
+    public void close() {
+        jsonSerializer.close();
+    }
+}
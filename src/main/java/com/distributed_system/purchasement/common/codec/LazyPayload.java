@@ -0,0 +1,83 @@
+package com.distributed_system.purchasement.common.codec;
+
+import org.apache.kafka.common.header.Headers;
+import org.apache.kafka.common.serialization.Deserializer;
+
+/**
+ * Record value that is decoded on first access
+ * Produced by LazyPayloadDeserializer, so filters and routers can look at topic, key and
+ * headers and drop a record without paying for its payload. get() decodes once and caches
+ * the result (or the failure), getBytes() gives the original bytes for forwarding unchanged.
+ */
+public final class LazyPayload {
+
+    private final String topic;
+    private final Headers headers;
+    private final byte[] bytes;
+    private final Deserializer<Object> decoder;
+
+    private volatile boolean decoded;
+    private Object value;
+    private RuntimeException failure;
+
+    public LazyPayload(String topic, Headers headers, byte[] bytes, Deserializer<Object> decoder) {
+        this.topic = topic;
+        this.headers = headers;
+        this.bytes = bytes;
+        this.decoder = decoder;
+    }
+
+    /**
+     * Decoded value, decoding on the first call
+     *
+     * @throws RuntimeException the decoder's exception (again on every call)
+     */
+    public Object get() {
+        if (!decoded) {
+            decode();
+        }
+        if (failure != null) {
+            throw failure;
+        }
+        return value;
+    }
+
+    /**
+     * Whether the payload cannot be decoded (decodes if that was not tried yet)
+     */
+    public boolean isUndecodable() {
+        if (!decoded) {
+            decode();
+        }
+        return failure != null;
+    }
+
+    public byte[] getBytes() {
+        return bytes;
+    }
+
+    /**
+     * The decoded value for a LazyPayload, anything else unchanged
+     */
+    public static Object unwrap(Object value) {
+        return value instanceof LazyPayload lazy ? lazy.get() : value;
+    }
+
+    private synchronized void decode() {
+        if (decoded) {
+            return;
+        }
+        try {
+            value = decoder.deserialize(topic, headers, bytes);
+        } catch (RuntimeException e) {
+            failure = e;
+        }
+        decoded = true;
+    }
+
+    @Override
+    public String toString() {
+        return decoded && failure == null ? String.valueOf(value)
+                : "LazyPayload[" + topic + ", " + (bytes != null ? bytes.length : 0) + " bytes]";
+    }
+}
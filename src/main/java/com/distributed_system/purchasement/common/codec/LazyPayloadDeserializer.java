@@ -0,0 +1,40 @@
+package com.distributed_system.purchasement.common.codec;
+
+import org.apache.kafka.common.header.Headers;
+import org.apache.kafka.common.serialization.Deserializer;
+
+import java.util.Map;
+
+/**
+ * Value deserializer that only wraps the bytes in a LazyPayload
+ * The delegate runs when the payload is first accessed (never for filtered records).
+ * It cannot fail at poll time, so no ErrorHandlingDeserializer is needed.
+ */
+public class LazyPayloadDeserializer implements Deserializer<Object> {
+
+    private final Deserializer<Object> delegate;
+
+    public LazyPayloadDeserializer(Deserializer<Object> delegate) {
+        this.delegate = delegate;
+    }
+
+    @Override
+    public void configure(Map<String, ?> configs, boolean isKey) {
+        delegate.configure(configs, isKey);
+    }
+
+    @Override
+    public Object deserialize(String topic, byte[] data) {
+        return delegate.deserialize(topic, data);
+    }
+
+    @Override
+    public Object deserialize(String topic, Headers headers, byte[] data) {
+        return data == null ? null : new LazyPayload(topic, headers, data, delegate);
+    }
+
+    @Override
+    public void close() {
+        delegate.close();
+    }
+}
@@ -0,0 +1,23 @@
+package com.distributed_system.purchasement.common.codec;
+
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.springframework.kafka.support.KafkaNull;
+import org.springframework.kafka.support.converter.MessagingMessageConverter;
+
+import java.lang.reflect.Type;
+
+/**
+ * Record converter that decodes LazyPayload values when the listener method is invoked
+ * so @Payload parameters receive the event as usual
+ */
+public class LazyPayloadMessageConverter extends MessagingMessageConverter {
+
+    @Override
+    protected Object extractAndConvertValue(ConsumerRecord<?, ?> record, Type type) {
+        if (record.value() instanceof LazyPayload lazy) {
+            Object value = lazy.get();
+            return value != null ? value : KafkaNull.INSTANCE;
+        }
+        return super.extractAndConvertValue(record, type);
+    }
+}
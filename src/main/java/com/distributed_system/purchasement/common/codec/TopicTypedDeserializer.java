@@ -0,0 +1,105 @@
+package com.distributed_system.purchasement.common.codec;
+
+import com.distributed_system.purchasement.common.event.BaseEvent;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import org.apache.kafka.common.errors.SerializationException;
+import org.apache.kafka.common.header.Headers;
+import org.apache.kafka.common.serialization.Deserializer;
+
+import java.io.IOException;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Value deserializer with the event type bound to the topic
+ * - the type never comes from record headers, JSON is read with a precompiled ObjectReader
+ *   per event class, binary payloads with EventBinaryCodec (class checked against the binding)
+ * - retry stage topics ({topic}-retry-{delay}) resolve to their main topic's type
+ * - records without eventId / eventType are rejected (a JSON object of the wrong shape would
+ *   otherwise deserialize to an empty event)
+ * - topics without binding go to the fallback deserializer
+ *
+ * Failures throw SerializationException, wrap in ErrorHandlingDeserializer so they reach the
+ * error handler as DeserializationException instead of failing the poll.
+ */
+public class TopicTypedDeserializer implements Deserializer<Object> {
+
+    private static final String RETRY_INFIX = "-retry-";
+
+    private final Map<String, Binding> bindings = new ConcurrentHashMap<>();
+    private final Map<String, Class<? extends BaseEvent>> topicTypes;
+    private final Deserializer<Object> fallback;
+
+    public TopicTypedDeserializer(Map<String, Class<? extends BaseEvent>> topicTypes, ObjectMapper objectMapper,
+                                  Deserializer<Object> fallback) {
+        this.topicTypes = Map.copyOf(topicTypes);
+        this.fallback = fallback;
+        Map<Class<?>, ObjectReader> readers = new ConcurrentHashMap<>();
+        topicTypes.forEach((topic, type) -> bindings.put(topic,
+                new Binding(type, readers.computeIfAbsent(type, objectMapper::readerFor))));
+    }
+
+    @Override
+    public void configure(Map<String, ?> configs, boolean isKey) {
+        fallback.configure(configs, isKey);
+    }
+
+    @Override
+    public Object deserialize(String topic, byte[] data) {
+        return fallback.deserialize(topic, data);
+    }
+
+    @Override
+    public Object deserialize(String topic, Headers headers, byte[] data) {
+        if (data == null) {
+            return null;
+        }
+        Binding binding = bindings.computeIfAbsent(topic, this::resolve);
+        if (binding == Binding.NONE) {
+            return fallback.deserialize(topic, headers, data);
+        }
+
+        BaseEvent event;
+        if (EventCodecDeserializer.isBinary(headers)) {
+            event = EventBinaryCodec.decode(data);
+        } else {
+            try {
+                event = binding.reader.readValue(data);
+            } catch (IOException e) {
+                throw new SerializationException("Cannot read " + binding.type.getSimpleName()
+                        + " from topic " + topic + ": " + e.getMessage(), e);
+            }
+        }
+        if (!binding.type.isInstance(event)) {
+            throw new SerializationException("Topic " + topic + " expects " + binding.type.getSimpleName()
+                    + " but got " + (event != null ? event.getClass().getSimpleName() : "null"));
+        }
+        if (event.getEventId() == null || event.getEventType() == null) {
+            throw new SerializationException("Record on topic " + topic + " is not a "
+                    + binding.type.getSimpleName() + ": missing eventId or eventType");
+        }
+        return event;
+    }
+
+    @Override
+    public void close() {
+        fallback.close();
+    }
+
+    private Binding resolve(String topic) {
+        int retry = topic.indexOf(RETRY_INFIX);
+        if (retry > 0) {
+            Binding main = bindings.get(topic.substring(0, retry));
+            if (main != null) {
+                return main;
+            }
+        }
+        return topicTypes.containsKey(topic) ? bindings.get(topic) : Binding.NONE;
+    }
+
+    private record Binding(Class<? extends BaseEvent> type, ObjectReader reader) {
+
+        private static final Binding NONE = new Binding(null, null);
+    }
+}
@@ -0,0 +1,73 @@
+package com.distributed_system.purchasement.common.codec;
+
+import com.distributed_system.purchasement.common.event.UserEvent;
+import com.distributed_system.purchasement.common.service.userstate.UserState;
+
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+
+/**
+ * Compact value of the user-state topic (the key is the userId)
+ *
+ * Layout: [version][varlong updatedAt][username][email][zigzag age]
+ * updatedAt comes first so it can be read without decoding the rest.
+ * Version 1 stored the local event timestamp read as UTC, it is converted when read.
+ */
+public final class UserStateCodec {
+
+    private static final int VERSION = 2;
+    private static final int LOCAL_AS_UTC_VERSION = 1;
+    private static final int INITIAL_BUFFER_SIZE = 128;
+
+    private UserStateCodec() {
+        // Prevent instantiation
+    }
+
+    public static byte[] encode(UserEvent event) {
+        BinaryWriter writer = new BinaryWriter(INITIAL_BUFFER_SIZE);
+        writer.writeByte(VERSION);
+        writer.writeVarLong(updatedAt(event));
+        writer.writeString(event.getUsername());
+        writer.writeString(event.getEmail());
+        writer.writeZigZagInt(event.getAge());
+        return writer.toByteArray();
+    }
+
+    public static UserState decode(long userId, byte[] value) {
+        BinaryReader reader = new BinaryReader(value);
+        long updatedAt = readUpdatedAt(reader);
+        String username = reader.readString();
+        String email = reader.readString();
+        int age = reader.readZigZagInt();
+        return new UserState(userId, username, email, age, updatedAt);
+    }
+
+    /**
+     * updatedAt of an encoded state, without decoding the strings
+     */
+    public static long updatedAt(byte[] value) {
+        return readUpdatedAt(new BinaryReader(value));
+    }
+
+    /**
+     * Event time in epoch millis
+     */
+    public static long updatedAt(UserEvent event) {
+        return event.timestampMillis(System.currentTimeMillis());
+    }
+
+    private static long readUpdatedAt(BinaryReader reader) {
+        int version = reader.readByte();
+        long updatedAt = reader.readVarLong();
+        if (version == LOCAL_AS_UTC_VERSION) {
+            LocalDateTime local = LocalDateTime.ofInstant(Instant.ofEpochMilli(updatedAt), ZoneOffset.UTC);
+            return local.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+        }
+        if (version != VERSION) {
+            throw new IllegalArgumentException("Unknown user state version " + version);
+        }
+        return updatedAt;
+    }
+}
@@ -0,0 +1,127 @@
+package com.distributed_system.purchasement.common.collection;
+
+import java.util.Arrays;
+
+/**
+ * Open-addressing hash map from primitive long keys to byte[] values
+ * - one long[] and one byte[][] (LongProbeTable), no entry objects and no boxing
+ * - key 0 is kept outside the table since 0 marks a free slot
+ *
+ * Not thread-safe for writers. A reader may race a writer as long as it validates
+ * afterwards (see UserStateView): the arrays are swapped as one Slots object on resize and a
+ * probe always ends, at worst with a wrong answer that the validation discards.
+ */
+public class LongBytesMap extends LongProbeTable<LongBytesMap.BytesSlots> {
+
+    private byte[] zeroValue;
+
+    public LongBytesMap(int expectedSize) {
+        super(expectedSize);
+    }
+
+    public byte[] get(long key) {
+        if (key == 0) {
+            return zeroValue;
+        }
+        BytesSlots current = slots;
+        int slot = find(current.keys, key);
+        return slot >= 0 ? current.values[slot] : null;
+    }
+
+    /**
+     * @return the previous value, null if there was none
+     */
+    public byte[] put(long key, byte[] value) {
+        if (value == null) {
+            throw new IllegalArgumentException("null value, use remove()");
+        }
+        if (key == 0) {
+            byte[] previous = zeroValue;
+            zeroValue = value;
+            return previous;
+        }
+        int slot = slotFor(key);
+        byte[] previous = slots.values[slot];
+        slots.values[slot] = value;
+        if (slots.keys[slot] != key) {
+            insert(slot, key);
+            return null;
+        }
+        return previous;
+    }
+
+    /**
+     * @return the removed value, null if the key was absent
+     */
+    public byte[] remove(long key) {
+        if (key == 0) {
+            byte[] previous = zeroValue;
+            zeroValue = null;
+            return previous;
+        }
+        int slot = find(slots.keys, key);
+        if (slot < 0) {
+            return null;
+        }
+        byte[] previous = slots.values[slot];
+        removeAt(slot);
+        return previous;
+    }
+
+    public void clear() {
+        clearTable();
+        zeroValue = null;
+    }
+
+    public int size() {
+        return tableSize() + (zeroValue != null ? 1 : 0);
+    }
+
+    /**
+     * Bytes held by the values plus the table arrays (approximate, ignores object headers)
+     */
+    public long memoryBytes() {
+        long bytes = (long) capacity() * (Long.BYTES + 4);
+        for (byte[] value : slots.values) {
+            if (value != null) {
+                bytes += value.length;
+            }
+        }
+        return bytes + (zeroValue != null ? zeroValue.length : 0);
+    }
+
+    @Override
+    BytesSlots newSlots(int capacity) {
+        return new BytesSlots(capacity);
+    }
+
+    static final class BytesSlots extends LongProbeTable.Slots<BytesSlots> {
+
+        private final byte[][] values;
+
+        private BytesSlots(int capacity) {
+            super(capacity);
+            this.values = new byte[capacity][];
+        }
+
+        @Override
+        void move(int from, int to) {
+            values[to] = values[from];
+        }
+
+        @Override
+        void copyTo(int from, BytesSlots target, int to) {
+            target.values[to] = values[from];
+        }
+
+        @Override
+        void clear(int slot) {
+            values[slot] = null;
+        }
+
+        @Override
+        void clearAll() {
+            Arrays.fill(values, null);
+        }
+    }
+}
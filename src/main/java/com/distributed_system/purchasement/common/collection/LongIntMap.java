@@ -0,0 +1,107 @@
+package com.distributed_system.purchasement.common.collection;
+
+import java.util.Arrays;
+
+/**
+ * Open-addressing hash map from primitive long keys to non-negative int values
+ * - one long[] and one int[] (LongProbeTable), no entry objects and no boxing
+ * - key 0 is kept outside the table since 0 marks a free slot
+ *
+ * Not thread-safe, owners guard it (OrderIndex with its lock, TimingWheel with its thread).
+ */
+public class LongIntMap extends LongProbeTable<LongIntMap.IntSlots> {
+
+    public static final int MISSING = -1;
+
+    private int zeroValue = MISSING;
+
+    public LongIntMap(int expectedSize) {
+        super(expectedSize);
+    }
+
+    public int get(long key) {
+        if (key == 0) {
+            return zeroValue;
+        }
+        int slot = find(slots.keys, key);
+        return slot >= 0 ? slots.values[slot] : MISSING;
+    }
+
+    public void put(long key, int value) {
+        if (key == 0) {
+            zeroValue = value;
+            return;
+        }
+        int slot = slotFor(key);
+        slots.values[slot] = value;
+        if (slots.keys[slot] != key) {
+            insert(slot, key);
+        }
+    }
+
+    /**
+     * @return the removed value, MISSING if the key was absent
+     */
+    public int remove(long key) {
+        if (key == 0) {
+            int previous = zeroValue;
+            zeroValue = MISSING;
+            return previous;
+        }
+        int slot = find(slots.keys, key);
+        if (slot < 0) {
+            return MISSING;
+        }
+        int previous = slots.values[slot];
+        removeAt(slot);
+        return previous;
+    }
+
+    public void clear() {
+        clearTable();
+        zeroValue = MISSING;
+    }
+
+    public int size() {
+        return tableSize() + (zeroValue != MISSING ? 1 : 0);
+    }
+
+    public long memoryBytes() {
+        return (long) capacity() * (Long.BYTES + Integer.BYTES);
+    }
+
+    @Override
+    IntSlots newSlots(int capacity) {
+        return new IntSlots(capacity);
+    }
+
+    static final class IntSlots extends LongProbeTable.Slots<IntSlots> {
+
+        private final int[] values;
+
+        private IntSlots(int capacity) {
+            super(capacity);
+            this.values = new int[capacity];
+        }
+
+        @Override
+        void move(int from, int to) {
+            values[to] = values[from];
+        }
+
+        @Override
+        void copyTo(int from, IntSlots target, int to) {
+            target.values[to] = values[from];
+        }
+
+        @Override
+        void clear(int slot) {
+            // int values need no clearing, the key marks the slot free
+        }
+
+        @Override
+        void clearAll() {
+            Arrays.fill(values, 0);
+        }
+    }
+}
@@ -0,0 +1,171 @@
+package com.distributed_system.purchasement.common.collection;
+
+import java.util.Arrays;
+
+/**
+ * Open-addressing core shared by the primitive long-keyed maps (LongIntMap, LongBytesMap)
+ * - keys in a long[], values in the map's own arrays next to it: both live in one Slots object
+ *   that is swapped as a whole on resize, so a reader that grabbed it sees matching arrays
+ * - linear probing, backward-shift deletion (no tombstones), resize at 3/4 load
+ * - key 0 marks a free slot, the maps keep it outside the table
+ *
+ * Not thread-safe, see the maps for what their readers may do.
+ */
+abstract class LongProbeTable<S extends LongProbeTable.Slots<S>> {
+
+    private static final float LOAD_FACTOR = 0.75f;
+
+    /**
+     * Key array plus the value storage of one map, same capacity
+     */
+    abstract static class Slots<S extends Slots<S>> {
+
+        final long[] keys;
+        final int threshold;
+
+        Slots(int capacity) {
+            this.keys = new long[capacity];
+            this.threshold = (int) (capacity * LOAD_FACTOR);
+        }
+
+        /**
+         * Move the value of slot from to slot to (backward shift)
+         */
+        abstract void move(int from, int to);
+
+        /**
+         * Copy the value of slot from into slot to of a resized table
+         */
+        abstract void copyTo(int from, S target, int to);
+
+        abstract void clear(int slot);
+
+        abstract void clearAll();
+    }
+
+    S slots;
+    private int tableSize;
+
+    LongProbeTable(int expectedSize) {
+        this.slots = newSlots(capacityFor(expectedSize));
+    }
+
+    abstract S newSlots(int capacity);
+
+    /**
+     * @return the slot holding key, -1 if absent (key must not be 0)
+     */
+    static int find(long[] keys, long key) {
+        int mask = keys.length - 1;
+        for (int slot = mix(key) & mask; ; slot = (slot + 1) & mask) {
+            long candidate = keys[slot];
+            if (candidate == key) {
+                return slot;
+            }
+            if (candidate == 0) {
+                return -1;
+            }
+        }
+    }
+
+    /**
+     * @return the slot holding key, or the free slot where it goes (check keys[slot] == key)
+     */
+    final int slotFor(long key) {
+        long[] keys = slots.keys;
+        int mask = keys.length - 1;
+        int slot = mix(key) & mask;
+        while (keys[slot] != 0 && keys[slot] != key) {
+            slot = (slot + 1) & mask;
+        }
+        return slot;
+    }
+
+    /**
+     * Claim the free slot returned by slotFor, after its value is set
+     * (value before key: a racing reader that finds the key also finds its value)
+     */
+    final void insert(int slot, long key) {
+        slots.keys[slot] = key;
+        if (++tableSize > slots.threshold) {
+            resize(slots.keys.length << 1);
+        }
+    }
+
+    /**
+     * Empty a slot found by find / slotFor, moving later entries of its probe chain back
+     */
+    final void removeAt(int slot) {
+        S current = slots;
+        long[] keys = current.keys;
+        int mask = keys.length - 1;
+        int gap = slot;
+        int next = (gap + 1) & mask;
+        while (keys[next] != 0) {
+            int home = mix(keys[next]) & mask;
+            // Entry may move if its home is not within (gap, next]
+            if (((next - home) & mask) >= ((next - gap) & mask)) {
+                keys[gap] = keys[next];
+                current.move(next, gap);
+                gap = next;
+            }
+            next = (next + 1) & mask;
+        }
+        keys[gap] = 0;
+        current.clear(gap);
+        tableSize--;
+    }
+
+    final void clearTable() {
+        Arrays.fill(slots.keys, 0);
+        slots.clearAll();
+        tableSize = 0;
+    }
+
+    /**
+     * Entries in the table (without the key 0 entry the maps hold outside)
+     */
+    final int tableSize() {
+        return tableSize;
+    }
+
+    final int capacity() {
+        return slots.keys.length;
+    }
+
+    private void resize(int capacity) {
+        S old = slots;
+        S resized = newSlots(capacity);
+        int mask = capacity - 1;
+        for (int i = 0; i < old.keys.length; i++) {
+            long key = old.keys[i];
+            if (key != 0) {
+                int slot = mix(key) & mask;
+                while (resized.keys[slot] != 0) {
+                    slot = (slot + 1) & mask;
+                }
+                resized.keys[slot] = key;
+                old.copyTo(i, resized, slot);
+            }
+        }
+        slots = resized;
+    }
+
+    private static int capacityFor(int expectedSize) {
+        int needed = (int) Math.ceil(Math.max(16, expectedSize) / LOAD_FACTOR);
+        return Integer.highestOneBit(needed - 1) << 1;
+    }
+
+    /**
+     * Spread sequential ids over the table (murmur3 finalizer)
+     */
+    private static int mix(long key) {
+        long h = key;
+        h ^= h >>> 33;
+        h *= 0xff51afd7ed558ccdL;
+        h ^= h >>> 33;
+        h *= 0xc4ceb9fe1a85ec53L;
+        h ^= h >>> 33;
+        return (int) h;
+    }
+}
@@ -1,32 +1,63 @@
 package com.distributed_system.purchasement.common.config;
 
+import com.distributed_system.purchasement.common.codec.EventCodecDeserializer;
+import com.distributed_system.purchasement.common.codec.EventCodecSerializer;
+import com.distributed_system.purchasement.common.codec.LazyPayloadDeserializer;
+import com.distributed_system.purchasement.common.codec.LazyPayloadMessageConverter;
+import com.distributed_system.purchasement.common.codec.TopicTypedDeserializer;
+import com.distributed_system.purchasement.common.constant.KafkaTopics;
+import com.distributed_system.purchasement.common.event.BaseEvent;
+import com.distributed_system.purchasement.common.event.OrderEvent;
+import com.distributed_system.purchasement.common.event.PaymentEvent;
+import com.distributed_system.purchasement.common.event.UserEvent;
+import com.distributed_system.purchasement.common.service.kafka.AggregateKeyStrategy;
+import com.distributed_system.purchasement.common.service.kafka.EventKeyStrategy;
+import com.distributed_system.purchasement.common.service.kafka.KeyOrderedBatchListener;
+import com.distributed_system.purchasement.common.service.kafka.RetryTopicRouter;
+import com.distributed_system.purchasement.common.service.kafka.UserCoPartitionKeyStrategy;
+import com.distributed_system.purchasement.common.service.kafka.VirtualThreads;
+import com.distributed_system.purchasement.common.service.kafka.commit.CoordinatedAckListener;
+import com.distributed_system.purchasement.common.service.kafka.commit.OffsetCommitCoordinator;
+import com.distributed_system.purchasement.common.service.kafka.filter.EventTypeRecordFilter;
+import com.distributed_system.purchasement.common.service.kafka.metrics.KafkaLatencyMetrics;
+import io.micrometer.core.instrument.MeterRegistry;
 import lombok.extern.slf4j.Slf4j;
 import org.apache.kafka.clients.consumer.ConsumerConfig;
 import org.apache.kafka.clients.producer.ProducerConfig;
+import org.apache.kafka.common.serialization.ByteArrayDeserializer;
+import org.apache.kafka.common.serialization.ByteArraySerializer;
 import org.apache.kafka.common.serialization.StringDeserializer;
 import org.apache.kafka.common.serialization.StringSerializer;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
 import org.springframework.kafka.config.ConcurrentKafkaListenerContainerFactory;
 import org.springframework.kafka.core.*;
 import org.springframework.kafka.listener.CommonErrorHandler;
 import org.springframework.kafka.listener.ContainerProperties;
 import org.springframework.kafka.listener.DeadLetterPublishingRecoverer;
 import org.springframework.kafka.listener.DefaultErrorHandler;
+import org.springframework.kafka.support.JacksonUtils;
+import org.springframework.kafka.support.serializer.ErrorHandlingDeserializer;
 import org.springframework.kafka.support.serializer.JsonDeserializer;
 import org.springframework.kafka.support.serializer.JsonSerializer;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
 import org.springframework.util.backoff.FixedBackOff;
 
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ExecutorService;
 
 /**
  * Enhanced Kafka Configuration with:
  * - Producer with retries and idempotence
  * - Consumer with manual acknowledgment
- * - Error handling with retry and DLQ
+ * - Error handling with retry topics and DLQ
  * - Batch processing support
+ * - Key-ordered parallel processing
  */
 @Slf4j
 @Configuration
@@ -38,9 +69,49 @@ public class KafkaConfig {
     @Value("${spring.kafka.consumer.group-id:purchasement-group}")
     private String consumerGroupId;
 
+    @Value("${kafka.serialization.format:binary}")
+    private String serializationFormat;
+
+    @Value("${kafka.producer.key-strategy:aggregate}")
+    private String keyStrategy;
+
+    @Value("${kafka.producer.spool.enabled:false}")
+    private boolean spoolEnabled;
+
+    @Value("${kafka.producer.spool.max-block-ms:200}")
+    private long spoolMaxBlockMs;
+
+    @Value("${kafka.producer.spool.delivery-timeout-ms:35000}")
+    private int spoolDeliveryTimeoutMs;
+
+    @Value("${kafka.transaction.isolation-level:read_committed}")
+    private String isolationLevel;
+
+    @Value("${kafka.listener.concurrency:3}")
+    private int listenerConcurrency;
+
+    @Value("${kafka.listener.commit.enabled:true}")
+    private boolean coordinatedCommits;
+
+    @Value("${kafka.listener.filter.ignored-event-types:}")
+    private String ignoredEventTypes;
+
+    @Value("${kafka.dlq.store.max-poll-records:500}")
+    private int dlqMaxPollRecords;
+
+    @Value("${kafka.dlq.store.retry-interval-ms:5000}")
+    private long dlqRetryIntervalMs;
+
+    @Value("${kafka.listener.key-ordered.workers:16}")
+    private int keyOrderedWorkers;
+
+    @Value("${kafka.listener.virtual-threads.max-in-flight-per-partition:50}")
+    private int virtualMaxInFlightPerPartition;
+
     // ==================== Producer Configuration ====================
 
     @Bean
+    @Primary
     public ProducerFactory<String, Object> producerFactory() {
         Map<String, Object> config = new HashMap<>();
 
@@ -49,9 +120,9 @@ public class KafkaConfig {
 
         // Serializers
         config.put(ProducerConfig.KEY_SERIALIZER_CLASS_CONFIG, StringSerializer.class);
-        config.put(ProducerConfig.VALUE_SERIALIZER_CLASS_CONFIG, JsonSerializer.class);
+        config.put(ProducerConfig.VALUE_SERIALIZER_CLASS_CONFIG, EventCodecSerializer.class);
 
-        // Add type information to headers for proper deserialization
+        // Add type information to headers for proper deserialization (JSON payloads)
         config.put(JsonSerializer.ADD_TYPE_INFO_HEADERS, true);
 
         // Reliability settings
@@ -72,10 +143,20 @@ public class KafkaConfig {
         config.put(ProducerConfig.REQUEST_TIMEOUT_MS_CONFIG, 30000); // 30 seconds
         config.put(ProducerConfig.DELIVERY_TIMEOUT_MS_CONFIG, 120000); // 2 minutes
 
-        return new DefaultKafkaProducerFactory<>(config);
+        // With the disk spool, fail fast instead of blocking callers, failed sends get spooled
+        if (spoolEnabled) {
+            config.put(ProducerConfig.MAX_BLOCK_MS_CONFIG, spoolMaxBlockMs);
+            config.put(ProducerConfig.DELIVERY_TIMEOUT_MS_CONFIG, spoolDeliveryTimeoutMs);
+        }
+
+        // Events use the binary codec (kafka.serialization.format=binary), anything else stays JSON
+        boolean binaryEvents = "binary".equalsIgnoreCase(serializationFormat);
+        return new DefaultKafkaProducerFactory<>(config, new StringSerializer(),
+                new EventCodecSerializer(new JsonSerializer<>(), binaryEvents));
     }
 
     @Bean
+    @Primary
     public KafkaTemplate<String, Object> kafkaTemplate() {
         KafkaTemplate<String, Object> template = new KafkaTemplate<>(producerFactory());
         // Set default topic (optional)
@@ -83,6 +164,40 @@ public class KafkaConfig {
         return template;
     }
 
+    /**
+     * Producer factory for already serialized records (disk spool drain, DLQ replay)
+     * A bean of its own so the context flushes and closes its producer on shutdown.
+     */
+    @Bean
+    public DefaultKafkaProducerFactory<byte[], byte[]> byteArrayProducerFactory(
+            ProducerFactory<String, Object> producerFactory) {
+        Map<String, Object> config = new HashMap<>(producerFactory.getConfigurationProperties());
+        return new DefaultKafkaProducerFactory<>(config, new ByteArraySerializer(), new ByteArraySerializer());
+    }
+
+    @Bean
+    public KafkaTemplate<byte[], byte[]> byteArrayKafkaTemplate(
+            @Qualifier("byteArrayProducerFactory")
+            DefaultKafkaProducerFactory<byte[], byte[]> byteArrayProducerFactory) {
+        return new KafkaTemplate<>(byteArrayProducerFactory);
+    }
+
+    /**
+     * Record key strategy for events
+     * - aggregate: orderId / userId / orderId (per-aggregate ordering)
+     * - user: userId for everything (co-partitioned user, order and payment streams)
+     */
+    @Bean
+    public EventKeyStrategy eventKeyStrategy() {
+        if ("user".equalsIgnoreCase(keyStrategy)) {
+            return new UserCoPartitionKeyStrategy();
+        }
+        if (!"aggregate".equalsIgnoreCase(keyStrategy)) {
+            log.warn("Unknown key strategy '{}', falling back to aggregate", keyStrategy);
+        }
+        return new AggregateKeyStrategy();
+    }
+
     // ==================== Consumer Configuration ====================
 
     @Bean
@@ -94,7 +209,7 @@ public class KafkaConfig {
 
         // Deserializers
         config.put(ConsumerConfig.KEY_DESERIALIZER_CLASS_CONFIG, StringDeserializer.class);
-        config.put(ConsumerConfig.VALUE_DESERIALIZER_CLASS_CONFIG, JsonDeserializer.class);
+        config.put(ConsumerConfig.VALUE_DESERIALIZER_CLASS_CONFIG, ErrorHandlingDeserializer.class);
 
         // Consumer group
         config.put(ConsumerConfig.GROUP_ID_CONFIG, consumerGroupId);
@@ -103,31 +218,72 @@ public class KafkaConfig {
         config.put(ConsumerConfig.AUTO_OFFSET_RESET_CONFIG, "earliest"); // Start from beginning if no offset
         config.put(ConsumerConfig.ENABLE_AUTO_COMMIT_CONFIG, false); // Manual commit for reliability
 
+        // Skip records of aborted transactions (transactional listeners, kafka.transaction.*)
+        config.put(ConsumerConfig.ISOLATION_LEVEL_CONFIG, isolationLevel);
+
         // Performance tuning
         config.put(ConsumerConfig.MAX_POLL_RECORDS_CONFIG, 500); // Max records per poll
         config.put(ConsumerConfig.MAX_POLL_INTERVAL_MS_CONFIG, 300000); // 5 minutes max processing time
         config.put(ConsumerConfig.SESSION_TIMEOUT_MS_CONFIG, 30000); // 30 seconds session timeout
         config.put(ConsumerConfig.HEARTBEAT_INTERVAL_MS_CONFIG, 10000); // 10 seconds heartbeat
 
-        // JSON deserializer settings
-        config.put(JsonDeserializer.TRUSTED_PACKAGES, "*");
-        config.put(JsonDeserializer.USE_TYPE_INFO_HEADERS, true);
+        // A record that cannot be deserialized reaches the error handler as DeserializationException
+        // (quarantined straight to the DLQ by RetryTopicRouter) instead of failing every poll
+        return new DefaultKafkaConsumerFactory<>(config, new StringDeserializer(),
+                new ErrorHandlingDeserializer<>(typedValueDeserializer()));
+    }
 
-        // Create deserializer
-        JsonDeserializer<Object> deserializer = new JsonDeserializer<>();
-        deserializer.addTrustedPackages("*");
+    /**
+     * Consumer factory whose values are LazyPayloads, decoded only when a listener reads them
+     */
+    @Bean
+    public ConsumerFactory<String, Object> lazyConsumerFactory() {
+        return new DefaultKafkaConsumerFactory<>(consumerFactory().getConfigurationProperties(),
+                new StringDeserializer(), new LazyPayloadDeserializer(typedValueDeserializer()));
+    }
 
-        return new DefaultKafkaConsumerFactory<>(config, new StringDeserializer(), deserializer);
+    /**
+     * Event topics: type bound per topic, never taken from headers. Other topics: JSON with
+     * type headers, restricted to our event package (binary events by content-type header)
+     */
+    private TopicTypedDeserializer typedValueDeserializer() {
+        JsonDeserializer<Object> jsonDeserializer = new JsonDeserializer<>();
+        jsonDeserializer.addTrustedPackages(BaseEvent.class.getPackageName());
+        return new TopicTypedDeserializer(eventTopicTypes(),
+                JacksonUtils.enhancedObjectMapper(), new EventCodecDeserializer(jsonDeserializer));
+    }
+
+    /**
+     * Event class of every business topic (retry stages inherit the binding)
+     */
+    private static Map<String, Class<? extends BaseEvent>> eventTopicTypes() {
+        Map<String, Class<? extends BaseEvent>> types = new HashMap<>();
+        for (String topic : List.of(KafkaTopics.USER_CREATED, KafkaTopics.USER_UPDATED, KafkaTopics.USER_DELETED)) {
+            types.put(topic, UserEvent.class);
+        }
+        for (String topic : List.of(KafkaTopics.ORDER_CREATED, KafkaTopics.ORDER_UPDATED,
+                KafkaTopics.ORDER_CANCELLED, KafkaTopics.ORDER_COMPLETED)) {
+            types.put(topic, OrderEvent.class);
+        }
+        for (String topic : List.of(KafkaTopics.PAYMENT_INITIATED, KafkaTopics.PAYMENT_COMPLETED,
+                KafkaTopics.PAYMENT_FAILED)) {
+            types.put(topic, PaymentEvent.class);
+        }
+        return types;
     }
 
     // ==================== Listener Container Factory ====================
 
     /**
      * Default listener factory with manual acknowledgment and error handling
+     * Acknowledgments go through the OffsetCommitCoordinator (batched commitAsync) unless
+     * kafka.listener.commit.enabled=false, then every acknowledge() is a commitSync.
      */
     @Bean
     public ConcurrentKafkaListenerContainerFactory<String, Object> kafkaListenerContainerFactory(
-            KafkaTemplate<String, Object> kafkaTemplate) {
+            RetryTopicRouter retryTopicRouter,
+            KafkaLatencyMetrics kafkaLatencyMetrics,
+            OffsetCommitCoordinator offsetCommitCoordinator) {
 
         ConcurrentKafkaListenerContainerFactory<String, Object> factory =
                 new ConcurrentKafkaListenerContainerFactory<>();
@@ -137,21 +293,84 @@ public class KafkaConfig {
         // Manual acknowledgment mode
         factory.getContainerProperties().setAckMode(ContainerProperties.AckMode.MANUAL_IMMEDIATE);
 
-        // Concurrency - number of consumer threads
-        factory.setConcurrency(3);
+        // Concurrency - initial number of consumer threads (ListenerConcurrencyAutoscaler may change it)
+        factory.setConcurrency(listenerConcurrency);
+
+        // Error handler with retry topics and DLQ
+        factory.setCommonErrorHandler(errorHandler(retryTopicRouter));
+
+        if (!coordinatedCommits) {
+            // Queue / handler latency timers
+            factory.setContainerCustomizer(container ->
+                    container.setupMessageListener(kafkaLatencyMetrics.instrument(container)));
+            return factory;
+        }
 
-        // Error handler with retry and DLQ
-        factory.setCommonErrorHandler(errorHandler(kafkaTemplate));
+        // MANUAL_IMMEDIATE stays so the error handler still commits recovered records itself,
+        // the container never sees the listener's acknowledgments
+        factory.getContainerProperties().setConsumerRebalanceListener(offsetCommitCoordinator);
+        factory.getContainerProperties().setIdleEventInterval(offsetCommitCoordinator.getCommitIntervalMs());
+        factory.setContainerCustomizer(container -> container.setupMessageListener(
+                new CoordinatedAckListener(kafkaLatencyMetrics.instrument(container), offsetCommitCoordinator)));
 
         return factory;
     }
 
+    /**
+     * Record listener factory with header pre-filtering and lazy payloads
+     * Same behaviour as kafkaListenerContainerFactory, but records dropped by the
+     * EventTypeRecordFilter are acknowledged without ever decoding their value.
+     */
+    @Bean
+    public ConcurrentKafkaListenerContainerFactory<String, Object> lazyKafkaListenerContainerFactory(
+            RetryTopicRouter retryTopicRouter,
+            KafkaLatencyMetrics kafkaLatencyMetrics,
+            OffsetCommitCoordinator offsetCommitCoordinator,
+            EventTypeRecordFilter eventTypeRecordFilter) {
+
+        ConcurrentKafkaListenerContainerFactory<String, Object> factory =
+                new ConcurrentKafkaListenerContainerFactory<>();
+
+        factory.setConsumerFactory(lazyConsumerFactory());
+        factory.getContainerProperties().setAckMode(ContainerProperties.AckMode.MANUAL_IMMEDIATE);
+        factory.setConcurrency(listenerConcurrency);
+        factory.setCommonErrorHandler(errorHandler(retryTopicRouter));
+
+        // Filter on headers first, decode the payload only for @Payload parameters of kept records
+        factory.setRecordFilterStrategy(eventTypeRecordFilter);
+        factory.setAckDiscarded(true);
+        factory.setRecordMessageConverter(new LazyPayloadMessageConverter());
+
+        if (!coordinatedCommits) {
+            factory.setContainerCustomizer(container ->
+                    container.setupMessageListener(kafkaLatencyMetrics.instrument(container)));
+            return factory;
+        }
+        factory.getContainerProperties().setConsumerRebalanceListener(offsetCommitCoordinator);
+        factory.getContainerProperties().setIdleEventInterval(offsetCommitCoordinator.getCommitIntervalMs());
+        factory.setContainerCustomizer(container -> container.setupMessageListener(
+                new CoordinatedAckListener(kafkaLatencyMetrics.instrument(container), offsetCommitCoordinator)));
+
+        return factory;
+    }
+
+    /**
+     * Header filter of the lazy listener factory (kafka.listener.filter.ignored-event-types)
+     * Dispatcher containers take restricted copies of it (KafkaDispatcherConfig).
+     */
+    @Bean
+    public EventTypeRecordFilter eventTypeRecordFilter(MeterRegistry meterRegistry) {
+        return new EventTypeRecordFilter(List.of(ignoredEventTypes.split(",")))
+                .bindTo(meterRegistry, "lazy-factory");
+    }
+
     /**
      * Batch listener factory for high-throughput processing
      */
     @Bean
     public ConcurrentKafkaListenerContainerFactory<String, Object> batchKafkaListenerContainerFactory(
-            KafkaTemplate<String, Object> kafkaTemplate) {
+            RetryTopicRouter retryTopicRouter,
+            KafkaLatencyMetrics kafkaLatencyMetrics) {
 
         ConcurrentKafkaListenerContainerFactory<String, Object> factory =
                 new ConcurrentKafkaListenerContainerFactory<>();
@@ -159,25 +378,111 @@ public class KafkaConfig {
         factory.setConsumerFactory(consumerFactory());
         factory.setBatchListener(true); // Enable batch processing
         factory.getContainerProperties().setAckMode(ContainerProperties.AckMode.MANUAL_IMMEDIATE);
-        factory.setConcurrency(3);
-        factory.setCommonErrorHandler(errorHandler(kafkaTemplate));
+        factory.setConcurrency(listenerConcurrency);
+        factory.setCommonErrorHandler(errorHandler(retryTopicRouter));
+        factory.setContainerCustomizer(container ->
+                container.setupMessageListener(kafkaLatencyMetrics.instrument(container)));
 
         return factory;
     }
 
     /**
-     * Listener factory without DLQ (for DLQ consumer itself)
+     * Key-ordered parallel listener factory
+     * Polls a batch and fans records out to a worker pool by record key (aggregate id):
+     * same key -> in order, different keys -> concurrently. Listener methods keep their
+     * single-record signature, select it with containerFactory = "keyOrderedKafkaListenerContainerFactory".
      */
     @Bean
-    public ConcurrentKafkaListenerContainerFactory<String, Object> dlqKafkaListenerContainerFactory() {
+    public ConcurrentKafkaListenerContainerFactory<String, Object> keyOrderedKafkaListenerContainerFactory(
+            RetryTopicRouter retryTopicRouter,
+            ThreadPoolTaskExecutor keyOrderedListenerExecutor,
+            KafkaLatencyMetrics kafkaLatencyMetrics) {
+
         ConcurrentKafkaListenerContainerFactory<String, Object> factory =
                 new ConcurrentKafkaListenerContainerFactory<>();
 
         factory.setConsumerFactory(consumerFactory());
         factory.getContainerProperties().setAckMode(ContainerProperties.AckMode.MANUAL_IMMEDIATE);
+        factory.setConcurrency(listenerConcurrency);
+        factory.setCommonErrorHandler(errorHandler(retryTopicRouter));
 
-        // Simple error handler without DLQ (to avoid infinite loop)
-        factory.setCommonErrorHandler(new DefaultErrorHandler(new FixedBackOff(1000L, 2L)));
+        // Replace the record listener with the key-ordered batch wrapper (failures go to the retry topics),
+        // the timed record listener inside measures each record on its worker
+        factory.setContainerCustomizer(container -> container.setupMessageListener(
+                new KeyOrderedBatchListener(kafkaLatencyMetrics.instrument(container),
+                        keyOrderedListenerExecutor, retryTopicRouter)));
+
+        return factory;
+    }
+
+    /**
+     * Worker pool shared by all key-ordered listener containers
+     */
+    @Bean
+    public ThreadPoolTaskExecutor keyOrderedListenerExecutor() {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(keyOrderedWorkers);
+        executor.setMaxPoolSize(keyOrderedWorkers);
+        executor.setThreadNamePrefix("key-ordered-");
+        executor.setWaitForTasksToCompleteOnShutdown(true);
+        return executor;
+    }
+
+    /**
+     * Virtual-thread listener factory for blocking listeners (DB / HTTP calls)
+     * Same key-ordered semantics as above, but every lane runs on its own virtual thread and
+     * at most max-in-flight-per-partition lanes of one partition run at once.
+     * Needs a Java 21 runtime (build with -Pjava21), otherwise falls back to platform threads.
+     */
+    @Bean
+    public ConcurrentKafkaListenerContainerFactory<String, Object> virtualThreadKafkaListenerContainerFactory(
+            RetryTopicRouter retryTopicRouter,
+            ExecutorService virtualThreadListenerExecutor,
+            KafkaLatencyMetrics kafkaLatencyMetrics) {
+
+        ConcurrentKafkaListenerContainerFactory<String, Object> factory =
+                new ConcurrentKafkaListenerContainerFactory<>();
+
+        factory.setConsumerFactory(consumerFactory());
+        factory.getContainerProperties().setAckMode(ContainerProperties.AckMode.MANUAL_IMMEDIATE);
+        factory.setConcurrency(listenerConcurrency);
+        factory.setCommonErrorHandler(errorHandler(retryTopicRouter));
+
+        factory.setContainerCustomizer(container -> container.setupMessageListener(
+                new KeyOrderedBatchListener(kafkaLatencyMetrics.instrument(container),
+                        virtualThreadListenerExecutor, retryTopicRouter, virtualMaxInFlightPerPartition)));
+
+        return factory;
+    }
+
+    /**
+     * Virtual thread per task executor (platform fallback before Java 21)
+     */
+    @Bean(destroyMethod = "shutdown")
+    public ExecutorService virtualThreadListenerExecutor() {
+        return VirtualThreads.newPerTaskExecutor("listener-vt-");
+    }
+
+    /**
+     * Batch listener factory without DLQ (for DLQ consumer itself)
+     * Records stay raw bytes so they are stored and replayed unchanged.
+     */
+    @Bean
+    public ConcurrentKafkaListenerContainerFactory<byte[], byte[]> dlqKafkaListenerContainerFactory() {
+        Map<String, Object> config = new HashMap<>(consumerFactory().getConfigurationProperties());
+        config.put(ConsumerConfig.MAX_POLL_RECORDS_CONFIG, dlqMaxPollRecords);
+
+        ConcurrentKafkaListenerContainerFactory<byte[], byte[]> factory =
+                new ConcurrentKafkaListenerContainerFactory<>();
+
+        factory.setConsumerFactory(new DefaultKafkaConsumerFactory<>(config,
+                new ByteArrayDeserializer(), new ByteArrayDeserializer()));
+        factory.setBatchListener(true);
+        factory.getContainerProperties().setAckMode(ContainerProperties.AckMode.MANUAL_IMMEDIATE);
+
+        // No DLQ (to avoid infinite loop): keep retrying the batch until it is stored
+        factory.setCommonErrorHandler(new DefaultErrorHandler(
+                new FixedBackOff(dlqRetryIntervalMs, FixedBackOff.UNLIMITED_ATTEMPTS)));
 
         return factory;
     }
@@ -185,23 +490,32 @@ public class KafkaConfig {
     // ==================== Error Handling ====================
 
     /**
-     * Error handler with retry (3 attempts) and Dead Letter Queue
+     * Dead Letter Queue recoverer - sends failed messages to DLQ topic
      */
     @Bean
-    public CommonErrorHandler errorHandler(KafkaTemplate<String, Object> kafkaTemplate) {
-        // Dead Letter Queue recoverer - sends failed messages to DLQ topic
-        DeadLetterPublishingRecoverer recoverer = new DeadLetterPublishingRecoverer(kafkaTemplate,
+    public DeadLetterPublishingRecoverer deadLetterPublishingRecoverer(KafkaTemplate<String, Object> kafkaTemplate) {
+        return new DeadLetterPublishingRecoverer(kafkaTemplate,
                 (record, exception) -> {
-                    // Route to DLQ topic: dlq-{original-topic}
+                    // Route to DLQ topic: dlq-{original-topic}, same partition (provisioned in KafkaRetryTopicConfig)
                     String dlqTopic = "dlq-" + record.topic();
                     log.error("Sending to DLQ topic: {} due to: {}", dlqTopic, exception.getMessage());
                     return new org.apache.kafka.common.TopicPartition(dlqTopic, record.partition());
                 });
+    }
+
+    /**
+     * Error handler with non-blocking retry topics and Dead Letter Queue
+     * No in-place retries: a failed record is moved to its next retry stage right away,
+     * so the partition keeps flowing (see KafkaRetryTopicConfig). DLQ after the last stage.
+     */
+    @Bean
+    public CommonErrorHandler errorHandler(RetryTopicRouter retryTopicRouter) {
+        FixedBackOff backOff = new FixedBackOff(0L, 0L);
 
-        // Retry 3 times with 1 second delay, then send to DLQ
-        FixedBackOff backOff = new FixedBackOff(1000L, 3L);
+        DefaultErrorHandler errorHandler = new DefaultErrorHandler(retryTopicRouter, backOff);
 
-        DefaultErrorHandler errorHandler = new DefaultErrorHandler(recoverer, backOff);
+        // Commit the offset of a record once it has been handed to the retry topic
+        errorHandler.setCommitRecovered(true);
 
         // Log retry attempts
         errorHandler.setRetryListeners((record, ex, deliveryAttempt) -> {
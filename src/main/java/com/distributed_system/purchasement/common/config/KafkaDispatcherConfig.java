@@ -0,0 +1,174 @@
+package com.distributed_system.purchasement.common.config;
+
+import com.distributed_system.purchasement.common.service.kafka.OrderEventConsumer;
+import com.distributed_system.purchasement.common.service.kafka.PaymentEventConsumer;
+import com.distributed_system.purchasement.common.service.kafka.UserEventConsumer;
+import com.distributed_system.purchasement.common.service.kafka.dispatch.DispatchingListenerEndpoint;
+import com.distributed_system.purchasement.common.service.kafka.dispatch.DispatchingListenerEndpoint.DispatchedHandler;
+import com.distributed_system.purchasement.common.service.kafka.dispatch.ListenerMethod;
+import com.distributed_system.purchasement.common.service.kafka.filter.EventTypeRecordFilter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.BeanFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+import org.springframework.kafka.annotation.KafkaListenerConfigurer;
+import org.springframework.kafka.config.AbstractKafkaListenerContainerFactory;
+import org.springframework.kafka.config.KafkaListenerContainerFactory;
+import org.springframework.messaging.handler.annotation.support.DefaultMessageHandlerMethodFactory;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Multiplexed listener containers (kafka.listener.dispatcher.enabled)
+ * - one container per consumer group subscribes to every topic of the group's record listeners
+ * - an EventDispatcher routes each record to the @KafkaListener method by topic and eventType
+ * - the per-topic containers are still registered but not started (PER_TOPIC_AUTO_STARTUP)
+ *
+ * Batch listeners keep their own container, a batch signature cannot share a record container,
+ * and topics taken over by transactional listeners (kafka.transaction.enabled) are left out.
+ * Group factory: the handlers' factory if they agree, otherwise the key-ordered one when any
+ * handler asked for it (per-key order with partition parallelism), else the lazy factory.
+ */
+@Slf4j
+@Configuration
+public class KafkaDispatcherConfig {
+
+    /**
+     * autoStartup of the per-topic @KafkaListener methods that the dispatcher takes over
+     */
+    public static final String PER_TOPIC_AUTO_STARTUP = "#{!${kafka.listener.dispatcher.enabled:false}}";
+
+    private static final String KEY_ORDERED_FACTORY = "keyOrderedKafkaListenerContainerFactory";
+    private static final String LAZY_FACTORY = "lazyKafkaListenerContainerFactory";
+
+    @Value("${kafka.listener.dispatcher.enabled:false}")
+    private boolean enabled;
+
+    @Value("${kafka.listener.dispatcher.container-factory:}")
+    private String containerFactoryOverride;
+
+    @Value("${kafka.transaction.enabled:false}")
+    private boolean transactionsEnabled;
+
+    /**
+     * Registers the dispatcher containers of the user, order and payment groups
+     */
+    @Bean
+    public KafkaListenerConfigurer eventDispatcherConfigurer(
+            UserEventConsumer userEventConsumer,
+            OrderEventConsumer orderEventConsumer,
+            PaymentEventConsumer paymentEventConsumer,
+            EventTypeRecordFilter eventTypeRecordFilter,
+            MeterRegistry meterRegistry,
+            BeanFactory beanFactory,
+            Environment environment) {
+
+        return registrar -> {
+            if (!enabled) {
+                return;
+            }
+            DefaultMessageHandlerMethodFactory handlerMethodFactory = new DefaultMessageHandlerMethodFactory();
+            handlerMethodFactory.afterPropertiesSet();
+
+            Map<String, GroupHandlers> groups = new LinkedHashMap<>();
+            for (Object bean : List.of(userEventConsumer, orderEventConsumer, paymentEventConsumer)) {
+                collectHandlers(bean, beanFactory, environment, transactionsEnabled, groups);
+            }
+
+            for (Map.Entry<String, GroupHandlers> entry : groups.entrySet()) {
+                String groupId = entry.getKey();
+                GroupHandlers group = entry.getValue();
+                String factoryName = groupFactory(group.factories);
+
+                // Unexpected event types on a fully typed topic are dropped on the header,
+                // by a filter of this container only (other groups may want those types)
+                Map<String, List<String>> accepted = new LinkedHashMap<>();
+                for (DispatchedHandler handler : group.handlers) {
+                    for (String topic : handler.topics()) {
+                        List<String> eventTypes = typedEventTypes(group.handlers, topic);
+                        if (!eventTypes.isEmpty()) {
+                            accepted.put(topic, eventTypes);
+                        }
+                    }
+                }
+                EventTypeRecordFilter groupFilter = eventTypeRecordFilter.restrictedTo(accepted)
+                        .bindTo(meterRegistry, "dispatcher-" + groupId);
+                DispatchingListenerEndpoint endpoint = new DispatchingListenerEndpoint("dispatcher-" + groupId,
+                        groupId, group.handlers, handlerMethodFactory, groupFilter);
+
+                registrar.registerEndpoint(endpoint, beanFactory.getBean(factoryName, KafkaListenerContainerFactory.class));
+                log.info("Dispatcher container for group {} ({}): {} handlers on topics {}, replaces {} containers",
+                        groupId, factoryName, group.handlers.size(), endpoint.getTopics(), group.handlers.size());
+            }
+        };
+    }
+
+    // ==================== Handler Discovery ====================
+
+    private static void collectHandlers(Object bean, BeanFactory beanFactory, Environment environment,
+                                        boolean transactionsEnabled, Map<String, GroupHandlers> groups) {
+        for (ListenerMethod listener : ListenerMethod.find(bean, environment)) {
+            if (isBatchFactory(beanFactory, listener.factoryName())) {
+                continue;
+            }
+            if (transactionsEnabled && KafkaTransactionConfig.TRANSACTIONAL_TOPICS.containsAll(listener.topics())) {
+                // Consumed by the transactional listener instead
+                continue;
+            }
+            GroupHandlers group = groups.computeIfAbsent(listener.groupId(), g -> new GroupHandlers());
+            group.handlers.add(new DispatchedHandler(listener.name(), bean, listener.method(),
+                    listener.topics(), listener.eventTypes()));
+            group.factories.add(listener.factoryName());
+        }
+    }
+
+    /**
+     * Whether the factory creates batch listener containers
+     */
+    public static boolean isBatchFactory(BeanFactory beanFactory, String factoryName) {
+        if (!beanFactory.containsBean(factoryName)) {
+            return false;
+        }
+        return beanFactory.getBean(factoryName) instanceof AbstractKafkaListenerContainerFactory<?, ?, ?> factory
+                && Boolean.TRUE.equals(factory.isBatchListener());
+    }
+
+    private String groupFactory(Set<String> factories) {
+        if (!containerFactoryOverride.isBlank()) {
+            return containerFactoryOverride;
+        }
+        if (factories.size() == 1) {
+            return factories.iterator().next();
+        }
+        return factories.contains(KEY_ORDERED_FACTORY) ? KEY_ORDERED_FACTORY : LAZY_FACTORY;
+    }
+
+    /**
+     * Event types of the topic's handlers, empty if one of them takes every type
+     */
+    private static List<String> typedEventTypes(List<DispatchedHandler> handlers, String topic) {
+        List<String> eventTypes = new ArrayList<>();
+        for (DispatchedHandler handler : handlers) {
+            if (handler.topics().contains(topic)) {
+                if (handler.eventTypes().isEmpty()) {
+                    return List.of();
+                }
+                eventTypes.addAll(handler.eventTypes());
+            }
+        }
+        return eventTypes;
+    }
+
+    private static final class GroupHandlers {
+        private final List<DispatchedHandler> handlers = new ArrayList<>();
+        private final Set<String> factories = new LinkedHashSet<>();
+    }
+}
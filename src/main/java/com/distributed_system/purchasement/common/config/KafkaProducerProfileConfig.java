@@ -0,0 +1,137 @@
+package com.distributed_system.purchasement.common.config;
+
+import com.distributed_system.purchasement.common.service.kafka.tuning.ProducerBatchTuner;
+import com.distributed_system.purchasement.common.service.kafka.tuning.ProducerProfile;
+import com.distributed_system.purchasement.common.service.kafka.tuning.ProducerProfileRouter;
+import com.distributed_system.purchasement.common.service.kafka.tuning.ProducerTuningEndpoint;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.kafka.clients.producer.ProducerConfig;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.kafka.core.DefaultKafkaProducerFactory;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.core.ProducerFactory;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Per-topic producer profiles
+ * - throughput (order-*): large batches, longer linger
+ * - latency (payment-*): small batches, minimal linger
+ * Each profile has its own producer, other topics use the default kafkaTemplate.
+ * ProducerBatchTuner adjusts the profiles at runtime (see /actuator/producertuning).
+ */
+@Slf4j
+@Configuration
+public class KafkaProducerProfileConfig {
+
+    @Value("${kafka.producer.profiles.enabled:true}")
+    private boolean profilesEnabled;
+
+    // Throughput profile
+    @Value("${kafka.producer.profiles.throughput.topic-prefixes:order-}")
+    private List<String> throughputPrefixes;
+
+    @Value("${kafka.producer.profiles.throughput.batch-size:65536}")
+    private int throughputBatchSize;
+
+    @Value("${kafka.producer.profiles.throughput.min-batch-size:16384}")
+    private int throughputMinBatchSize;
+
+    @Value("${kafka.producer.profiles.throughput.max-batch-size:262144}")
+    private int throughputMaxBatchSize;
+
+    @Value("${kafka.producer.profiles.throughput.linger-ms:20}")
+    private int throughputLingerMs;
+
+    @Value("${kafka.producer.profiles.throughput.min-linger-ms:5}")
+    private int throughputMinLingerMs;
+
+    @Value("${kafka.producer.profiles.throughput.max-linger-ms:100}")
+    private int throughputMaxLingerMs;
+
+    // Latency profile
+    @Value("${kafka.producer.profiles.latency.topic-prefixes:payment-}")
+    private List<String> latencyPrefixes;
+
+    @Value("${kafka.producer.profiles.latency.batch-size:16384}")
+    private int latencyBatchSize;
+
+    @Value("${kafka.producer.profiles.latency.min-batch-size:4096}")
+    private int latencyMinBatchSize;
+
+    @Value("${kafka.producer.profiles.latency.max-batch-size:65536}")
+    private int latencyMaxBatchSize;
+
+    @Value("${kafka.producer.profiles.latency.linger-ms:0}")
+    private int latencyLingerMs;
+
+    @Value("${kafka.producer.profiles.latency.min-linger-ms:0}")
+    private int latencyMinLingerMs;
+
+    @Value("${kafka.producer.profiles.latency.max-linger-ms:5}")
+    private int latencyMaxLingerMs;
+
+    @Value("${kafka.producer.profiles.latency.target-queue-ms:5}")
+    private double latencyTargetQueueMs;
+
+    // Tuner
+    @Value("${kafka.producer.tuner.enabled:true}")
+    private boolean tunerEnabled;
+
+    @Value("${kafka.producer.tuner.stable-evaluations:2}")
+    private int tunerStableEvaluations;
+
+    @Value("${kafka.producer.tuner.cooldown-ms:120000}")
+    private long tunerCooldownMs;
+
+    @Value("${kafka.producer.tuner.min-records-per-second:50}")
+    private double tunerMinRecordsPerSecond;
+
+    @Bean(destroyMethod = "destroy")
+    public ProducerProfileRouter producerProfileRouter(ProducerFactory<String, Object> producerFactory,
+                                                       KafkaTemplate<String, Object> kafkaTemplate) {
+        ProducerProfileRouter router = new ProducerProfileRouter(kafkaTemplate);
+        if (!profilesEnabled) {
+            return router;
+        }
+
+        List<ProducerProfile> profiles = List.of(
+                new ProducerProfile("throughput", ProducerProfile.Goal.THROUGHPUT, throughputPrefixes,
+                        throughputBatchSize, throughputMinBatchSize, throughputMaxBatchSize,
+                        throughputLingerMs, throughputMinLingerMs, throughputMaxLingerMs, 0),
+                new ProducerProfile("latency", ProducerProfile.Goal.LATENCY, latencyPrefixes,
+                        latencyBatchSize, latencyMinBatchSize, latencyMaxBatchSize,
+                        latencyLingerMs, latencyMinLingerMs, latencyMaxLingerMs, latencyTargetQueueMs));
+
+        for (ProducerProfile profile : profiles) {
+            Map<String, Object> config = new HashMap<>(producerFactory.getConfigurationProperties());
+            config.put(ProducerConfig.BATCH_SIZE_CONFIG, profile.getBatchSize());
+            config.put(ProducerConfig.LINGER_MS_CONFIG, profile.getLingerMs());
+            config.put(ProducerConfig.CLIENT_ID_CONFIG, "purchasement-producer-" + profile.getName());
+
+            // Same (already configured) serializers as the default producer
+            DefaultKafkaProducerFactory<String, Object> factory = new DefaultKafkaProducerFactory<>(config,
+                    producerFactory.getKeySerializer(), producerFactory.getValueSerializer(), false);
+            router.register(profile, factory, new KafkaTemplate<>(factory));
+            log.info("Producer profile {} for topics {}: batch.size={}, linger.ms={}",
+                    profile.getName(), profile.getTopicPrefixes(), profile.getBatchSize(), profile.getLingerMs());
+        }
+        return router;
+    }
+
+    @Bean
+    public ProducerBatchTuner producerBatchTuner(ProducerProfileRouter producerProfileRouter) {
+        return new ProducerBatchTuner(producerProfileRouter, tunerEnabled, tunerStableEvaluations,
+                tunerCooldownMs, tunerMinRecordsPerSecond);
+    }
+
+    @Bean
+    public ProducerTuningEndpoint producerTuningEndpoint(ProducerProfileRouter producerProfileRouter,
+                                                         ProducerBatchTuner producerBatchTuner) {
+        return new ProducerTuningEndpoint(producerProfileRouter, producerBatchTuner);
+    }
+}
@@ -0,0 +1,254 @@
+package com.distributed_system.purchasement.common.config;
+
+import com.distributed_system.purchasement.common.constant.KafkaTopics;
+import com.distributed_system.purchasement.common.service.kafka.OrderEventConsumer;
+import com.distributed_system.purchasement.common.service.kafka.PaymentEventConsumer;
+import com.distributed_system.purchasement.common.service.kafka.RetryTopicForwarder;
+import com.distributed_system.purchasement.common.service.kafka.RetryTopicPolicy;
+import com.distributed_system.purchasement.common.service.kafka.RetryTopicRouter;
+import com.distributed_system.purchasement.common.service.kafka.UserEventConsumer;
+import com.distributed_system.purchasement.common.service.kafka.dispatch.EventDispatcher;
+import com.distributed_system.purchasement.common.service.kafka.dispatch.ListenerMethod;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.kafka.clients.admin.NewTopic;
+import org.apache.kafka.clients.consumer.Consumer;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.springframework.beans.factory.BeanFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+import org.springframework.kafka.annotation.KafkaListenerConfigurer;
+import org.springframework.kafka.config.ConcurrentKafkaListenerContainerFactory;
+import org.springframework.kafka.config.MethodKafkaListenerEndpoint;
+import org.springframework.kafka.config.TopicBuilder;
+import org.springframework.kafka.core.ConsumerFactory;
+import org.springframework.kafka.core.KafkaAdmin;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.listener.AcknowledgingConsumerAwareMessageListener;
+import org.springframework.kafka.listener.ContainerProperties;
+import org.springframework.kafka.listener.DeadLetterPublishingRecoverer;
+import org.springframework.kafka.listener.DefaultErrorHandler;
+import org.springframework.kafka.listener.adapter.BatchMessagingMessageListenerAdapter;
+import org.springframework.kafka.listener.adapter.HandlerAdapter;
+import org.springframework.kafka.listener.adapter.RecordMessagingMessageListenerAdapter;
+import org.springframework.kafka.support.Acknowledgment;
+import org.springframework.messaging.handler.annotation.support.DefaultMessageHandlerMethodFactory;
+import org.springframework.util.backoff.FixedBackOff;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Non-blocking retry topics
+ * - Provisions {topic}-retry-{delay} for every business topic and dlq-{topic} for every topic
+ *   (same partition count)
+ * - One listener container per retry stage, holding records until they are due, then invoking
+ *   the listener of the group that failed (the main topic is never written again)
+ * - Router used as recoverer by the error handler: main topic -> stage 1 -> ... -> DLQ
+ */
+@Slf4j
+@Configuration
+public class KafkaRetryTopicConfig {
+
+    /**
+     * Business topics that get retry stages (DLQ, state and notification topics do not)
+     */
+    public static final Set<String> RETRYABLE_TOPICS = Set.of(
+            KafkaTopics.USER_CREATED, KafkaTopics.USER_UPDATED, KafkaTopics.USER_DELETED,
+            KafkaTopics.ORDER_CREATED, KafkaTopics.ORDER_UPDATED,
+            KafkaTopics.ORDER_CANCELLED, KafkaTopics.ORDER_COMPLETED,
+            KafkaTopics.PAYMENT_INITIATED, KafkaTopics.PAYMENT_COMPLETED, KafkaTopics.PAYMENT_FAILED);
+
+    @Value("${kafka.retry.initial-interval-ms:1000}")
+    private long initialIntervalMs;
+
+    @Value("${kafka.retry.multiplier:10.0}")
+    private double multiplier;
+
+    @Value("${kafka.retry.max-interval-ms:60000}")
+    private long maxIntervalMs;
+
+    @Value("${kafka.retry.stages:3}")
+    private int stages;
+
+    @Value("${kafka.retry.jitter:0.2}")
+    private double jitter;
+
+    @Bean
+    public RetryTopicPolicy retryTopicPolicy() {
+        return new RetryTopicPolicy(initialIntervalMs, multiplier, maxIntervalMs, stages, jitter);
+    }
+
+    @Bean
+    public RetryTopicRouter retryTopicRouter(KafkaTemplate<String, Object> kafkaTemplate,
+                                             DeadLetterPublishingRecoverer deadLetterPublishingRecoverer) {
+        return new RetryTopicRouter(kafkaTemplate, deadLetterPublishingRecoverer, retryTopicPolicy());
+    }
+
+    /**
+     * Retry stage listener: per consumer group, the @KafkaListener methods of its retryable topics
+     * (record and batch signatures; payment-completed retries use the record listener even when
+     * the transactional consumer owns the main topic, dedup keeps it idempotent)
+     */
+    @Bean
+    public RetryTopicForwarder retryTopicForwarder(UserEventConsumer userEventConsumer,
+                                                   OrderEventConsumer orderEventConsumer,
+                                                   PaymentEventConsumer paymentEventConsumer,
+                                                   RetryTopicRouter retryTopicRouter,
+                                                   DeadLetterPublishingRecoverer deadLetterPublishingRecoverer,
+                                                   BeanFactory beanFactory,
+                                                   Environment environment) {
+        DefaultMessageHandlerMethodFactory handlerMethodFactory = new DefaultMessageHandlerMethodFactory();
+        handlerMethodFactory.afterPropertiesSet();
+
+        Map<String, EventDispatcher> dispatchers = new LinkedHashMap<>();
+        for (Object bean : List.of(userEventConsumer, orderEventConsumer, paymentEventConsumer)) {
+            for (ListenerMethod listener : ListenerMethod.find(bean, environment)) {
+                List<String> topics = listener.topics().stream().filter(RETRYABLE_TOPICS::contains).toList();
+                if (topics.isEmpty()) {
+                    continue;
+                }
+                EventDispatcher dispatcher = dispatchers.computeIfAbsent(listener.groupId(),
+                        groupId -> new EventDispatcher("retry-" + groupId));
+                AcknowledgingConsumerAwareMessageListener<String, Object> handler =
+                        retryHandler(listener, handlerMethodFactory, beanFactory);
+                for (String topic : topics) {
+                    dispatcher.register(topic, listener.eventTypes(), listener.name(), handler);
+                }
+            }
+        }
+        log.info("Retry stages invoke the listeners of groups {}", dispatchers.keySet());
+        return new RetryTopicForwarder(dispatchers, retryTopicRouter, deadLetterPublishingRecoverer);
+    }
+
+    /**
+     * Adapter invoking the listener method with one record (a one-element list for batch listeners)
+     */
+    private static AcknowledgingConsumerAwareMessageListener<String, Object> retryHandler(
+            ListenerMethod listener, DefaultMessageHandlerMethodFactory handlerMethodFactory, BeanFactory beanFactory) {
+        HandlerAdapter handlerMethod = new HandlerAdapter(
+                handlerMethodFactory.createInvocableHandlerMethod(listener.bean(), listener.method()));
+        if (KafkaDispatcherConfig.isBatchFactory(beanFactory, listener.factoryName())) {
+            BatchMessagingMessageListenerAdapter<String, Object> adapter =
+                    new BatchMessagingMessageListenerAdapter<>(listener.bean(), listener.method());
+            adapter.setHandlerMethod(handlerMethod);
+            return (record, acknowledgment, consumer) -> adapter.onMessage(List.of(record), acknowledgment, consumer);
+        }
+        RecordMessagingMessageListenerAdapter<String, Object> adapter =
+                new RecordMessagingMessageListenerAdapter<>(listener.bean(), listener.method());
+        adapter.setHandlerMethod(handlerMethod);
+        return adapter;
+    }
+
+    // ==================== Retry Topics ====================
+
+    /**
+     * Retry stage topics, created next to the topics in KafkaTopicConfig
+     */
+    @Bean
+    public KafkaAdmin.NewTopics retryTopics(List<NewTopic> topics) {
+        RetryTopicPolicy policy = retryTopicPolicy();
+        Map<String, NewTopic> mainTopics = topics.stream()
+                .filter(topic -> RETRYABLE_TOPICS.contains(topic.name()))
+                .collect(Collectors.toMap(NewTopic::name, Function.identity()));
+
+        List<NewTopic> retryTopics = new ArrayList<>();
+        mainTopics.values().forEach(mainTopic -> {
+            for (int stage = 1; stage <= policy.stageCount(); stage++) {
+                retryTopics.add(TopicBuilder.name(policy.retryTopic(mainTopic.name(), stage))
+                        .partitions(mainTopic.numPartitions())
+                        .replicas(1)
+                        .config("retention.ms", "86400000") // 1 day retention
+                        .build());
+            }
+        });
+        return new KafkaAdmin.NewTopics(retryTopics.toArray(new NewTopic[0]));
+    }
+
+    /**
+     * Dead letter topics dlq-{topic} for every topic of KafkaTopicConfig, same partition count
+     * The recoverer (KafkaConfig.deadLetterPublishingRecoverer) keeps the record's partition,
+     * which is a partition of the main topic for retried records too.
+     */
+    @Bean
+    public KafkaAdmin.NewTopics deadLetterTopics(List<NewTopic> topics) {
+        return new KafkaAdmin.NewTopics(topics.stream()
+                .filter(topic -> !topic.name().startsWith(KafkaTopics.DLQ_PREFIX))
+                .map(topic -> TopicBuilder.name(KafkaTopics.DLQ_PREFIX + topic.name())
+                        .partitions(topic.numPartitions())
+                        .replicas(1)
+                        .config("retention.ms", "2592000000") // 30 days, as the other DLQ topics
+                        .build())
+                .toArray(NewTopic[]::new));
+    }
+
+    // ==================== Retry Stage Containers ====================
+
+    /**
+     * Factory for the retry stage containers
+     * Failing to write the next retry stage is retried until the broker accepts it.
+     */
+    @Bean
+    public ConcurrentKafkaListenerContainerFactory<String, Object> retryKafkaListenerContainerFactory(
+            ConsumerFactory<String, Object> consumerFactory) {
+
+        ConcurrentKafkaListenerContainerFactory<String, Object> factory =
+                new ConcurrentKafkaListenerContainerFactory<>();
+
+        factory.setConsumerFactory(consumerFactory);
+        factory.getContainerProperties().setAckMode(ContainerProperties.AckMode.MANUAL_IMMEDIATE);
+        factory.setConcurrency(1);
+        factory.setCommonErrorHandler(new DefaultErrorHandler(new FixedBackOff(5000L, FixedBackOff.UNLIMITED_ATTEMPTS)));
+
+        return factory;
+    }
+
+    /**
+     * Registers one container (and consumer group) per retry stage
+     */
+    @Bean
+    public KafkaListenerConfigurer retryStageListenerConfigurer(
+            RetryTopicForwarder retryTopicForwarder,
+            ConcurrentKafkaListenerContainerFactory<String, Object> retryKafkaListenerContainerFactory) {
+
+        return registrar -> {
+            RetryTopicPolicy policy = retryTopicPolicy();
+            DefaultMessageHandlerMethodFactory handlerMethodFactory = new DefaultMessageHandlerMethodFactory();
+            handlerMethodFactory.afterPropertiesSet();
+
+            for (int stage = 1; stage <= policy.stageCount(); stage++) {
+                int currentStage = stage;
+                String[] stageTopics = RETRYABLE_TOPICS.stream()
+                        .map(topic -> policy.retryTopic(topic, currentStage))
+                        .sorted()
+                        .toArray(String[]::new);
+
+                MethodKafkaListenerEndpoint<String, Object> endpoint = new MethodKafkaListenerEndpoint<>();
+                endpoint.setId("retry-stage-" + policy.stageLabel(stage));
+                endpoint.setGroupId("retry-stage-" + policy.stageLabel(stage) + "-group");
+                endpoint.setTopics(stageTopics);
+                endpoint.setBean(retryTopicForwarder);
+                endpoint.setMethod(forwardMethod());
+                endpoint.setMessageHandlerMethodFactory(handlerMethodFactory);
+
+                registrar.registerEndpoint(endpoint, retryKafkaListenerContainerFactory);
+                log.info("Registered retry stage {} for {} topics", policy.stageLabel(stage), stageTopics.length);
+            }
+        };
+    }
+
+    private static java.lang.reflect.Method forwardMethod() {
+        try {
+            return RetryTopicForwarder.class.getMethod("forward", ConsumerRecord.class, Acknowledgment.class,
+                    Consumer.class);
+        } catch (NoSuchMethodException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
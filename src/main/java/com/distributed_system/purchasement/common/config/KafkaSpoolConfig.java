@@ -0,0 +1,69 @@
+package com.distributed_system.purchasement.common.config;
+
+import com.distributed_system.purchasement.common.service.kafka.spool.DiskSpool;
+import com.distributed_system.purchasement.common.service.kafka.spool.ProducerCircuitBreaker;
+import com.distributed_system.purchasement.common.service.kafka.spool.ProducerSpool;
+import com.distributed_system.purchasement.common.service.kafka.spool.SpoolDrainer;
+import com.distributed_system.purchasement.common.service.kafka.tuning.ProducerProfileRouter;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.kafka.core.KafkaTemplate;
+
+import java.nio.file.Path;
+
+/**
+ * Disk-spooled producer buffer (kafka.producer.spool.enabled=true)
+ * - async sends go to a local mmap spool while the broker is unreachable
+ * - a drainer replays the spool in order at a limited rate once it is back
+ */
+@Configuration
+@ConditionalOnProperty(name = "kafka.producer.spool.enabled", havingValue = "true")
+public class KafkaSpoolConfig {
+
+    @Value("${kafka.producer.spool.directory:./data/kafka-spool}")
+    private String directory;
+
+    @Value("${kafka.producer.spool.segment-bytes:67108864}")
+    private int segmentBytes;
+
+    @Value("${kafka.producer.spool.max-segments:16}")
+    private int maxSegments;
+
+    @Value("${kafka.producer.spool.failure-threshold:5}")
+    private int failureThreshold;
+
+    @Value("${kafka.producer.spool.open-ms:5000}")
+    private long openMs;
+
+    @Value("${kafka.producer.spool.drain-rate-per-second:5000}")
+    private double drainRatePerSecond;
+
+    @Value("${kafka.producer.spool.drain-batch-size:500}")
+    private int drainBatchSize;
+
+    @Value("${kafka.producer.spool.drain-timeout-ms:30000}")
+    private long drainTimeoutMs;
+
+    @Bean(destroyMethod = "close")
+    public DiskSpool diskSpool() {
+        return new DiskSpool(Path.of(directory), segmentBytes, maxSegments);
+    }
+
+    @Bean
+    public ProducerCircuitBreaker producerCircuitBreaker() {
+        return new ProducerCircuitBreaker(failureThreshold, openMs);
+    }
+
+    @Bean
+    public ProducerSpool producerSpool(ProducerProfileRouter producerProfileRouter) {
+        return new ProducerSpool(producerProfileRouter, diskSpool(), producerCircuitBreaker());
+    }
+
+    @Bean(initMethod = "start", destroyMethod = "stop")
+    public SpoolDrainer spoolDrainer(KafkaTemplate<byte[], byte[]> byteArrayKafkaTemplate) {
+        return new SpoolDrainer(diskSpool(), producerCircuitBreaker(), byteArrayKafkaTemplate,
+                drainRatePerSecond, drainBatchSize, drainTimeoutMs, openMs);
+    }
+}
@@ -182,11 +182,11 @@ public class KafkaTopicConfig {
 
     /**
      * Compacted topic - keeps only latest value per key
-     * Useful for maintaining current state
+     * Latest state per userId (UserStateProjector), read back into every UserStateView
      */
     @Bean
     public NewTopic userStateTopic() {
-        return TopicBuilder.name("user-state")
+        return TopicBuilder.name(KafkaTopics.USER_STATE)
                 .partitions(3)
                 .replicas(1)
                 .config("cleanup.policy", "compact") // Compacted topic
@@ -194,5 +194,19 @@ public class KafkaTopicConfig {
                 .config("segment.ms", "604800000")
                 .build();
     }
-}
 
+    /**
+     * Compacted topic - one record per window ("{window}:{start}"), late revisions replace it
+     * Published by OrderAnalyticsStage
+     */
+    @Bean
+    public NewTopic orderAnalyticsTopic() {
+        return TopicBuilder.name(KafkaTopics.ORDER_ANALYTICS)
+                .partitions(3)
+                .replicas(1)
+                .config("cleanup.policy", "compact")
+                .config("min.cleanable.dirty.ratio", "0.5")
+                .config("segment.ms", "604800000")
+                .build();
+    }
+}
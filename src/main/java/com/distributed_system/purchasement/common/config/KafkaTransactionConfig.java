@@ -0,0 +1,123 @@
+package com.distributed_system.purchasement.common.config;
+
+import com.distributed_system.purchasement.common.constant.KafkaTopics;
+import org.apache.kafka.clients.consumer.ConsumerConfig;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.kafka.config.ConcurrentKafkaListenerContainerFactory;
+import org.springframework.kafka.core.ConsumerFactory;
+import org.springframework.kafka.core.DefaultKafkaConsumerFactory;
+import org.springframework.kafka.core.DefaultKafkaProducerFactory;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.core.ProducerFactory;
+import org.springframework.kafka.listener.ContainerProperties;
+import org.springframework.kafka.listener.DefaultAfterRollbackProcessor;
+import org.springframework.kafka.transaction.KafkaTransactionManager;
+import org.springframework.util.backoff.FixedBackOff;
+
+import java.lang.management.ManagementFactory;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * Exactly-once consume-transform-produce (kafka.transaction.enabled)
+ * - transactional producer factory bean, transactional.id = id-prefix + instance id
+ * - batch listener factory running one Kafka transaction per poll: the records the listener
+ *   sends through transactionalKafkaTemplate and the consumed offsets commit together
+ * - every consumer reads read_committed (KafkaConfig.consumerFactory), aborted output is never seen
+ *
+ * The KafkaTransactionManager is not a bean on purpose: a second transaction manager would
+ * replace the JDBC one the outbox and TransactionTemplate rely on.
+ */
+@Configuration
+public class KafkaTransactionConfig {
+
+    /**
+     * Topics consumed by the transactional listeners while kafka.transaction.enabled is set
+     */
+    public static final Set<String> TRANSACTIONAL_TOPICS = Set.of(KafkaTopics.PAYMENT_COMPLETED);
+
+    /**
+     * autoStartup of the transactional listeners
+     */
+    public static final String TRANSACTIONAL_AUTO_STARTUP = "${kafka.transaction.enabled:false}";
+
+    /**
+     * autoStartup of per-topic listeners replaced by the dispatcher or by a transactional listener
+     */
+    public static final String NON_TRANSACTIONAL_AUTO_STARTUP =
+            "#{!${kafka.listener.dispatcher.enabled:false} && !${kafka.transaction.enabled:false}}";
+
+    @Value("${kafka.transaction.id-prefix:purchasement-tx-}")
+    private String transactionIdPrefix;
+
+    @Value("${kafka.transaction.max-poll-records:500}")
+    private int maxPollRecords;
+
+    @Value("${kafka.transaction.retry-interval-ms:1000}")
+    private long retryIntervalMs;
+
+    @Value("${kafka.listener.concurrency:3}")
+    private int listenerConcurrency;
+
+    /**
+     * Same settings and serializers as the default producer, plus a transactional.id prefix
+     * unique to this instance (zombie fencing is per producer epoch with EOS v2)
+     * A bean of its own so the context closes its producers on shutdown.
+     */
+    @Bean
+    public DefaultKafkaProducerFactory<String, Object> transactionalProducerFactory(
+            ProducerFactory<String, Object> producerFactory) {
+        Map<String, Object> config = new HashMap<>(producerFactory.getConfigurationProperties());
+        DefaultKafkaProducerFactory<String, Object> transactionalFactory = new DefaultKafkaProducerFactory<>(config,
+                producerFactory.getKeySerializerSupplier(), producerFactory.getValueSerializerSupplier());
+        transactionalFactory.setTransactionIdPrefix(transactionIdPrefix + instanceId() + "-");
+        return transactionalFactory;
+    }
+
+    @Bean
+    public KafkaTemplate<String, Object> transactionalKafkaTemplate(
+            @Qualifier("transactionalProducerFactory")
+            DefaultKafkaProducerFactory<String, Object> transactionalProducerFactory) {
+        return new KafkaTemplate<>(transactionalProducerFactory);
+    }
+
+    /**
+     * Batch listener factory for consume-transform-produce
+     * The container begins a transaction before each poll's batch is handed to the listener,
+     * sends the batch offsets to it and commits: one commit per poll instead of per record.
+     * A failed transaction is aborted and the batch redelivered after retry-interval-ms.
+     */
+    @Bean
+    public ConcurrentKafkaListenerContainerFactory<String, Object> transactionalKafkaListenerContainerFactory(
+            ConsumerFactory<String, Object> consumerFactory,
+            @Qualifier("transactionalProducerFactory")
+            DefaultKafkaProducerFactory<String, Object> transactionalProducerFactory) {
+
+        Map<String, Object> config = new HashMap<>(consumerFactory.getConfigurationProperties());
+        config.put(ConsumerConfig.MAX_POLL_RECORDS_CONFIG, maxPollRecords);
+
+        ConcurrentKafkaListenerContainerFactory<String, Object> factory =
+                new ConcurrentKafkaListenerContainerFactory<>();
+
+        factory.setConsumerFactory(new DefaultKafkaConsumerFactory<>(config,
+                consumerFactory.getKeyDeserializer(), consumerFactory.getValueDeserializer()));
+        factory.setBatchListener(true);
+        factory.setConcurrency(listenerConcurrency);
+        factory.getContainerProperties().setAckMode(ContainerProperties.AckMode.BATCH);
+        factory.getContainerProperties().setKafkaAwareTransactionManager(
+                new KafkaTransactionManager<>(transactionalProducerFactory));
+        factory.setAfterRollbackProcessor(new DefaultAfterRollbackProcessor<>(
+                new FixedBackOff(retryIntervalMs, FixedBackOff.UNLIMITED_ATTEMPTS)));
+
+        return factory;
+    }
+
+    private static String instanceId() {
+        return ManagementFactory.getRuntimeMXBean().getName() + "-" + UUID.randomUUID().toString().substring(0, 8);
+    }
+}
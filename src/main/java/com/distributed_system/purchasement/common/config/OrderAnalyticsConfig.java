@@ -0,0 +1,60 @@
+package com.distributed_system.purchasement.common.config;
+
+import com.distributed_system.purchasement.common.service.analytics.OrderAnalyticsStage;
+import com.distributed_system.purchasement.common.service.analytics.WindowSpec;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.kafka.core.ConsumerFactory;
+import org.springframework.kafka.core.KafkaTemplate;
+
+import java.nio.file.Path;
+
+/**
+ * Windowed order revenue / throughput aggregation (kafka.analytics.enabled=true)
+ * - tumbling and hopping event-time windows over order-completed, order-cancelled, payment-failed
+ * - results on the order-analytics topic and at /kafka/analytics
+ */
+@Configuration
+@ConditionalOnProperty(name = "kafka.analytics.enabled", havingValue = "true")
+public class OrderAnalyticsConfig {
+
+    @Value("${kafka.analytics.windows:1m=60000,1h=3600000,1h-hop-5m=3600000/300000}")
+    private String windows;
+
+    @Value("${kafka.analytics.max-out-of-order-ms:5000}")
+    private long maxOutOfOrderMs;
+
+    @Value("${kafka.analytics.idle-ms:30000}")
+    private long idleMs;
+
+    @Value("${kafka.analytics.allowed-lateness-ms:60000}")
+    private long allowedLatenessMs;
+
+    @Value("${kafka.analytics.history-size:1440}")
+    private int historySize;
+
+    @Value("${kafka.analytics.publish:true}")
+    private boolean publish;
+
+    @Value("${kafka.analytics.checkpoint-file:./data/analytics/order-analytics.ckpt}")
+    private String checkpointFile;
+
+    @Value("${kafka.analytics.checkpoint-interval-ms:10000}")
+    private long checkpointIntervalMs;
+
+    @Value("${kafka.analytics.start-lookback-ms:3600000}")
+    private long startLookbackMs;
+
+    @Value("${kafka.analytics.poll-timeout-ms:500}")
+    private long pollTimeoutMs;
+
+    @Bean(initMethod = "start", destroyMethod = "stop")
+    public OrderAnalyticsStage orderAnalyticsStage(ConsumerFactory<String, Object> consumerFactory,
+                                                   KafkaTemplate<String, Object> kafkaTemplate) {
+        return new OrderAnalyticsStage(consumerFactory, kafkaTemplate, WindowSpec.parse(windows),
+                maxOutOfOrderMs, idleMs, allowedLatenessMs, historySize, publish, Path.of(checkpointFile),
+                checkpointIntervalMs, startLookbackMs, pollTimeoutMs);
+    }
+}
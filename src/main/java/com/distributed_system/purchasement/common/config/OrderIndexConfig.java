@@ -0,0 +1,42 @@
+package com.distributed_system.purchasement.common.config;
+
+import com.distributed_system.purchasement.common.constant.KafkaTopics;
+import com.distributed_system.purchasement.common.service.orderindex.OrderIndexer;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.kafka.core.ConsumerFactory;
+
+import java.nio.file.Path;
+import java.util.List;
+
+/**
+ * In-memory order status index (kafka.order-index.enabled=true)
+ * - fed from the order-* topics, served at /kafka/orders
+ * - snapshots to a local memory-mapped file, a restart resumes from the snapshot offsets
+ */
+@Configuration
+@ConditionalOnProperty(name = "kafka.order-index.enabled", havingValue = "true")
+public class OrderIndexConfig {
+
+    @Value("${kafka.order-index.snapshot-file:./data/order-index/order-index.snap}")
+    private String snapshotFile;
+
+    @Value("${kafka.order-index.snapshot-interval-ms:60000}")
+    private long snapshotIntervalMs;
+
+    @Value("${kafka.order-index.poll-timeout-ms:500}")
+    private long pollTimeoutMs;
+
+    @Value("${kafka.order-index.expected-orders:1000000}")
+    private int expectedOrders;
+
+    @Bean(initMethod = "start", destroyMethod = "stop")
+    public OrderIndexer orderIndexer(ConsumerFactory<String, Object> consumerFactory) {
+        return new OrderIndexer(consumerFactory,
+                List.of(KafkaTopics.ORDER_CREATED, KafkaTopics.ORDER_UPDATED,
+                        KafkaTopics.ORDER_CANCELLED, KafkaTopics.ORDER_COMPLETED),
+                Path.of(snapshotFile), snapshotIntervalMs, pollTimeoutMs, expectedOrders);
+    }
+}
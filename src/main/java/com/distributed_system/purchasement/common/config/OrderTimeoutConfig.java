@@ -0,0 +1,47 @@
+package com.distributed_system.purchasement.common.config;
+
+import com.distributed_system.purchasement.common.service.kafka.KafkaProducerService;
+import com.distributed_system.purchasement.common.service.ordertimeout.OrderTimeoutService;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.kafka.core.ConsumerFactory;
+
+/**
+ * Unpaid order timeouts (kafka.order-timeout.enabled=true)
+ * - a timing wheel per instance arms ORDER_CREATED and disarms on payment / cancel / completion
+ * - expired orders are cancelled with ORDER_CANCELLED
+ */
+@Configuration
+@ConditionalOnProperty(name = "kafka.order-timeout.enabled", havingValue = "true")
+public class OrderTimeoutConfig {
+
+    @Value("${kafka.order-timeout.timeout-ms:1800000}")
+    private long timeoutMs;
+
+    @Value("${kafka.order-timeout.lookback-ms:86400000}")
+    private long lookbackMs;
+
+    @Value("${kafka.order-timeout.tick-ms:1000}")
+    private long tickMs;
+
+    @Value("${kafka.order-timeout.expected-timers:1000000}")
+    private int expectedTimers;
+
+    @Value("${kafka.order-timeout.batch-size:500}")
+    private int batchSize;
+
+    @Value("${kafka.order-timeout.retry-delay-ms:5000}")
+    private long retryDelayMs;
+
+    @Value("${kafka.order-timeout.poll-timeout-ms:200}")
+    private long pollTimeoutMs;
+
+    @Bean(initMethod = "start", destroyMethod = "stop")
+    public OrderTimeoutService orderTimeoutService(ConsumerFactory<String, Object> consumerFactory,
+                                                   KafkaProducerService kafkaProducerService) {
+        return new OrderTimeoutService(consumerFactory, kafkaProducerService, timeoutMs, lookbackMs, tickMs,
+                expectedTimers, batchSize, retryDelayMs, pollTimeoutMs);
+    }
+}
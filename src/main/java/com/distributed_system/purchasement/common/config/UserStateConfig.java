@@ -0,0 +1,42 @@
+package com.distributed_system.purchasement.common.config;
+
+import com.distributed_system.purchasement.common.constant.KafkaTopics;
+import com.distributed_system.purchasement.common.service.userstate.UserStateProjector;
+import com.distributed_system.purchasement.common.service.userstate.UserStateView;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.kafka.core.ConsumerFactory;
+import org.springframework.kafka.core.KafkaTemplate;
+
+/**
+ * Materialized user state (kafka.user-state.enabled=true)
+ * - user events are folded into the compacted user-state topic
+ * - every instance keeps a local view of that topic, bootstrapped in parallel on startup
+ */
+@Configuration
+@ConditionalOnProperty(name = "kafka.user-state.enabled", havingValue = "true")
+public class UserStateConfig {
+
+    @Value("${kafka.user-state.bootstrap-parallelism:3}")
+    private int bootstrapParallelism;
+
+    @Value("${kafka.user-state.poll-timeout-ms:500}")
+    private long pollTimeoutMs;
+
+    @Value("${kafka.user-state.expected-users:100000}")
+    private int expectedUsers;
+
+    @Bean(initMethod = "start", destroyMethod = "stop")
+    public UserStateView userStateView(ConsumerFactory<String, Object> consumerFactory) {
+        return new UserStateView(KafkaTopics.USER_STATE, consumerFactory.getConfigurationProperties(),
+                bootstrapParallelism, pollTimeoutMs, expectedUsers);
+    }
+
+    @Bean
+    public UserStateProjector userStateProjector(KafkaTemplate<String, Object> kafkaTemplate,
+                                                 UserStateView userStateView) {
+        return new UserStateProjector(kafkaTemplate, userStateView);
+    }
+}
@@ -26,6 +26,10 @@ public final class KafkaTopics {
     public static final String PAYMENT_COMPLETED = "payment-completed";
     public static final String PAYMENT_FAILED = "payment-failed";
 
+    // ==================== State Topics ====================
+    public static final String USER_STATE = "user-state";
+    public static final String ORDER_ANALYTICS = "order-analytics";
+
     // ==================== Notification Topics ====================
     public static final String NOTIFICATION_EMAIL = "notification-email";
     public static final String NOTIFICATION_SMS = "notification-sms";
@@ -35,6 +39,7 @@ public final class KafkaTopics {
     public static final String DLQ_USER = DLQ_PREFIX + "user";
     public static final String DLQ_ORDER = DLQ_PREFIX + "order";
     public static final String DLQ_PAYMENT = DLQ_PREFIX + "payment";
+    public static final String DLQ_PATTERN = DLQ_PREFIX + ".*";
 
     // ==================== Consumer Groups ====================
     public static final String GROUP_USER_SERVICE = "user-service-group";
@@ -42,5 +47,6 @@ public final class KafkaTopics {
     public static final String GROUP_PAYMENT_SERVICE = "payment-service-group";
     public static final String GROUP_NOTIFICATION_SERVICE = "notification-service-group";
     public static final String GROUP_DLQ_HANDLER = "dlq-handler-group";
+    public static final String GROUP_ORDER_TIMEOUT = "order-timeout-group";
 }
 
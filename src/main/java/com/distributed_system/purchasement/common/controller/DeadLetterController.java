@@ -0,0 +1,51 @@
+package com.distributed_system.purchasement.common.controller;
+
+import com.distributed_system.purchasement.common.service.dlq.DeadLetterReplayRequest;
+import com.distributed_system.purchasement.common.service.dlq.DeadLetterReplayResult;
+import com.distributed_system.purchasement.common.service.dlq.DeadLetterReplayService;
+import com.distributed_system.purchasement.entity.DeadLetter;
+import com.distributed_system.purchasement.mapper.DeadLetterMapper;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Dead Letter Controller
+ * Browse stored dead letters and replay them to their original topics
+ */
+@RestController
+@RequestMapping("/kafka/dlq")
+@RequiredArgsConstructor
+public class DeadLetterController {
+
+    private static final int MAX_LIST_LIMIT = 500;
+
+    private final DeadLetterMapper deadLetterMapper;
+    private final DeadLetterReplayService deadLetterReplayService;
+
+    /**
+     * Latest dead letters (without payload)
+     * GET /kafka/dlq?originalTopic=order-created&status=PENDING&fingerprint=...&limit=50
+     */
+    @GetMapping
+    public ResponseEntity<List<DeadLetter>> list(
+            @RequestParam(required = false) String originalTopic,
+            @RequestParam(required = false) String status,
+            @RequestParam(required = false) String fingerprint,
+            @RequestParam(defaultValue = "50") int limit) {
+        return ResponseEntity.ok(deadLetterMapper.selectRecent(originalTopic, status, fingerprint,
+                Math.max(1, Math.min(limit, MAX_LIST_LIMIT))));
+    }
+
+    /**
+     * Replay a selection
+     * POST /kafka/dlq/replay  {"originalTopic": "order-created", "fromId": 100, "toId": 500, "ratePerSecond": 100}
+     */
+    @PostMapping("/replay")
+    public CompletableFuture<ResponseEntity<DeadLetterReplayResult>> replay(@RequestBody DeadLetterReplayRequest request) {
+        return deadLetterReplayService.replay(request).thenApply(ResponseEntity::ok);
+    }
+}
@@ -5,9 +5,11 @@ import com.distributed_system.purchasement.common.event.OrderEvent;
 import com.distributed_system.purchasement.common.event.PaymentEvent;
 import com.distributed_system.purchasement.common.event.UserEvent;
 import com.distributed_system.purchasement.common.service.kafka.KafkaProducerService;
+import com.distributed_system.purchasement.common.service.outbox.OutboxService;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.http.ResponseEntity;
+import org.springframework.transaction.support.TransactionTemplate;
 import org.springframework.web.bind.annotation.*;
 
 import java.math.BigDecimal;
@@ -15,6 +17,7 @@ import java.util.Arrays;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
 
 /**
  * Kafka Test Controller
@@ -27,6 +30,8 @@ import java.util.Map;
 public class KafkaTestController {
 
     private final KafkaProducerService kafkaProducerService;
+    private final OutboxService outboxService;
+    private final TransactionTemplate transactionTemplate;
 
     // ==================== User Events ====================
 
@@ -246,11 +251,12 @@ public class KafkaTestController {
     }
 
     /**
-     * Test: Send batch of messages
+     * Test: Send batch of messages, responds once every record is acknowledged
      * POST /kafka/test/batch?count=10
      */
     @PostMapping("/batch")
-    public ResponseEntity<Map<String, Object>> sendBatch(@RequestParam(defaultValue = "10") int count) {
+    public CompletableFuture<ResponseEntity<Map<String, Object>>> sendBatch(
+            @RequestParam(defaultValue = "10") int count) {
 
         List<UserEvent> events = new java.util.ArrayList<>();
         for (int i = 0; i < count; i++) {
@@ -262,12 +268,46 @@ public class KafkaTestController {
             ));
         }
 
-        kafkaProducerService.sendEventBatch(KafkaTopics.USER_CREATED, events);
+        return kafkaProducerService.sendEventBatchAsync(KafkaTopics.USER_CREATED, events)
+                .thenApply(result -> {
+                    Map<String, Object> response = new HashMap<>();
+                    response.put("status", result.isAllSucceeded() ? "Batch sent" : "Batch partially failed");
+                    response.put("count", count);
+                    response.put("succeeded", result.getSucceeded());
+                    response.put("failed", result.getFailed());
+                    response.put("elapsedMs", result.getElapsedMillis());
+                    response.put("topic", KafkaTopics.USER_CREATED);
+                    return ResponseEntity.ok(response);
+                });
+    }
+
+    /**
+     * Test: Write order events to the outbox in one transaction (published by OutboxRelay)
+     * POST /kafka/test/outbox/order/create?userId=123&count=100
+     */
+    @PostMapping("/outbox/order/create")
+    public ResponseEntity<Map<String, Object>> createOrdersViaOutbox(
+            @RequestParam Long userId,
+            @RequestParam(defaultValue = "1") int count) {
+
+        List<OrderEvent> events = new java.util.ArrayList<>();
+        long baseOrderId = System.currentTimeMillis(); // Simulated orderIds
+        for (int i = 0; i < count; i++) {
+            events.add(OrderEvent.created(
+                    baseOrderId + i,
+                    userId,
+                    List.of(new OrderEvent.OrderItem(1L, "Product A", 1, new BigDecimal("29.99"))),
+                    new BigDecimal("29.99")
+            ));
+        }
+
+        transactionTemplate.executeWithoutResult(status ->
+                outboxService.appendAll(KafkaTopics.ORDER_CREATED, events));
 
         Map<String, Object> response = new HashMap<>();
-        response.put("status", "Batch sent");
+        response.put("status", "Events written to outbox");
         response.put("count", count);
-        response.put("topic", KafkaTopics.USER_CREATED);
+        response.put("topic", KafkaTopics.ORDER_CREATED);
 
         return ResponseEntity.ok(response);
     }
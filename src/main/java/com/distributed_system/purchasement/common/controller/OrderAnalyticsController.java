@@ -0,0 +1,57 @@
+package com.distributed_system.purchasement.common.controller;
+
+import com.distributed_system.purchasement.common.service.analytics.OrderAnalyticsStage;
+import com.distributed_system.purchasement.common.service.analytics.WindowResult;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Order Analytics Controller
+ * Windowed revenue, order counts and payment failure rates from the local aggregation stage
+ */
+@RestController
+@RequestMapping("/kafka/analytics")
+@RequiredArgsConstructor
+@ConditionalOnProperty(name = "kafka.analytics.enabled", havingValue = "true")
+public class OrderAnalyticsController {
+
+    private static final long DEFAULT_RANGE_MS = 3600000;
+
+    private final OrderAnalyticsStage orderAnalyticsStage;
+
+    /**
+     * Configured windows and stage state
+     * GET /kafka/analytics
+     */
+    @GetMapping
+    public ResponseEntity<Map<String, Object>> status() {
+        Map<String, Object> status = new LinkedHashMap<>();
+        status.put("windows", orderAnalyticsStage.getWindows());
+        status.put("watermark", orderAnalyticsStage.getWatermark());
+        status.put("openWindows", orderAnalyticsStage.getOpenWindows());
+        status.put("droppedLate", orderAnalyticsStage.getDroppedLate());
+        return ResponseEntity.ok(status);
+    }
+
+    /**
+     * Windows starting in [from, to) (epoch millis, default the last hour), oldest first
+     * Windows still open are returned with closed=false
+     * GET /kafka/analytics/1m?from=1760000000000&to=1760003600000
+     */
+    @GetMapping("/{window}")
+    public ResponseEntity<List<WindowResult>> query(
+            @PathVariable String window,
+            @RequestParam(required = false) Long from,
+            @RequestParam(required = false) Long to) {
+        long end = to != null ? to : System.currentTimeMillis();
+        long start = from != null ? from : end - DEFAULT_RANGE_MS;
+        List<WindowResult> results = orderAnalyticsStage.query(window, start, end);
+        return results != null ? ResponseEntity.ok(results) : ResponseEntity.notFound().build();
+    }
+}
@@ -0,0 +1,75 @@
+package com.distributed_system.purchasement.common.controller;
+
+import com.distributed_system.purchasement.common.service.orderindex.OrderIndexer;
+import com.distributed_system.purchasement.common.service.orderindex.OrderStatus;
+import com.distributed_system.purchasement.common.service.orderindex.OrderSummary;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Order Index Controller
+ * Order status lookups from the local order index instead of MySQL
+ * Answers 503 until the index has caught up with the order topics
+ */
+@RestController
+@RequestMapping("/kafka/orders")
+@RequiredArgsConstructor
+@ConditionalOnProperty(name = "kafka.order-index.enabled", havingValue = "true")
+public class OrderIndexController {
+
+    private static final int MAX_LIST_LIMIT = 500;
+
+    private final OrderIndexer orderIndexer;
+
+    /**
+     * Point lookup
+     * GET /kafka/orders/1001
+     */
+    @GetMapping("/{orderId}")
+    public ResponseEntity<OrderSummary> get(@PathVariable long orderId) {
+        if (!orderIndexer.isCaughtUp()) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).build();
+        }
+        return ResponseEntity.of(orderIndexer.getIndex().find(orderId));
+    }
+
+    /**
+     * Orders of a user, newest first
+     * GET /kafka/orders/users/42?fromOrderId=1000&toOrderId=2000&status=COMPLETED&limit=50
+     */
+    @GetMapping("/users/{userId}")
+    public ResponseEntity<List<OrderSummary>> listByUser(
+            @PathVariable long userId,
+            @RequestParam(defaultValue = "0") long fromOrderId,
+            @RequestParam(defaultValue = "" + Long.MAX_VALUE) long toOrderId,
+            @RequestParam(required = false) OrderStatus status,
+            @RequestParam(defaultValue = "50") int limit) {
+        if (!orderIndexer.isCaughtUp()) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).build();
+        }
+        return ResponseEntity.ok(orderIndexer.getIndex().findByUser(userId, fromOrderId, toOrderId, status,
+                Math.max(1, Math.min(limit, MAX_LIST_LIMIT))));
+    }
+
+    /**
+     * Index size and snapshot state
+     * GET /kafka/orders/stats
+     */
+    @GetMapping("/stats")
+    public ResponseEntity<Map<String, Object>> stats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("caughtUp", orderIndexer.isCaughtUp());
+        stats.put("orders", orderIndexer.getIndex().size());
+        stats.put("memoryBytes", orderIndexer.getIndex().memoryBytes());
+        stats.put("lastSnapshotAt", orderIndexer.getLastSnapshotAt());
+        stats.put("lastSnapshotBytes", orderIndexer.getLastSnapshotBytes());
+        return ResponseEntity.ok(stats);
+    }
+}
@@ -6,6 +6,7 @@ import lombok.NoArgsConstructor;
 import lombok.experimental.SuperBuilder;
 
 import java.time.LocalDateTime;
+import java.time.ZoneId;
 import java.util.UUID;
 
 /**
@@ -61,5 +62,16 @@ public abstract class BaseEvent {
             this.correlationId = UUID.randomUUID().toString();
         }
     }
+
+    /**
+     * Event time in epoch millis
+     * timestamp is zone-less and set with LocalDateTime.now(), so it is read in the JVM's zone
+     * (producers and consumers are expected to share it; record.timestamp() is zone-free).
+     *
+     * @param fallback returned when the event has no timestamp
+     */
+    public long timestampMillis(long fallback) {
+        return timestamp != null ? timestamp.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli() : fallback;
+    }
 }
 
@@ -0,0 +1,85 @@
+package com.distributed_system.purchasement.common.job;
+
+import com.distributed_system.purchasement.common.service.outbox.OutboxRelay;
+import com.xxl.job.core.context.XxlJobHelper;
+import com.xxl.job.core.handler.annotation.XxlJob;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * Outbox XXL-JOB handlers
+ * Catch-up sweep for the outbox relay (backlog after an outage, rows left by a dead relay),
+ * purge of sent rows and requeue of FAILED rows. Registered by xxl-job-sql/outbox_jobs.sql;
+ * the catch-up drain runs under the relay lease, so it only relays on the lease holder.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class OutboxJobHandler {
+
+    private final OutboxRelay outboxRelay;
+
+    @Value("${kafka.outbox.job.stale-seconds:60}")
+    private int staleSeconds;
+
+    @Value("${kafka.outbox.job.max-batches:500}")
+    private int maxBatches;
+
+    @Value("${kafka.outbox.job.retention-days:7}")
+    private int retentionDays;
+
+    @Value("${kafka.outbox.job.purge-limit:10000}")
+    private int purgeLimit;
+
+    /**
+     * Release stale claims, then drain up to max-batches batches
+     * Job param (optional): max batches for this run
+     */
+    @XxlJob("outboxCatchUpJob")
+    public void outboxCatchUpJob() {
+        int batches = parseOrDefault(XxlJobHelper.getJobParam(), maxBatches);
+
+        int released = outboxRelay.releaseStale(staleSeconds);
+        int published = outboxRelay.drain(batches);
+
+        XxlJobHelper.log("Outbox catch-up: released {} stale rows, published {} events", released, published);
+        log.info("Outbox catch-up: released {} stale rows, published {} events", released, published);
+    }
+
+    /**
+     * Give FAILED rows (max attempts reached) a fresh attempt budget once the cause is fixed
+     * Job param (optional): max rows to requeue
+     */
+    @XxlJob("outboxRequeueFailedJob")
+    public void outboxRequeueFailedJob() {
+        int limit = parseOrDefault(XxlJobHelper.getJobParam(), purgeLimit);
+        int requeued = outboxRelay.requeueFailed(limit);
+
+        XxlJobHelper.log("Outbox requeue: {} failed rows back to PENDING", requeued);
+        log.info("Outbox requeue: {} failed rows back to PENDING", requeued);
+    }
+
+    /**
+     * Delete published rows older than retention-days
+     */
+    @XxlJob("outboxPurgeJob")
+    public void outboxPurgeJob() {
+        int deleted = outboxRelay.purgeSent(retentionDays, purgeLimit);
+
+        XxlJobHelper.log("Outbox purge: deleted {} sent rows", deleted);
+        log.info("Outbox purge: deleted {} sent rows", deleted);
+    }
+
+    private static int parseOrDefault(String param, int defaultValue) {
+        if (param == null || param.isBlank()) {
+            return defaultValue;
+        }
+        try {
+            return Integer.parseInt(param.trim());
+        } catch (NumberFormatException e) {
+            return defaultValue;
+        }
+    }
+}
@@ -0,0 +1,308 @@
+package com.distributed_system.purchasement.common.service.analytics;
+
+import com.distributed_system.purchasement.common.constant.KafkaTopics;
+import com.distributed_system.purchasement.common.event.BaseEvent;
+import com.distributed_system.purchasement.common.event.OrderEvent;
+import com.distributed_system.purchasement.common.service.analytics.WindowAggregate.EventKind;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.kafka.clients.consumer.Consumer;
+import org.apache.kafka.clients.consumer.ConsumerConfig;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.clients.consumer.ConsumerRecords;
+import org.apache.kafka.clients.consumer.OffsetAndTimestamp;
+import org.apache.kafka.common.PartitionInfo;
+import org.apache.kafka.common.TopicPartition;
+import org.apache.kafka.common.errors.WakeupException;
+import org.springframework.kafka.core.ConsumerFactory;
+import org.springframework.kafka.core.KafkaTemplate;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.math.RoundingMode;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Streaming revenue / throughput aggregation over order-completed, order-cancelled and payment-failed
+ * - every instance reads all partitions (assign, nothing committed) and holds the full aggregates,
+ *   so /kafka/analytics answers locally
+ * - event time from BaseEvent.timestamp, watermark by WatermarkTracker, windows by WindowedAggregator
+ * - closed windows (and late revisions) go to the compacted order-analytics topic keyed by
+ *   "{window}:{start}"; instances publish identical keys, set kafka.analytics.publish=false on all
+ *   but one to avoid the duplicates
+ * - aggregates, watermark state and positions are checkpointed to a local file every
+ *   checkpoint-interval-ms; a restart resumes from there, a first start from now - start-lookback-ms
+ */
+@Slf4j
+public class OrderAnalyticsStage implements Runnable {
+
+    private static final int CHECKPOINT_MAGIC = 0x4F414E31; // "OAN1"
+
+    private static final Map<String, EventKind> TOPIC_KINDS = Map.of(
+            KafkaTopics.ORDER_COMPLETED, EventKind.ORDER_COMPLETED,
+            KafkaTopics.ORDER_CANCELLED, EventKind.ORDER_CANCELLED,
+            KafkaTopics.PAYMENT_FAILED, EventKind.PAYMENT_FAILED);
+
+    private final ConsumerFactory<String, Object> consumerFactory;
+    private final KafkaTemplate<String, Object> kafkaTemplate;
+    private final WindowedAggregator aggregator;
+    private final WatermarkTracker watermarks;
+    private final boolean publish;
+    private final Path checkpointFile;
+    private final long checkpointIntervalMs;
+    private final long startLookbackMs;
+    private final Duration pollTimeout;
+
+    private final Map<TopicPartition, Long> positions = new HashMap<>();
+
+    private volatile boolean running;
+    private volatile Consumer<String, Object> consumer;
+    private Thread thread;
+
+    public OrderAnalyticsStage(ConsumerFactory<String, Object> consumerFactory, KafkaTemplate<String, Object> kafkaTemplate,
+                               List<WindowSpec> windows, long maxOutOfOrderMs, long idleMs, long allowedLatenessMs,
+                               int historySize, boolean publish, Path checkpointFile, long checkpointIntervalMs,
+                               long startLookbackMs, long pollTimeoutMs) {
+        this.consumerFactory = consumerFactory;
+        this.kafkaTemplate = kafkaTemplate;
+        this.aggregator = new WindowedAggregator(windows, allowedLatenessMs, historySize);
+        this.watermarks = new WatermarkTracker(maxOutOfOrderMs, idleMs);
+        this.publish = publish;
+        this.checkpointFile = checkpointFile;
+        this.checkpointIntervalMs = checkpointIntervalMs;
+        this.startLookbackMs = startLookbackMs;
+        this.pollTimeout = Duration.ofMillis(pollTimeoutMs);
+    }
+
+    public synchronized void start() {
+        if (running) {
+            return;
+        }
+        running = true;
+        thread = new Thread(this, "order-analytics");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    public synchronized void stop() throws InterruptedException {
+        running = false;
+        Consumer<String, Object> current = consumer;
+        if (current != null) {
+            current.wakeup();
+        }
+        if (thread != null) {
+            thread.join(TimeUnit.SECONDS.toMillis(10));
+        }
+    }
+
+    // ==================== Query ====================
+
+    /**
+     * Windows of a spec with from <= start < to, null for an unknown window name
+     */
+    public List<WindowResult> query(String window, long from, long to) {
+        return aggregator.query(window, from, to);
+    }
+
+    public List<WindowSpec> getWindows() {
+        return aggregator.getSpecs();
+    }
+
+    public long getWatermark() {
+        return aggregator.getWatermark();
+    }
+
+    public long getDroppedLate() {
+        return aggregator.getDroppedLate();
+    }
+
+    public int getOpenWindows() {
+        return aggregator.openWindowCount();
+    }
+
+    // ==================== Stage ====================
+
+    @Override
+    public void run() {
+        restore();
+        while (running) {
+            try {
+                follow();
+            } catch (WakeupException e) {
+                // stop()
+            } catch (Exception e) {
+                if (running) {
+                    // State and positions stay consistent, the next attempt resumes from them
+                    log.warn("Order analytics stage failed, resuming in 5s: {}", e.getMessage());
+                    sleep(5000);
+                }
+            }
+        }
+        checkpoint();
+    }
+
+    private void follow() {
+        Properties overrides = new Properties();
+        overrides.put(ConsumerConfig.MAX_POLL_RECORDS_CONFIG, 5000);
+        try (Consumer<String, Object> current = consumerFactory.createConsumer(null, "order-analytics", null, overrides)) {
+            consumer = current;
+            List<TopicPartition> partitions = new ArrayList<>();
+            for (String topic : TOPIC_KINDS.keySet()) {
+                for (PartitionInfo info : current.partitionsFor(topic, Duration.ofSeconds(30))) {
+                    partitions.add(new TopicPartition(info.topic(), info.partition()));
+                }
+            }
+            current.assign(partitions);
+            seek(current, partitions);
+
+            long lastCheckpoint = System.currentTimeMillis();
+            while (running) {
+                ConsumerRecords<String, Object> records = current.poll(pollTimeout);
+                long now = System.currentTimeMillis();
+                List<WindowResult> results = new ArrayList<>();
+                for (ConsumerRecord<String, Object> record : records) {
+                    apply(record, now, results);
+                }
+                for (TopicPartition tp : records.partitions()) {
+                    positions.put(tp, current.position(tp));
+                }
+                results.addAll(aggregator.advance(watermarks.advance(now)));
+                publish(results);
+
+                if (now - lastCheckpoint >= checkpointIntervalMs) {
+                    checkpoint();
+                    lastCheckpoint = now;
+                }
+            }
+        } finally {
+            consumer = null;
+        }
+    }
+
+    private void apply(ConsumerRecord<String, Object> record, long now, List<WindowResult> results) {
+        EventKind kind = TOPIC_KINDS.get(record.topic());
+        // Undeserializable records arrive with a null value, the listeners' DLQ handles them
+        if (kind == null || !(record.value() instanceof BaseEvent event)) {
+            return;
+        }
+        long eventTime = event.timestampMillis(record.timestamp());
+        long amountCents = 0;
+        if (event instanceof OrderEvent order && order.getTotalAmount() != null) {
+            amountCents = order.getTotalAmount().setScale(2, RoundingMode.HALF_UP).unscaledValue().longValue();
+        }
+        watermarks.observe(new TopicPartition(record.topic(), record.partition()), eventTime, now);
+        if (!aggregator.add(kind, eventTime, amountCents, results)) {
+            log.debug("Dropped late {} at {}-{}@{}, event time {} behind watermark {}", kind, record.topic(),
+                    record.partition(), record.offset(), eventTime, aggregator.getWatermark());
+        }
+    }
+
+    private void publish(List<WindowResult> results) {
+        if (!publish || results.isEmpty()) {
+            return;
+        }
+        for (WindowResult result : results) {
+            kafkaTemplate.send(KafkaTopics.ORDER_ANALYTICS, result.key(), result).whenComplete((sent, error) -> {
+                if (error != null) {
+                    log.warn("Cannot publish window {}: {}", result.key(), error.getMessage());
+                }
+            });
+        }
+    }
+
+    private void seek(Consumer<String, Object> current, List<TopicPartition> partitions) {
+        Map<TopicPartition, Long> query = new HashMap<>();
+        for (TopicPartition tp : partitions) {
+            Long position = positions.get(tp);
+            if (position != null) {
+                current.seek(tp, position);
+            } else {
+                query.put(tp, System.currentTimeMillis() - startLookbackMs);
+            }
+        }
+        if (query.isEmpty()) {
+            return;
+        }
+        List<TopicPartition> toEnd = new ArrayList<>();
+        for (Map.Entry<TopicPartition, OffsetAndTimestamp> entry : current.offsetsForTimes(query).entrySet()) {
+            if (entry.getValue() != null) {
+                current.seek(entry.getKey(), entry.getValue().offset());
+            } else {
+                toEnd.add(entry.getKey());
+            }
+        }
+        current.seekToEnd(toEnd);
+    }
+
+    // ==================== Checkpoint ====================
+
+    private void checkpoint() {
+        Path temp = checkpointFile.resolveSibling(checkpointFile.getFileName() + ".tmp");
+        try {
+            Files.createDirectories(checkpointFile.toAbsolutePath().getParent());
+            try (OutputStream file = Files.newOutputStream(temp);
+                 DataOutputStream out = new DataOutputStream(new BufferedOutputStream(file))) {
+                out.writeInt(CHECKPOINT_MAGIC);
+                out.writeInt(positions.size());
+                for (Map.Entry<TopicPartition, Long> entry : positions.entrySet()) {
+                    out.writeUTF(entry.getKey().topic());
+                    out.writeInt(entry.getKey().partition());
+                    out.writeLong(entry.getValue());
+                }
+                watermarks.write(out);
+                aggregator.write(out);
+            }
+            Files.move(temp, checkpointFile, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            log.warn("Cannot write analytics checkpoint {}: {}", checkpointFile, e.getMessage());
+        }
+    }
+
+    private void restore() {
+        if (!Files.isRegularFile(checkpointFile)) {
+            return;
+        }
+        try (InputStream file = Files.newInputStream(checkpointFile);
+             DataInputStream in = new DataInputStream(new BufferedInputStream(file))) {
+            if (in.readInt() != CHECKPOINT_MAGIC) {
+                log.warn("Ignoring analytics checkpoint {} with unknown format", checkpointFile);
+                return;
+            }
+            Map<TopicPartition, Long> restored = new HashMap<>();
+            int count = in.readInt();
+            for (int i = 0; i < count; i++) {
+                restored.put(new TopicPartition(in.readUTF(), in.readInt()), in.readLong());
+            }
+            watermarks.read(in);
+            aggregator.read(in);
+            positions.putAll(restored);
+            log.info("Order analytics restored from {}: {} partitions, {} open windows, watermark {}",
+                    checkpointFile, restored.size(), aggregator.openWindowCount(), aggregator.getWatermark());
+        } catch (IOException | RuntimeException e) {
+            log.warn("Cannot read analytics checkpoint {}, starting over: {}", checkpointFile, e.getMessage());
+            watermarks.clear();
+            aggregator.clear();
+        }
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
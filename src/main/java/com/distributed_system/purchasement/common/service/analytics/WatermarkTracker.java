@@ -0,0 +1,86 @@
+package com.distributed_system.purchasement.common.service.analytics;
+
+import org.apache.kafka.common.TopicPartition;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Event-time watermark over all input partitions
+ * - per partition: highest event time seen and when it last delivered a record
+ * - watermark = min over active partitions of their highest event time - max-out-of-order-ms
+ * - a partition idle for idle-ms no longer holds the watermark back; when all are idle the
+ *   highest event time of any partition is used
+ * - never moves backwards
+ */
+class WatermarkTracker {
+
+    private final long maxOutOfOrderMs;
+    private final long idleMs;
+    private final Map<TopicPartition, long[]> partitions = new HashMap<>();
+    private long watermark = Long.MIN_VALUE;
+
+    WatermarkTracker(long maxOutOfOrderMs, long idleMs) {
+        this.maxOutOfOrderMs = maxOutOfOrderMs;
+        this.idleMs = idleMs;
+    }
+
+    void observe(TopicPartition tp, long eventTime, long now) {
+        long[] state = partitions.computeIfAbsent(tp, k -> new long[]{Long.MIN_VALUE, 0});
+        state[0] = Math.max(state[0], eventTime);
+        state[1] = now;
+    }
+
+    /**
+     * Recompute the watermark at wall clock now
+     */
+    long advance(long now) {
+        long activeMin = Long.MAX_VALUE;
+        long highest = Long.MIN_VALUE;
+        for (long[] state : partitions.values()) {
+            highest = Math.max(highest, state[0]);
+            if (now - state[1] < idleMs) {
+                activeMin = Math.min(activeMin, state[0]);
+            }
+        }
+        long basis = activeMin != Long.MAX_VALUE ? activeMin : highest;
+        if (basis != Long.MIN_VALUE) {
+            watermark = Math.max(watermark, basis - maxOutOfOrderMs);
+        }
+        return watermark;
+    }
+
+    long current() {
+        return watermark;
+    }
+
+    void clear() {
+        partitions.clear();
+        watermark = Long.MIN_VALUE;
+    }
+
+    void write(DataOutput out) throws IOException {
+        out.writeLong(watermark);
+        out.writeInt(partitions.size());
+        for (Map.Entry<TopicPartition, long[]> entry : partitions.entrySet()) {
+            out.writeUTF(entry.getKey().topic());
+            out.writeInt(entry.getKey().partition());
+            out.writeLong(entry.getValue()[0]);
+        }
+    }
+
+    /**
+     * Restored partitions count as idle until they deliver again
+     */
+    void read(DataInput in) throws IOException {
+        watermark = in.readLong();
+        int count = in.readInt();
+        for (int i = 0; i < count; i++) {
+            TopicPartition tp = new TopicPartition(in.readUTF(), in.readInt());
+            partitions.put(tp, new long[]{in.readLong(), 0});
+        }
+    }
+}
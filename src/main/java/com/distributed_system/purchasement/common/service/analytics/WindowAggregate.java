@@ -0,0 +1,68 @@
+package com.distributed_system.purchasement.common.service.analytics;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.math.BigDecimal;
+
+/**
+ * Incremental counters of one open window (primitive fields, updated in place)
+ */
+class WindowAggregate {
+
+    long completedOrders;
+    long revenueCents;
+    long cancelledOrders;
+    long paymentFailures;
+    /** Results published so far, -1 while the window is open */
+    int revision = -1;
+
+    void add(EventKind kind, long amountCents) {
+        switch (kind) {
+            case ORDER_COMPLETED -> {
+                completedOrders++;
+                revenueCents += amountCents;
+            }
+            case ORDER_CANCELLED -> cancelledOrders++;
+            case PAYMENT_FAILED -> paymentFailures++;
+        }
+    }
+
+    boolean isClosed() {
+        return revision >= 0;
+    }
+
+    WindowResult toResult(WindowSpec spec, long start) {
+        long attempts = completedOrders + paymentFailures;
+        return new WindowResult(spec.name(), start, start + spec.sizeMs(), completedOrders,
+                BigDecimal.valueOf(revenueCents, 2), cancelledOrders, paymentFailures,
+                attempts == 0 ? 0.0 : (double) paymentFailures / attempts, isClosed(), Math.max(revision, 0));
+    }
+
+    void write(DataOutput out) throws IOException {
+        out.writeLong(completedOrders);
+        out.writeLong(revenueCents);
+        out.writeLong(cancelledOrders);
+        out.writeLong(paymentFailures);
+        out.writeInt(revision);
+    }
+
+    static WindowAggregate read(DataInput in) throws IOException {
+        WindowAggregate aggregate = new WindowAggregate();
+        aggregate.completedOrders = in.readLong();
+        aggregate.revenueCents = in.readLong();
+        aggregate.cancelledOrders = in.readLong();
+        aggregate.paymentFailures = in.readLong();
+        aggregate.revision = in.readInt();
+        return aggregate;
+    }
+
+    /**
+     * Input event kinds, one per source topic
+     */
+    enum EventKind {
+        ORDER_COMPLETED,
+        ORDER_CANCELLED,
+        PAYMENT_FAILED
+    }
+}
@@ -0,0 +1,19 @@
+package com.distributed_system.purchasement.common.service.analytics;
+
+import java.math.BigDecimal;
+
+/**
+ * Aggregate of one window, as published to order-analytics (key "{window}:{start}") and served
+ * at /kafka/analytics
+ *
+ * @param closed   false while the watermark has not passed the window end (partial values)
+ * @param revision 0 for the first closed result, incremented by every late update after that
+ */
+public record WindowResult(String window, long start, long end, long completedOrders, BigDecimal revenue,
+                           long cancelledOrders, long paymentFailures, double paymentFailureRate,
+                           boolean closed, int revision) {
+
+    public String key() {
+        return window + ":" + start;
+    }
+}
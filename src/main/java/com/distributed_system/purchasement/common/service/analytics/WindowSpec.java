@@ -0,0 +1,58 @@
+package com.distributed_system.purchasement.common.service.analytics;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A window definition: tumbling when advance == size, hopping when advance < size
+ *
+ * @param name     key of the window in results and at /kafka/analytics/{name}
+ * @param sizeMs   window length
+ * @param advanceMs distance between window starts
+ */
+public record WindowSpec(String name, long sizeMs, long advanceMs) {
+
+    public WindowSpec {
+        if (sizeMs <= 0 || advanceMs <= 0 || advanceMs > sizeMs || sizeMs % advanceMs != 0) {
+            throw new IllegalArgumentException("Invalid window " + name + ": size " + sizeMs + ", advance " + advanceMs);
+        }
+    }
+
+    public boolean isTumbling() {
+        return advanceMs == sizeMs;
+    }
+
+    /**
+     * Starts of the windows containing eventTime, latest first (one for tumbling, size/advance for hopping)
+     */
+    public long[] windowStarts(long eventTime) {
+        long latest = Math.floorDiv(eventTime, advanceMs) * advanceMs;
+        long[] starts = new long[(int) (sizeMs / advanceMs)];
+        for (int i = 0; i < starts.length; i++) {
+            starts[i] = latest - i * advanceMs;
+        }
+        return starts;
+    }
+
+    /**
+     * Parse "name=size[/advance],..." e.g. "1m=60000,1h=3600000,1h-hop-5m=3600000/300000"
+     */
+    public static List<WindowSpec> parse(String specs) {
+        List<WindowSpec> result = new ArrayList<>();
+        for (String spec : specs.split(",")) {
+            String trimmed = spec.trim();
+            if (trimmed.isEmpty()) {
+                continue;
+            }
+            int eq = trimmed.indexOf('=');
+            if (eq <= 0) {
+                throw new IllegalArgumentException("Invalid window spec '" + trimmed + "', expected name=size[/advance]");
+            }
+            String[] sizes = trimmed.substring(eq + 1).split("/");
+            long size = Long.parseLong(sizes[0].trim());
+            long advance = sizes.length > 1 ? Long.parseLong(sizes[1].trim()) : size;
+            result.add(new WindowSpec(trimmed.substring(0, eq).trim(), size, advance));
+        }
+        return result;
+    }
+}
@@ -0,0 +1,247 @@
+package com.distributed_system.purchasement.common.service.analytics;
+
+import com.distributed_system.purchasement.common.service.analytics.WindowAggregate.EventKind;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Event-time windowed aggregation for every WindowSpec
+ * - open windows per spec in a TreeMap by start, counters updated in place
+ * - a window closes (final result) once the watermark passes its end
+ * - closed windows stay updatable for allowed-lateness-ms, a late event re-publishes the window
+ *   with the next revision; events later than that are dropped and counted
+ * - the last history-size closed results per spec are kept for queries
+ *
+ * Written by the stage thread, read by the query endpoint: all methods are synchronized.
+ */
+class WindowedAggregator {
+
+    private final List<WindowSpec> specs;
+    private final long allowedLatenessMs;
+    private final int historySize;
+    private final Map<String, TreeMap<Long, WindowAggregate>> open = new LinkedHashMap<>();
+    private final Map<String, Deque<WindowResult>> history = new LinkedHashMap<>();
+
+    private long watermark = Long.MIN_VALUE;
+    private long droppedLate;
+
+    WindowedAggregator(List<WindowSpec> specs, long allowedLatenessMs, int historySize) {
+        this.specs = List.copyOf(specs);
+        this.allowedLatenessMs = allowedLatenessMs;
+        this.historySize = historySize;
+        for (WindowSpec spec : specs) {
+            open.put(spec.name(), new TreeMap<>());
+            history.put(spec.name(), new ArrayDeque<>());
+        }
+    }
+
+    /**
+     * Add one event to all its windows, late updates of closed windows go to updates
+     *
+     * @return false if the event was too late for every window
+     */
+    synchronized boolean add(EventKind kind, long eventTime, long amountCents, List<WindowResult> updates) {
+        boolean accepted = false;
+        for (WindowSpec spec : specs) {
+            TreeMap<Long, WindowAggregate> windows = open.get(spec.name());
+            for (long start : spec.windowStarts(eventTime)) {
+                long end = start + spec.sizeMs();
+                if (watermark != Long.MIN_VALUE && end + allowedLatenessMs <= watermark) {
+                    continue;
+                }
+                WindowAggregate aggregate = windows.computeIfAbsent(start, k -> new WindowAggregate());
+                aggregate.add(kind, amountCents);
+                accepted = true;
+                if (aggregate.isClosed()) {
+                    aggregate.revision++;
+                    WindowResult result = aggregate.toResult(spec, start);
+                    replaceInHistory(spec.name(), result);
+                    updates.add(result);
+                }
+            }
+        }
+        if (!accepted) {
+            droppedLate++;
+        }
+        return accepted;
+    }
+
+    /**
+     * Move to a new watermark: close the windows it passed and purge those beyond the lateness bound
+     *
+     * @return results of the windows closed now
+     */
+    synchronized List<WindowResult> advance(long newWatermark) {
+        if (newWatermark <= watermark) {
+            return List.of();
+        }
+        watermark = newWatermark;
+        List<WindowResult> closed = new ArrayList<>();
+        for (WindowSpec spec : specs) {
+            Iterator<Map.Entry<Long, WindowAggregate>> it = open.get(spec.name()).entrySet().iterator();
+            while (it.hasNext()) {
+                Map.Entry<Long, WindowAggregate> entry = it.next();
+                long end = entry.getKey() + spec.sizeMs();
+                if (end > watermark) {
+                    break;
+                }
+                WindowAggregate aggregate = entry.getValue();
+                if (!aggregate.isClosed()) {
+                    aggregate.revision = 0;
+                    WindowResult result = aggregate.toResult(spec, entry.getKey());
+                    addToHistory(spec.name(), result);
+                    closed.add(result);
+                }
+                if (end + allowedLatenessMs <= watermark) {
+                    it.remove();
+                }
+            }
+        }
+        return closed;
+    }
+
+    /**
+     * Closed and open windows of a spec with from <= start < to, oldest first
+     */
+    synchronized List<WindowResult> query(String window, long from, long to) {
+        Deque<WindowResult> closed = history.get(window);
+        if (closed == null) {
+            return null;
+        }
+        Map<Long, WindowResult> byStart = new TreeMap<>();
+        for (WindowResult result : closed) {
+            if (result.start() >= from && result.start() < to) {
+                byStart.put(result.start(), result);
+            }
+        }
+        WindowSpec spec = spec(window);
+        for (Map.Entry<Long, WindowAggregate> entry : open.get(window).subMap(from, to).entrySet()) {
+            byStart.putIfAbsent(entry.getKey(), entry.getValue().toResult(spec, entry.getKey()));
+        }
+        return new ArrayList<>(byStart.values());
+    }
+
+    synchronized List<WindowSpec> getSpecs() {
+        return specs;
+    }
+
+    synchronized long getWatermark() {
+        return watermark;
+    }
+
+    synchronized long getDroppedLate() {
+        return droppedLate;
+    }
+
+    synchronized int openWindowCount() {
+        int count = 0;
+        for (TreeMap<Long, WindowAggregate> windows : open.values()) {
+            count += windows.size();
+        }
+        return count;
+    }
+
+    // ==================== Checkpoint ====================
+
+    synchronized void clear() {
+        open.values().forEach(TreeMap::clear);
+        history.values().forEach(Deque::clear);
+        watermark = Long.MIN_VALUE;
+        droppedLate = 0;
+    }
+
+    synchronized void write(DataOutput out) throws IOException {
+        out.writeLong(watermark);
+        out.writeLong(droppedLate);
+        out.writeInt(specs.size());
+        for (WindowSpec spec : specs) {
+            out.writeUTF(spec.name());
+            TreeMap<Long, WindowAggregate> windows = open.get(spec.name());
+            out.writeInt(windows.size());
+            for (Map.Entry<Long, WindowAggregate> entry : windows.entrySet()) {
+                out.writeLong(entry.getKey());
+                entry.getValue().write(out);
+            }
+            Deque<WindowResult> closed = history.get(spec.name());
+            out.writeInt(closed.size());
+            for (WindowResult result : closed) {
+                out.writeLong(result.start());
+                out.writeLong(result.completedOrders());
+                out.writeLong(result.revenue().unscaledValue().longValue());
+                out.writeLong(result.cancelledOrders());
+                out.writeLong(result.paymentFailures());
+                out.writeInt(result.revision());
+            }
+        }
+    }
+
+    /**
+     * Restore state written by write(), specs no longer configured are skipped
+     */
+    synchronized void read(DataInput in) throws IOException {
+        watermark = in.readLong();
+        droppedLate = in.readLong();
+        int specCount = in.readInt();
+        for (int i = 0; i < specCount; i++) {
+            String name = in.readUTF();
+            WindowSpec spec = spec(name);
+            int windowCount = in.readInt();
+            for (int w = 0; w < windowCount; w++) {
+                long start = in.readLong();
+                WindowAggregate aggregate = WindowAggregate.read(in);
+                if (spec != null) {
+                    open.get(name).put(start, aggregate);
+                }
+            }
+            int closedCount = in.readInt();
+            for (int c = 0; c < closedCount; c++) {
+                long start = in.readLong();
+                // Same layout as WindowAggregate.write
+                WindowAggregate aggregate = WindowAggregate.read(in);
+                if (spec != null) {
+                    addToHistory(name, aggregate.toResult(spec, start));
+                }
+            }
+        }
+    }
+
+    // ==================== Internals ====================
+
+    private WindowSpec spec(String name) {
+        for (WindowSpec spec : specs) {
+            if (spec.name().equals(name)) {
+                return spec;
+            }
+        }
+        return null;
+    }
+
+    private void addToHistory(String window, WindowResult result) {
+        Deque<WindowResult> closed = history.get(window);
+        closed.addLast(result);
+        while (closed.size() > historySize) {
+            closed.removeFirst();
+        }
+    }
+
+    private void replaceInHistory(String window, WindowResult result) {
+        Iterator<WindowResult> it = history.get(window).descendingIterator();
+        while (it.hasNext()) {
+            if (it.next().start() == result.start()) {
+                it.remove();
+                break;
+            }
+        }
+        addToHistory(window, result);
+    }
+}
@@ -0,0 +1,256 @@
+package com.distributed_system.purchasement.common.service.dedup;
+
+import com.distributed_system.purchasement.common.event.BaseEvent;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.connection.RedisStreamCommands;
+import org.springframework.data.redis.connection.RedisStringCommands;
+import org.springframework.data.redis.connection.stream.MapRecord;
+import org.springframework.data.redis.connection.stream.ReadOffset;
+import org.springframework.data.redis.connection.stream.RecordId;
+import org.springframework.data.redis.connection.stream.StreamOffset;
+import org.springframework.data.redis.connection.stream.StreamReadOptions;
+import org.springframework.data.redis.connection.stream.StreamRecords;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.types.Expiration;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Event deduplication keyed on BaseEvent.eventId
+ * - isDuplicate(): a rotating Bloom filter answers "never seen" locally (no Redis call);
+ *   only possible duplicates are confirmed against Redis (dedup:event:{id}), or the local
+ *   store while Redis is down
+ * - markProcessed(): updates the filter and the local store right away, Redis writes are
+ *   queued and flushed in one pipeline per flush interval (SET with TTL + one stream entry)
+ * - every instance tails the dedup:processed stream into its filter, so records processed
+ *   elsewhere (before a rebalance or restart) are recognized as well
+ *
+ * While Redis is down at most max-pending-marks marks are queued, the overflow is dropped and counted.
+ *
+ * Consumption is eventually idempotent: a duplicate arriving within the flush + sync
+ * interval of the original processing on another instance can still get through.
+ */
+@Slf4j
+@Component
+public class EventDeduplicator {
+
+    private static final String KEY_PREFIX = "dedup:event:";
+    private static final String STREAM_KEY = "dedup:processed";
+    private static final String STREAM_FIELD = "ids";
+
+    private final StringRedisTemplate redisTemplate;
+    private final RotatingBloomFilter bloomFilter;
+    private final LocalDedupStore localStore;
+    private final ConcurrentLinkedQueue<String> pendingMarks = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger pendingCount = new AtomicInteger();
+    private final LongAdder droppedMarks = new LongAdder();
+    private final AtomicBoolean redisAvailable = new AtomicBoolean(true);
+    private final Duration window;
+    private final int syncBatch;
+    private final int maxPendingMarks;
+
+    private volatile String streamOffset;
+    private long reportedDrops;
+
+    @Value("${kafka.dedup.enabled:true}")
+    private boolean enabled;
+
+    public EventDeduplicator(StringRedisTemplate redisTemplate,
+                             @Value("${kafka.dedup.window-minutes:60}") long windowMinutes,
+                             @Value("${kafka.dedup.generations:4}") int generations,
+                             @Value("${kafka.dedup.expected-events-per-window:1000000}") long expectedPerWindow,
+                             @Value("${kafka.dedup.false-positive-rate:0.001}") double falsePositiveRate,
+                             @Value("${kafka.dedup.local-max-entries:200000}") int localMaxEntries,
+                             @Value("${kafka.dedup.sync-batch:500}") int syncBatch,
+                             @Value("${kafka.dedup.max-pending-marks:200000}") int maxPendingMarks) {
+        this.redisTemplate = redisTemplate;
+        this.window = Duration.ofMinutes(windowMinutes);
+        // One generation covers window / (generations - 1), so the filter always spans the window
+        int gens = Math.max(2, generations);
+        this.bloomFilter = new RotatingBloomFilter(gens,
+                Math.max(1, expectedPerWindow / (gens - 1)), falsePositiveRate);
+        this.localStore = new LocalDedupStore(window.toMillis(), localMaxEntries);
+        this.syncBatch = syncBatch;
+        this.maxPendingMarks = Math.max(1, maxPendingMarks);
+        // Replay the last window of the stream on startup
+        this.streamOffset = (System.currentTimeMillis() - window.toMillis()) + "-0";
+        log.info("Event dedup filter: {} generations x {} bits, {} hash functions",
+                gens, bloomFilter.getBitsPerGeneration(), bloomFilter.getHashFunctions());
+    }
+
+    /**
+     * Whether the event was already processed (false for events without id)
+     */
+    public boolean isDuplicate(BaseEvent event) {
+        String eventId = event.getEventId();
+        if (!enabled || eventId == null || !bloomFilter.mightContain(eventId)) {
+            return false;
+        }
+        if (localStore.contains(eventId)) {
+            return true;
+        }
+        if (redisAvailable.get()) {
+            try {
+                return Boolean.TRUE.equals(redisTemplate.hasKey(KEY_PREFIX + eventId));
+            } catch (Exception e) {
+                markRedisDown(e);
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Remember the event as processed (call after the processing committed)
+     */
+    public void markProcessed(BaseEvent event) {
+        String eventId = event.getEventId();
+        if (!enabled || eventId == null) {
+            return;
+        }
+        bloomFilter.put(eventId);
+        localStore.mark(eventId);
+        enqueue(eventId);
+    }
+
+    /**
+     * Marks that never reached Redis because the queue was full (Redis down for long)
+     * They still count on this instance (filter + local store), other instances miss them.
+     */
+    public long getDroppedMarks() {
+        return droppedMarks.sum();
+    }
+
+    // ==================== Background ====================
+
+    /**
+     * Write queued marks to Redis in one pipeline
+     */
+    @Scheduled(fixedDelayString = "${kafka.dedup.flush-interval-ms:200}")
+    public void flush() {
+        if (pendingMarks.isEmpty()) {
+            return;
+        }
+        List<String> batch = new ArrayList<>();
+        for (String id = pendingMarks.poll(); id != null; id = pendingMarks.poll()) {
+            pendingCount.decrementAndGet();
+            batch.add(id);
+        }
+        try {
+            byte[] value = "1".getBytes(StandardCharsets.UTF_8);
+            Expiration ttl = Expiration.from(window);
+            RecordId minId = RecordId.of(System.currentTimeMillis() - window.toMillis(), 0);
+            redisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+                for (String id : batch) {
+                    connection.stringCommands().set((KEY_PREFIX + id).getBytes(StandardCharsets.UTF_8), value,
+                            ttl, RedisStringCommands.SetOption.upsert());
+                }
+                connection.streamCommands().xAdd(StreamRecords.newRecord()
+                                .in(STREAM_KEY.getBytes(StandardCharsets.UTF_8))
+                                .ofMap(Map.of(STREAM_FIELD.getBytes(StandardCharsets.UTF_8),
+                                        String.join(",", batch).getBytes(StandardCharsets.UTF_8))),
+                        RedisStreamCommands.XAddOptions.none().minId(minId).approximateTrimming(true));
+                return null;
+            });
+            markRedisUp();
+        } catch (Exception e) {
+            markRedisDown(e);
+            // Keep the marks for the next attempt (up to max-pending-marks), the local store covers
+            // this instance meanwhile
+            batch.forEach(this::enqueue);
+            long dropped = droppedMarks.sum();
+            if (dropped > reportedDrops) {
+                log.warn("Dedup mark queue full ({}), {} marks dropped since the last flush, {} in total",
+                        maxPendingMarks, dropped - reportedDrops, dropped);
+                reportedDrops = dropped;
+            }
+        }
+    }
+
+    /**
+     * Pull marks written by all instances into the local filter
+     */
+    @Scheduled(fixedDelayString = "${kafka.dedup.sync-interval-ms:1000}")
+    public void sync() {
+        if (!enabled) {
+            return;
+        }
+        try {
+            List<MapRecord<String, Object, Object>> records;
+            do {
+                records = readStream();
+                if (records == null) {
+                    return;
+                }
+                for (MapRecord<String, Object, Object> record : records) {
+                    Object ids = record.getValue().get(STREAM_FIELD);
+                    if (ids != null) {
+                        for (String id : ids.toString().split(",")) {
+                            bloomFilter.put(id);
+                        }
+                    }
+                    streamOffset = record.getId().getValue();
+                }
+            } while (records.size() >= syncBatch);
+            markRedisUp();
+        } catch (Exception e) {
+            markRedisDown(e);
+        }
+    }
+
+    /**
+     * Age out the oldest filter generation
+     */
+    @Scheduled(fixedDelayString = "#{${kafka.dedup.window-minutes:60} * 60000 / (${kafka.dedup.generations:4} - 1)}",
+            initialDelayString = "#{${kafka.dedup.window-minutes:60} * 60000 / (${kafka.dedup.generations:4} - 1)}")
+    public void rotate() {
+        bloomFilter.rotate();
+    }
+
+    /**
+     * Next sync-batch entries of the processed stream after streamOffset
+     */
+    @SuppressWarnings("unchecked")
+    private List<MapRecord<String, Object, Object>> readStream() {
+        return redisTemplate.opsForStream().read(StreamReadOptions.empty().count(syncBatch),
+                StreamOffset.create(STREAM_KEY, ReadOffset.from(streamOffset)));
+    }
+
+    private void enqueue(String eventId) {
+        if (pendingCount.incrementAndGet() > maxPendingMarks) {
+            pendingCount.decrementAndGet();
+            droppedMarks.increment();
+            return;
+        }
+        pendingMarks.add(eventId);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        flush();
+    }
+
+    private void markRedisDown(Exception e) {
+        if (redisAvailable.compareAndSet(true, false)) {
+            log.warn("Redis dedup store unavailable, using the local store: {}", e.getMessage());
+        }
+    }
+
+    private void markRedisUp() {
+        if (redisAvailable.compareAndSet(false, true)) {
+            log.info("Redis dedup store available again");
+        }
+    }
+}
@@ -0,0 +1,45 @@
+package com.distributed_system.purchasement.common.service.dedup;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * In-process processed-event store, used when Redis is unavailable
+ * Insertion-ordered, entries expire after the TTL and the oldest are evicted above maxEntries.
+ */
+public class LocalDedupStore {
+
+    private final long ttlMillis;
+    private final int maxEntries;
+    private final LinkedHashMap<String, Long> expiries = new LinkedHashMap<>();
+
+    public LocalDedupStore(long ttlMillis, int maxEntries) {
+        this.ttlMillis = ttlMillis;
+        this.maxEntries = maxEntries;
+    }
+
+    public synchronized boolean contains(String eventId) {
+        Long expiry = expiries.get(eventId);
+        return expiry != null && expiry > System.currentTimeMillis();
+    }
+
+    public synchronized void mark(String eventId) {
+        long now = System.currentTimeMillis();
+        expiries.remove(eventId);
+        expiries.put(eventId, now + ttlMillis);
+
+        Iterator<Map.Entry<String, Long>> iterator = expiries.entrySet().iterator();
+        while (iterator.hasNext()) {
+            Map.Entry<String, Long> oldest = iterator.next();
+            if (expiries.size() <= maxEntries && oldest.getValue() > now) {
+                break;
+            }
+            iterator.remove();
+        }
+    }
+
+    public synchronized int size() {
+        return expiries.size();
+    }
+}
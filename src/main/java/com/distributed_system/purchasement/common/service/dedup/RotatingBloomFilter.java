@@ -0,0 +1,111 @@
+package com.distributed_system.purchasement.common.service.dedup;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Time-windowed Bloom filter made of rotating generations
+ * Inserts go to the newest generation, lookups check all of them. rotate() clears the
+ * oldest generation and makes it the newest, so an entry is remembered for between
+ * (generations - 1) and generations rotation periods. Memory is fixed at construction.
+ *
+ * Lookups and inserts are lock-free and do not allocate (hashing walks the string in place).
+ */
+public class RotatingBloomFilter {
+
+    private final AtomicLongArray[] generations;
+    private final int bitsPerGeneration;
+    private final int hashFunctions;
+    private volatile int current;
+
+    /**
+     * @param generations          number of generations (>= 2)
+     * @param expectedPerGeneration expected insertions during one rotation period
+     * @param falsePositiveRate    target false positive rate of one generation
+     */
+    public RotatingBloomFilter(int generations, long expectedPerGeneration, double falsePositiveRate) {
+        long bits = (long) Math.ceil(-expectedPerGeneration * Math.log(falsePositiveRate) / (Math.log(2) * Math.log(2)));
+        this.bitsPerGeneration = (int) Math.min(Integer.MAX_VALUE - 63, Math.max(64, bits));
+        this.hashFunctions = Math.max(1, (int) Math.round((double) bitsPerGeneration / expectedPerGeneration * Math.log(2)));
+        this.generations = new AtomicLongArray[Math.max(2, generations)];
+        for (int i = 0; i < this.generations.length; i++) {
+            this.generations[i] = new AtomicLongArray((bitsPerGeneration + 63) >>> 6);
+        }
+    }
+
+    public boolean mightContain(String value) {
+        long h1 = hash(value, 0x9E3779B97F4A7C15L);
+        long h2 = hash(value, 0xC2B2AE3D27D4EB4FL) | 1;
+        for (AtomicLongArray bits : generations) {
+            if (contains(bits, h1, h2)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    public void put(String value) {
+        long h1 = hash(value, 0x9E3779B97F4A7C15L);
+        long h2 = hash(value, 0xC2B2AE3D27D4EB4FL) | 1;
+        AtomicLongArray bits = generations[current];
+        for (int i = 0; i < hashFunctions; i++) {
+            int index = (int) Math.floorMod(h1 + i * h2, (long) bitsPerGeneration);
+            int word = index >>> 6;
+            long mask = 1L << index;
+            long old = bits.get(word);
+            while ((old & mask) == 0 && !bits.compareAndSet(word, old, old | mask)) {
+                old = bits.get(word);
+            }
+        }
+    }
+
+    /**
+     * Forget the oldest generation
+     */
+    public synchronized void rotate() {
+        int next = (current + 1) % generations.length;
+        AtomicLongArray bits = generations[next];
+        for (int i = 0; i < bits.length(); i++) {
+            bits.set(i, 0L);
+        }
+        current = next;
+    }
+
+    public int getBitsPerGeneration() {
+        return bitsPerGeneration;
+    }
+
+    public int getHashFunctions() {
+        return hashFunctions;
+    }
+
+    public int getGenerations() {
+        return generations.length;
+    }
+
+    private boolean contains(AtomicLongArray bits, long h1, long h2) {
+        for (int i = 0; i < hashFunctions; i++) {
+            int index = (int) Math.floorMod(h1 + i * h2, (long) bitsPerGeneration);
+            if ((bits.get(index >>> 6) & (1L << index)) == 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * 64-bit FNV-1a style hash over the chars with a murmur finalizer
+     */
+    private static long hash(String value, long seed) {
+        long h = seed;
+        for (int i = 0; i < value.length(); i++) {
+            h ^= value.charAt(i);
+            h *= 0x100000001B3L;
+        }
+        h ^= h >>> 33;
+        h *= 0xFF51AFD7ED558CCDL;
+        h ^= h >>> 33;
+        h *= 0xC4CEB9FE1A85EC53L;
+        h ^= h >>> 33;
+        return h;
+    }
+}
@@ -0,0 +1,38 @@
+package com.distributed_system.purchasement.common.service.dlq;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.actuate.endpoint.annotation.DeleteOperation;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.boot.actuate.endpoint.annotation.Selector;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/**
+ * Actuator endpoint /actuator/dlqclusters
+ * Dead letter clusters since startup, /actuator/dlqclusters/{id} for one cluster,
+ * DELETE clears the counts
+ */
+@Component
+@Endpoint(id = "dlqclusters")
+@RequiredArgsConstructor
+public class DeadLetterClusterEndpoint {
+
+    private final DeadLetterClusters clusters;
+
+    @ReadOperation
+    public List<DeadLetterClusters.ClusterView> clusters() {
+        return clusters.getClusters();
+    }
+
+    @ReadOperation
+    public DeadLetterClusters.ClusterView cluster(@Selector String id) {
+        return clusters.getCluster(id);
+    }
+
+    @DeleteOperation
+    public void reset() {
+        clusters.reset();
+    }
+}
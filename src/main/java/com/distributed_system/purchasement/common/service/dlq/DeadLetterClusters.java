@@ -0,0 +1,165 @@
+package com.distributed_system.purchasement.common.service.dlq;
+
+import com.distributed_system.purchasement.entity.DeadLetter;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * In-memory dead letter clusters (by ErrorFingerprint) with counts and first / last sample
+ *
+ * Replaces per-record DLQ logging: a new cluster is logged once when it first shows up,
+ * after that only a summary per interval lists the clusters that grew. Beyond max-clusters
+ * new fingerprints are counted in a single in-memory overflow cluster; the dead letter itself
+ * still keeps its own fingerprint, so it can be queried and replayed by it.
+ */
+@Slf4j
+@Component
+public class DeadLetterClusters {
+
+    public static final String OVERFLOW_ID = "overflow";
+
+    private final Map<String, Cluster> clusters = new ConcurrentHashMap<>();
+
+    @Value("${kafka.dlq.fingerprint.max-clusters:500}")
+    private int maxClusters;
+
+    @Value("${kafka.dlq.fingerprint.summary-top:20}")
+    private int summaryTop;
+
+    /**
+     * Fingerprint the dead letter, count it and store the fingerprint on it
+     * The stored fingerprint is always the computed one, the overflow cluster only exists in memory.
+     *
+     * @return the fingerprint
+     */
+    public String record(DeadLetter letter) {
+        String[] split = ErrorFingerprint.splitClassPrefix(letter.getExceptionMessage());
+        String exceptionClass = letter.getExceptionClass() != null ? letter.getExceptionClass() : split[0];
+        String template = ErrorFingerprint.template(split[1]);
+        String fingerprint = ErrorFingerprint.of(exceptionClass, template, letter.getOriginalTopic());
+
+        Cluster cluster = clusters.get(fingerprint);
+        if (cluster == null) {
+            if (clusters.size() >= maxClusters) {
+                cluster = clusters.computeIfAbsent(OVERFLOW_ID, k -> new Cluster(k, null, "<clusters over limit>", null));
+            } else {
+                Cluster created = new Cluster(fingerprint, exceptionClass, template, letter.getOriginalTopic());
+                cluster = clusters.putIfAbsent(fingerprint, created);
+                if (cluster == null) {
+                    cluster = created;
+                    log.error("New DLQ error cluster {}: topic={}, exception={}, message={}",
+                            fingerprint, letter.getOriginalTopic(), exceptionClass, template);
+                }
+            }
+        }
+        cluster.hit(Sample.of(letter));
+        letter.setFingerprint(fingerprint);
+        return fingerprint;
+    }
+
+    /**
+     * Log the clusters that grew since the last summary, largest first
+     */
+    @Scheduled(fixedDelayString = "${kafka.dlq.fingerprint.summary-interval-ms:60000}",
+            initialDelayString = "${kafka.dlq.fingerprint.summary-interval-ms:60000}")
+    public void logSummary() {
+        List<ClusterView> grown = new ArrayList<>();
+        long total = 0;
+        for (Cluster cluster : clusters.values()) {
+            long recent = cluster.sinceSummary.getAndSet(0);
+            if (recent > 0) {
+                total += recent;
+                grown.add(cluster.view(recent));
+            }
+        }
+        if (grown.isEmpty()) {
+            return;
+        }
+        grown.sort(Comparator.comparingLong(ClusterView::recent).reversed());
+        log.error("DLQ summary: {} dead letters in {} clusters since last summary", total, grown.size());
+        for (ClusterView view : grown.subList(0, Math.min(summaryTop, grown.size()))) {
+            log.error("  cluster {} +{} (total {}): topic={}, exception={}, message={}, last={}",
+                    view.id(), view.recent(), view.count(), view.originalTopic(), view.exceptionClass(),
+                    view.messageTemplate(), view.lastSample().position());
+        }
+    }
+
+    /**
+     * All clusters, largest first
+     */
+    public List<ClusterView> getClusters() {
+        List<ClusterView> views = new ArrayList<>(clusters.size());
+        for (Cluster cluster : clusters.values()) {
+            views.add(cluster.view(cluster.sinceSummary.get()));
+        }
+        views.sort(Comparator.comparingLong(ClusterView::count).reversed());
+        return views;
+    }
+
+    public ClusterView getCluster(String id) {
+        Cluster cluster = clusters.get(id);
+        return cluster != null ? cluster.view(cluster.sinceSummary.get()) : null;
+    }
+
+    public void reset() {
+        clusters.clear();
+    }
+
+    // ==================== Cluster ====================
+
+    private static final class Cluster {
+        private final String id;
+        private final String exceptionClass;
+        private final String messageTemplate;
+        private final String originalTopic;
+        private final AtomicLong count = new AtomicLong();
+        private final AtomicLong sinceSummary = new AtomicLong();
+        private volatile Sample firstSample;
+        private volatile Sample lastSample;
+
+        private Cluster(String id, String exceptionClass, String messageTemplate, String originalTopic) {
+            this.id = id;
+            this.exceptionClass = exceptionClass;
+            this.messageTemplate = messageTemplate;
+            this.originalTopic = originalTopic;
+        }
+
+        private void hit(Sample sample) {
+            if (count.getAndIncrement() == 0) {
+                firstSample = sample;
+            }
+            sinceSummary.incrementAndGet();
+            lastSample = sample;
+        }
+
+        private ClusterView view(long recent) {
+            return new ClusterView(id, originalTopic, exceptionClass, messageTemplate, count.get(), recent,
+                    firstSample, lastSample);
+        }
+    }
+
+    /**
+     * One dead letter of a cluster (DLQ position, key and the raw message)
+     */
+    public record Sample(String position, String key, String message, Instant time) {
+
+        static Sample of(DeadLetter letter) {
+            return new Sample(letter.getDlqTopic() + "-" + letter.getDlqPartition() + "@" + letter.getDlqOffset(),
+                    letter.getRecordKey(), letter.getExceptionMessage(), Instant.now());
+        }
+    }
+
+    public record ClusterView(String id, String originalTopic, String exceptionClass, String messageTemplate,
+                              long count, long recent, Sample firstSample, Sample lastSample) {
+    }
+}
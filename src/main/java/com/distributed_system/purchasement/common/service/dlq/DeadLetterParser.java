@@ -0,0 +1,150 @@
+package com.distributed_system.purchasement.common.service.dlq;
+
+import com.distributed_system.purchasement.common.constant.KafkaTopics;
+import com.distributed_system.purchasement.common.service.kafka.RetryTopicPolicy;
+import com.distributed_system.purchasement.entity.DeadLetter;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.common.header.Header;
+import org.apache.kafka.common.header.Headers;
+import org.apache.kafka.common.header.internals.RecordHeader;
+import org.springframework.kafka.support.KafkaHeaders;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.AbstractMap;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Converts DLQ records to DeadLetter rows and back to replayable headers
+ *
+ * The original topic is the main topic: our retry header (set by RetryTopicRouter) wins
+ * over kafka_dlt-original-topic, which names the last retry topic for retried records.
+ */
+public final class DeadLetterParser {
+
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+    private static final int MAX_MESSAGE_LENGTH = 1024;
+    private static final int MAX_STACKTRACE_LENGTH = 16000;
+
+    private DeadLetterParser() {
+    }
+
+    public static DeadLetter parse(ConsumerRecord<byte[], byte[]> record) {
+        Headers headers = record.headers();
+        DeadLetter letter = new DeadLetter();
+        letter.setDlqTopic(record.topic());
+        letter.setDlqPartition(record.partition());
+        letter.setDlqOffset(record.offset());
+
+        String originalTopic = text(headers, RetryTopicPolicy.HEADER_ORIGINAL_TOPIC);
+        if (originalTopic == null) {
+            originalTopic = text(headers, KafkaHeaders.DLT_ORIGINAL_TOPIC);
+        }
+        if (originalTopic == null) {
+            originalTopic = record.topic().startsWith(KafkaTopics.DLQ_PREFIX)
+                    ? record.topic().substring(KafkaTopics.DLQ_PREFIX.length()) : record.topic();
+        }
+        letter.setOriginalTopic(originalTopic);
+        letter.setOriginalPartition(intValue(headers, KafkaHeaders.DLT_ORIGINAL_PARTITION));
+        letter.setOriginalOffset(longValue(headers, KafkaHeaders.DLT_ORIGINAL_OFFSET));
+        Long timestamp = longValue(headers, KafkaHeaders.DLT_ORIGINAL_TIMESTAMP);
+        if (timestamp != null) {
+            letter.setOriginalTimestamp(LocalDateTime.ofInstant(Instant.ofEpochMilli(timestamp), ZoneId.systemDefault()));
+        }
+        letter.setConsumerGroup(text(headers, KafkaHeaders.DLT_ORIGINAL_CONSUMER_GROUP));
+
+        letter.setRecordKey(record.key() != null ? new String(record.key(), StandardCharsets.UTF_8) : null);
+        letter.setPayload(record.value());
+        letter.setHeaders(encodeHeaders(headers));
+
+        String exceptionClass = text(headers, KafkaHeaders.DLT_EXCEPTION_CAUSE_FQCN);
+        letter.setExceptionClass(exceptionClass != null ? exceptionClass : text(headers, KafkaHeaders.DLT_EXCEPTION_FQCN));
+        String message = text(headers, RetryTopicPolicy.HEADER_EXCEPTION);
+        letter.setExceptionMessage(truncate(message != null ? message
+                : text(headers, KafkaHeaders.DLT_EXCEPTION_MESSAGE), MAX_MESSAGE_LENGTH));
+        letter.setExceptionStacktrace(truncate(text(headers, KafkaHeaders.DLT_EXCEPTION_STACKTRACE),
+                MAX_STACKTRACE_LENGTH));
+        letter.setStatus(DeadLetter.STATUS_PENDING);
+        return letter;
+    }
+
+    /**
+     * Headers to send with a replayed record: the originals without DLQ and retry bookkeeping
+     */
+    public static List<Header> replayHeaders(DeadLetter letter) {
+        List<Header> headers = new ArrayList<>();
+        for (Map.Entry<String, String> entry : decodeHeaders(letter.getHeaders())) {
+            String key = entry.getKey();
+            if (key.startsWith("kafka_dlt-") || key.startsWith("retry-")) {
+                continue;
+            }
+            headers.add(new RecordHeader(key, entry.getValue() != null
+                    ? Base64.getDecoder().decode(entry.getValue()) : null));
+        }
+        return headers;
+    }
+
+    // ==================== Header Encoding ====================
+
+    static String encodeHeaders(Headers headers) {
+        List<Map<String, String>> entries = new ArrayList<>();
+        for (Header header : headers) {
+            Map<String, String> entry = new LinkedHashMap<>(2);
+            entry.put("key", header.key());
+            entry.put("value", header.value() != null ? Base64.getEncoder().encodeToString(header.value()) : null);
+            entries.add(entry);
+        }
+        try {
+            return MAPPER.writeValueAsString(entries);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Cannot encode DLQ headers", e);
+        }
+    }
+
+    static List<Map.Entry<String, String>> decodeHeaders(String json) {
+        if (json == null || json.isEmpty()) {
+            return List.of();
+        }
+        try {
+            List<Map<String, String>> entries = MAPPER.readValue(json, new TypeReference<>() { });
+            List<Map.Entry<String, String>> headers = new ArrayList<>(entries.size());
+            for (Map<String, String> entry : entries) {
+                headers.add(new AbstractMap.SimpleEntry<>(entry.get("key"), entry.get("value")));
+            }
+            return headers;
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Cannot decode DLQ headers", e);
+        }
+    }
+
+    private static String text(Headers headers, String key) {
+        Header header = headers.lastHeader(key);
+        return header != null && header.value() != null ? new String(header.value(), StandardCharsets.UTF_8) : null;
+    }
+
+    private static Integer intValue(Headers headers, String key) {
+        Header header = headers.lastHeader(key);
+        return header != null && header.value() != null && header.value().length == Integer.BYTES
+                ? ByteBuffer.wrap(header.value()).getInt() : null;
+    }
+
+    private static Long longValue(Headers headers, String key) {
+        Header header = headers.lastHeader(key);
+        return header != null && header.value() != null && header.value().length == Long.BYTES
+                ? ByteBuffer.wrap(header.value()).getLong() : null;
+    }
+
+    private static String truncate(String value, int max) {
+        return value == null || value.length() <= max ? value : value.substring(0, max);
+    }
+}
@@ -0,0 +1,38 @@
+package com.distributed_system.purchasement.common.service.dlq;
+
+import lombok.Data;
+
+import java.util.List;
+
+/**
+ * Selection of dead letters to replay
+ * Either explicit ids, or an id range (fromId / toId, both inclusive and optional)
+ * filtered by original topic, error cluster and status. Unset limits fall back to the kafka.dlq.replay.* defaults.
+ */
+@Data
+public class DeadLetterReplayRequest {
+
+    private List<Long> ids;
+    private Long fromId;
+    private Long toId;
+    private String originalTopic;
+
+    /**
+     * Only dead letters of this error cluster (see /actuator/dlqclusters)
+     */
+    private String fingerprint;
+
+    /**
+     * Status filter for range selections, PENDING by default (null in JSON = any status)
+     */
+    private String status = "PENDING";
+
+    /**
+     * Send to this topic instead of each record's original topic
+     */
+    private String targetTopic;
+
+    private Integer maxRecords;
+    private Double ratePerSecond;
+    private Integer parallelism;
+}
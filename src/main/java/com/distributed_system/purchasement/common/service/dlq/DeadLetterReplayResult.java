@@ -0,0 +1,7 @@
+package com.distributed_system.purchasement.common.service.dlq;
+
+/**
+ * Outcome of one replay run
+ */
+public record DeadLetterReplayResult(int selected, int replayed, int failed, long durationMs, String lastError) {
+}
@@ -0,0 +1,193 @@
+package com.distributed_system.purchasement.common.service.dlq;
+
+import com.distributed_system.purchasement.common.service.kafka.SimpleRateLimiter;
+import com.distributed_system.purchasement.entity.DeadLetter;
+import com.distributed_system.purchasement.mapper.DeadLetterMapper;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.stereotype.Service;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Republishes stored dead letters to their original topics
+ * - selections are read in pages of page-size rows (keyset on id)
+ * - sends are paced by a rate limiter and bounded by max in-flight sends (parallelism)
+ * - one markReplayed / markReplayFailed statement per page
+ *
+ * Records are sent in id order from a single thread, so the producer keeps them in order
+ * per partition. Replays run one at a time on a dedicated thread.
+ */
+@Slf4j
+@Service
+public class DeadLetterReplayService {
+
+    private static final int MAX_ERROR_LENGTH = 500;
+
+    private final DeadLetterMapper deadLetterMapper;
+    private final KafkaTemplate<byte[], byte[]> byteArrayKafkaTemplate;
+    private final ExecutorService replayExecutor = Executors.newSingleThreadExecutor(r -> {
+        Thread thread = new Thread(r, "dlq-replay");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    @Value("${kafka.dlq.replay.rate-per-second:200}")
+    private double defaultRatePerSecond;
+
+    @Value("${kafka.dlq.replay.parallelism:50}")
+    private int defaultParallelism;
+
+    @Value("${kafka.dlq.replay.max-records:100000}")
+    private int defaultMaxRecords;
+
+    @Value("${kafka.dlq.replay.page-size:500}")
+    private int pageSize;
+
+    @Value("${kafka.dlq.replay.send-timeout-ms:30000}")
+    private long sendTimeoutMs;
+
+    public DeadLetterReplayService(DeadLetterMapper deadLetterMapper,
+                                   KafkaTemplate<byte[], byte[]> byteArrayKafkaTemplate) {
+        this.deadLetterMapper = deadLetterMapper;
+        this.byteArrayKafkaTemplate = byteArrayKafkaTemplate;
+    }
+
+    public CompletableFuture<DeadLetterReplayResult> replay(DeadLetterReplayRequest request) {
+        return CompletableFuture.supplyAsync(() -> doReplay(request), replayExecutor);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        replayExecutor.shutdownNow();
+    }
+
+    // ==================== Replay ====================
+
+    private DeadLetterReplayResult doReplay(DeadLetterReplayRequest request) {
+        long start = System.currentTimeMillis();
+        int maxRecords = request.getMaxRecords() != null ? request.getMaxRecords() : defaultMaxRecords;
+        SimpleRateLimiter limiter = new SimpleRateLimiter(
+                request.getRatePerSecond() != null ? request.getRatePerSecond() : defaultRatePerSecond);
+        Semaphore inFlight = new Semaphore(Math.max(1,
+                request.getParallelism() != null ? request.getParallelism() : defaultParallelism));
+
+        ReplayProgress progress = new ReplayProgress();
+        long afterId = request.getFromId() != null ? request.getFromId() - 1 : 0;
+        List<Long> ids = request.getIds() != null ? new ArrayList<>(request.getIds()) : null;
+        if (ids != null) {
+            Collections.sort(ids);
+        }
+        int idIndex = 0;
+
+        try {
+            while (progress.selected < maxRecords) {
+                int limit = Math.min(pageSize, maxRecords - progress.selected);
+                List<DeadLetter> page;
+                if (ids != null) {
+                    if (idIndex >= ids.size()) {
+                        break;
+                    }
+                    List<Long> chunk = ids.subList(idIndex, Math.min(ids.size(), idIndex + limit));
+                    idIndex += chunk.size();
+                    page = new ArrayList<>(deadLetterMapper.selectBatchIds(chunk));
+                    page.sort(Comparator.comparing(DeadLetter::getId));
+                } else {
+                    page = deadLetterMapper.selectReplayPage(afterId, request.getToId(),
+                            request.getOriginalTopic(), request.getStatus(), request.getFingerprint(), limit);
+                    if (page.isEmpty()) {
+                        break;
+                    }
+                    afterId = page.get(page.size() - 1).getId();
+                }
+                replayPage(page, request.getTargetTopic(), limiter, inFlight, progress);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            progress.lastError = "Replay interrupted";
+        }
+
+        DeadLetterReplayResult result = new DeadLetterReplayResult(progress.selected, progress.replayed,
+                progress.failed, System.currentTimeMillis() - start, progress.lastError);
+        log.info("DLQ replay finished: selected={}, replayed={}, failed={}, duration={}ms",
+                result.selected(), result.replayed(), result.failed(), result.durationMs());
+        return result;
+    }
+
+    private void replayPage(List<DeadLetter> page, String targetTopic, SimpleRateLimiter limiter,
+                            Semaphore inFlight, ReplayProgress progress) throws InterruptedException {
+        List<CompletableFuture<?>> sends = new ArrayList<>(page.size());
+        for (DeadLetter letter : page) {
+            limiter.acquire(1);
+            inFlight.acquire();
+            CompletableFuture<?> send;
+            try {
+                send = byteArrayKafkaTemplate.send(toRecord(letter, targetTopic));
+            } catch (Exception e) {
+                send = CompletableFuture.failedFuture(e);
+            }
+            send.whenComplete((r, ex) -> inFlight.release());
+            sends.add(send);
+        }
+        progress.selected += page.size();
+
+        List<Long> replayedIds = new ArrayList<>(page.size());
+        List<Long> failedIds = new ArrayList<>();
+        String pageError = null;
+        long deadline = System.currentTimeMillis() + sendTimeoutMs;
+        for (int i = 0; i < page.size(); i++) {
+            try {
+                sends.get(i).get(Math.max(1, deadline - System.currentTimeMillis()), TimeUnit.MILLISECONDS);
+                replayedIds.add(page.get(i).getId());
+            } catch (InterruptedException e) {
+                throw e;
+            } catch (Exception e) {
+                failedIds.add(page.get(i).getId());
+                pageError = e.getCause() != null ? e.getCause().getMessage() : e.getMessage();
+            }
+        }
+
+        if (!replayedIds.isEmpty()) {
+            deadLetterMapper.markReplayed(replayedIds);
+        }
+        if (!failedIds.isEmpty()) {
+            deadLetterMapper.markReplayFailed(failedIds, truncate(pageError));
+            progress.lastError = pageError;
+            log.warn("DLQ replay: {} of {} records failed, last error: {}", failedIds.size(), page.size(), pageError);
+        }
+        progress.replayed += replayedIds.size();
+        progress.failed += failedIds.size();
+    }
+
+    private static ProducerRecord<byte[], byte[]> toRecord(DeadLetter letter, String targetTopic) {
+        String topic = targetTopic != null ? targetTopic : letter.getOriginalTopic();
+        byte[] key = letter.getRecordKey() != null ? letter.getRecordKey().getBytes(StandardCharsets.UTF_8) : null;
+        return new ProducerRecord<>(topic, null, key, letter.getPayload(), DeadLetterParser.replayHeaders(letter));
+    }
+
+    private static String truncate(String error) {
+        if (error == null || error.length() <= MAX_ERROR_LENGTH) {
+            return error;
+        }
+        return error.substring(0, MAX_ERROR_LENGTH);
+    }
+
+    private static final class ReplayProgress {
+        private int selected;
+        private int replayed;
+        private int failed;
+        private String lastError;
+    }
+}
@@ -0,0 +1,85 @@
+package com.distributed_system.purchasement.common.service.dlq;
+
+import java.util.regex.Pattern;
+
+/**
+ * Groups dead letters that failed for the same reason
+ * The exception message is reduced to a template (ids, numbers, quoted values and
+ * hex strings replaced by placeholders), the cluster id is a 64-bit FNV-1a hash of
+ * exception class + template + original topic.
+ */
+public final class ErrorFingerprint {
+
+    private static final int MAX_TEMPLATE_LENGTH = 300;
+    private static final Pattern UUID = Pattern.compile(
+            "[0-9a-fA-F]{8}-[0-9a-fA-F]{4}-[0-9a-fA-F]{4}-[0-9a-fA-F]{4}-[0-9a-fA-F]{12}");
+    private static final Pattern QUOTED = Pattern.compile("'[^']*'|\"[^\"]*\"");
+    private static final Pattern HEX = Pattern.compile("\\b(0x[0-9a-fA-F]+|[0-9a-fA-F]{8,})\\b");
+    private static final Pattern NUMBER = Pattern.compile("-?\\b\\d+(\\.\\d+)?\\b");
+    private static final Pattern OBJECT_ID = Pattern.compile("@[0-9a-fA-F]{4,}");
+    private static final Pattern SPACES = Pattern.compile("\\s+");
+
+    private ErrorFingerprint() {
+    }
+
+    /**
+     * Cluster id (16 hex chars)
+     */
+    public static String of(String exceptionClass, String messageTemplate, String originalTopic) {
+        long hash = 0xcbf29ce484222325L;
+        hash = fnv(hash, exceptionClass);
+        hash = fnv(hash, messageTemplate);
+        hash = fnv(hash, originalTopic);
+        return String.format("%016x", hash);
+    }
+
+    /**
+     * Message with the variable parts replaced, "Order 42 not found for 'abc'" -> "Order <n> not found for <s>"
+     */
+    public static String template(String message) {
+        if (message == null || message.isEmpty()) {
+            return "";
+        }
+        String template = message.length() > MAX_TEMPLATE_LENGTH * 4
+                ? message.substring(0, MAX_TEMPLATE_LENGTH * 4) : message;
+        template = UUID.matcher(template).replaceAll("<uuid>");
+        template = QUOTED.matcher(template).replaceAll("<s>");
+        template = OBJECT_ID.matcher(template).replaceAll("@<id>");
+        template = HEX.matcher(template).replaceAll("<hex>");
+        template = NUMBER.matcher(template).replaceAll("<n>");
+        template = SPACES.matcher(template).replaceAll(" ").trim();
+        return template.length() > MAX_TEMPLATE_LENGTH ? template.substring(0, MAX_TEMPLATE_LENGTH) : template;
+    }
+
+    /**
+     * Split "com.acme.SomeException: message" (retry-exception header format) into class and message
+     *
+     * @return {class or null, message}
+     */
+    public static String[] splitClassPrefix(String message) {
+        if (message == null) {
+            return new String[]{null, null};
+        }
+        int colon = message.indexOf(": ");
+        if (colon > 0) {
+            String prefix = message.substring(0, colon);
+            if (prefix.indexOf('.') > 0 && prefix.indexOf(' ') < 0) {
+                return new String[]{prefix, message.substring(colon + 2)};
+            }
+        }
+        return new String[]{null, message};
+    }
+
+    private static long fnv(long hash, String value) {
+        if (value != null) {
+            for (int i = 0; i < value.length(); i++) {
+                hash ^= value.charAt(i);
+                hash *= 0x100000001b3L;
+            }
+        }
+        // Field separator, so ("ab", "c") and ("a", "bc") differ
+        hash ^= 0x1f;
+        hash *= 0x100000001b3L;
+        return hash;
+    }
+}
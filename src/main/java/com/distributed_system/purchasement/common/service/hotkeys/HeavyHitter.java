@@ -0,0 +1,10 @@
+package com.distributed_system.purchasement.common.service.hotkeys;
+
+/**
+ * One heavy hitter of a sliding window
+ *
+ * @param estimate count-min estimate over the window (never below the true count)
+ * @param share    estimate / total weight of the window
+ */
+public record HeavyHitter(long key, String label, long estimate, double share) {
+}
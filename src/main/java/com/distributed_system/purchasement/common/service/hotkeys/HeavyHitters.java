@@ -0,0 +1,282 @@
+package com.distributed_system.purchasement.common.service.hotkeys;
+
+import com.distributed_system.purchasement.common.collection.LongIntMap;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Sliding-window top-K with fixed memory whatever the key cardinality
+ * - count-min sketch (depth x width counters) per time bucket plus their running sum, the window
+ *   is the last `buckets` buckets; an expiring bucket is subtracted from the sum and cleared
+ * - space-saving candidates: a bounded min-heap of keys by their windowed estimate; a new key
+ *   replaces the minimum when its estimate is larger
+ * - on bucket rotation candidate estimates are refreshed from the sketch, keys gone from the
+ *   window drop out
+ *
+ * Memory: (buckets + 1) x depth x width longs plus the candidate arrays, allocated once.
+ * All methods are synchronized; an update is depth counter increments and one heap sift, it keeps
+ * references to the label parts and allocates nothing (labels are joined in top()).
+ */
+public class HeavyHitters {
+
+    private static final long[] SEEDS = {
+            0x9E3779B97F4A7C15L, 0xC2B2AE3D27D4EB4FL, 0x165667B19E3779F9L, 0xD6E8FEB86659FD93L,
+            0xFF51AFD7ED558CCDL, 0xC4CEB9FE1A85EC53L, 0x27D4EB2F165667C5L, 0x85EBCA77C2B2AE63L};
+
+    private final int topK;
+    private final int depth;
+    private final int width;
+    private final int buckets;
+    private final long bucketMs;
+
+    private final long[][] bucketCounts;
+    private final long[] windowCounts;
+    private final long[] bucketTotals;
+    private long windowTotal;
+    private long currentBucket;
+
+    // Candidates: slot arrays + min-heap of slots by count + key -> slot
+    private final long[] keys;
+    private final long[] counts;
+    private final String[] labelScopes;
+    private final String[] labelNames;
+    private final int[] heap;
+    private final int[] heapIndex;
+    private final LongIntMap slots;
+    private int size;
+
+    public HeavyHitters(int topK, int capacity, int depth, int width, long windowMs, int buckets) {
+        if (depth < 1 || depth > SEEDS.length || Integer.bitCount(width) != 1 || capacity < topK) {
+            throw new IllegalArgumentException("Invalid sketch: depth " + depth + ", width " + width
+                    + ", capacity " + capacity + ", top-k " + topK);
+        }
+        this.topK = topK;
+        this.depth = depth;
+        this.width = width;
+        this.buckets = Math.max(1, buckets);
+        this.bucketMs = Math.max(1, windowMs / this.buckets);
+        this.bucketCounts = new long[this.buckets][depth * width];
+        this.windowCounts = new long[depth * width];
+        this.bucketTotals = new long[this.buckets];
+        this.keys = new long[capacity];
+        this.counts = new long[capacity];
+        this.labelScopes = new String[capacity];
+        this.labelNames = new String[capacity];
+        this.heap = new int[capacity];
+        this.heapIndex = new int[capacity];
+        this.slots = new LongIntMap(capacity);
+    }
+
+    /**
+     * Count weight for key at wall clock now
+     *
+     * @param label shown for the key in results (kept only while the key is a candidate)
+     */
+    public void add(long key, String label, long weight, long now) {
+        add(key, null, label, weight, now);
+    }
+
+    /**
+     * Count weight for key at wall clock now, labelled labelScope/labelName in results
+     * The parts are joined in top(), so callers on a hot path pass strings they already hold.
+     *
+     * @param labelScope optional prefix of the label, null for none
+     */
+    public synchronized void add(long key, String labelScope, String labelName, long weight, long now) {
+        rotate(now);
+        long[] bucket = bucketCounts[(int) (currentBucket % buckets)];
+        long estimate = Long.MAX_VALUE;
+        for (int row = 0; row < depth; row++) {
+            int index = row * width + index(key, row);
+            bucket[index] += weight;
+            windowCounts[index] += weight;
+            estimate = Math.min(estimate, windowCounts[index]);
+        }
+        bucketTotals[(int) (currentBucket % buckets)] += weight;
+        windowTotal += weight;
+        offer(key, labelScope, labelName, estimate);
+    }
+
+    /**
+     * Top keys of the window ending at now, highest estimate first
+     */
+    public synchronized List<HeavyHitter> top(long now) {
+        rotate(now);
+        Integer[] order = new Integer[size];
+        for (int i = 0; i < size; i++) {
+            order[i] = i;
+        }
+        Arrays.sort(order, Comparator.comparingLong((Integer slot) -> counts[slot]).reversed());
+        List<HeavyHitter> result = new ArrayList<>(Math.min(topK, size));
+        for (int i = 0; i < Math.min(topK, size); i++) {
+            int slot = order[i];
+            result.add(new HeavyHitter(keys[slot], label(slot), counts[slot],
+                    windowTotal > 0 ? (double) counts[slot] / windowTotal : 0.0));
+        }
+        return result;
+    }
+
+    /**
+     * Total weight counted in the window ending at now
+     */
+    public synchronized long total(long now) {
+        rotate(now);
+        return windowTotal;
+    }
+
+    public long getWindowMs() {
+        return bucketMs * buckets;
+    }
+
+    public long memoryBytes() {
+        return (long) (buckets + 1) * depth * width * Long.BYTES
+                + (long) keys.length * (2 * Long.BYTES + 2 * Integer.BYTES) + slots.memoryBytes();
+    }
+
+    // ==================== Sketch ====================
+
+    private int index(long key, int row) {
+        long h = key ^ SEEDS[row];
+        h ^= h >>> 33;
+        h *= 0xff51afd7ed558ccdL;
+        h ^= h >>> 33;
+        return (int) h & (width - 1);
+    }
+
+    private void rotate(long now) {
+        long target = now / bucketMs;
+        if (target <= currentBucket) {
+            return;
+        }
+        long steps = Math.min(target - currentBucket, buckets);
+        for (long i = 1; i <= steps; i++) {
+            int expiring = (int) ((currentBucket + i) % buckets);
+            long[] bucket = bucketCounts[expiring];
+            for (int j = 0; j < bucket.length; j++) {
+                windowCounts[j] -= bucket[j];
+            }
+            Arrays.fill(bucket, 0);
+            windowTotal -= bucketTotals[expiring];
+            bucketTotals[expiring] = 0;
+        }
+        currentBucket = target;
+        refreshCandidates();
+    }
+
+    private long estimate(long key) {
+        long estimate = Long.MAX_VALUE;
+        for (int row = 0; row < depth; row++) {
+            estimate = Math.min(estimate, windowCounts[row * width + index(key, row)]);
+        }
+        return estimate;
+    }
+
+    // ==================== Candidates ====================
+
+    private void offer(long key, String labelScope, String labelName, long estimate) {
+        int slot = slots.get(key);
+        if (slot != LongIntMap.MISSING) {
+            counts[slot] = estimate;
+            siftDown(heapIndex[slot]);
+            return;
+        }
+        if (size < keys.length) {
+            slot = size++;
+            set(slot, key, labelScope, labelName, estimate);
+            heap[slot] = slot;
+            heapIndex[slot] = slot;
+            siftUp(slot);
+            return;
+        }
+        int min = heap[0];
+        if (estimate > counts[min]) {
+            slots.remove(keys[min]);
+            set(min, key, labelScope, labelName, estimate);
+            siftDown(0);
+        }
+    }
+
+    private void set(int slot, long key, String labelScope, String labelName, long estimate) {
+        keys[slot] = key;
+        labelScopes[slot] = labelScope;
+        labelNames[slot] = labelName;
+        counts[slot] = estimate;
+        slots.put(key, slot);
+    }
+
+    /**
+     * Re-read every candidate from the sketch, drop those with nothing left in the window, rebuild the heap
+     */
+    private void refreshCandidates() {
+        int kept = 0;
+        slots.clear();
+        for (int slot = 0; slot < size; slot++) {
+            long estimate = estimate(keys[slot]);
+            if (estimate > 0) {
+                keys[kept] = keys[slot];
+                labelScopes[kept] = labelScopes[slot];
+                labelNames[kept] = labelNames[slot];
+                counts[kept] = estimate;
+                slots.put(keys[kept], kept);
+                kept++;
+            }
+        }
+        Arrays.fill(labelScopes, kept, size, null);
+        Arrays.fill(labelNames, kept, size, null);
+        size = kept;
+        for (int i = 0; i < size; i++) {
+            heap[i] = i;
+            heapIndex[i] = i;
+        }
+        for (int i = size / 2 - 1; i >= 0; i--) {
+            siftDown(i);
+        }
+    }
+
+    private String label(int slot) {
+        if (labelScopes[slot] == null || labelNames[slot] == null) {
+            return labelNames[slot];
+        }
+        return labelScopes[slot] + "/" + labelNames[slot];
+    }
+
+    private void siftUp(int position) {
+        int slot = heap[position];
+        while (position > 0) {
+            int parent = (position - 1) >>> 1;
+            if (counts[heap[parent]] <= counts[slot]) {
+                break;
+            }
+            move(heap[parent], position);
+            position = parent;
+        }
+        move(slot, position);
+    }
+
+    private void siftDown(int position) {
+        int slot = heap[position];
+        while (true) {
+            int child = 2 * position + 1;
+            if (child >= size) {
+                break;
+            }
+            if (child + 1 < size && counts[heap[child + 1]] < counts[heap[child]]) {
+                child++;
+            }
+            if (counts[heap[child]] >= counts[slot]) {
+                break;
+            }
+            move(heap[child], position);
+            position = child;
+        }
+        move(slot, position);
+    }
+
+    private void move(int slot, int position) {
+        heap[position] = slot;
+        heapIndex[slot] = position;
+    }
+}
@@ -0,0 +1,164 @@
+package com.distributed_system.purchasement.common.service.hotkeys;
+
+import com.distributed_system.purchasement.common.event.OrderEvent;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.MultiGauge;
+import io.micrometer.core.instrument.Tags;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Hot products, users and producer partition keys over a sliding window (StripedHeavyHitters each)
+ * - products: order-created items weighted by quantity
+ * - users: order-created events per userId
+ * - producer-keys: records sent through KafkaProducerService per topic/key, a dominant key means a
+ *   hot partition
+ *
+ * Consumers see only the order-created partitions of their instance, so product / user counts
+ * are this instance's share; producer keys cover everything this instance sends.
+ *
+ * recordProduce runs on every send: it hashes topic and key in place and allocates nothing, the
+ * topic/key label is only joined for keys reported in top(); the stripes spread the lock.
+ *
+ * Metrics, refreshed every refresh-ms:
+ * - kafka.hotkeys.estimate {tracker, rank, key}: windowed estimate of the top keys
+ * - kafka.hotkeys.top.share {tracker}: share of the window taken by the hottest key
+ */
+@Component
+public class HotKeyTracker {
+
+    public static final String PRODUCTS = "products";
+    public static final String USERS = "users";
+    public static final String PRODUCER_KEYS = "producer-keys";
+
+    private final boolean enabled;
+    private final Map<String, StripedHeavyHitters> trackers = new LinkedHashMap<>();
+    private final MultiGauge estimates;
+    private final MultiGauge topShare;
+
+    public HotKeyTracker(MeterRegistry meterRegistry,
+                         @Value("${kafka.hotkeys.enabled:true}") boolean enabled,
+                         @Value("${kafka.hotkeys.top-k:20}") int topK,
+                         @Value("${kafka.hotkeys.candidates:100}") int candidates,
+                         @Value("${kafka.hotkeys.depth:4}") int depth,
+                         @Value("${kafka.hotkeys.width:2048}") int width,
+                         @Value("${kafka.hotkeys.window-ms:60000}") long windowMs,
+                         @Value("${kafka.hotkeys.buckets:6}") int buckets,
+                         @Value("${kafka.hotkeys.stripes:8}") int stripes) {
+        this.enabled = enabled;
+        for (String name : List.of(PRODUCTS, USERS, PRODUCER_KEYS)) {
+            trackers.put(name, new StripedHeavyHitters(stripes, topK, Math.max(topK, candidates), depth, width,
+                    windowMs, buckets));
+        }
+        this.estimates = MultiGauge.builder("kafka.hotkeys.estimate")
+                .description("Windowed count-min estimate of the hottest keys")
+                .register(meterRegistry);
+        this.topShare = MultiGauge.builder("kafka.hotkeys.top.share")
+                .description("Share of the window taken by the hottest key")
+                .register(meterRegistry);
+    }
+
+    // ==================== Record ====================
+
+    public void recordOrder(OrderEvent event) {
+        if (!enabled) {
+            return;
+        }
+        long now = System.currentTimeMillis();
+        if (event.getUserId() != null) {
+            trackers.get(USERS).add(event.getUserId(), null, 1, now);
+        }
+        if (event.getItems() != null) {
+            StripedHeavyHitters products = trackers.get(PRODUCTS);
+            for (OrderEvent.OrderItem item : event.getItems()) {
+                if (item.getProductId() != null) {
+                    products.add(item.getProductId(), item.getProductName(), Math.max(1, item.getQuantity()), now);
+                }
+            }
+        }
+    }
+
+    public void recordProduce(String topic, String key) {
+        if (!enabled || key == null) {
+            return;
+        }
+        trackers.get(PRODUCER_KEYS).add(hash(topic, key), topic, key, 1, System.currentTimeMillis());
+    }
+
+    // ==================== Query ====================
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Top keys per tracker for the window ending now
+     */
+    public Map<String, List<HeavyHitter>> top() {
+        long now = System.currentTimeMillis();
+        Map<String, List<HeavyHitter>> result = new LinkedHashMap<>();
+        trackers.forEach((name, tracker) -> result.put(name, tracker.top(now)));
+        return result;
+    }
+
+    /**
+     * Window length, total weight and sketch memory per tracker
+     */
+    public Map<String, Map<String, Object>> stats() {
+        long now = System.currentTimeMillis();
+        Map<String, Map<String, Object>> result = new LinkedHashMap<>();
+        trackers.forEach((name, tracker) -> {
+            Map<String, Object> stats = new LinkedHashMap<>();
+            stats.put("windowMs", tracker.getWindowMs());
+            stats.put("total", tracker.total(now));
+            stats.put("memoryBytes", tracker.memoryBytes());
+            result.put(name, stats);
+        });
+        return result;
+    }
+
+    @Scheduled(fixedDelayString = "${kafka.hotkeys.refresh-ms:10000}", initialDelayString = "${kafka.hotkeys.refresh-ms:10000}")
+    public void refreshMetrics() {
+        if (!enabled) {
+            return;
+        }
+        List<MultiGauge.Row<?>> estimateRows = new ArrayList<>();
+        List<MultiGauge.Row<?>> shareRows = new ArrayList<>();
+        top().forEach((name, hitters) -> {
+            for (int rank = 0; rank < hitters.size(); rank++) {
+                HeavyHitter hitter = hitters.get(rank);
+                String key = hitter.label() != null ? hitter.label() : String.valueOf(hitter.key());
+                estimateRows.add(MultiGauge.Row.of(Tags.of("tracker", name, "rank", String.valueOf(rank + 1),
+                        "key", key), hitter.estimate()));
+            }
+            shareRows.add(MultiGauge.Row.of(Tags.of("tracker", name),
+                    hitters.isEmpty() ? 0.0 : hitters.get(0).share()));
+        });
+        estimates.register(estimateRows, true);
+        topShare.register(shareRows, true);
+    }
+
+    // ==================== Internals ====================
+
+    /**
+     * 64-bit FNV-1a over the chars of topic/key, so producer keys share the long-keyed sketch
+     */
+    static long hash(String topic, String key) {
+        long h = hash(0xcbf29ce484222325L, topic);
+        h = (h ^ '/') * 0x100000001b3L;
+        return hash(h, key);
+    }
+
+    private static long hash(long h, String s) {
+        for (int i = 0; i < s.length(); i++) {
+            h = (h ^ s.charAt(i)) * 0x100000001b3L;
+        }
+        return h;
+    }
+}
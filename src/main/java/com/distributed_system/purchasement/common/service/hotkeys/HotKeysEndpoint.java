@@ -0,0 +1,30 @@
+package com.distributed_system.purchasement.common.service.hotkeys;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.stereotype.Component;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Actuator endpoint /actuator/hotkeys
+ * Current top products, users and producer partition keys with window stats
+ */
+@Component
+@Endpoint(id = "hotkeys")
+@RequiredArgsConstructor
+public class HotKeysEndpoint {
+
+    private final HotKeyTracker hotKeyTracker;
+
+    @ReadOperation
+    public Map<String, Object> hotKeys() {
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("enabled", hotKeyTracker.isEnabled());
+        result.put("top", hotKeyTracker.top());
+        result.put("stats", hotKeyTracker.stats());
+        return result;
+    }
+}
@@ -0,0 +1,96 @@
+package com.distributed_system.purchasement.common.service.hotkeys;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * HeavyHitters split into stripes by key, each with its own lock
+ * - a key always lands in the same stripe, so its estimate is exact to that stripe's sketch and the
+ *   merged top-K is the top of the per-stripe tops
+ * - every stripe gets width / stripes counters: it sees about 1/stripes of the weight, so the
+ *   count-min error and the total memory stay those of one unstriped sketch
+ * - each stripe keeps at least top-k candidates, the merged top may come from a single stripe
+ *
+ * Concurrent add() calls only contend when their keys share a stripe.
+ */
+public class StripedHeavyHitters {
+
+    private final HeavyHitters[] stripes;
+    private final int stripeShift;
+    private final int topK;
+
+    /**
+     * @param stripes power of two, at most width
+     */
+    public StripedHeavyHitters(int stripes, int topK, int capacity, int depth, int width, long windowMs,
+                               int buckets) {
+        if (Integer.bitCount(stripes) != 1 || stripes > width) {
+            throw new IllegalArgumentException("Invalid stripes: " + stripes + " for width " + width);
+        }
+        this.stripes = new HeavyHitters[stripes];
+        for (int i = 0; i < stripes; i++) {
+            this.stripes[i] = new HeavyHitters(topK, Math.max(topK, capacity / stripes), depth, width / stripes,
+                    windowMs, buckets);
+        }
+        this.stripeShift = 64 - Integer.numberOfTrailingZeros(stripes);
+        this.topK = topK;
+    }
+
+    /**
+     * Count weight for key at wall clock now, label as in HeavyHitters.add(long, String, String, long, long)
+     */
+    public void add(long key, String labelScope, String labelName, long weight, long now) {
+        stripe(key).add(key, labelScope, labelName, weight, now);
+    }
+
+    public void add(long key, String label, long weight, long now) {
+        stripe(key).add(key, null, label, weight, now);
+    }
+
+    /**
+     * Top keys of the window ending at now, highest estimate first, shares of the whole window
+     */
+    public List<HeavyHitter> top(long now) {
+        List<HeavyHitter> merged = new ArrayList<>();
+        for (HeavyHitters stripe : stripes) {
+            merged.addAll(stripe.top(now));
+        }
+        merged.sort(Comparator.comparingLong(HeavyHitter::estimate).reversed());
+        long total = total(now);
+        List<HeavyHitter> result = new ArrayList<>(Math.min(topK, merged.size()));
+        for (HeavyHitter hitter : merged.subList(0, Math.min(topK, merged.size()))) {
+            result.add(new HeavyHitter(hitter.key(), hitter.label(), hitter.estimate(),
+                    total > 0 ? (double) hitter.estimate() / total : 0.0));
+        }
+        return result;
+    }
+
+    /**
+     * Total weight counted in the window ending at now
+     */
+    public long total(long now) {
+        long total = 0;
+        for (HeavyHitters stripe : stripes) {
+            total += stripe.total(now);
+        }
+        return total;
+    }
+
+    public long getWindowMs() {
+        return stripes[0].getWindowMs();
+    }
+
+    public long memoryBytes() {
+        long bytes = 0;
+        for (HeavyHitters stripe : stripes) {
+            bytes += stripe.memoryBytes();
+        }
+        return bytes;
+    }
+
+    private HeavyHitters stripe(long key) {
+        // Fibonacci hashing: the top bits of key * golden ratio, spread even for sequential ids
+        return stripes.length == 1 ? stripes[0] : stripes[(int) ((key * 0x9E3779B97F4A7C15L) >>> stripeShift)];
+    }
+}
@@ -0,0 +1,31 @@
+package com.distributed_system.purchasement.common.service.kafka;
+
+import com.distributed_system.purchasement.common.event.BaseEvent;
+import com.distributed_system.purchasement.common.event.OrderEvent;
+import com.distributed_system.purchasement.common.event.PaymentEvent;
+import com.distributed_system.purchasement.common.event.UserEvent;
+
+/**
+ * Keys every event by the aggregate it belongs to:
+ * - OrderEvent   -> orderId
+ * - UserEvent    -> userId
+ * - PaymentEvent -> orderId (payments follow their order)
+ *
+ * All events of one order land on the same partition, so they are consumed in order.
+ * Falls back to eventId when the aggregate id is missing.
+ */
+public class AggregateKeyStrategy implements EventKeyStrategy {
+
+    @Override
+    public String resolveKey(BaseEvent event) {
+        Long aggregateId = null;
+        if (event instanceof OrderEvent orderEvent) {
+            aggregateId = orderEvent.getOrderId();
+        } else if (event instanceof UserEvent userEvent) {
+            aggregateId = userEvent.getUserId();
+        } else if (event instanceof PaymentEvent paymentEvent) {
+            aggregateId = paymentEvent.getOrderId();
+        }
+        return aggregateId != null ? aggregateId.toString() : event.getEventId();
+    }
+}
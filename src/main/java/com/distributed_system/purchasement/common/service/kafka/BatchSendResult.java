@@ -0,0 +1,59 @@
+package com.distributed_system.purchasement.common.service.kafka;
+
+import org.apache.kafka.clients.producer.RecordMetadata;
+
+import java.util.List;
+
+/**
+ * Outcome of a batch send, one entry per input element (same order)
+ */
+public class BatchSendResult {
+
+    private final List<SendOutcome> outcomes;
+    private final int failed;
+    private final long elapsedMillis;
+
+    public BatchSendResult(List<SendOutcome> outcomes, long elapsedMillis) {
+        this.outcomes = List.copyOf(outcomes);
+        this.failed = (int) outcomes.stream().filter(o -> !o.isSuccess()).count();
+        this.elapsedMillis = elapsedMillis;
+    }
+
+    public List<SendOutcome> getOutcomes() {
+        return outcomes;
+    }
+
+    public List<SendOutcome> getFailures() {
+        return outcomes.stream().filter(o -> !o.isSuccess()).toList();
+    }
+
+    public int getTotal() {
+        return outcomes.size();
+    }
+
+    public int getSucceeded() {
+        return outcomes.size() - failed;
+    }
+
+    public int getFailed() {
+        return failed;
+    }
+
+    public boolean isAllSucceeded() {
+        return failed == 0;
+    }
+
+    public long getElapsedMillis() {
+        return elapsedMillis;
+    }
+
+    /**
+     * Result of one record: metadata on success, error otherwise
+     */
+    public record SendOutcome(int index, RecordMetadata metadata, Throwable error) {
+
+        public boolean isSuccess() {
+            return error == null;
+        }
+    }
+}
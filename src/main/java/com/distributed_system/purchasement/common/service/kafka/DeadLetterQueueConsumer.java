@@ -1,203 +1,70 @@
 package com.distributed_system.purchasement.common.service.kafka;
 
 import com.distributed_system.purchasement.common.constant.KafkaTopics;
+import com.distributed_system.purchasement.common.service.dlq.DeadLetterClusters;
+import com.distributed_system.purchasement.common.service.dlq.DeadLetterParser;
+import com.distributed_system.purchasement.entity.DeadLetter;
+import com.distributed_system.purchasement.mapper.DeadLetterMapper;
+import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.kafka.annotation.KafkaListener;
 import org.springframework.kafka.support.Acknowledgment;
 import org.springframework.stereotype.Service;
 
-import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
 
 /**
  * Dead Letter Queue Consumer
- * Handles messages that failed processing after retries
- * 
- * Options for handling DLQ messages:
- * 1. Log and alert for manual investigation
- * 2. Store in database for later retry
- * 3. Transform and republish to original topic
- * 4. Send to external monitoring system
+ * Persists every dlq-* topic into tb_dead_letter in one pass:
+ * - a single batch listener on the dlq-.* pattern (one consumer group, each dead letter read once)
+ * - records stay raw bytes, kafka_dlt-* error headers are parsed into columns
+ * - one multi-row INSERT IGNORE per chunk, so redelivered batches are harmless
+ * - no per-record logging: dead letters are fingerprinted into DeadLetterClusters,
+ *   which logs new clusters once and a periodic summary
+ *
+ * If the insert fails the batch is not acknowledged and the error handler retries it,
+ * dead letters are never dropped. Replay goes through DeadLetterReplayService.
  */
 @Slf4j
 @Service
+@RequiredArgsConstructor
 public class DeadLetterQueueConsumer {
 
-    /**
-     * Handle failed user events
-     * Uses special factory without DLQ to avoid infinite loops
-     */
-    @KafkaListener(
-            topics = KafkaTopics.DLQ_USER,
-            groupId = KafkaTopics.GROUP_DLQ_HANDLER,
-            containerFactory = "dlqKafkaListenerContainerFactory"
-    )
-    public void handleUserDLQ(ConsumerRecord<String, Object> record, Acknowledgment acknowledgment) {
-        handleDeadLetter("USER", record, acknowledgment);
-    }
+    private final DeadLetterMapper deadLetterMapper;
+    private final DeadLetterClusters deadLetterClusters;
 
-    /**
-     * Handle failed order events
-     */
-    @KafkaListener(
-            topics = KafkaTopics.DLQ_ORDER,
-            groupId = KafkaTopics.GROUP_DLQ_HANDLER,
-            containerFactory = "dlqKafkaListenerContainerFactory"
-    )
-    public void handleOrderDLQ(ConsumerRecord<String, Object> record, Acknowledgment acknowledgment) {
-        handleDeadLetter("ORDER", record, acknowledgment);
-    }
+    @Value("${kafka.dlq.store.insert-chunk-size:200}")
+    private int insertChunkSize;
 
     /**
-     * Handle failed payment events
+     * Uses the byte-array batch factory without DLQ to avoid infinite loops
      */
     @KafkaListener(
-            topics = KafkaTopics.DLQ_PAYMENT,
+            topicPattern = KafkaTopics.DLQ_PATTERN,
             groupId = KafkaTopics.GROUP_DLQ_HANDLER,
             containerFactory = "dlqKafkaListenerContainerFactory"
     )
-    public void handlePaymentDLQ(ConsumerRecord<String, Object> record, Acknowledgment acknowledgment) {
-        handleDeadLetter("PAYMENT", record, acknowledgment);
-    }
-
-    /**
-     * Generic DLQ handler using pattern matching
-     * Catches any DLQ topic starting with "dlq-"
-     */
-    @KafkaListener(
-            topicPattern = "dlq-.*",
-            groupId = "dlq-generic-handler",
-            containerFactory = "dlqKafkaListenerContainerFactory"
-    )
-    public void handleGenericDLQ(ConsumerRecord<String, Object> record, Acknowledgment acknowledgment) {
-        handleDeadLetter("GENERIC", record, acknowledgment);
-    }
-
-    // ==================== Common DLQ Handler ====================
-
-    private void handleDeadLetter(String type, ConsumerRecord<String, Object> record,
-                                  Acknowledgment acknowledgment) {
-        log.error("=== DEAD LETTER RECEIVED [{} DLQ] ===", type);
-        log.error("Topic: {}", record.topic());
-        log.error("Partition: {}", record.partition());
-        log.error("Offset: {}", record.offset());
-        log.error("Key: {}", record.key());
-        log.error("Timestamp: {}", record.timestamp());
-
-        // Log headers (contains error information)
-        record.headers().forEach(header -> {
-            String value = new String(header.value(), StandardCharsets.UTF_8);
-            log.error("Header [{}]: {}", header.key(), value);
-        });
-
-        // Log message content
-        log.error("Value: {}", record.value());
-
-        try {
-            // ===== Option 1: Just log and acknowledge (for analysis) =====
-            logForInvestigation(type, record);
-
-            // ===== Option 2: Store in database for manual retry =====
-            // storeForManualRetry(type, record);
-
-            // ===== Option 3: Send alert to monitoring system =====
-            // sendAlert(type, record);
-
-            // ===== Option 4: Attempt to fix and republish =====
-            // attemptRecovery(type, record);
-
-            // Acknowledge after handling
-            acknowledgment.acknowledge();
-            log.info("DLQ message acknowledged: topic={}, offset={}", record.topic(), record.offset());
-
-        } catch (Exception e) {
-            log.error("Error handling DLQ message: {}", e.getMessage());
-            // Still acknowledge to prevent infinite loop
-            acknowledgment.acknowledge();
+    public void handleDeadLetters(List<ConsumerRecord<byte[], byte[]>> records, Acknowledgment acknowledgment) {
+        if (records.isEmpty()) {
+            return;
         }
-    }
-
-    // ==================== DLQ Handling Strategies ====================
-
-    /**
-     * Strategy 1: Log for manual investigation
-     */
-    private void logForInvestigation(String type, ConsumerRecord<String, Object> record) {
-        log.warn("DLQ message logged for investigation: type={}, topic={}, key={}, offset={}",
-                type, record.topic(), record.key(), record.offset());
-
-        // In production, you might:
-        // - Write to a special log file
-        // - Send to ELK stack or similar
-        // - Create a ticket in issue tracking system
-    }
-
-    /**
-     * Strategy 2: Store in database for manual retry
-     */
-    private void storeForManualRetry(String type, ConsumerRecord<String, Object> record) {
-        // Example: Save to a dead_letter table
-        /*
-        DeadLetterEntity entity = new DeadLetterEntity();
-        entity.setType(type);
-        entity.setOriginalTopic(extractOriginalTopic(record.topic()));
-        entity.setKey(record.key());
-        entity.setValue(record.value().toString());
-        entity.setErrorMessage(extractErrorMessage(record));
-        entity.setTimestamp(LocalDateTime.now());
-        entity.setStatus("PENDING");
-        deadLetterRepository.save(entity);
-        */
-
-        log.info("DLQ message stored in database for retry");
-    }
-
-    /**
-     * Strategy 3: Send alert to monitoring system
-     */
-    private void sendAlert(String type, ConsumerRecord<String, Object> record) {
-        // Example: Send to Slack, PagerDuty, email, etc.
-        /*
-        alertService.sendAlert(
-            AlertLevel.ERROR,
-            "Dead Letter Queue Alert",
-            String.format("Failed message in %s DLQ: topic=%s, offset=%d",
-                type, record.topic(), record.offset())
-        );
-        */
 
-        log.info("Alert sent for DLQ message");
-    }
-
-    /**
-     * Strategy 4: Attempt automatic recovery
-     */
-    private void attemptRecovery(String type, ConsumerRecord<String, Object> record) {
-        // Example: Transform message and republish
-        /*
-        String originalTopic = record.topic().replace("dlq-", "");
-        
-        // Maybe fix the message format or add missing fields
-        Object fixedMessage = attemptToFixMessage(record.value());
-        
-        if (fixedMessage != null) {
-            kafkaTemplate.send(originalTopic, record.key(), fixedMessage);
-            log.info("Message recovered and republished to {}", originalTopic);
+        List<DeadLetter> letters = new ArrayList<>(records.size());
+        for (ConsumerRecord<byte[], byte[]> record : records) {
+            DeadLetter letter = DeadLetterParser.parse(record);
+            deadLetterClusters.record(letter);
+            letters.add(letter);
         }
-        */
-
-        log.info("Recovery attempted for DLQ message");
-    }
 
-    /**
-     * Extract error message from headers
-     */
-    private String extractErrorMessage(ConsumerRecord<String, Object> record) {
-        var header = record.headers().lastHeader("kafka_dlt-exception-message");
-        if (header != null) {
-            return new String(header.value(), StandardCharsets.UTF_8);
+        int inserted = 0;
+        for (int from = 0; from < letters.size(); from += insertChunkSize) {
+            inserted += deadLetterMapper.insertBatch(letters.subList(from, Math.min(letters.size(), from + insertChunkSize)));
         }
-        return "Unknown error";
+        acknowledgment.acknowledge();
+
+        log.debug("Stored {} dead letters ({} new)", letters.size(), inserted);
     }
 }
-
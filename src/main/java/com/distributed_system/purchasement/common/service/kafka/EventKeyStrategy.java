@@ -0,0 +1,16 @@
+package com.distributed_system.purchasement.common.service.kafka;
+
+import com.distributed_system.purchasement.common.event.BaseEvent;
+
+/**
+ * Strategy for choosing the record key of an event
+ * The key decides the partition, so it also decides ordering and locality
+ */
+@FunctionalInterface
+public interface EventKeyStrategy {
+
+    /**
+     * Resolve the record key for the given event (never null)
+     */
+    String resolveKey(BaseEvent event);
+}
@@ -1,19 +1,28 @@
 package com.distributed_system.purchasement.common.service.kafka;
 
 import com.distributed_system.purchasement.common.event.BaseEvent;
-import lombok.RequiredArgsConstructor;
+import com.distributed_system.purchasement.common.service.hotkeys.HotKeyTracker;
+import com.distributed_system.purchasement.common.service.kafka.metrics.KafkaLatencyMetrics;
+import com.distributed_system.purchasement.common.service.kafka.spool.ProducerSpool;
+import com.distributed_system.purchasement.common.service.kafka.tuning.ProducerProfileRouter;
 import lombok.extern.slf4j.Slf4j;
 import org.apache.kafka.clients.producer.ProducerRecord;
 import org.apache.kafka.common.header.internals.RecordHeader;
-import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.kafka.support.SendResult;
 import org.springframework.stereotype.Service;
 
 import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Semaphore;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReferenceArray;
 
 /**
  * Kafka Producer Service with:
@@ -21,13 +30,46 @@ import java.util.concurrent.TimeoutException;
  * - Sync sending with timeout
  * - Custom headers support
  * - Error handling and logging
+ * - Batch sends with an in-flight cap and aggregated results
+ * - Per-topic producer profiles (see KafkaProducerProfileConfig)
+ * - Optional disk spool for async sends while the broker is down (kafka.producer.spool.enabled)
+ * - Keys of every send counted for hot partition detection (HotKeyTracker)
  */
 @Slf4j
 @Service
-@RequiredArgsConstructor
 public class KafkaProducerService {
 
-    private final KafkaTemplate<String, Object> kafkaTemplate;
+    private final ProducerProfileRouter producerProfileRouter;
+    private final EventKeyStrategy eventKeyStrategy;
+    private final ObjectProvider<ProducerSpool> producerSpool;
+    private final KafkaLatencyMetrics kafkaLatencyMetrics;
+    private final HotKeyTracker hotKeyTracker;
+
+    /**
+     * In-flight window shared by every batch send, kafka.producer.batch.max-in-flight is a global cap
+     */
+    private final Semaphore batchWindow;
+
+    /**
+     * How long a batch send waits for a window slot before failing the records it could not hand over
+     */
+    private final long batchAcquireTimeoutMs;
+
+    public KafkaProducerService(ProducerProfileRouter producerProfileRouter,
+                                EventKeyStrategy eventKeyStrategy,
+                                ObjectProvider<ProducerSpool> producerSpool,
+                                KafkaLatencyMetrics kafkaLatencyMetrics,
+                                HotKeyTracker hotKeyTracker,
+                                @Value("${kafka.producer.batch.max-in-flight:1000}") int batchMaxInFlight,
+                                @Value("${kafka.producer.batch.acquire-timeout-ms:5000}") long batchAcquireTimeoutMs) {
+        this.producerProfileRouter = producerProfileRouter;
+        this.eventKeyStrategy = eventKeyStrategy;
+        this.producerSpool = producerSpool;
+        this.kafkaLatencyMetrics = kafkaLatencyMetrics;
+        this.hotKeyTracker = hotKeyTracker;
+        this.batchWindow = new Semaphore(Math.max(1, batchMaxInFlight));
+        this.batchAcquireTimeoutMs = Math.max(0, batchAcquireTimeoutMs);
+    }
 
     // ==================== Async Send Methods ====================
 
@@ -42,7 +84,7 @@ public class KafkaProducerService {
      * Send message asynchronously with key
      */
     public void sendAsync(String topic, String key, Object message) {
-        CompletableFuture<SendResult<String, Object>> future = kafkaTemplate.send(topic, key, message);
+        CompletableFuture<SendResult<String, Object>> future = dispatch(new ProducerRecord<>(topic, key, message));
 
         future.whenComplete((result, exception) -> {
             if (exception != null) {
@@ -57,10 +99,10 @@ public class KafkaProducerService {
     }
 
     /**
-     * Send event asynchronously (uses eventId as key for ordering)
+     * Send event asynchronously (key comes from the configured EventKeyStrategy)
      */
     public void sendEventAsync(String topic, BaseEvent event) {
-        String key = event.getEventId();
+        String key = eventKeyStrategy.resolveKey(event);
         sendAsyncWithHeaders(topic, key, event, event.getEventType(), event.getCorrelationId());
     }
 
@@ -69,21 +111,9 @@ public class KafkaProducerService {
      */
     public void sendAsyncWithHeaders(String topic, String key, Object message,
                                      String eventType, String correlationId) {
-        ProducerRecord<String, Object> record = new ProducerRecord<>(topic, key, message);
+        ProducerRecord<String, Object> record = buildRecord(topic, key, message, eventType, correlationId);
 
-        // Add custom headers
-        if (eventType != null) {
-            record.headers().add(new RecordHeader("eventType",
-                    eventType.getBytes(StandardCharsets.UTF_8)));
-        }
-        if (correlationId != null) {
-            record.headers().add(new RecordHeader("correlationId",
-                    correlationId.getBytes(StandardCharsets.UTF_8)));
-        }
-        record.headers().add(new RecordHeader("timestamp",
-                String.valueOf(System.currentTimeMillis()).getBytes(StandardCharsets.UTF_8)));
-
-        CompletableFuture<SendResult<String, Object>> future = kafkaTemplate.send(record);
+        CompletableFuture<SendResult<String, Object>> future = dispatch(record);
 
         future.whenComplete((result, exception) -> {
             if (exception != null) {
@@ -98,6 +128,60 @@ public class KafkaProducerService {
         });
     }
 
+    /**
+     * Send event with the standard headers and return the broker acknowledgment
+     * For callers that track the outcome themselves (e.g. the outbox relay)
+     */
+    public CompletableFuture<SendResult<String, Object>> sendEvent(String topic, String key, BaseEvent event) {
+        long start = System.nanoTime();
+        hotKeyTracker.recordProduce(topic, key);
+        return timed(topic, start, producerProfileRouter.templateFor(topic)
+                .send(buildRecord(topic, key, event, event.getEventType(), event.getCorrelationId())));
+    }
+
+    /**
+     * Fire-and-forget sends go through the spool when it is enabled
+     * (a spooled record completes with offset -1 and is delivered by the drainer)
+     */
+    private CompletableFuture<SendResult<String, Object>> dispatch(ProducerRecord<String, Object> record) {
+        long start = System.nanoTime();
+        hotKeyTracker.recordProduce(record.topic(), record.key());
+        ProducerSpool spool = producerSpool.getIfAvailable();
+        return timed(record.topic(), start,
+                spool != null ? spool.send(record) : producerProfileRouter.templateFor(record.topic()).send(record));
+    }
+
+    /**
+     * Record the produce-ack latency when the send completes
+     */
+    private CompletableFuture<SendResult<String, Object>> timed(String topic, long startNanos,
+                                                                CompletableFuture<SendResult<String, Object>> future) {
+        future.whenComplete((result, exception) -> kafkaLatencyMetrics.recordProduce(topic, startNanos,
+                result != null ? result.getRecordMetadata() : null, exception));
+        return future;
+    }
+
+    /**
+     * Record with the eventType / correlationId / timestamp headers every event carries
+     */
+    static ProducerRecord<String, Object> buildRecord(String topic, String key, Object message,
+                                                      String eventType, String correlationId) {
+        ProducerRecord<String, Object> record = new ProducerRecord<>(topic, key, message);
+
+        // Add custom headers
+        if (eventType != null) {
+            record.headers().add(new RecordHeader("eventType",
+                    eventType.getBytes(StandardCharsets.UTF_8)));
+        }
+        if (correlationId != null) {
+            record.headers().add(new RecordHeader("correlationId",
+                    correlationId.getBytes(StandardCharsets.UTF_8)));
+        }
+        record.headers().add(new RecordHeader(KafkaLatencyMetrics.TIMESTAMP_HEADER,
+                String.valueOf(System.currentTimeMillis()).getBytes(StandardCharsets.UTF_8)));
+        return record;
+    }
+
     // ==================== Sync Send Methods ====================
 
     /**
@@ -120,7 +204,9 @@ public class KafkaProducerService {
      */
     public boolean sendSync(String topic, String key, Object message, int timeoutSeconds) {
         try {
-            SendResult<String, Object> result = kafkaTemplate.send(topic, key, message)
+            hotKeyTracker.recordProduce(topic, key);
+            SendResult<String, Object> result = timed(topic, System.nanoTime(),
+                    producerProfileRouter.templateFor(topic).send(topic, key, message))
                     .get(timeoutSeconds, TimeUnit.SECONDS);
 
             log.info("Message sent synchronously to topic {} partition {} offset {}",
@@ -146,7 +232,7 @@ public class KafkaProducerService {
      * Send event synchronously
      */
     public boolean sendEventSync(String topic, BaseEvent event) {
-        return sendSync(topic, event.getEventId(), event);
+        return sendSync(topic, eventKeyStrategy.resolveKey(event), event);
     }
 
     // ==================== Send to Partition ====================
@@ -157,7 +243,7 @@ public class KafkaProducerService {
     public void sendToPartition(String topic, int partition, String key, Object message) {
         ProducerRecord<String, Object> record = new ProducerRecord<>(topic, partition, key, message);
 
-        CompletableFuture<SendResult<String, Object>> future = kafkaTemplate.send(record);
+        CompletableFuture<SendResult<String, Object>> future = dispatch(record);
 
         future.whenComplete((result, exception) -> {
             if (exception != null) {
@@ -180,7 +266,7 @@ public class KafkaProducerService {
     public void sendWithCallback(String topic, String key, Object message,
                                  Runnable onSuccess,
                                  java.util.function.Consumer<Throwable> onError) {
-        CompletableFuture<SendResult<String, Object>> future = kafkaTemplate.send(topic, key, message);
+        CompletableFuture<SendResult<String, Object>> future = dispatch(new ProducerRecord<>(topic, key, message));
 
         future.whenComplete((result, exception) -> {
             if (exception != null) {
@@ -204,17 +290,112 @@ public class KafkaProducerService {
     /**
      * Send multiple messages to the same topic
      */
-    public void sendBatch(String topic, java.util.List<?> messages) {
-        messages.forEach(message -> sendAsync(topic, message));
-        log.info("Batch of {} messages sent to topic {}", messages.size(), topic);
+    public void sendBatch(String topic, List<?> messages) {
+        sendBatchAsync(topic, messages).thenAccept(result -> logBatchResult(topic, result));
     }
 
     /**
      * Send multiple events with keys
      */
-    public void sendEventBatch(String topic, java.util.List<? extends BaseEvent> events) {
-        events.forEach(event -> sendEventAsync(topic, event));
-        log.info("Batch of {} events sent to topic {}", events.size(), topic);
+    public void sendEventBatch(String topic, List<? extends BaseEvent> events) {
+        sendEventBatchAsync(topic, events).thenAccept(result -> logBatchResult(topic, result));
     }
-}
 
+    /**
+     * Send multiple messages, the future completes when every record is acknowledged or failed
+     * At most kafka.producer.batch.max-in-flight batch records are in flight (across all callers),
+     * the caller thread waits for a free slot, so large batches are fed as a steady pipeline.
+     * <p>
+     * Blocking contract: the calling thread may block up to kafka.producer.batch.acquire-timeout-ms per
+     * record while the window is full; records that get no slot in time (or on interrupt) are reported
+     * as failed in the result instead of being sent. Slots are freed by producer callbacks, so never call
+     * the batch methods from a send callback or future stage running on the producer I/O thread: it would
+     * wait for a slot only that thread can free. Consumer poll threads (OrderTimeoutService) may call them,
+     * a full window then delays the poll by at most the acquire timeout.
+     */
+    public CompletableFuture<BatchSendResult> sendBatchAsync(String topic, List<?> messages) {
+        List<ProducerRecord<String, Object>> records = new ArrayList<>(messages.size());
+        for (Object message : messages) {
+            records.add(new ProducerRecord<>(topic, null, message));
+        }
+        return sendWindowed(records);
+    }
+
+    /**
+     * Send multiple events (keys and headers as in sendEventAsync) with the in-flight cap
+     */
+    public CompletableFuture<BatchSendResult> sendEventBatchAsync(String topic, List<? extends BaseEvent> events) {
+        List<ProducerRecord<String, Object>> records = new ArrayList<>(events.size());
+        for (BaseEvent event : events) {
+            records.add(buildRecord(topic, eventKeyStrategy.resolveKey(event), event,
+                    event.getEventType(), event.getCorrelationId()));
+        }
+        return sendWindowed(records);
+    }
+
+    private CompletableFuture<BatchSendResult> sendWindowed(List<ProducerRecord<String, Object>> records) {
+        long start = System.currentTimeMillis();
+        int size = records.size();
+        AtomicReferenceArray<BatchSendResult.SendOutcome> outcomes = new AtomicReferenceArray<>(size);
+        CompletableFuture<BatchSendResult> done = new CompletableFuture<>();
+        if (size == 0) {
+            done.complete(new BatchSendResult(List.of(), 0));
+            return done;
+        }
+
+        AtomicInteger remaining = new AtomicInteger(size);
+        Runnable completeOne = () -> {
+            if (remaining.decrementAndGet() == 0) {
+                List<BatchSendResult.SendOutcome> list = new ArrayList<>(size);
+                for (int i = 0; i < size; i++) {
+                    list.add(outcomes.get(i));
+                }
+                done.complete(new BatchSendResult(list, System.currentTimeMillis() - start));
+            }
+        };
+
+        for (int i = 0; i < size; i++) {
+            int index = i;
+            Exception notAcquired;
+            try {
+                notAcquired = batchWindow.tryAcquire(batchAcquireTimeoutMs, TimeUnit.MILLISECONDS) ? null
+                        : new TimeoutException("No batch window slot within " + batchAcquireTimeoutMs + " ms");
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                notAcquired = e;
+            }
+            if (notAcquired != null) {
+                // Records not handed to the producer are reported as failed
+                for (int j = index; j < size; j++) {
+                    outcomes.set(j, new BatchSendResult.SendOutcome(j, null, notAcquired));
+                    completeOne.run();
+                }
+                break;
+            }
+            CompletableFuture<SendResult<String, Object>> future;
+            try {
+                future = dispatch(records.get(index));
+            } catch (RuntimeException e) {
+                future = CompletableFuture.failedFuture(e);
+            }
+            future.whenComplete((result, exception) -> {
+                batchWindow.release();
+                outcomes.set(index, new BatchSendResult.SendOutcome(index,
+                        exception == null ? result.getRecordMetadata() : null, exception));
+                completeOne.run();
+            });
+        }
+        return done;
+    }
+
+    private void logBatchResult(String topic, BatchSendResult result) {
+        if (result.isAllSucceeded()) {
+            log.info("Batch of {} messages sent to topic {} in {} ms",
+                    result.getTotal(), topic, result.getElapsedMillis());
+        } else {
+            log.error("Batch to topic {}: {} of {} messages failed, first error: {}",
+                    topic, result.getFailed(), result.getTotal(),
+                    result.getFailures().get(0).error().getMessage());
+        }
+    }
+}
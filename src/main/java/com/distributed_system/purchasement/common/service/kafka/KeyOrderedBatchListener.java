@@ -0,0 +1,201 @@
+package com.distributed_system.purchasement.common.service.kafka;
+
+import lombok.extern.slf4j.Slf4j;
+import org.apache.kafka.clients.consumer.Consumer;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.clients.consumer.OffsetAndMetadata;
+import org.apache.kafka.common.TopicPartition;
+import org.springframework.kafka.listener.BatchAcknowledgingConsumerAwareMessageListener;
+import org.springframework.kafka.listener.ConsumerRecordRecoverer;
+import org.springframework.kafka.listener.GenericMessageListener;
+import org.springframework.kafka.support.Acknowledgment;
+import org.springframework.kafka.support.KafkaUtils;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Semaphore;
+
+/**
+ * Key-ordered parallel listener
+ *
+ * Wraps a regular record listener (the @KafkaListener method adapter) and turns the container
+ * into a batch consumer:
+ * - Each poll is split into lanes by record key (aggregate id)
+ * - Lanes run concurrently on the worker executor, records of one key stay in order
+ * - Completion is tracked per partition, only the contiguous completed prefix is committed
+ *
+ * Optionally caps how many lanes of one partition run at the same time (useful with
+ * virtual threads, where the executor itself is unbounded).
+ *
+ * A failed record is handed to the recoverer right away (RetryTopicRouter: retries happen on the
+ * retry topics, so the lane is not held up by back-off). If recovery itself fails the rest of the lane is skipped, the partition is committed up to
+ * the first unfinished record and re-seeked there, so nothing is lost or skipped.
+ */
+@Slf4j
+public class KeyOrderedBatchListener implements BatchAcknowledgingConsumerAwareMessageListener<String, Object> {
+
+    private static final Acknowledgment NO_OP_ACK = () -> { };
+
+    private final GenericMessageListener<ConsumerRecord<String, Object>> delegate;
+    private final Executor executor;
+    private final ConsumerRecordRecoverer recoverer;
+    private final int maxInFlightPerPartition;
+
+    public KeyOrderedBatchListener(Object delegate, Executor executor, ConsumerRecordRecoverer recoverer) {
+        this(delegate, executor, recoverer, 0);
+    }
+
+    /**
+     * @param maxInFlightPerPartition max lanes of one partition running concurrently, 0 = unlimited
+     */
+    @SuppressWarnings("unchecked")
+    public KeyOrderedBatchListener(Object delegate, Executor executor, ConsumerRecordRecoverer recoverer,
+                                   int maxInFlightPerPartition) {
+        this.delegate = (GenericMessageListener<ConsumerRecord<String, Object>>) delegate;
+        this.executor = executor;
+        this.recoverer = recoverer;
+        this.maxInFlightPerPartition = maxInFlightPerPartition;
+    }
+
+    @Override
+    public void onMessage(List<ConsumerRecord<String, Object>> records, Acknowledgment acknowledgment,
+                          Consumer<?, ?> consumer) {
+        if (records.isEmpty()) {
+            return;
+        }
+
+        // Build per-partition trackers and per-key lanes (poll order is preserved inside each lane)
+        Map<TopicPartition, PartitionOffsetTracker> trackers = new LinkedHashMap<>();
+        Map<Object, List<ConsumerRecord<String, Object>>> lanes = new LinkedHashMap<>();
+        for (ConsumerRecord<String, Object> record : records) {
+            TopicPartition tp = new TopicPartition(record.topic(), record.partition());
+            trackers.computeIfAbsent(tp, k -> new PartitionOffsetTracker(records.size())).register(record.offset());
+            Object laneKey = record.key() != null ? record.key() : tp;
+            lanes.computeIfAbsent(laneKey, k -> new ArrayList<>()).add(record);
+        }
+
+        Map<TopicPartition, Semaphore> inFlight = new HashMap<>();
+        if (maxInFlightPerPartition > 0) {
+            trackers.keySet().forEach(tp -> inFlight.put(tp, new Semaphore(maxInFlightPerPartition)));
+        }
+
+        // The recoverer tags retries with the consumer group, a thread-local of the consumer thread
+        String groupId = KafkaUtils.getConsumerGroupId();
+        List<CompletableFuture<Void>> futures = new ArrayList<>(lanes.size());
+        for (List<ConsumerRecord<String, Object>> lane : lanes.values()) {
+            futures.add(CompletableFuture.runAsync(() -> {
+                KafkaUtils.setConsumerGroupId(groupId);
+                try {
+                    runLane(lane, trackers, inFlight);
+                } finally {
+                    KafkaUtils.clearConsumerGroupId();
+                }
+            }, executor));
+        }
+        CompletableFuture.allOf(futures.toArray(new CompletableFuture[0])).join();
+
+        if (trackers.values().stream().allMatch(PartitionOffsetTracker::isFullyCompleted)) {
+            acknowledgment.acknowledge();
+            log.debug("Key-ordered batch of {} records in {} lanes completed", records.size(), lanes.size());
+            return;
+        }
+
+        commitCompletedPrefix(trackers, consumer);
+    }
+
+    // ==================== Lane Processing ====================
+
+    private void runLane(List<ConsumerRecord<String, Object>> lane,
+                         Map<TopicPartition, PartitionOffsetTracker> trackers,
+                         Map<TopicPartition, Semaphore> inFlight) {
+        ConsumerRecord<String, Object> head = lane.get(0);
+        Semaphore permits = inFlight.get(new TopicPartition(head.topic(), head.partition()));
+        if (permits == null) {
+            runLane(lane, trackers);
+            return;
+        }
+        try {
+            permits.acquire();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return;
+        }
+        try {
+            runLane(lane, trackers);
+        } finally {
+            permits.release();
+        }
+    }
+
+    private void runLane(List<ConsumerRecord<String, Object>> lane,
+                         Map<TopicPartition, PartitionOffsetTracker> trackers) {
+        for (ConsumerRecord<String, Object> record : lane) {
+            if (!process(record)) {
+                // Stop the lane so later records of the same key are not processed out of order
+                return;
+            }
+            trackers.get(new TopicPartition(record.topic(), record.partition())).complete(record.offset());
+        }
+    }
+
+    /**
+     * Run one record, recover it on failure
+     * Returns false only if the record could neither be processed nor recovered
+     */
+    private boolean process(ConsumerRecord<String, Object> record) {
+        Exception error;
+        if (RetryTopicRouter.isPoison(record)) {
+            // An undeserializable record goes to the recoverer without invoking the listener
+            error = new IllegalStateException("Record value could not be deserialized");
+        } else {
+            try {
+                delegate.onMessage(record, NO_OP_ACK, null);
+                return true;
+            } catch (Exception e) {
+                error = e;
+                log.warn("Processing failed for topic {} partition {} offset {} key {}: {}",
+                        record.topic(), record.partition(), record.offset(), record.key(), e.getMessage());
+            }
+        }
+
+        try {
+            recoverer.accept(record, error);
+            return true;
+        } catch (Exception e) {
+            log.error("Recovery failed for topic {} partition {} offset {}: {}",
+                    record.topic(), record.partition(), record.offset(), e.getMessage());
+            return false;
+        }
+    }
+
+    // ==================== Partial Commit ====================
+
+    /**
+     * Commit the completed prefix of each partition and re-seek to the first unfinished record
+     * Runs on the consumer thread, after all lanes have finished.
+     */
+    private void commitCompletedPrefix(Map<TopicPartition, PartitionOffsetTracker> trackers, Consumer<?, ?> consumer) {
+        Map<TopicPartition, OffsetAndMetadata> offsets = new HashMap<>();
+        trackers.forEach((tp, tracker) -> {
+            if (tracker.hasProgress()) {
+                offsets.put(tp, new OffsetAndMetadata(tracker.committableOffset()));
+            }
+        });
+        if (!offsets.isEmpty()) {
+            consumer.commitSync(offsets);
+        }
+
+        trackers.forEach((tp, tracker) -> {
+            if (!tracker.isFullyCompleted()) {
+                long next = tracker.committableOffset();
+                consumer.seek(tp, next);
+                log.warn("Partition {} stopped at offset {}, will be redelivered", tp, next);
+            }
+        });
+    }
+}
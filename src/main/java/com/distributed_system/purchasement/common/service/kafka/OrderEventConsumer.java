@@ -1,9 +1,16 @@
 package com.distributed_system.purchasement.common.service.kafka;
 
+import com.distributed_system.purchasement.common.config.KafkaDispatcherConfig;
 import com.distributed_system.purchasement.common.constant.KafkaTopics;
 import com.distributed_system.purchasement.common.event.OrderEvent;
+import com.distributed_system.purchasement.common.service.hotkeys.HotKeyTracker;
+import com.distributed_system.purchasement.common.service.kafka.dispatch.HandlesEventTypes;
+import com.distributed_system.purchasement.common.service.userstate.UserState;
+import com.distributed_system.purchasement.common.service.userstate.UserStateView;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.kafka.annotation.KafkaListener;
 import org.springframework.kafka.support.Acknowledgment;
 import org.springframework.kafka.support.KafkaHeaders;
@@ -12,6 +19,7 @@ import org.springframework.messaging.handler.annotation.Payload;
 import org.springframework.stereotype.Service;
 
 import java.util.List;
+import java.util.Optional;
 
 /**
  * Order Event Consumer with:
@@ -25,6 +33,9 @@ import java.util.List;
 public class OrderEventConsumer {
 
     private final KafkaProducerService kafkaProducerService;
+    private final PartialBatchProcessor partialBatchProcessor;
+    private final ObjectProvider<UserStateView> userStateView;
+    private final HotKeyTracker hotKeyTracker;
 
     /**
      * Listen for order created events
@@ -32,8 +43,10 @@ public class OrderEventConsumer {
     @KafkaListener(
             topics = KafkaTopics.ORDER_CREATED,
             groupId = KafkaTopics.GROUP_ORDER_SERVICE,
-            containerFactory = "kafkaListenerContainerFactory"
+            containerFactory = "keyOrderedKafkaListenerContainerFactory",
+            autoStartup = KafkaDispatcherConfig.PER_TOPIC_AUTO_STARTUP
     )
+    @HandlesEventTypes("ORDER_CREATED")
     public void handleOrderCreated(
             @Payload OrderEvent event,
             @Header(KafkaHeaders.RECEIVED_TOPIC) String topic,
@@ -59,8 +72,10 @@ public class OrderEventConsumer {
     @KafkaListener(
             topics = KafkaTopics.ORDER_COMPLETED,
             groupId = KafkaTopics.GROUP_ORDER_SERVICE,
-            containerFactory = "kafkaListenerContainerFactory"
+            containerFactory = "kafkaListenerContainerFactory",
+            autoStartup = KafkaDispatcherConfig.PER_TOPIC_AUTO_STARTUP
     )
+    @HandlesEventTypes("ORDER_COMPLETED")
     public void handleOrderCompleted(
             @Payload OrderEvent event,
             Acknowledgment acknowledgment) {
@@ -83,8 +98,10 @@ public class OrderEventConsumer {
     @KafkaListener(
             topics = KafkaTopics.ORDER_CANCELLED,
             groupId = KafkaTopics.GROUP_ORDER_SERVICE,
-            containerFactory = "kafkaListenerContainerFactory"
+            containerFactory = "kafkaListenerContainerFactory",
+            autoStartup = KafkaDispatcherConfig.PER_TOPIC_AUTO_STARTUP
     )
+    @HandlesEventTypes("ORDER_CANCELLED")
     public void handleOrderCancelled(
             @Payload OrderEvent event,
             Acknowledgment acknowledgment) {
@@ -104,7 +121,8 @@ public class OrderEventConsumer {
 
     /**
      * Batch listener for high-throughput processing
-     * Processes multiple messages at once
+     * Processes multiple messages at once, a failing record is retried on its own
+     * while the rest of the batch is committed and continues
      */
     @KafkaListener(
             topics = KafkaTopics.ORDER_UPDATED,
@@ -112,24 +130,15 @@ public class OrderEventConsumer {
             containerFactory = "batchKafkaListenerContainerFactory"
     )
     public void handleOrderUpdatedBatch(
-            @Payload List<OrderEvent> events,
+            List<ConsumerRecord<String, OrderEvent>> records,
             Acknowledgment acknowledgment) {
 
-        log.info("Received batch of {} ORDER_UPDATED events", events.size());
+        log.info("Received batch of {} ORDER_UPDATED events", records.size());
 
-        try {
-            for (OrderEvent event : events) {
-                processOrderUpdated(event);
-            }
-
-            // Acknowledge all messages in the batch
-            acknowledgment.acknowledge();
-            log.info("Successfully processed batch of {} ORDER_UPDATED events", events.size());
+        int failed = partialBatchProcessor.process(records, acknowledgment,
+                record -> processOrderUpdated(record.value()));
 
-        } catch (Exception e) {
-            log.error("Error processing ORDER_UPDATED batch: {}", e.getMessage());
-            throw e;
-        }
+        log.info("Processed batch of {} ORDER_UPDATED events ({} sent to retry)", records.size(), failed);
     }
 
     // ==================== Business Logic ====================
@@ -138,6 +147,15 @@ public class OrderEventConsumer {
         log.debug("Processing order creation: orderId={}, items={}",
                 event.getOrderId(), event.getItems() != null ? event.getItems().size() : 0);
 
+        // User from the local user-state view instead of a tb_user query
+        findUser(event.getUserId()).ifPresentOrElse(
+                user -> log.debug("Order {} placed by {} <{}>", event.getOrderId(), user.username(), user.email()),
+                () -> log.debug("Order {} placed by userId={} (not in user state view)",
+                        event.getOrderId(), event.getUserId()));
+
+        // Hot products / users (/actuator/hotkeys)
+        hotKeyTracker.recordOrder(event);
+
         // Business logic examples:
         // 1. Validate order
         // 2. Reserve inventory
@@ -175,5 +193,9 @@ public class OrderEventConsumer {
         // 3. Process refund if payment was made
         // 4. Send cancellation notification
     }
-}
 
+    private Optional<UserState> findUser(Long userId) {
+        UserStateView view = userStateView.getIfAvailable();
+        return view != null && userId != null ? view.find(userId) : Optional.empty();
+    }
+}
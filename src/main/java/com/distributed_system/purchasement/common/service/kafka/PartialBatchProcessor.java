@@ -0,0 +1,85 @@
+package com.distributed_system.purchasement.common.service.kafka;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.springframework.kafka.listener.BatchListenerFailedException;
+import org.springframework.kafka.support.Acknowledgment;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/**
+ * Partial-failure handling for batch listeners (batchKafkaListenerContainerFactory)
+ *
+ * Instead of failing the whole poll when one record fails:
+ * 1. Commit every record before the failing index
+ * 2. Hand only the failing record to the retry topics (then DLQ)
+ * 3. Continue with the rest of the batch, nothing already processed is redelivered
+ *
+ * If the failing record cannot be recovered, a BatchListenerFailedException with its index
+ * lets the error handler re-seek from that record only.
+ * Requires AckMode.MANUAL_IMMEDIATE and a listener that receives List<ConsumerRecord>.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class PartialBatchProcessor {
+
+    private final RetryTopicRouter retryTopicRouter;
+
+    /**
+     * Per-record handler of a batch
+     */
+    @FunctionalInterface
+    public interface RecordHandler<V> {
+        void handle(ConsumerRecord<String, V> record) throws Exception;
+    }
+
+    /**
+     * Process the batch record by record, isolating failures
+     * Returns the number of records that failed and were recovered.
+     * Must be called on the listener thread.
+     */
+    public <V> int process(List<ConsumerRecord<String, V>> records, Acknowledgment acknowledgment,
+                           RecordHandler<V> handler) {
+        int lastAcked = -1;
+        int failed = 0;
+
+        for (int index = 0; index < records.size(); index++) {
+            ConsumerRecord<String, V> record = records.get(index);
+            try {
+                if (RetryTopicRouter.isPoison(record)) {
+                    throw new IllegalStateException("Record value could not be deserialized");
+                }
+                handler.handle(record);
+            } catch (Exception e) {
+                failed++;
+                // Commit the successfully processed records before the failing one
+                if (index - 1 > lastAcked) {
+                    acknowledgment.acknowledge(index - 1);
+                    lastAcked = index - 1;
+                }
+                recover(record, index, e);
+                acknowledgment.acknowledge(index);
+                lastAcked = index;
+            }
+        }
+
+        if (lastAcked < records.size() - 1) {
+            acknowledgment.acknowledge(records.size() - 1);
+        }
+        return failed;
+    }
+
+    private void recover(ConsumerRecord<String, ?> record, int index, Exception exception) {
+        log.warn("Record {} of batch failed (topic {} partition {} offset {}): {}",
+                index, record.topic(), record.partition(), record.offset(), exception.getMessage());
+        try {
+            retryTopicRouter.accept(record, exception);
+        } catch (Exception recoveryError) {
+            // Let the error handler re-seek from this record; earlier records are already committed
+            throw new BatchListenerFailedException("Recovery failed for batch record " + index, recoveryError, index);
+        }
+    }
+}
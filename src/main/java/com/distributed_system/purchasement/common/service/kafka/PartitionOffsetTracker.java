@@ -0,0 +1,74 @@
+package com.distributed_system.purchasement.common.service.kafka;
+
+import java.util.Arrays;
+
+/**
+ * Tracks out-of-order completion of the records of one partition within a polled batch
+ *
+ * Offsets are registered in poll order (ascending). Records may then complete in any order,
+ * but the committable offset only moves past a contiguous prefix of completed records,
+ * so a commit never skips an unfinished record.
+ *
+ * Each record's flag is written by exactly one worker; readers must run after the workers
+ * have been joined (which gives the happens-before edge).
+ */
+public class PartitionOffsetTracker {
+
+    private long[] offsets;
+    private boolean[] completed;
+    private int size;
+
+    public PartitionOffsetTracker(int expectedSize) {
+        this.offsets = new long[Math.max(expectedSize, 4)];
+        this.completed = new boolean[this.offsets.length];
+    }
+
+    /**
+     * Register the next offset of the batch (must be called in ascending order)
+     */
+    public void register(long offset) {
+        if (size == offsets.length) {
+            offsets = Arrays.copyOf(offsets, size * 2);
+            completed = Arrays.copyOf(completed, size * 2);
+        }
+        offsets[size++] = offset;
+    }
+
+    /**
+     * Mark the record at the given offset as done
+     */
+    public void complete(long offset) {
+        int index = Arrays.binarySearch(offsets, 0, size, offset);
+        if (index >= 0) {
+            completed[index] = true;
+        }
+    }
+
+    /**
+     * First offset that has not completed yet, or last offset + 1 when everything is done
+     * This is the value to commit (Kafka commits the next offset to read).
+     */
+    public long committableOffset() {
+        for (int i = 0; i < size; i++) {
+            if (!completed[i]) {
+                return offsets[i];
+            }
+        }
+        return offsets[size - 1] + 1;
+    }
+
+    public long firstOffset() {
+        return offsets[0];
+    }
+
+    public boolean isFullyCompleted() {
+        return committableOffset() == offsets[size - 1] + 1;
+    }
+
+    /**
+     * Whether at least the first record completed, i.e. there is something new to commit
+     */
+    public boolean hasProgress() {
+        return size > 0 && completed[0];
+    }
+}
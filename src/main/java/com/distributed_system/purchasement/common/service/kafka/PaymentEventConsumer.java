@@ -1,35 +1,54 @@
 package com.distributed_system.purchasement.common.service.kafka;
 
+import com.distributed_system.purchasement.common.config.KafkaDispatcherConfig;
+import com.distributed_system.purchasement.common.config.KafkaTransactionConfig;
 import com.distributed_system.purchasement.common.constant.KafkaTopics;
 import com.distributed_system.purchasement.common.event.OrderEvent;
 import com.distributed_system.purchasement.common.event.PaymentEvent;
+import com.distributed_system.purchasement.common.service.dedup.EventDeduplicator;
+import com.distributed_system.purchasement.common.service.outbox.OutboxService;
+import com.distributed_system.purchasement.common.service.kafka.dispatch.HandlesEventTypes;
+import com.distributed_system.purchasement.common.service.userstate.UserState;
+import com.distributed_system.purchasement.common.service.userstate.UserStateView;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.kafka.annotation.KafkaListener;
 import org.springframework.kafka.support.Acknowledgment;
 import org.springframework.messaging.handler.annotation.Payload;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.Optional;
 
 /**
  * Payment Event Consumer
  * Handles payment events and triggers follow-up actions
+ * Follow-up events go through the outbox in the same transaction as the payment update
+ * Redelivered events (same eventId) are skipped by the EventDeduplicator
  */
 @Slf4j
 @Service
 @RequiredArgsConstructor
 public class PaymentEventConsumer {
 
-    private final KafkaProducerService kafkaProducerService;
+    private final OutboxService outboxService;
+    private final TransactionTemplate transactionTemplate;
+    private final EventDeduplicator eventDeduplicator;
+    private final ObjectProvider<UserStateView> userStateView;
 
     /**
      * Listen for payment completed events
      * Triggers order completion
+     * With kafka.transaction.enabled, TransactionalPaymentConsumer handles this topic instead
      */
     @KafkaListener(
             topics = KafkaTopics.PAYMENT_COMPLETED,
             groupId = KafkaTopics.GROUP_PAYMENT_SERVICE,
-            containerFactory = "kafkaListenerContainerFactory"
+            containerFactory = "keyOrderedKafkaListenerContainerFactory",
+            autoStartup = KafkaTransactionConfig.NON_TRANSACTIONAL_AUTO_STARTUP
     )
+    @HandlesEventTypes("PAYMENT_COMPLETED")
     public void handlePaymentCompleted(
             @Payload PaymentEvent event,
             Acknowledgment acknowledgment) {
@@ -37,20 +56,30 @@ public class PaymentEventConsumer {
         log.info("Received PAYMENT_COMPLETED event: paymentId={}, orderId={}, transactionId={}",
                 event.getPaymentId(), event.getOrderId(), event.getTransactionId());
 
+        if (eventDeduplicator.isDuplicate(event)) {
+            log.info("Skipping duplicate PAYMENT_COMPLETED event: eventId={}, paymentId={}",
+                    event.getEventId(), event.getPaymentId());
+            acknowledgment.acknowledge();
+            return;
+        }
+
         try {
-            // Process payment completion
-            processPaymentCompleted(event);
-
-            // Trigger order completion event (event chaining)
-            OrderEvent orderCompleted = OrderEvent.completed(
-                    event.getOrderId(),
-                    event.getUserId(),
-                    event.getAmount()
-            );
-            orderCompleted.setCorrelationId(event.getCorrelationId()); // Maintain correlation
-
-            kafkaProducerService.sendEventAsync(KafkaTopics.ORDER_COMPLETED, orderCompleted);
+            transactionTemplate.executeWithoutResult(status -> {
+                // Process payment completion
+                processPaymentCompleted(event);
+
+                // Trigger order completion event (event chaining)
+                OrderEvent orderCompleted = OrderEvent.completed(
+                        event.getOrderId(),
+                        event.getUserId(),
+                        event.getAmount()
+                );
+                orderCompleted.setCorrelationId(event.getCorrelationId()); // Maintain correlation
+
+                outboxService.append(KafkaTopics.ORDER_COMPLETED, orderCompleted);
+            });
             log.info("Triggered ORDER_COMPLETED event for orderId={}", event.getOrderId());
+            eventDeduplicator.markProcessed(event);
 
             acknowledgment.acknowledge();
 
@@ -66,8 +95,10 @@ public class PaymentEventConsumer {
     @KafkaListener(
             topics = KafkaTopics.PAYMENT_FAILED,
             groupId = KafkaTopics.GROUP_PAYMENT_SERVICE,
-            containerFactory = "kafkaListenerContainerFactory"
+            containerFactory = "keyOrderedKafkaListenerContainerFactory",
+            autoStartup = KafkaDispatcherConfig.PER_TOPIC_AUTO_STARTUP
     )
+    @HandlesEventTypes("PAYMENT_FAILED")
     public void handlePaymentFailed(
             @Payload PaymentEvent event,
             Acknowledgment acknowledgment) {
@@ -75,19 +106,29 @@ public class PaymentEventConsumer {
         log.warn("Received PAYMENT_FAILED event: paymentId={}, orderId={}, reason={}",
                 event.getPaymentId(), event.getOrderId(), event.getFailureReason());
 
-        try {
-            processPaymentFailed(event);
-
-            // Optionally cancel the order
-            OrderEvent orderCancelled = OrderEvent.cancelled(
-                    event.getOrderId(),
-                    event.getUserId()
-            );
-            orderCancelled.setCorrelationId(event.getCorrelationId());
+        if (eventDeduplicator.isDuplicate(event)) {
+            log.info("Skipping duplicate PAYMENT_FAILED event: eventId={}, paymentId={}",
+                    event.getEventId(), event.getPaymentId());
+            acknowledgment.acknowledge();
+            return;
+        }
 
-            kafkaProducerService.sendEventAsync(KafkaTopics.ORDER_CANCELLED, orderCancelled);
+        try {
+            transactionTemplate.executeWithoutResult(status -> {
+                processPaymentFailed(event);
+
+                // Optionally cancel the order
+                OrderEvent orderCancelled = OrderEvent.cancelled(
+                        event.getOrderId(),
+                        event.getUserId()
+                );
+                orderCancelled.setCorrelationId(event.getCorrelationId());
+
+                outboxService.append(KafkaTopics.ORDER_CANCELLED, orderCancelled);
+            });
             log.info("Triggered ORDER_CANCELLED event due to payment failure for orderId={}",
                     event.getOrderId());
+            eventDeduplicator.markProcessed(event);
 
             acknowledgment.acknowledge();
 
@@ -103,8 +144,10 @@ public class PaymentEventConsumer {
     @KafkaListener(
             topics = KafkaTopics.PAYMENT_INITIATED,
             groupId = KafkaTopics.GROUP_PAYMENT_SERVICE,
-            containerFactory = "kafkaListenerContainerFactory"
+            containerFactory = "keyOrderedKafkaListenerContainerFactory",
+            autoStartup = KafkaDispatcherConfig.PER_TOPIC_AUTO_STARTUP
     )
+    @HandlesEventTypes("PAYMENT_INITIATED")
     public void handlePaymentInitiated(
             @Payload PaymentEvent event,
             Acknowledgment acknowledgment) {
@@ -124,7 +167,7 @@ public class PaymentEventConsumer {
 
     // ==================== Business Logic ====================
 
-    private void processPaymentCompleted(PaymentEvent event) {
+    void processPaymentCompleted(PaymentEvent event) {
         log.debug("Processing payment completion: paymentId={}", event.getPaymentId());
 
         // Business logic:
@@ -138,6 +181,10 @@ public class PaymentEventConsumer {
         log.debug("Processing payment failure: paymentId={}, reason={}",
                 event.getPaymentId(), event.getFailureReason());
 
+        // Contact details from the local user-state view instead of a tb_user query
+        findUser(event.getUserId()).ifPresent(user ->
+                log.debug("Payment failure notice for orderId={} goes to {}", event.getOrderId(), user.email()));
+
         // Business logic:
         // 1. Update payment status
         // 2. Log failure reason for analysis
@@ -154,5 +201,9 @@ public class PaymentEventConsumer {
         // 3. Process payment
         // 4. Emit COMPLETED or FAILED event based on result
     }
-}
 
+    private Optional<UserState> findUser(Long userId) {
+        UserStateView view = userStateView.getIfAvailable();
+        return view != null && userId != null ? view.find(userId) : Optional.empty();
+    }
+}
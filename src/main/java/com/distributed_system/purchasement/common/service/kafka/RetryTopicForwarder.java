@@ -0,0 +1,147 @@
+package com.distributed_system.purchasement.common.service.kafka;
+
+import com.distributed_system.purchasement.common.service.kafka.dispatch.EventDispatcher;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.kafka.clients.consumer.Consumer;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.common.header.Header;
+import org.springframework.kafka.listener.DeadLetterPublishingRecoverer;
+import org.springframework.kafka.support.Acknowledgment;
+import org.springframework.kafka.support.KafkaUtils;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Consumer of the retry stage topics
+ *
+ * Each stage has its own container. A record is held until its retry-due-at time,
+ * without blocking: nack(sleep) pauses the stage consumer (heartbeats continue) and redelivers
+ * the record afterwards. Once due, the listener of the consumer group that failed (retry-group
+ * header) is invoked right here, with the record looking as if read from its original topic.
+ * Nothing is written back to the main topic, so the other groups of that topic never see it twice.
+ * A new failure moves the record to the next stage (then the DLQ).
+ *
+ * Listeners are invoked with a no-op Acknowledgment, the stage record is acknowledged once the
+ * listener returned or the record was moved on.
+ */
+@Slf4j
+public class RetryTopicForwarder {
+
+    private static final Acknowledgment LISTENER_ACK = new Acknowledgment() {
+        @Override
+        public void acknowledge() {
+        }
+
+        @Override
+        public void acknowledge(int index) {
+        }
+    };
+
+    private final Map<String, EventDispatcher> dispatchersByGroup;
+    private final RetryTopicRouter retryTopicRouter;
+    private final DeadLetterPublishingRecoverer deadLetterRecoverer;
+
+    /**
+     * @param dispatchersByGroup per consumer group, routes original topic / eventType to the listener
+     */
+    public RetryTopicForwarder(Map<String, EventDispatcher> dispatchersByGroup,
+                               RetryTopicRouter retryTopicRouter,
+                               DeadLetterPublishingRecoverer deadLetterRecoverer) {
+        this.dispatchersByGroup = Map.copyOf(dispatchersByGroup);
+        this.retryTopicRouter = retryTopicRouter;
+        this.deadLetterRecoverer = deadLetterRecoverer;
+    }
+
+    /**
+     * Listener entry point for all retry stage containers
+     */
+    public void forward(ConsumerRecord<String, Object> record, Acknowledgment acknowledgment,
+                        Consumer<?, ?> consumer) {
+
+        long waitMs = dueAt(record) - System.currentTimeMillis();
+        if (waitMs > 0) {
+            acknowledgment.nack(Duration.ofMillis(waitMs));
+            return;
+        }
+
+        String topic = headerValue(record, RetryTopicPolicy.HEADER_ORIGINAL_TOPIC);
+        if (topic == null) {
+            log.error("Retry record without original topic header on {} offset {}, dropping",
+                    record.topic(), record.offset());
+            acknowledgment.acknowledge();
+            return;
+        }
+
+        ConsumerRecord<String, Object> retry = asOriginal(record, topic);
+        String groupId = headerValue(record, RetryTopicPolicy.HEADER_GROUP);
+        Optional<Map.Entry<String, EventDispatcher>> target = dispatcher(groupId, retry);
+        if (target.isEmpty()) {
+            log.error("No listener of group {} for retried record of {} (stage {}), sending to DLQ",
+                    groupId, topic, RetryTopicRouter.readStage(record.headers()));
+            deadLetterRecoverer.accept(retry, new IllegalStateException(
+                    "No retry listener of group " + groupId + " for topic " + topic));
+            acknowledgment.acknowledge();
+            return;
+        }
+
+        // Recoverers called by the listener (PartialBatchProcessor) read the group from this thread
+        String stageGroupId = KafkaUtils.getConsumerGroupId();
+        KafkaUtils.setConsumerGroupId(target.get().getKey());
+        try {
+            target.get().getValue().onMessage(retry, LISTENER_ACK, consumer);
+            log.info("Retried record of {} processed by group {} (stage {})",
+                    topic, target.get().getKey(), RetryTopicRouter.readStage(record.headers()));
+        } catch (Exception e) {
+            // Throws if the next stage cannot be written, the container then redelivers this record
+            retryTopicRouter.accept(retry, e);
+        } finally {
+            KafkaUtils.setConsumerGroupId(stageGroupId);
+        }
+        acknowledgment.acknowledge();
+    }
+
+    /**
+     * The group's dispatcher; records without group header (written before it existed) go to
+     * the only group that listens to their topic
+     */
+    private Optional<Map.Entry<String, EventDispatcher>> dispatcher(String groupId,
+                                                                    ConsumerRecord<String, Object> record) {
+        if (groupId != null) {
+            EventDispatcher dispatcher = dispatchersByGroup.get(groupId);
+            return dispatcher != null && dispatcher.routes(record)
+                    ? Optional.of(Map.entry(groupId, dispatcher)) : Optional.empty();
+        }
+        List<Map.Entry<String, EventDispatcher>> candidates = new ArrayList<>();
+        for (Map.Entry<String, EventDispatcher> entry : dispatchersByGroup.entrySet()) {
+            if (entry.getValue().routes(record)) {
+                candidates.add(entry);
+            }
+        }
+        return candidates.size() == 1 ? Optional.of(candidates.get(0)) : Optional.empty();
+    }
+
+    /**
+     * The stage record as the listener saw it the first time: original topic, retry headers kept
+     * (the router reads the stage from them)
+     */
+    private static ConsumerRecord<String, Object> asOriginal(ConsumerRecord<String, Object> record, String topic) {
+        return new ConsumerRecord<>(topic, record.partition(), record.offset(), record.timestamp(),
+                record.timestampType(), record.serializedKeySize(), record.serializedValueSize(),
+                record.key(), record.value(), record.headers(), record.leaderEpoch());
+    }
+
+    private static long dueAt(ConsumerRecord<String, Object> record) {
+        String dueAt = headerValue(record, RetryTopicPolicy.HEADER_DUE_AT);
+        return dueAt != null ? Long.parseLong(dueAt) : 0;
+    }
+
+    private static String headerValue(ConsumerRecord<String, Object> record, String key) {
+        Header header = record.headers().lastHeader(key);
+        return header != null ? new String(header.value(), StandardCharsets.UTF_8) : null;
+    }
+}
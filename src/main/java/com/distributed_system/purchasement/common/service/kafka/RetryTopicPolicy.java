@@ -0,0 +1,95 @@
+package com.distributed_system.purchasement.common.service.kafka;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Staged retry topic policy
+ *
+ * A failed record goes to {topic}-retry-{delay} stages with exponential delays
+ * (default 1s, 10s, 60s) and only reaches the DLQ after the last stage.
+ * Each stage delay gets a random jitter so retries of a burst do not fire at once.
+ */
+public class RetryTopicPolicy {
+
+    // ==================== Retry Headers ====================
+    public static final String HEADER_STAGE = "retry-stage";
+    public static final String HEADER_ORIGINAL_TOPIC = "retry-original-topic";
+    public static final String HEADER_DUE_AT = "retry-due-at";
+    public static final String HEADER_EXCEPTION = "retry-exception";
+    /**
+     * Consumer group whose listener failed, only that group's listener sees the retry
+     */
+    public static final String HEADER_GROUP = "retry-group";
+
+    private static final String RETRY_INFIX = "-retry-";
+
+    private final List<Long> stageDelaysMs;
+    private final List<String> stageLabels;
+    private final double jitter;
+
+    /**
+     * @param initialIntervalMs delay of the first stage
+     * @param multiplier        growth factor between stages
+     * @param maxIntervalMs     upper bound for a stage delay
+     * @param stages            number of retry stages before the DLQ
+     * @param jitter            relative jitter, e.g. 0.2 = +/-20%
+     */
+    public RetryTopicPolicy(long initialIntervalMs, double multiplier, long maxIntervalMs, int stages, double jitter) {
+        List<Long> delays = new ArrayList<>(stages);
+        List<String> labels = new ArrayList<>(stages);
+        double delay = initialIntervalMs;
+        for (int i = 0; i < stages; i++) {
+            long stageDelay = Math.min((long) delay, maxIntervalMs);
+            delays.add(stageDelay);
+            labels.add(label(stageDelay));
+            delay *= multiplier;
+        }
+        this.stageDelaysMs = Collections.unmodifiableList(delays);
+        this.stageLabels = Collections.unmodifiableList(labels);
+        this.jitter = Math.max(0, Math.min(jitter, 1));
+    }
+
+    public int stageCount() {
+        return stageDelaysMs.size();
+    }
+
+    /**
+     * Delay of a stage (1-based)
+     */
+    public long delayMs(int stage) {
+        return stageDelaysMs.get(stage - 1);
+    }
+
+    /**
+     * Stage delay with random jitter applied
+     */
+    public long jitteredDelayMs(int stage) {
+        long delay = delayMs(stage);
+        if (jitter == 0) {
+            return delay;
+        }
+        double factor = 1 + ThreadLocalRandom.current().nextDouble(-jitter, jitter);
+        return (long) (delay * factor);
+    }
+
+    public String stageLabel(int stage) {
+        return stageLabels.get(stage - 1);
+    }
+
+    /**
+     * Retry topic of a stage (1-based), e.g. order-created-retry-10s
+     */
+    public String retryTopic(String mainTopic, int stage) {
+        return mainTopic + RETRY_INFIX + stageLabel(stage);
+    }
+
+    private static String label(long delayMs) {
+        if (delayMs % 1000 == 0) {
+            return (delayMs / 1000) + "s";
+        }
+        return delayMs + "ms";
+    }
+}
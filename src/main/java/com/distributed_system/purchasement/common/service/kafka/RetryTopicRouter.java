@@ -0,0 +1,132 @@
+package com.distributed_system.purchasement.common.service.kafka;
+
+import com.distributed_system.purchasement.common.codec.LazyPayload;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.apache.kafka.common.header.Header;
+import org.apache.kafka.common.header.Headers;
+import org.apache.kafka.common.header.internals.RecordHeader;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.listener.ConsumerRecordRecoverer;
+import org.springframework.kafka.listener.DeadLetterPublishingRecoverer;
+import org.springframework.kafka.support.KafkaUtils;
+import org.springframework.kafka.support.serializer.SerializationUtils;
+
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Recoverer that moves a failed record to the next retry stage instead of retrying in place
+ *
+ * Stage 0 (main topic) -> retry-1 -> retry-2 -> ... -> DLQ
+ * The main partition keeps flowing while the record waits in its retry topic.
+ * The retry record names the failing consumer group (KafkaUtils.getConsumerGroupId() of the
+ * calling thread), the retry stage invokes that group's listener only.
+ * Throws if the retry topic cannot be written, so the error handler tries again.
+ */
+@Slf4j
+public class RetryTopicRouter implements ConsumerRecordRecoverer {
+
+    private static final long SEND_TIMEOUT_SECONDS = 10;
+
+    private final KafkaTemplate<String, Object> kafkaTemplate;
+    private final DeadLetterPublishingRecoverer deadLetterRecoverer;
+    private final RetryTopicPolicy policy;
+
+    public RetryTopicRouter(KafkaTemplate<String, Object> kafkaTemplate,
+                            DeadLetterPublishingRecoverer deadLetterRecoverer,
+                            RetryTopicPolicy policy) {
+        this.kafkaTemplate = kafkaTemplate;
+        this.deadLetterRecoverer = deadLetterRecoverer;
+        this.policy = policy;
+    }
+
+    @Override
+    public void accept(ConsumerRecord<?, ?> record, Exception exception) {
+        if (isPoison(record)) {
+            // Retrying cannot fix a payload that does not deserialize, quarantine it right away
+            log.warn("Undeserializable record from topic {} offset {}, sending to DLQ", record.topic(), record.offset());
+            deadLetterRecoverer.accept(record, exception);
+            return;
+        }
+
+        int nextStage = readStage(record.headers()) + 1;
+        if (nextStage > policy.stageCount()) {
+            log.warn("Retry stages exhausted for topic {} offset {}, sending to DLQ", record.topic(), record.offset());
+            deadLetterRecoverer.accept(record, exception);
+            return;
+        }
+
+        String retryTopic = policy.retryTopic(record.topic(), nextStage);
+        long dueAt = System.currentTimeMillis() + policy.jitteredDelayMs(nextStage);
+
+        ProducerRecord<String, Object> retryRecord = new ProducerRecord<>(retryTopic, null,
+                (String) record.key(), record.value());
+        copyHeaders(record.headers(), retryRecord.headers());
+        retryRecord.headers()
+                .add(header(RetryTopicPolicy.HEADER_STAGE, String.valueOf(nextStage)))
+                .add(header(RetryTopicPolicy.HEADER_ORIGINAL_TOPIC, record.topic()))
+                .add(header(RetryTopicPolicy.HEADER_DUE_AT, String.valueOf(dueAt)))
+                .add(header(RetryTopicPolicy.HEADER_EXCEPTION, describe(exception)));
+        String groupId = KafkaUtils.getConsumerGroupId();
+        if (groupId != null) {
+            retryRecord.headers().add(header(RetryTopicPolicy.HEADER_GROUP, groupId));
+        }
+
+        try {
+            kafkaTemplate.send(retryRecord).get(SEND_TIMEOUT_SECONDS, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while sending to " + retryTopic, e);
+        } catch (Exception e) {
+            throw new IllegalStateException("Failed to send to retry topic " + retryTopic, e);
+        }
+        log.warn("Record from topic {} offset {} moved to {} (stage {})",
+                record.topic(), record.offset(), retryTopic, nextStage);
+    }
+
+    /**
+     * Whether the value failed to deserialize (ErrorHandlingDeserializer marks it with a header,
+     * a LazyPayload reports it when decoded)
+     */
+    public static boolean isPoison(ConsumerRecord<?, ?> record) {
+        if (record.value() instanceof LazyPayload lazy) {
+            return lazy.isUndecodable();
+        }
+        return record.value() == null
+                && record.headers().lastHeader(SerializationUtils.VALUE_DESERIALIZER_EXCEPTION_HEADER) != null;
+    }
+
+    /**
+     * Current retry stage of a record, 0 when it never failed before
+     */
+    public static int readStage(Headers headers) {
+        Header header = headers.lastHeader(RetryTopicPolicy.HEADER_STAGE);
+        if (header == null) {
+            return 0;
+        }
+        return Integer.parseInt(new String(header.value(), StandardCharsets.UTF_8));
+    }
+
+    private void copyHeaders(Headers from, Headers to) {
+        for (Header header : from) {
+            if (!header.key().startsWith("retry-")) {
+                to.add(header);
+            }
+        }
+    }
+
+    private static RecordHeader header(String key, String value) {
+        return new RecordHeader(key, value.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static String describe(Exception exception) {
+        Throwable root = exception;
+        while (root.getCause() != null && root.getCause() != root) {
+            root = root.getCause();
+        }
+        String description = root.getClass().getName() + ": " + root.getMessage();
+        return description.length() > 500 ? description.substring(0, 500) : description;
+    }
+}
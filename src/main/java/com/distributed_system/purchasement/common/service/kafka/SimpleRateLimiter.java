@@ -0,0 +1,54 @@
+package com.distributed_system.purchasement.common.service.kafka;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Smooth rate limiter (permits are spread evenly, no burst beyond one second)
+ * Used to pace background replays so they don't flood a recovering broker.
+ */
+public class SimpleRateLimiter {
+
+    private final long intervalNanos;
+    private final long maxBurstNanos;
+    private long nextFreeNanos;
+
+    public SimpleRateLimiter(double permitsPerSecond) {
+        if (permitsPerSecond <= 0) {
+            throw new IllegalArgumentException("permitsPerSecond must be > 0");
+        }
+        this.intervalNanos = (long) (TimeUnit.SECONDS.toNanos(1) / permitsPerSecond);
+        this.maxBurstNanos = TimeUnit.SECONDS.toNanos(1);
+        this.nextFreeNanos = System.nanoTime();
+    }
+
+    /**
+     * Block until the given number of permits is available
+     */
+    public void acquire(int permits) throws InterruptedException {
+        long waitNanos = reserve(permits);
+        if (waitNanos > 0) {
+            TimeUnit.NANOSECONDS.sleep(waitNanos);
+        }
+    }
+
+    /**
+     * Take the permits only if that needs no waiting
+     */
+    public synchronized boolean tryAcquire(int permits) {
+        long now = System.nanoTime();
+        if (nextFreeNanos - now > 0) {
+            return false;
+        }
+        reserve(permits);
+        return true;
+    }
+
+    private synchronized long reserve(int permits) {
+        long now = System.nanoTime();
+        // Unused time earns at most one second of burst
+        long start = Math.max(nextFreeNanos, now - maxBurstNanos);
+        long waitNanos = Math.max(0, start - now);
+        nextFreeNanos = start + permits * intervalNanos;
+        return waitNanos;
+    }
+}
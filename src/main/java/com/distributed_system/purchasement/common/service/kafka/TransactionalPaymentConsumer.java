@@ -0,0 +1,114 @@
+package com.distributed_system.purchasement.common.service.kafka;
+
+import com.distributed_system.purchasement.common.config.KafkaTransactionConfig;
+import com.distributed_system.purchasement.common.constant.KafkaTopics;
+import com.distributed_system.purchasement.common.event.OrderEvent;
+import com.distributed_system.purchasement.common.event.PaymentEvent;
+import com.distributed_system.purchasement.common.service.dedup.EventDeduplicator;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.kafka.annotation.KafkaListener;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.listener.DeadLetterPublishingRecoverer;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Exactly-once payment -> order chain (kafka.transaction.enabled)
+ *
+ * Consumes payment-completed in batches inside the container's Kafka transaction:
+ * - ORDER_COMPLETED records go through the transactional template (same transaction)
+ * - a failing record goes to its retry topic, also inside the transaction
+ * - the container adds the batch offsets and commits once per poll
+ * A crash before the commit aborts everything, the batch is redelivered and nothing
+ * downstream (read_committed) ever saw the aborted output.
+ *
+ * Records quarantined to the DLQ use the regular, non-transactional producer.
+ */
+@Slf4j
+@Service
+public class TransactionalPaymentConsumer {
+
+    private final PaymentEventConsumer paymentEventConsumer;
+    private final EventKeyStrategy eventKeyStrategy;
+    private final EventDeduplicator eventDeduplicator;
+    private final KafkaTemplate<String, Object> transactionalKafkaTemplate;
+    private final RetryTopicRouter transactionalRetryRouter;
+
+    public TransactionalPaymentConsumer(PaymentEventConsumer paymentEventConsumer,
+                                        EventKeyStrategy eventKeyStrategy,
+                                        EventDeduplicator eventDeduplicator,
+                                        @Qualifier("transactionalKafkaTemplate")
+                                        KafkaTemplate<String, Object> transactionalKafkaTemplate,
+                                        DeadLetterPublishingRecoverer deadLetterPublishingRecoverer,
+                                        RetryTopicPolicy retryTopicPolicy) {
+        this.paymentEventConsumer = paymentEventConsumer;
+        this.eventKeyStrategy = eventKeyStrategy;
+        this.eventDeduplicator = eventDeduplicator;
+        this.transactionalKafkaTemplate = transactionalKafkaTemplate;
+        this.transactionalRetryRouter = new RetryTopicRouter(transactionalKafkaTemplate,
+                deadLetterPublishingRecoverer, retryTopicPolicy);
+    }
+
+    /**
+     * Payment completed batch -> ORDER_COMPLETED events, one transaction per poll
+     */
+    @KafkaListener(
+            topics = KafkaTopics.PAYMENT_COMPLETED,
+            groupId = KafkaTopics.GROUP_PAYMENT_SERVICE,
+            containerFactory = "transactionalKafkaListenerContainerFactory",
+            autoStartup = KafkaTransactionConfig.TRANSACTIONAL_AUTO_STARTUP
+    )
+    public void handlePaymentCompletedBatch(List<ConsumerRecord<String, Object>> records) {
+        List<PaymentEvent> completed = new ArrayList<>(records.size());
+        int duplicates = 0;
+        int failed = 0;
+
+        for (ConsumerRecord<String, Object> record : records) {
+            try {
+                if (RetryTopicRouter.isPoison(record)) {
+                    throw new IllegalStateException("Record value could not be deserialized");
+                }
+                PaymentEvent event = (PaymentEvent) record.value();
+                if (eventDeduplicator.isDuplicate(event)) {
+                    duplicates++;
+                    continue;
+                }
+                paymentEventConsumer.processPaymentCompleted(event);
+                transactionalKafkaTemplate.send(orderCompleted(event));
+                completed.add(event);
+            } catch (Exception e) {
+                failed++;
+                log.error("Error processing PAYMENT_COMPLETED event at offset {}: {}", record.offset(), e.getMessage());
+                // Throws if the retry topic cannot be written: the whole transaction is aborted and redelivered
+                transactionalRetryRouter.accept(record, e);
+            }
+        }
+
+        // Marked only once the transaction committed, an aborted batch must be processed again
+        if (!completed.isEmpty() && TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    completed.forEach(eventDeduplicator::markProcessed);
+                }
+            });
+        }
+
+        log.info("Processed batch of {} PAYMENT_COMPLETED events in one transaction: {} order completions, "
+                + "{} duplicates, {} sent to retry", records.size(), completed.size(), duplicates, failed);
+    }
+
+    private ProducerRecord<String, Object> orderCompleted(PaymentEvent event) {
+        OrderEvent orderCompleted = OrderEvent.completed(event.getOrderId(), event.getUserId(), event.getAmount());
+        orderCompleted.setCorrelationId(event.getCorrelationId()); // Maintain correlation
+        return KafkaProducerService.buildRecord(KafkaTopics.ORDER_COMPLETED, eventKeyStrategy.resolveKey(orderCompleted),
+                orderCompleted, orderCompleted.getEventType(), orderCompleted.getCorrelationId());
+    }
+}
@@ -0,0 +1,35 @@
+package com.distributed_system.purchasement.common.service.kafka;
+
+import com.distributed_system.purchasement.common.event.BaseEvent;
+import com.distributed_system.purchasement.common.event.OrderEvent;
+import com.distributed_system.purchasement.common.event.PaymentEvent;
+import com.distributed_system.purchasement.common.event.UserEvent;
+
+/**
+ * Keys user, order and payment events by userId so they are co-partitioned
+ *
+ * The default partitioner computes murmur2(key) % partitions. Because user and payment
+ * topics have 3 partitions and order topics have 6, the same userId lands on partition p
+ * of an order topic and on partition p % 3 of the user/payment topics. A consumer that owns
+ * matching partitions can therefore join those streams with local state only.
+ * Keep partition counts as multiples of each other when adding topics.
+ *
+ * Events without a userId (e.g. PaymentEvent.completed) fall back to the aggregate key.
+ */
+public class UserCoPartitionKeyStrategy implements EventKeyStrategy {
+
+    private final EventKeyStrategy fallback = new AggregateKeyStrategy();
+
+    @Override
+    public String resolveKey(BaseEvent event) {
+        Long userId = null;
+        if (event instanceof UserEvent userEvent) {
+            userId = userEvent.getUserId();
+        } else if (event instanceof OrderEvent orderEvent) {
+            userId = orderEvent.getUserId();
+        } else if (event instanceof PaymentEvent paymentEvent) {
+            userId = paymentEvent.getUserId();
+        }
+        return userId != null ? userId.toString() : fallback.resolveKey(event);
+    }
+}
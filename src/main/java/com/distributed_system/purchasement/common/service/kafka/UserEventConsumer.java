@@ -1,9 +1,14 @@
 package com.distributed_system.purchasement.common.service.kafka;
 
+import com.distributed_system.purchasement.common.config.KafkaDispatcherConfig;
 import com.distributed_system.purchasement.common.constant.KafkaTopics;
 import com.distributed_system.purchasement.common.event.UserEvent;
+import com.distributed_system.purchasement.common.service.kafka.dispatch.HandlesEventTypes;
+import com.distributed_system.purchasement.common.service.userstate.UserStateProjector;
+import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.kafka.annotation.KafkaListener;
 import org.springframework.kafka.support.Acknowledgment;
 import org.springframework.kafka.support.KafkaHeaders;
@@ -17,11 +22,20 @@ import org.springframework.stereotype.Service;
  * - Error handling
  * - Header access
  * - Different listeners for different event types
+ *
+ * The listeners block on I/O, set kafka.listener.user.container-factory to
+ * virtualThreadKafkaListenerContainerFactory to run them on virtual threads.
+ *
+ * Each event is also folded into the compacted user-state topic (UserStateProjector)
+ * when kafka.user-state.enabled=true.
  */
 @Slf4j
 @Service
+@RequiredArgsConstructor
 public class UserEventConsumer {
 
+    private final ObjectProvider<UserStateProjector> userStateProjector;
+
     /**
      * Listen for user created events
      * Manual acknowledgment for reliability
@@ -29,8 +43,10 @@ public class UserEventConsumer {
     @KafkaListener(
             topics = KafkaTopics.USER_CREATED,
             groupId = KafkaTopics.GROUP_USER_SERVICE,
-            containerFactory = "kafkaListenerContainerFactory"
+            containerFactory = "${kafka.listener.user.container-factory:lazyKafkaListenerContainerFactory}",
+            autoStartup = KafkaDispatcherConfig.PER_TOPIC_AUTO_STARTUP
     )
+    @HandlesEventTypes("USER_CREATED")
     public void handleUserCreated(
             @Payload UserEvent event,
             @Header(KafkaHeaders.RECEIVED_TOPIC) String topic,
@@ -62,8 +78,10 @@ public class UserEventConsumer {
     @KafkaListener(
             topics = KafkaTopics.USER_UPDATED,
             groupId = KafkaTopics.GROUP_USER_SERVICE,
-            containerFactory = "kafkaListenerContainerFactory"
+            containerFactory = "${kafka.listener.user.container-factory:lazyKafkaListenerContainerFactory}",
+            autoStartup = KafkaDispatcherConfig.PER_TOPIC_AUTO_STARTUP
     )
+    @HandlesEventTypes("USER_UPDATED")
     public void handleUserUpdated(
             @Payload UserEvent event,
             Acknowledgment acknowledgment) {
@@ -88,8 +106,10 @@ public class UserEventConsumer {
     @KafkaListener(
             topics = KafkaTopics.USER_DELETED,
             groupId = KafkaTopics.GROUP_USER_SERVICE,
-            containerFactory = "kafkaListenerContainerFactory"
+            containerFactory = "${kafka.listener.user.container-factory:lazyKafkaListenerContainerFactory}",
+            autoStartup = KafkaDispatcherConfig.PER_TOPIC_AUTO_STARTUP
     )
+    @HandlesEventTypes("USER_DELETED")
     public void handleUserDeleted(
             @Payload UserEvent event,
             Acknowledgment acknowledgment) {
@@ -140,6 +160,8 @@ public class UserEventConsumer {
         // emailService.sendWelcomeEmail(event.getEmail());
 
         // Simulate processing
+        projectUserState(event);
+
         simulateProcessing();
     }
 
@@ -150,6 +172,8 @@ public class UserEventConsumer {
         // Example: Update database record
         // userRepository.updateUser(event.getUserId(), event.getUsername(), event.getEmail());
 
+        projectUserState(event);
+
         simulateProcessing();
     }
 
@@ -159,9 +183,18 @@ public class UserEventConsumer {
         // Example: Soft delete or remove user
         // userRepository.deleteById(event.getUserId());
 
+        projectUserState(event);
+
         simulateProcessing();
     }
 
+    private void projectUserState(UserEvent event) {
+        UserStateProjector projector = userStateProjector.getIfAvailable();
+        if (projector != null) {
+            projector.project(event);
+        }
+    }
+
     private void simulateProcessing() {
         try {
             // Simulate some processing time
@@ -0,0 +1,53 @@
+package com.distributed_system.purchasement.common.service.kafka;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.lang.reflect.Method;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Virtual thread support that still compiles on Java 17
+ *
+ * Build with -Pjava21 and run on a Java 21 runtime to get real virtual threads.
+ * On older runtimes a cached platform-thread pool is returned instead.
+ */
+@Slf4j
+public final class VirtualThreads {
+
+    private VirtualThreads() {
+        // Prevent instantiation
+    }
+
+    /**
+     * Whether the running JVM supports virtual threads
+     */
+    public static boolean isSupported() {
+        return Runtime.version().feature() >= 21;
+    }
+
+    /**
+     * One new virtual thread per task (Executors.newVirtualThreadPerTaskExecutor on Java 21+)
+     */
+    public static ExecutorService newPerTaskExecutor(String fallbackThreadPrefix) {
+        if (isSupported()) {
+            try {
+                Method factory = Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+                return (ExecutorService) factory.invoke(null);
+            } catch (ReflectiveOperationException e) {
+                log.warn("Virtual threads unavailable, using platform threads: {}", e.getMessage());
+            }
+        } else {
+            log.warn("Java {} has no virtual threads, using platform threads", Runtime.version().feature());
+        }
+        AtomicInteger counter = new AtomicInteger();
+        ThreadFactory threadFactory = runnable -> {
+            Thread thread = new Thread(runnable, fallbackThreadPrefix + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+        return Executors.newCachedThreadPool(threadFactory);
+    }
+}
@@ -0,0 +1,41 @@
+package com.distributed_system.purchasement.common.service.kafka.commit;
+
+import org.apache.kafka.clients.consumer.Consumer;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.common.TopicPartition;
+import org.springframework.kafka.listener.AcknowledgingConsumerAwareMessageListener;
+import org.springframework.kafka.listener.GenericMessageListener;
+import org.springframework.kafka.support.Acknowledgment;
+
+/**
+ * Record listener decorator handing acknowledgments to the OffsetCommitCoordinator
+ * The listener still calls acknowledgment.acknowledge(), but instead of a commitSync per
+ * record the offset is marked done and committed with the next batched commitAsync.
+ */
+public class CoordinatedAckListener implements AcknowledgingConsumerAwareMessageListener<String, Object> {
+
+    private final GenericMessageListener<ConsumerRecord<String, Object>> delegate;
+    private final OffsetCommitCoordinator coordinator;
+
+    @SuppressWarnings("unchecked")
+    public CoordinatedAckListener(Object delegate, OffsetCommitCoordinator coordinator) {
+        this.delegate = (GenericMessageListener<ConsumerRecord<String, Object>>) delegate;
+        this.coordinator = coordinator;
+    }
+
+    @Override
+    public void onMessage(ConsumerRecord<String, Object> record, Acknowledgment acknowledgment,
+                          Consumer<?, ?> consumer) {
+        TopicPartition tp = new TopicPartition(record.topic(), record.partition());
+        long offset = record.offset();
+        coordinator.delivered(consumer, tp, offset);
+        try {
+            delegate.onMessage(record, () -> coordinator.acknowledge(consumer, tp, offset), consumer);
+        } catch (RuntimeException e) {
+            // Commit what completed before the error handler seeks or commits the recovered record
+            coordinator.failed(consumer, tp);
+            throw e;
+        }
+        coordinator.maybeCommit(consumer);
+    }
+}
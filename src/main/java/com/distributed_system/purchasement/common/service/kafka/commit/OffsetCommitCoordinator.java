@@ -0,0 +1,200 @@
+package com.distributed_system.purchasement.common.service.kafka.commit;
+
+import lombok.extern.slf4j.Slf4j;
+import org.apache.kafka.clients.consumer.Consumer;
+import org.apache.kafka.clients.consumer.OffsetAndMetadata;
+import org.apache.kafka.common.TopicPartition;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.kafka.event.ConsumerStoppingEvent;
+import org.springframework.kafka.event.ListenerContainerIdleEvent;
+import org.springframework.kafka.listener.ConsumerAwareRebalanceListener;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Batched offset commits for record listeners
+ * - acknowledgments only mark offsets done (PartitionWatermark per partition)
+ * - the consumer thread sends one commitAsync for all contiguous watermarks every
+ *   commit.records acknowledged records or commit.interval-ms, whichever comes first
+ *   (idle containers are covered by the container idle event)
+ * - revoked partitions and stopping consumers are committed with commitSync,
+ *   a listener failure commits the completed prefix synchronously before the error handler runs
+ *
+ * A crash loses at most the uncommitted window, those records are redelivered (at-least-once).
+ */
+@Slf4j
+@Component
+public class OffsetCommitCoordinator implements ConsumerAwareRebalanceListener {
+
+    private final Map<Consumer<?, ?>, ConsumerOffsets> consumers = new ConcurrentHashMap<>();
+
+    @Value("${kafka.listener.commit.records:500}")
+    private int commitRecords;
+
+    @Value("${kafka.listener.commit.interval-ms:1000}")
+    private long commitIntervalMs;
+
+    @Value("${kafka.listener.commit.sync-timeout-ms:5000}")
+    private long syncTimeoutMs;
+
+    // ==================== Listener Side ====================
+
+    public void delivered(Consumer<?, ?> consumer, TopicPartition tp, long offset) {
+        state(consumer).partitions.computeIfAbsent(tp, k -> new PartitionWatermark()).register(offset);
+    }
+
+    /**
+     * Acknowledgment of one record, may be called from any thread
+     */
+    public void acknowledge(Consumer<?, ?> consumer, TopicPartition tp, long offset) {
+        ConsumerOffsets state = consumers.get(consumer);
+        PartitionWatermark watermark = state != null ? state.partitions.get(tp) : null;
+        if (watermark != null && watermark.complete(offset)) {
+            state.acknowledged.incrementAndGet();
+        }
+    }
+
+    /**
+     * Commit asynchronously if the record or time threshold is reached (consumer thread only)
+     */
+    public void maybeCommit(Consumer<?, ?> consumer) {
+        ConsumerOffsets state = consumers.get(consumer);
+        if (state == null) {
+            return;
+        }
+        if (state.acknowledged.get() >= commitRecords
+                || System.currentTimeMillis() - state.lastCommitAt >= commitIntervalMs) {
+            commitAsync(consumer, state);
+        }
+    }
+
+    /**
+     * Listener threw: flush the completed prefix and restart tracking of the partition
+     */
+    public void failed(Consumer<?, ?> consumer, TopicPartition tp) {
+        ConsumerOffsets state = consumers.get(consumer);
+        if (state == null) {
+            return;
+        }
+        commitSync(consumer, state, state.partitions.keySet());
+        PartitionWatermark watermark = state.partitions.get(tp);
+        if (watermark != null) {
+            watermark.reset();
+        }
+    }
+
+    // ==================== Container Side ====================
+
+    @Override
+    public void onPartitionsRevokedBeforeCommit(Consumer<?, ?> consumer, Collection<TopicPartition> partitions) {
+        ConsumerOffsets state = consumers.get(consumer);
+        if (state == null) {
+            return;
+        }
+        commitSync(consumer, state, partitions);
+        partitions.forEach(state.partitions::remove);
+    }
+
+    @Override
+    public void onPartitionsLost(Consumer<?, ?> consumer, Collection<TopicPartition> partitions) {
+        ConsumerOffsets state = consumers.get(consumer);
+        if (state != null) {
+            partitions.forEach(state.partitions::remove);
+        }
+    }
+
+    /**
+     * No records for a while: commit what is still pending (published on the consumer thread)
+     */
+    @EventListener
+    public void onIdle(ListenerContainerIdleEvent event) {
+        Consumer<?, ?> consumer = event.getConsumer();
+        ConsumerOffsets state = consumer != null ? consumers.get(consumer) : null;
+        if (state != null) {
+            commitAsync(consumer, state);
+        }
+    }
+
+    @EventListener
+    public void onStopping(ConsumerStoppingEvent event) {
+        Consumer<?, ?> consumer = event.getConsumer();
+        ConsumerOffsets state = consumer != null ? consumers.remove(consumer) : null;
+        if (state != null) {
+            commitSync(consumer, state, state.partitions.keySet());
+        }
+    }
+
+    public long getCommitIntervalMs() {
+        return commitIntervalMs;
+    }
+
+    // ==================== Commit ====================
+
+    private void commitAsync(Consumer<?, ?> consumer, ConsumerOffsets state) {
+        Map<TopicPartition, OffsetAndMetadata> offsets = collect(state, state.partitions.keySet());
+        state.lastCommitAt = System.currentTimeMillis();
+        if (offsets.isEmpty()) {
+            return;
+        }
+        consumer.commitAsync(offsets, (committed, exception) -> {
+            if (exception == null) {
+                return;
+            }
+            log.warn("Async offset commit of {} partitions failed, retrying with the next commit: {}",
+                    committed.size(), exception.getMessage());
+            committed.forEach((tp, offset) -> {
+                PartitionWatermark watermark = state.partitions.get(tp);
+                if (watermark != null) {
+                    watermark.commitFailed(offset.offset());
+                }
+            });
+        });
+    }
+
+    private void commitSync(Consumer<?, ?> consumer, ConsumerOffsets state, Collection<TopicPartition> partitions) {
+        Map<TopicPartition, OffsetAndMetadata> offsets = collect(state, partitions);
+        state.lastCommitAt = System.currentTimeMillis();
+        if (offsets.isEmpty()) {
+            return;
+        }
+        try {
+            consumer.commitSync(offsets, Duration.ofMillis(syncTimeoutMs));
+            log.debug("Committed {} partitions synchronously", offsets.size());
+        } catch (Exception e) {
+            log.warn("Sync offset commit of {} partitions failed, records will be redelivered: {}",
+                    offsets.size(), e.getMessage());
+        }
+    }
+
+    private static Map<TopicPartition, OffsetAndMetadata> collect(ConsumerOffsets state,
+                                                                   Collection<TopicPartition> partitions) {
+        Map<TopicPartition, OffsetAndMetadata> offsets = new HashMap<>();
+        for (TopicPartition tp : partitions) {
+            PartitionWatermark watermark = state.partitions.get(tp);
+            long offset = watermark != null ? watermark.committable() : -1;
+            if (offset >= 0) {
+                offsets.put(tp, new OffsetAndMetadata(offset));
+                watermark.committed(offset);
+            }
+        }
+        state.acknowledged.set(0);
+        return offsets;
+    }
+
+    private ConsumerOffsets state(Consumer<?, ?> consumer) {
+        return consumers.computeIfAbsent(consumer, k -> new ConsumerOffsets());
+    }
+
+    private static final class ConsumerOffsets {
+        private final Map<TopicPartition, PartitionWatermark> partitions = new ConcurrentHashMap<>();
+        private final AtomicInteger acknowledged = new AtomicInteger();
+        private volatile long lastCommitAt = System.currentTimeMillis();
+    }
+}
@@ -0,0 +1,118 @@
+package com.distributed_system.purchasement.common.service.kafka.commit;
+
+import java.util.Arrays;
+
+/**
+ * Delivered / completed offsets of one partition, outside of any poll batch
+ *
+ * Offsets are registered in delivery order (ascending) and may complete in any order,
+ * from any thread. The watermark (next offset to commit) only moves past a contiguous
+ * prefix of completed records, so a commit never skips an unfinished record.
+ */
+public class PartitionWatermark {
+
+    private long[] offsets = new long[64];
+    private boolean[] completed = new boolean[64];
+    private int head;
+    private int size;
+    private long watermark = -1;
+    private long committed = -1;
+
+    /**
+     * Register a delivered offset
+     * A delivery at or below the last one (seek / redelivery) starts the tracking over.
+     */
+    public synchronized void register(long offset) {
+        if (size > 0 && offset <= offsets[index(size - 1)]) {
+            reset();
+        }
+        if (size == offsets.length) {
+            grow();
+        }
+        int tail = index(size);
+        offsets[tail] = offset;
+        completed[tail] = false;
+        size++;
+    }
+
+    /**
+     * Mark an offset as done
+     *
+     * @return true if it was tracked (not yet completed)
+     */
+    public synchronized boolean complete(long offset) {
+        int i = find(offset);
+        if (i < 0 || completed[i]) {
+            return false;
+        }
+        completed[i] = true;
+        while (size > 0 && completed[head]) {
+            watermark = offsets[head] + 1;
+            head = (head + 1) % offsets.length;
+            size--;
+        }
+        return true;
+    }
+
+    /**
+     * Offset to commit, or -1 if nothing new completed since the last commit
+     */
+    public synchronized long committable() {
+        return watermark > committed ? watermark : -1;
+    }
+
+    public synchronized void committed(long offset) {
+        committed = Math.max(committed, offset);
+    }
+
+    /**
+     * Forget a commit that failed, so the next round sends it again
+     */
+    public synchronized void commitFailed(long offset) {
+        if (committed == offset) {
+            committed = -1;
+        }
+    }
+
+    /**
+     * Drop everything in flight (after a failure the error handler decides where to resume)
+     */
+    public synchronized void reset() {
+        head = 0;
+        size = 0;
+    }
+
+    private int find(long offset) {
+        int low = 0;
+        int high = size - 1;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            long value = offsets[index(mid)];
+            if (value < offset) {
+                low = mid + 1;
+            } else if (value > offset) {
+                high = mid - 1;
+            } else {
+                return index(mid);
+            }
+        }
+        return -1;
+    }
+
+    private int index(int logical) {
+        return (head + logical) % offsets.length;
+    }
+
+    private void grow() {
+        long[] newOffsets = new long[offsets.length * 2];
+        boolean[] newCompleted = new boolean[offsets.length * 2];
+        for (int i = 0; i < size; i++) {
+            newOffsets[i] = offsets[index(i)];
+            newCompleted[i] = completed[index(i)];
+        }
+        offsets = newOffsets;
+        completed = newCompleted;
+        head = 0;
+        Arrays.fill(completed, size, completed.length, false);
+    }
+}
@@ -0,0 +1,133 @@
+package com.distributed_system.purchasement.common.service.kafka.dispatch;
+
+import org.springframework.kafka.config.KafkaListenerEndpoint;
+import org.springframework.kafka.listener.MessageListenerContainer;
+import org.springframework.kafka.listener.adapter.FilteringMessageListenerAdapter;
+import org.springframework.kafka.listener.adapter.HandlerAdapter;
+import org.springframework.kafka.listener.adapter.RecordMessagingMessageListenerAdapter;
+import org.springframework.kafka.listener.adapter.RecordFilterStrategy;
+import org.springframework.kafka.support.TopicPartitionOffset;
+import org.springframework.kafka.support.converter.MessageConverter;
+import org.springframework.kafka.support.converter.RecordMessageConverter;
+import org.springframework.messaging.handler.annotation.support.MessageHandlerMethodFactory;
+
+import java.lang.reflect.Method;
+import java.util.Collection;
+import java.util.List;
+import java.util.TreeSet;
+import java.util.regex.Pattern;
+
+/**
+ * Endpoint of one multiplexed container: subscribes to the topics of all its handlers
+ * and installs an EventDispatcher (behind the header filter) as the record listener.
+ * Each handler method is invoked through the same adapter a @KafkaListener endpoint uses,
+ * so its parameters (@Payload, @Header, Acknowledgment) resolve as before.
+ */
+public class DispatchingListenerEndpoint implements KafkaListenerEndpoint {
+
+    private final String id;
+    private final String groupId;
+    private final List<DispatchedHandler> handlers;
+    private final MessageHandlerMethodFactory handlerMethodFactory;
+    private final RecordFilterStrategy<String, Object> recordFilter;
+
+    public DispatchingListenerEndpoint(String id, String groupId, List<DispatchedHandler> handlers,
+                                       MessageHandlerMethodFactory handlerMethodFactory,
+                                       RecordFilterStrategy<String, Object> recordFilter) {
+        this.id = id;
+        this.groupId = groupId;
+        this.handlers = List.copyOf(handlers);
+        this.handlerMethodFactory = handlerMethodFactory;
+        this.recordFilter = recordFilter;
+    }
+
+    @Override
+    public void setupListenerContainer(MessageListenerContainer listenerContainer,
+                                       MessageConverter messageConverter) {
+        listenerContainer.setupMessageListener(new FilteringMessageListenerAdapter<>(
+                createDispatcher(messageConverter), recordFilter, true));
+    }
+
+    /**
+     * Dispatcher with one adapter per handler method
+     */
+    public EventDispatcher createDispatcher(MessageConverter messageConverter) {
+        EventDispatcher dispatcher = new EventDispatcher(id);
+        for (DispatchedHandler handler : handlers) {
+            RecordMessagingMessageListenerAdapter<String, Object> adapter =
+                    new RecordMessagingMessageListenerAdapter<>(handler.bean(), handler.method());
+            adapter.setHandlerMethod(new HandlerAdapter(
+                    handlerMethodFactory.createInvocableHandlerMethod(handler.bean(), handler.method())));
+            if (messageConverter instanceof RecordMessageConverter recordMessageConverter) {
+                adapter.setMessageConverter(recordMessageConverter);
+            }
+            for (String topic : handler.topics()) {
+                dispatcher.register(topic, handler.eventTypes(), handler.name(), adapter);
+            }
+        }
+        return dispatcher;
+    }
+
+    public List<DispatchedHandler> getHandlers() {
+        return handlers;
+    }
+
+    @Override
+    public String getId() {
+        return id;
+    }
+
+    @Override
+    public String getGroupId() {
+        return groupId;
+    }
+
+    @Override
+    public String getGroup() {
+        return null;
+    }
+
+    @Override
+    public Collection<String> getTopics() {
+        TreeSet<String> topics = new TreeSet<>();
+        handlers.forEach(handler -> topics.addAll(handler.topics()));
+        return topics;
+    }
+
+    @Override
+    public TopicPartitionOffset[] getTopicPartitionsToAssign() {
+        return new TopicPartitionOffset[0];
+    }
+
+    @Override
+    public Pattern getTopicPattern() {
+        return null;
+    }
+
+    @Override
+    public String getClientIdPrefix() {
+        return null;
+    }
+
+    @Override
+    public Integer getConcurrency() {
+        return null;
+    }
+
+    @Override
+    public Boolean getAutoStartup() {
+        return null;
+    }
+
+    @Override
+    public boolean isSplitIterables() {
+        return true;
+    }
+
+    /**
+     * Listener method routed by the dispatcher (eventTypes empty = every type of its topics)
+     */
+    public record DispatchedHandler(String name, Object bean, Method method,
+                                    List<String> topics, List<String> eventTypes) {
+    }
+}
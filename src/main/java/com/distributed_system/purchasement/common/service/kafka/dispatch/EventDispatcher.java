@@ -0,0 +1,114 @@
+package com.distributed_system.purchasement.common.service.kafka.dispatch;
+
+import com.distributed_system.purchasement.common.service.kafka.filter.EventTypeRecordFilter;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.kafka.clients.consumer.Consumer;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.springframework.kafka.listener.AcknowledgingConsumerAwareMessageListener;
+import org.springframework.kafka.support.Acknowledgment;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Record listener of a multiplexed container: routes each record to a handler by
+ * topic, then by eventType header
+ * - a topic with a single untyped handler is routed without reading headers
+ * - typed handlers win over the untyped one of the same topic
+ * - records without eventType header go to the untyped handler, or to the only handler of the topic
+ * - records without a handler are acknowledged and counted (nothing would ever consume them)
+ *
+ * Routes are registered before the container starts and never change afterwards.
+ */
+@Slf4j
+public class EventDispatcher implements AcknowledgingConsumerAwareMessageListener<String, Object> {
+
+    private static final String ANY_TYPE = "*";
+
+    private final String name;
+    private final Map<String, TopicRoutes> routes = new HashMap<>();
+    private final LongAdder unrouted = new LongAdder();
+
+    public EventDispatcher(String name) {
+        this.name = name;
+    }
+
+    /**
+     * Route records of the topic with one of the event types (empty = any type) to the handler
+     *
+     * @throws IllegalStateException if another handler already owns a topic / event type pair
+     */
+    public void register(String topic, Collection<String> eventTypes, String handlerName,
+                         AcknowledgingConsumerAwareMessageListener<String, Object> handler) {
+        TopicRoutes topicRoutes = routes.computeIfAbsent(topic, t -> new TopicRoutes());
+        Route route = new Route(handlerName, handler);
+        for (String eventType : eventTypes.isEmpty() ? List.of(ANY_TYPE) : eventTypes) {
+            Route previous = topicRoutes.byType.putIfAbsent(eventType, route);
+            if (previous != null) {
+                throw new IllegalStateException("Dispatcher " + name + ": " + topic + "/" + eventType
+                        + " is handled by both " + previous.handlerName() + " and " + handlerName);
+            }
+        }
+        topicRoutes.untypedOnly = topicRoutes.byType.size() == 1 && topicRoutes.byType.containsKey(ANY_TYPE);
+        topicRoutes.fallback = topicRoutes.byType.containsKey(ANY_TYPE) ? topicRoutes.byType.get(ANY_TYPE)
+                : topicRoutes.byType.values().stream().distinct().count() == 1 ? route : null;
+    }
+
+    @Override
+    public void onMessage(ConsumerRecord<String, Object> record, Acknowledgment acknowledgment,
+                          Consumer<?, ?> consumer) {
+        Route route = route(record);
+        if (route == null) {
+            unrouted.increment();
+            log.warn("Dispatcher {}: no handler for topic={}, eventType={}, partition={}, offset={}, skipped",
+                    name, record.topic(), EventTypeRecordFilter.eventType(record.headers()),
+                    record.partition(), record.offset());
+            if (acknowledgment != null) {
+                acknowledgment.acknowledge();
+            }
+            return;
+        }
+        route.handler().onMessage(record, acknowledgment, consumer);
+    }
+
+    /**
+     * Whether a handler is registered for the record's topic and eventType
+     */
+    public boolean routes(ConsumerRecord<String, Object> record) {
+        return route(record) != null;
+    }
+
+    public long getUnroutedCount() {
+        return unrouted.sum();
+    }
+
+    // ==================== Routing ====================
+
+    private Route route(ConsumerRecord<String, Object> record) {
+        TopicRoutes topicRoutes = routes.get(record.topic());
+        if (topicRoutes == null) {
+            return null;
+        }
+        if (topicRoutes.untypedOnly) {
+            return topicRoutes.byType.get(ANY_TYPE);
+        }
+        String eventType = EventTypeRecordFilter.eventType(record.headers());
+        if (eventType == null) {
+            return topicRoutes.fallback;
+        }
+        Route route = topicRoutes.byType.get(eventType);
+        return route != null ? route : topicRoutes.byType.get(ANY_TYPE);
+    }
+
+    private static final class TopicRoutes {
+        private final Map<String, Route> byType = new HashMap<>();
+        private boolean untypedOnly;
+        private Route fallback;
+    }
+
+    private record Route(String handlerName, AcknowledgingConsumerAwareMessageListener<String, Object> handler) {
+    }
+}
@@ -0,0 +1,20 @@
+package com.distributed_system.purchasement.common.service.kafka.dispatch;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Event types (eventType header) a @KafkaListener method handles on its topics
+ * Used by the EventDispatcher to route records of a shared topic and to drop
+ * unexpected event types before decoding. Without it the method gets every record of its topics.
+ */
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+@Documented
+public @interface HandlesEventTypes {
+
+    String[] value();
+}
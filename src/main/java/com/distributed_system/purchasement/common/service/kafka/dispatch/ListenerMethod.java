@@ -0,0 +1,53 @@
+package com.distributed_system.purchasement.common.service.kafka.dispatch;
+
+import org.springframework.aop.support.AopUtils;
+import org.springframework.core.MethodIntrospector;
+import org.springframework.core.annotation.AnnotatedElementUtils;
+import org.springframework.core.env.Environment;
+import org.springframework.kafka.annotation.KafkaListener;
+
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A @KafkaListener method with its placeholders resolved
+ * Used by the dispatcher containers and the retry stages to invoke listener methods directly.
+ *
+ * @param factoryName container factory, kafkaListenerContainerFactory when not set
+ * @param eventTypes  from @HandlesEventTypes, empty = every type of its topics
+ */
+public record ListenerMethod(Object bean, Method method, String name, String groupId, String factoryName,
+                             List<String> topics, List<String> eventTypes) {
+
+    private static final String DEFAULT_FACTORY = "kafkaListenerContainerFactory";
+
+    /**
+     * @KafkaListener methods of the bean that name their topics
+     */
+    public static List<ListenerMethod> find(Object bean, Environment environment) {
+        Class<?> targetClass = AopUtils.getTargetClass(bean);
+        Map<Method, KafkaListener> listeners = MethodIntrospector.selectMethods(targetClass,
+                (MethodIntrospector.MetadataLookup<KafkaListener>) method ->
+                        AnnotatedElementUtils.findMergedAnnotation(method, KafkaListener.class));
+
+        List<ListenerMethod> found = new ArrayList<>();
+        for (Map.Entry<Method, KafkaListener> entry : listeners.entrySet()) {
+            Method method = entry.getKey();
+            KafkaListener listener = entry.getValue();
+            if (listener.topics().length == 0) {
+                continue;
+            }
+            String factoryName = environment.resolvePlaceholders(listener.containerFactory());
+            List<String> topics = Arrays.stream(listener.topics()).map(environment::resolvePlaceholders).toList();
+            HandlesEventTypes handles = AnnotatedElementUtils.findMergedAnnotation(method, HandlesEventTypes.class);
+            found.add(new ListenerMethod(bean, method, targetClass.getSimpleName() + "." + method.getName(),
+                    environment.resolvePlaceholders(listener.groupId()),
+                    factoryName.isBlank() ? DEFAULT_FACTORY : factoryName,
+                    topics, handles != null ? List.of(handles.value()) : List.of()));
+        }
+        return found;
+    }
+}
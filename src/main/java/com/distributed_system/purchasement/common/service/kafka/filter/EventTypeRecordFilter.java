@@ -0,0 +1,111 @@
+package com.distributed_system.purchasement.common.service.kafka.filter;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.common.header.Header;
+import org.apache.kafka.common.header.Headers;
+import org.springframework.kafka.listener.adapter.RecordFilterStrategy;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Drops records by their eventType header, before the value is decoded
+ * - event types in the ignore list are dropped on every topic
+ * - for topics with accepted types (restrictedTo), other event types are dropped
+ * Records without eventType header are always kept (nothing to decide on).
+ * Header bytes are compared directly, the hot path does not allocate.
+ *
+ * Immutable: the lazy listener factory shares one ignore-only bean, every dispatcher container
+ * gets its own restrictedTo copy, so one group's accepted types never drop another group's records.
+ * Drops are counted as kafka.listener.filtered {filter} (bindTo).
+ */
+public class EventTypeRecordFilter implements RecordFilterStrategy<String, Object> {
+
+    public static final String EVENT_TYPE_HEADER = "eventType";
+
+    private final List<byte[]> ignored;
+    private final Map<String, List<byte[]>> acceptedByTopic;
+    private final LongAdder filtered = new LongAdder();
+
+    public EventTypeRecordFilter(Collection<String> ignoredEventTypes) {
+        this(encode(ignoredEventTypes), Map.of());
+    }
+
+    private EventTypeRecordFilter(List<byte[]> ignored, Map<String, List<byte[]>> acceptedByTopic) {
+        this.ignored = ignored;
+        this.acceptedByTopic = acceptedByTopic;
+    }
+
+    /**
+     * New filter with the same ignore list that also keeps only the given event types per topic
+     */
+    public EventTypeRecordFilter restrictedTo(Map<String, ? extends Collection<String>> acceptedEventTypes) {
+        Map<String, List<byte[]>> accepted = new HashMap<>();
+        acceptedEventTypes.forEach((topic, eventTypes) -> accepted.put(topic, encode(eventTypes)));
+        return new EventTypeRecordFilter(ignored, Map.copyOf(accepted));
+    }
+
+    /**
+     * Publish the drop count as kafka.listener.filtered {filter=name}
+     */
+    public EventTypeRecordFilter bindTo(MeterRegistry meterRegistry, String name) {
+        FunctionCounter.builder("kafka.listener.filtered", filtered, LongAdder::sum)
+                .description("Records dropped on their eventType header, before decoding")
+                .tag("filter", name)
+                .register(meterRegistry);
+        return this;
+    }
+
+    @Override
+    public boolean filter(ConsumerRecord<String, Object> record) {
+        Header header = record.headers().lastHeader(EVENT_TYPE_HEADER);
+        if (header == null || header.value() == null) {
+            return false;
+        }
+        byte[] eventType = header.value();
+        boolean drop = contains(ignored, eventType);
+        if (!drop) {
+            List<byte[]> accepted = acceptedByTopic.get(record.topic());
+            drop = accepted != null && !contains(accepted, eventType);
+        }
+        if (drop) {
+            filtered.increment();
+        }
+        return drop;
+    }
+
+    /**
+     * eventType header as string, null if absent
+     */
+    public static String eventType(Headers headers) {
+        Header header = headers.lastHeader(EVENT_TYPE_HEADER);
+        return header != null && header.value() != null ? new String(header.value(), StandardCharsets.UTF_8) : null;
+    }
+
+    private static boolean contains(List<byte[]> values, byte[] value) {
+        for (int i = 0; i < values.size(); i++) {
+            if (Arrays.equals(values.get(i), value)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static List<byte[]> encode(Collection<String> values) {
+        List<byte[]> encoded = new ArrayList<>(values.size());
+        for (String value : values) {
+            if (value != null && !value.isBlank()) {
+                encoded.add(value.trim().getBytes(StandardCharsets.UTF_8));
+            }
+        }
+        return encoded;
+    }
+}
@@ -0,0 +1,202 @@
+package com.distributed_system.purchasement.common.service.kafka.lag;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.MultiGauge;
+import io.micrometer.core.instrument.Tags;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.kafka.clients.admin.AdminClient;
+import org.apache.kafka.clients.admin.ListOffsetsResult;
+import org.apache.kafka.clients.admin.OffsetSpec;
+import org.apache.kafka.clients.admin.TopicDescription;
+import org.apache.kafka.clients.consumer.OffsetAndMetadata;
+import org.apache.kafka.common.TopicPartition;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.kafka.config.KafkaListenerEndpointRegistry;
+import org.springframework.kafka.core.KafkaAdmin;
+import org.springframework.kafka.listener.MessageListenerContainer;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Consumer lag monitor
+ * Samples committed offsets (per group of the registered listener containers) and end offsets
+ * through an AdminClient built from KafkaAdmin's configuration.
+ * - kafka.consumer.lag {group, topic, partition}
+ * - kafka.consumer.lag.total {group, topic}
+ * - kafka.consumer.commit.rate {group, topic}: committed records per second since the last sample
+ */
+@Slf4j
+@Component
+public class ConsumerLagMonitor {
+
+    private final KafkaAdmin kafkaAdmin;
+    private final KafkaListenerEndpointRegistry registry;
+    private final MultiGauge partitionLag;
+    private final MultiGauge topicLag;
+    private final MultiGauge commitRate;
+    private final Map<GroupTopic, LagSnapshot> snapshots = new ConcurrentHashMap<>();
+    private final Map<String, Integer> partitionCounts = new ConcurrentHashMap<>();
+
+    @Value("${kafka.lag.enabled:true}")
+    private boolean enabled;
+
+    @Value("${kafka.lag.timeout-ms:5000}")
+    private long timeoutMs;
+
+    private AdminClient adminClient;
+
+    public ConsumerLagMonitor(KafkaAdmin kafkaAdmin, KafkaListenerEndpointRegistry registry,
+                              MeterRegistry meterRegistry) {
+        this.kafkaAdmin = kafkaAdmin;
+        this.registry = registry;
+        this.partitionLag = MultiGauge.builder("kafka.consumer.lag")
+                .description("Records between the committed offset and the end of the partition")
+                .register(meterRegistry);
+        this.topicLag = MultiGauge.builder("kafka.consumer.lag.total")
+                .description("Total lag of a consumer group on a topic")
+                .register(meterRegistry);
+        this.commitRate = MultiGauge.builder("kafka.consumer.commit.rate")
+                .description("Committed records per second")
+                .baseUnit("records/s")
+                .register(meterRegistry);
+    }
+
+    @Scheduled(fixedDelayString = "${kafka.lag.interval-ms:10000}", initialDelayString = "${kafka.lag.interval-ms:10000}")
+    public void sample() {
+        if (!enabled) {
+            return;
+        }
+        try {
+            Map<String, Set<String>> topicsByGroup = topicsByGroup(registry.getAllListenerContainers());
+            List<MultiGauge.Row<?>> partitionRows = new ArrayList<>();
+            List<MultiGauge.Row<?>> topicRows = new ArrayList<>();
+            List<MultiGauge.Row<?>> rateRows = new ArrayList<>();
+
+            for (Map.Entry<String, Set<String>> entry : topicsByGroup.entrySet()) {
+                sampleGroup(entry.getKey(), entry.getValue(), partitionRows, topicRows, rateRows);
+            }
+            partitionLag.register(partitionRows, true);
+            topicLag.register(topicRows, true);
+            commitRate.register(rateRows, true);
+        } catch (Exception e) {
+            log.warn("Consumer lag sampling failed: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Latest lag of a group on a topic (null before the first sample)
+     */
+    public LagSnapshot getSnapshot(String group, String topic) {
+        return snapshots.get(new GroupTopic(group, topic));
+    }
+
+    public Collection<LagSnapshot> getSnapshots() {
+        return snapshots.values();
+    }
+
+    /**
+     * Partition count of a topic (0 if not seen yet)
+     */
+    public int getPartitionCount(String topic) {
+        return partitionCounts.getOrDefault(topic, 0);
+    }
+
+    @PreDestroy
+    public synchronized void close() {
+        if (adminClient != null) {
+            adminClient.close();
+            adminClient = null;
+        }
+    }
+
+    // ==================== Sampling ====================
+
+    private void sampleGroup(String group, Set<String> topics, List<MultiGauge.Row<?>> partitionRows,
+                             List<MultiGauge.Row<?>> topicRows, List<MultiGauge.Row<?>> rateRows) throws Exception {
+        AdminClient admin = admin();
+        Map<String, TopicDescription> descriptions = admin.describeTopics(topics).allTopicNames()
+                .get(timeoutMs, TimeUnit.MILLISECONDS);
+        Map<TopicPartition, OffsetSpec> request = new HashMap<>();
+        for (TopicDescription description : descriptions.values()) {
+            partitionCounts.put(description.name(), description.partitions().size());
+            description.partitions().forEach(p ->
+                    request.put(new TopicPartition(description.name(), p.partition()), OffsetSpec.latest()));
+        }
+
+        Map<TopicPartition, OffsetAndMetadata> committed = admin.listConsumerGroupOffsets(group)
+                .partitionsToOffsetAndMetadata().get(timeoutMs, TimeUnit.MILLISECONDS);
+        Map<TopicPartition, ListOffsetsResult.ListOffsetsResultInfo> ends = admin.listOffsets(request)
+                .all().get(timeoutMs, TimeUnit.MILLISECONDS);
+
+        long now = System.currentTimeMillis();
+        Map<String, long[]> perTopic = new HashMap<>(); // [lag, committed sum]
+        for (Map.Entry<TopicPartition, ListOffsetsResult.ListOffsetsResultInfo> entry : ends.entrySet()) {
+            TopicPartition tp = entry.getKey();
+            OffsetAndMetadata offset = committed.get(tp);
+            long end = entry.getValue().offset();
+            // No committed offset yet: lag is unknown, reported as 0 until the group commits
+            long lag = offset != null ? Math.max(0, end - offset.offset()) : 0;
+            long[] totals = perTopic.computeIfAbsent(tp.topic(), t -> new long[2]);
+            totals[0] += lag;
+            totals[1] += offset != null ? offset.offset() : 0;
+            partitionRows.add(MultiGauge.Row.of(Tags.of("group", group, "topic", tp.topic(),
+                    "partition", String.valueOf(tp.partition())), lag));
+        }
+
+        for (Map.Entry<String, long[]> entry : perTopic.entrySet()) {
+            GroupTopic key = new GroupTopic(group, entry.getKey());
+            LagSnapshot previous = snapshots.get(key);
+            double rate = 0;
+            if (previous != null && now > previous.sampledAt()) {
+                rate = Math.max(0, entry.getValue()[1] - previous.committedSum()) * 1000.0
+                        / (now - previous.sampledAt());
+            }
+            LagSnapshot snapshot = new LagSnapshot(group, entry.getKey(), entry.getValue()[0],
+                    entry.getValue()[1], rate, partitionCounts.getOrDefault(entry.getKey(), 0), now);
+            snapshots.put(key, snapshot);
+            topicRows.add(MultiGauge.Row.of(Tags.of("group", group, "topic", entry.getKey()), snapshot.lag()));
+            rateRows.add(MultiGauge.Row.of(Tags.of("group", group, "topic", entry.getKey()), rate));
+        }
+    }
+
+    private static Map<String, Set<String>> topicsByGroup(Collection<MessageListenerContainer> containers) {
+        Map<String, Set<String>> topicsByGroup = new HashMap<>();
+        for (MessageListenerContainer container : containers) {
+            String[] topics = container.getContainerProperties().getTopics();
+            String group = container.getGroupId();
+            if (group == null || topics == null || topics.length == 0) {
+                continue; // topic patterns / explicit assignments are not tracked
+            }
+            topicsByGroup.computeIfAbsent(group, g -> new HashSet<>()).addAll(List.of(topics));
+        }
+        return topicsByGroup;
+    }
+
+    private synchronized AdminClient admin() {
+        if (adminClient == null) {
+            adminClient = AdminClient.create(kafkaAdmin.getConfigurationProperties());
+        }
+        return adminClient;
+    }
+
+    private record GroupTopic(String group, String topic) {
+    }
+
+    /**
+     * Lag of one group on one topic
+     */
+    public record LagSnapshot(String group, String topic, long lag, long committedSum,
+                              double commitRatePerSecond, int partitions, long sampledAt) {
+    }
+}
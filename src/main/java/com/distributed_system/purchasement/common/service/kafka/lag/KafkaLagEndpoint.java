@@ -0,0 +1,50 @@
+package com.distributed_system.purchasement.common.service.kafka.lag;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.kafka.config.KafkaListenerEndpointRegistry;
+import org.springframework.kafka.listener.ConcurrentMessageListenerContainer;
+import org.springframework.kafka.listener.MessageListenerContainer;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Actuator endpoint /actuator/kafkalag
+ * Latest lag per group and topic, current listener concurrency and autoscaler decisions
+ */
+@Component
+@Endpoint(id = "kafkalag")
+@RequiredArgsConstructor
+public class KafkaLagEndpoint {
+
+    private final ConsumerLagMonitor lagMonitor;
+    private final ListenerConcurrencyAutoscaler autoscaler;
+    private final KafkaListenerEndpointRegistry registry;
+
+    @ReadOperation
+    public Map<String, Object> lag() {
+        List<Map<String, Object>> containers = new ArrayList<>();
+        for (MessageListenerContainer container : registry.getAllListenerContainers()) {
+            Map<String, Object> view = new LinkedHashMap<>();
+            view.put("listenerId", container.getListenerId());
+            view.put("group", container.getGroupId());
+            view.put("running", container.isRunning());
+            if (container instanceof ConcurrentMessageListenerContainer<?, ?> concurrent) {
+                view.put("concurrency", concurrent.getConcurrency());
+            }
+            containers.add(view);
+        }
+
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("lag", lagMonitor.getSnapshots());
+        result.put("containers", containers);
+        result.put("autoscaleEnabled", autoscaler.isEnabled());
+        result.put("decisions", autoscaler.getDecisions());
+        return result;
+    }
+}
@@ -0,0 +1,177 @@
+package com.distributed_system.purchasement.common.service.kafka.lag;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.kafka.config.KafkaListenerEndpointRegistry;
+import org.springframework.kafka.listener.ConcurrentMessageListenerContainer;
+import org.springframework.kafka.listener.MessageListenerContainer;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Instant;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Lag-driven listener concurrency (kafka.listener.autoscale.enabled, off by default)
+ * - scale up by one consumer when the group's lag stays above lag-high and would take
+ *   longer than target-drain-seconds at the current commit rate
+ * - scale down by one when the lag stays below lag-low
+ * - never above the partition count of the container's topics (extra consumers would idle)
+ * A condition must hold sustained-evaluations times in a row, and changes of one container are
+ * at least cooldown-ms apart. A change restarts the container (stop, setConcurrency, start).
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class ListenerConcurrencyAutoscaler {
+
+    private static final int MAX_DECISIONS = 50;
+
+    private final KafkaListenerEndpointRegistry registry;
+    private final ConsumerLagMonitor lagMonitor;
+
+    private final Map<String, ScaleState> states = new HashMap<>();
+    private final ArrayDeque<ScaleDecision> decisions = new ArrayDeque<>();
+
+    @Value("${kafka.listener.autoscale.enabled:false}")
+    private boolean enabled;
+
+    @Value("${kafka.listener.autoscale.min-concurrency:1}")
+    private int minConcurrency;
+
+    @Value("${kafka.listener.autoscale.max-concurrency:12}")
+    private int maxConcurrency;
+
+    @Value("${kafka.listener.autoscale.lag-high:1000}")
+    private long lagHigh;
+
+    @Value("${kafka.listener.autoscale.lag-low:100}")
+    private long lagLow;
+
+    @Value("${kafka.listener.autoscale.target-drain-seconds:60}")
+    private double targetDrainSeconds;
+
+    @Value("${kafka.listener.autoscale.sustained-evaluations:3}")
+    private int sustainedEvaluations;
+
+    @Value("${kafka.listener.autoscale.cooldown-ms:120000}")
+    private long cooldownMs;
+
+    @Value("${kafka.listener.autoscale.exclude-groups:dlq-handler-group}")
+    private Set<String> excludeGroups;
+
+    @Scheduled(fixedDelayString = "${kafka.listener.autoscale.interval-ms:30000}",
+            initialDelayString = "${kafka.listener.autoscale.interval-ms:30000}")
+    public void evaluate() {
+        if (!enabled) {
+            return;
+        }
+        for (MessageListenerContainer container : registry.getAllListenerContainers()) {
+            if (container instanceof ConcurrentMessageListenerContainer<?, ?> concurrent && isManaged(concurrent)) {
+                try {
+                    evaluate(concurrent);
+                } catch (Exception e) {
+                    log.warn("Autoscaling of {} failed: {}", container.getListenerId(), e.getMessage());
+                }
+            }
+        }
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public synchronized List<ScaleDecision> getDecisions() {
+        return new ArrayList<>(decisions);
+    }
+
+    // ==================== Evaluation ====================
+
+    private boolean isManaged(ConcurrentMessageListenerContainer<?, ?> container) {
+        String[] topics = container.getContainerProperties().getTopics();
+        return container.isRunning()
+                && container.getGroupId() != null
+                && !excludeGroups.contains(container.getGroupId())
+                && !container.getListenerId().startsWith("retry-stage-")
+                && topics != null && topics.length > 0;
+    }
+
+    private synchronized void evaluate(ConcurrentMessageListenerContainer<?, ?> container) {
+        String id = container.getListenerId();
+        long lag = 0;
+        double rate = 0;
+        int partitions = 0;
+        for (String topic : container.getContainerProperties().getTopics()) {
+            ConsumerLagMonitor.LagSnapshot snapshot = lagMonitor.getSnapshot(container.getGroupId(), topic);
+            if (snapshot == null) {
+                return; // not sampled yet
+            }
+            lag += snapshot.lag();
+            rate += snapshot.commitRatePerSecond();
+            partitions = Math.max(partitions, snapshot.partitions());
+        }
+
+        int current = container.getConcurrency();
+        int ceiling = Math.max(minConcurrency, Math.min(maxConcurrency, partitions));
+        double drainSeconds = rate > 0 ? lag / rate : Double.POSITIVE_INFINITY;
+        ScaleState state = states.computeIfAbsent(id, k -> new ScaleState());
+
+        boolean wantsUp = lag >= lagHigh && drainSeconds > targetDrainSeconds && current < ceiling;
+        boolean wantsDown = lag <= lagLow && current > minConcurrency;
+        state.upStreak = wantsUp ? state.upStreak + 1 : 0;
+        state.downStreak = wantsDown ? state.downStreak + 1 : 0;
+
+        boolean cooledDown = System.currentTimeMillis() - state.lastChange >= cooldownMs;
+        if (state.upStreak >= sustainedEvaluations && cooledDown) {
+            rescale(container, current + 1, lag, rate,
+                    String.format("lag %d, drain %.0fs > %.0fs", lag, drainSeconds, targetDrainSeconds));
+            state.reset();
+        } else if (state.downStreak >= sustainedEvaluations && cooledDown) {
+            rescale(container, current - 1, lag, rate, String.format("lag %d <= %d", lag, lagLow));
+            state.reset();
+        }
+    }
+
+    private void rescale(ConcurrentMessageListenerContainer<?, ?> container, int concurrency,
+                         long lag, double rate, String reason) {
+        int previous = container.getConcurrency();
+        log.info("Scaling listener {} (group {}) from {} to {} consumers: {}",
+                container.getListenerId(), container.getGroupId(), previous, concurrency, reason);
+
+        // Concurrency only takes effect on start, stop() waits for the consumers to finish
+        container.stop();
+        container.setConcurrency(concurrency);
+        container.start();
+
+        decisions.addLast(new ScaleDecision(Instant.now(), container.getListenerId(), container.getGroupId(),
+                previous, concurrency, lag, rate, reason));
+        while (decisions.size() > MAX_DECISIONS) {
+            decisions.removeFirst();
+        }
+    }
+
+    private static final class ScaleState {
+        private int upStreak;
+        private int downStreak;
+        private long lastChange;
+
+        private void reset() {
+            upStreak = 0;
+            downStreak = 0;
+            lastChange = System.currentTimeMillis();
+        }
+    }
+
+    /**
+     * Applied concurrency change
+     */
+    public record ScaleDecision(Instant time, String listenerId, String group, int fromConcurrency,
+                                int toConcurrency, long lag, double commitRatePerSecond, String reason) {
+    }
+}
@@ -0,0 +1,32 @@
+package com.distributed_system.purchasement.common.service.kafka.metrics;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.actuate.endpoint.annotation.DeleteOperation;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/**
+ * Actuator endpoint /actuator/kafkalatency
+ * GET: slowest produce acknowledgments / consumed events (end-to-end), DELETE: reset
+ * Histograms themselves are under /actuator/metrics/kafka.produce.ack, kafka.consume.queue, kafka.consume.handler
+ */
+@Component
+@Endpoint(id = "kafkalatency")
+@RequiredArgsConstructor
+public class KafkaLatencyEndpoint {
+
+    private final KafkaLatencyMetrics kafkaLatencyMetrics;
+
+    @ReadOperation
+    public List<SlowEventTracker.SlowEvent> slowest() {
+        return kafkaLatencyMetrics.getSlowEvents().snapshot();
+    }
+
+    @DeleteOperation
+    public void reset() {
+        kafkaLatencyMetrics.getSlowEvents().reset();
+    }
+}
@@ -0,0 +1,212 @@
+package com.distributed_system.purchasement.common.service.kafka.metrics;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.clients.producer.RecordMetadata;
+import org.apache.kafka.common.header.Header;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.kafka.listener.BatchMessageListener;
+import org.springframework.kafka.listener.MessageListenerContainer;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * End-to-end Kafka latency timers (percentile histograms, /actuator/metrics)
+ * - kafka.produce.ack: send to broker acknowledgment, tags topic, outcome (success/failure/spooled)
+ * - kafka.consume.queue: producer "timestamp" header (record timestamp if absent) to listener start,
+ *   tags topic, listener
+ * - kafka.consume.handler: listener execution, tags topic, listener, outcome (success/failure)
+ *
+ * Timers are created once per tag combination and cached, recording itself does not allocate.
+ * The slowest events are kept in a bounded top-N (/actuator/kafkalatency).
+ */
+@Component
+public class KafkaLatencyMetrics {
+
+    public static final String TIMESTAMP_HEADER = "timestamp";
+    public static final String STAGE_PRODUCE = "produce-ack";
+    public static final String STAGE_CONSUME = "consume";
+
+    private static final double[] PERCENTILES = {0.5, 0.95, 0.99, 0.999};
+
+    private final MeterRegistry meterRegistry;
+    private final SlowEventTracker slowEvents;
+    private final ConcurrentMap<String, ProducerTimers> producerTimers = new ConcurrentHashMap<>();
+
+    public KafkaLatencyMetrics(MeterRegistry meterRegistry,
+                               @Value("${kafka.metrics.latency.slowest-events:20}") int slowestEvents) {
+        this.meterRegistry = meterRegistry;
+        this.slowEvents = new SlowEventTracker(slowestEvents);
+    }
+
+    // ==================== Producer ====================
+
+    /**
+     * Record a produce acknowledgment, startNanos from System.nanoTime() before send
+     */
+    public void recordProduce(String topic, long startNanos, RecordMetadata metadata, Throwable error) {
+        long elapsed = System.nanoTime() - startNanos;
+        ProducerTimers timers = producerTimers.get(topic);
+        if (timers == null) {
+            timers = producerTimers.computeIfAbsent(topic, ProducerTimers::new);
+        }
+        if (error != null) {
+            timers.failure.record(elapsed, TimeUnit.NANOSECONDS);
+        } else if (metadata != null && metadata.offset() < 0) {
+            timers.spooled.record(elapsed, TimeUnit.NANOSECONDS);
+        } else {
+            timers.success.record(elapsed, TimeUnit.NANOSECONDS);
+            if (slowEvents.isCandidate(elapsed)) {
+                slowEvents.offer(STAGE_PRODUCE, topic, metadata != null ? metadata.partition() : -1,
+                        metadata != null ? metadata.offset() : -1, null, null, elapsed);
+            }
+        }
+    }
+
+    // ==================== Consumer ====================
+
+    /**
+     * Wrap the container's listener with queue / handler timing (use from a ContainerCustomizer)
+     * The listener tag is the container's group id.
+     */
+    public Object instrument(MessageListenerContainer container) {
+        Object listener = container.getContainerProperties().getMessageListener();
+        String name = container.getGroupId() != null ? container.getGroupId() : container.getListenerId();
+        ListenerTimers timers = new ListenerTimers(name);
+        if (listener instanceof BatchMessageListener<?, ?>) {
+            return new TimedBatchListener(listener, timers);
+        }
+        return new TimedRecordListener(listener, timers);
+    }
+
+    /**
+     * Producer timestamp of a record in epoch millis
+     * Parses the ASCII "timestamp" header in place, falls back to the record timestamp.
+     */
+    public static long producedAt(ConsumerRecord<?, ?> record) {
+        Header header = record.headers().lastHeader(TIMESTAMP_HEADER);
+        if (header != null) {
+            byte[] value = header.value();
+            if (value != null && value.length > 0 && value.length <= 19) {
+                long millis = 0;
+                for (byte b : value) {
+                    if (b < '0' || b > '9') {
+                        return record.timestamp();
+                    }
+                    millis = millis * 10 + (b - '0');
+                }
+                return millis;
+            }
+        }
+        return record.timestamp();
+    }
+
+    public SlowEventTracker getSlowEvents() {
+        return slowEvents;
+    }
+
+    private Timer timer(String name, String description, Duration max, String... tags) {
+        return Timer.builder(name)
+                .description(description)
+                .tags(tags)
+                .publishPercentiles(PERCENTILES)
+                .publishPercentileHistogram()
+                .minimumExpectedValue(Duration.ofMillis(1))
+                .maximumExpectedValue(max)
+                .register(meterRegistry);
+    }
+
+    private final class ProducerTimers {
+        private final Timer success;
+        private final Timer failure;
+        private final Timer spooled;
+
+        private ProducerTimers(String topic) {
+            String description = "Time from send to broker acknowledgment";
+            this.success = timer("kafka.produce.ack", description, Duration.ofMinutes(2),
+                    "topic", topic, "outcome", "success");
+            this.failure = timer("kafka.produce.ack", description, Duration.ofMinutes(2),
+                    "topic", topic, "outcome", "failure");
+            this.spooled = timer("kafka.produce.ack", description, Duration.ofMinutes(2),
+                    "topic", topic, "outcome", "spooled");
+        }
+    }
+
+    /**
+     * Queue / handler timers of one listener
+     */
+    public final class ListenerTimers {
+
+        private final String listener;
+        private final ConcurrentMap<String, TopicTimers> byTopic = new ConcurrentHashMap<>();
+
+        private ListenerTimers(String listener) {
+            this.listener = listener;
+        }
+
+        /**
+         * Record queue time at listener start, returns the start timestamp for record()
+         */
+        public long start(ConsumerRecord<?, ?> record) {
+            recordQueue(record);
+            return System.nanoTime();
+        }
+
+        /**
+         * Record handler time of one record
+         */
+        public void record(ConsumerRecord<?, ?> record, long startNanos, boolean success) {
+            long elapsed = System.nanoTime() - startNanos;
+            TopicTimers timers = topic(record.topic());
+            (success ? timers.handlerSuccess : timers.handlerFailure).record(elapsed, TimeUnit.NANOSECONDS);
+
+            long endToEnd = TimeUnit.MILLISECONDS.toNanos(Math.max(0, System.currentTimeMillis() - producedAt(record)));
+            if (slowEvents.isCandidate(endToEnd)) {
+                slowEvents.offer(STAGE_CONSUME, record.topic(), record.partition(), record.offset(),
+                        record.key() != null ? record.key().toString() : null, listener, endToEnd);
+            }
+        }
+
+        /**
+         * Record handler time of a whole batch (tagged with the topic of its first record)
+         */
+        public void recordBatch(String topic, long startNanos, boolean success) {
+            long elapsed = System.nanoTime() - startNanos;
+            TopicTimers timers = topic(topic);
+            (success ? timers.handlerSuccess : timers.handlerFailure).record(elapsed, TimeUnit.NANOSECONDS);
+        }
+
+        public void recordQueue(ConsumerRecord<?, ?> record) {
+            long queueMillis = System.currentTimeMillis() - producedAt(record);
+            topic(record.topic()).queue.record(Math.max(0, queueMillis), TimeUnit.MILLISECONDS);
+        }
+
+        private TopicTimers topic(String topic) {
+            TopicTimers timers = byTopic.get(topic);
+            if (timers == null) {
+                timers = byTopic.computeIfAbsent(topic, t -> new TopicTimers(t, listener));
+            }
+            return timers;
+        }
+    }
+
+    private final class TopicTimers {
+        private final Timer queue;
+        private final Timer handlerSuccess;
+        private final Timer handlerFailure;
+
+        private TopicTimers(String topic, String listener) {
+            this.queue = timer("kafka.consume.queue", "Time from produce to listener start",
+                    Duration.ofMinutes(10), "topic", topic, "listener", listener);
+            this.handlerSuccess = timer("kafka.consume.handler", "Listener execution time",
+                    Duration.ofMinutes(1), "topic", topic, "listener", listener, "outcome", "success");
+            this.handlerFailure = timer("kafka.consume.handler", "Listener execution time",
+                    Duration.ofMinutes(1), "topic", topic, "listener", listener, "outcome", "failure");
+        }
+    }
+}
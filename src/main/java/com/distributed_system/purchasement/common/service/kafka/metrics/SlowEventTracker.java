@@ -0,0 +1,77 @@
+package com.distributed_system.purchasement.common.service.kafka.metrics;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.PriorityQueue;
+
+/**
+ * Bounded top-N of the slowest events
+ * The volatile threshold lets the hot path skip (without allocating or locking)
+ * everything faster than the current N-th slowest event.
+ */
+public class SlowEventTracker {
+
+    private final int capacity;
+    private final PriorityQueue<SlowEvent> heap;
+    private volatile long thresholdNanos;
+
+    public SlowEventTracker(int capacity) {
+        this.capacity = Math.max(1, capacity);
+        this.heap = new PriorityQueue<>(this.capacity, Comparator.comparingLong(SlowEvent::latencyNanos));
+    }
+
+    public boolean isCandidate(long latencyNanos) {
+        return latencyNanos > thresholdNanos;
+    }
+
+    public void offer(String stage, String topic, int partition, long offset, String key,
+                      String listener, long latencyNanos) {
+        if (!isCandidate(latencyNanos)) {
+            return;
+        }
+        synchronized (heap) {
+            if (heap.size() >= capacity) {
+                if (latencyNanos <= heap.peek().latencyNanos()) {
+                    return;
+                }
+                heap.poll();
+            }
+            heap.add(new SlowEvent(stage, topic, partition, offset, key, listener,
+                    latencyNanos, System.currentTimeMillis()));
+            if (heap.size() >= capacity) {
+                thresholdNanos = heap.peek().latencyNanos();
+            }
+        }
+    }
+
+    /**
+     * Slowest first
+     */
+    public List<SlowEvent> snapshot() {
+        List<SlowEvent> events;
+        synchronized (heap) {
+            events = new ArrayList<>(heap);
+        }
+        events.sort(Comparator.comparingLong(SlowEvent::latencyNanos).reversed());
+        return events;
+    }
+
+    public void reset() {
+        synchronized (heap) {
+            heap.clear();
+            thresholdNanos = 0;
+        }
+    }
+
+    /**
+     * One slow event (stage: produce-ack or consume = queue + handler time)
+     */
+    public record SlowEvent(String stage, String topic, int partition, long offset, String key,
+                            String listener, long latencyNanos, long recordedAt) {
+
+        public double getLatencyMs() {
+            return latencyNanos / 1_000_000.0;
+        }
+    }
+}
@@ -0,0 +1,44 @@
+package com.distributed_system.purchasement.common.service.kafka.metrics;
+
+import org.apache.kafka.clients.consumer.Consumer;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.springframework.kafka.listener.BatchAcknowledgingConsumerAwareMessageListener;
+import org.springframework.kafka.listener.GenericMessageListener;
+import org.springframework.kafka.support.Acknowledgment;
+
+import java.util.List;
+
+/**
+ * Batch listener decorator: queue time per record, handler time per batch
+ */
+public class TimedBatchListener implements BatchAcknowledgingConsumerAwareMessageListener<String, Object> {
+
+    private final GenericMessageListener<List<ConsumerRecord<String, Object>>> delegate;
+    private final KafkaLatencyMetrics.ListenerTimers timers;
+
+    @SuppressWarnings("unchecked")
+    public TimedBatchListener(Object delegate, KafkaLatencyMetrics.ListenerTimers timers) {
+        this.delegate = (GenericMessageListener<List<ConsumerRecord<String, Object>>>) delegate;
+        this.timers = timers;
+    }
+
+    @Override
+    public void onMessage(List<ConsumerRecord<String, Object>> records, Acknowledgment acknowledgment,
+                          Consumer<?, ?> consumer) {
+        if (records.isEmpty()) {
+            delegate.onMessage(records, acknowledgment, consumer);
+            return;
+        }
+        for (int i = 0; i < records.size(); i++) {
+            timers.recordQueue(records.get(i));
+        }
+        long start = System.nanoTime();
+        boolean success = false;
+        try {
+            delegate.onMessage(records, acknowledgment, consumer);
+            success = true;
+        } finally {
+            timers.recordBatch(records.get(0).topic(), start, success);
+        }
+    }
+}
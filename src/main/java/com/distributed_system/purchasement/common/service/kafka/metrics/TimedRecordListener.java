@@ -0,0 +1,35 @@
+package com.distributed_system.purchasement.common.service.kafka.metrics;
+
+import org.apache.kafka.clients.consumer.Consumer;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.springframework.kafka.listener.AcknowledgingConsumerAwareMessageListener;
+import org.springframework.kafka.listener.GenericMessageListener;
+import org.springframework.kafka.support.Acknowledgment;
+
+/**
+ * Record listener decorator recording queue and handler time
+ */
+public class TimedRecordListener implements AcknowledgingConsumerAwareMessageListener<String, Object> {
+
+    private final GenericMessageListener<ConsumerRecord<String, Object>> delegate;
+    private final KafkaLatencyMetrics.ListenerTimers timers;
+
+    @SuppressWarnings("unchecked")
+    public TimedRecordListener(Object delegate, KafkaLatencyMetrics.ListenerTimers timers) {
+        this.delegate = (GenericMessageListener<ConsumerRecord<String, Object>>) delegate;
+        this.timers = timers;
+    }
+
+    @Override
+    public void onMessage(ConsumerRecord<String, Object> record, Acknowledgment acknowledgment,
+                          Consumer<?, ?> consumer) {
+        long start = timers.start(record);
+        boolean success = false;
+        try {
+            delegate.onMessage(record, acknowledgment, consumer);
+            success = true;
+        } finally {
+            timers.record(record, start, success);
+        }
+    }
+}
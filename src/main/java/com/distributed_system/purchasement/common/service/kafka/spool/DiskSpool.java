@@ -0,0 +1,321 @@
+package com.distributed_system.purchasement.common.service.kafka.spool;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.TreeMap;
+import java.util.stream.Stream;
+import java.util.zip.CRC32;
+
+/**
+ * Write-ahead spool on memory-mapped segment files
+ * - spool-{seq}.seg files of fixed size, entries [int length][int crc32][payload]
+ * - a zero length marks the end of written data (new segments are zero-filled)
+ * - the read cursor (segment seq + position) lives in a small mapped "cursor" file
+ * - fully drained segments are deleted
+ *
+ * Appends are plain memory copies, the OS flushes the pages. A process crash keeps
+ * everything appended, an OS crash may lose entries written since the last force().
+ * On startup entries are validated by CRC, the first torn entry ends the segment.
+ */
+@Slf4j
+public class DiskSpool implements AutoCloseable {
+
+    private static final int ENTRY_HEADER_BYTES = 8;
+    private static final int CURSOR_BYTES = 12;
+    private static final String SEGMENT_PREFIX = "spool-";
+    private static final String SEGMENT_SUFFIX = ".seg";
+
+    private final Path directory;
+    private final int segmentBytes;
+    private final int maxSegments;
+    private final TreeMap<Long, Segment> segments = new TreeMap<>();
+    private final MappedByteBuffer cursorBuffer;
+
+    private Segment writeSegment;
+    private long readSeq;
+    private int readPos;
+    private long pendingRecords;
+    private boolean dirty;
+
+    public DiskSpool(Path directory, int segmentBytes, int maxSegments) {
+        this.directory = directory;
+        this.segmentBytes = segmentBytes;
+        this.maxSegments = maxSegments;
+        try {
+            Files.createDirectories(directory);
+            this.cursorBuffer = map(directory.resolve("cursor"), CURSOR_BYTES);
+            recover();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot open spool in " + directory, e);
+        }
+    }
+
+    // ==================== Write ====================
+
+    /**
+     * Append one entry
+     *
+     * @return false if the spool is full (max-segments reached) or the entry is too large
+     */
+    public synchronized boolean append(byte[] payload) {
+        int entryBytes = ENTRY_HEADER_BYTES + payload.length;
+        if (entryBytes > segmentBytes) {
+            return false;
+        }
+        if (writeSegment.buffer.capacity() - writeSegment.writePos < entryBytes) {
+            if (segments.size() >= maxSegments) {
+                return false;
+            }
+            writeSegment = createSegment(writeSegment.seq + 1);
+        }
+
+        MappedByteBuffer buffer = writeSegment.buffer;
+        int position = writeSegment.writePos;
+        CRC32 crc = new CRC32();
+        crc.update(payload);
+        buffer.put(position + ENTRY_HEADER_BYTES, payload);
+        buffer.putInt(position + 4, (int) crc.getValue());
+        // Length goes last: a reader never sees a length before its payload
+        buffer.putInt(position, payload.length);
+        writeSegment.writePos = position + entryBytes;
+        pendingRecords++;
+        dirty = true;
+        return true;
+    }
+
+    // ==================== Read ====================
+
+    /**
+     * Read up to max entries from the cursor without consuming them
+     */
+    public synchronized List<Entry> peek(int max) {
+        List<Entry> entries = new ArrayList<>(Math.min(max, 256));
+        long seq = readSeq;
+        int pos = readPos;
+        while (entries.size() < max) {
+            Segment segment = segments.get(seq);
+            if (segment == null) {
+                break;
+            }
+            if (pos >= segment.writePos) {
+                Long next = segments.higherKey(seq);
+                if (next == null) {
+                    break;
+                }
+                seq = next;
+                pos = 0;
+                continue;
+            }
+            int length = segment.buffer.getInt(pos);
+            byte[] payload = new byte[length];
+            segment.buffer.get(pos + ENTRY_HEADER_BYTES, payload);
+            pos += ENTRY_HEADER_BYTES + length;
+            entries.add(new Entry(payload, seq, pos));
+        }
+        return entries;
+    }
+
+    /**
+     * Consume every entry up to and including the given one
+     */
+    public synchronized void commit(Entry last, int count) {
+        readSeq = last.segmentSeq;
+        readPos = last.nextPosition;
+        pendingRecords = Math.max(0, pendingRecords - count);
+        dropDrainedSegments();
+        writeCursor();
+    }
+
+    public synchronized boolean isEmpty() {
+        return writeSegment.seq == readSeq && writeSegment.writePos == readPos;
+    }
+
+    public synchronized long pendingRecords() {
+        return pendingRecords;
+    }
+
+    public synchronized long pendingBytes() {
+        long bytes = 0;
+        for (Segment segment : segments.values()) {
+            bytes += segment.seq == readSeq ? segment.writePos - readPos : segment.writePos;
+        }
+        return bytes;
+    }
+
+    public synchronized int segmentCount() {
+        return segments.size();
+    }
+
+    /**
+     * Flush appended pages to disk if anything changed since the last call
+     */
+    public synchronized void force() {
+        if (!dirty) {
+            return;
+        }
+        writeSegment.buffer.force();
+        cursorBuffer.force();
+        dirty = false;
+    }
+
+    @Override
+    public synchronized void close() {
+        for (Segment segment : segments.values()) {
+            segment.buffer.force();
+        }
+        cursorBuffer.force();
+    }
+
+    // ==================== Recovery ====================
+
+    private void recover() throws IOException {
+        long cursorSeq = cursorBuffer.getLong(0);
+        int cursorPos = cursorBuffer.getInt(8);
+
+        try (Stream<Path> files = Files.list(directory)) {
+            for (Path path : files.toList()) {
+                String name = path.getFileName().toString();
+                if (!name.startsWith(SEGMENT_PREFIX) || !name.endsWith(SEGMENT_SUFFIX)) {
+                    continue;
+                }
+                long seq = Long.parseLong(name.substring(SEGMENT_PREFIX.length(),
+                        name.length() - SEGMENT_SUFFIX.length()));
+                if (seq < cursorSeq) {
+                    deleteQuietly(path);
+                    continue;
+                }
+                Segment segment = new Segment(seq, path, map(path, segmentBytes));
+                segment.writePos = scan(segment, seq == cursorSeq ? cursorPos : 0);
+                segments.put(seq, segment);
+            }
+        }
+
+        if (segments.isEmpty()) {
+            writeSegment = createSegment(Math.max(cursorSeq, 0));
+            readSeq = writeSegment.seq;
+            readPos = 0;
+        } else {
+            writeSegment = segments.lastEntry().getValue();
+            Segment first = segments.firstEntry().getValue();
+            readSeq = first.seq;
+            readPos = first.seq == cursorSeq ? Math.min(cursorPos, first.writePos) : 0;
+            dropDrainedSegments();
+        }
+        writeCursor();
+
+        if (pendingRecords > 0) {
+            log.warn("Spool recovered {} pending records ({} bytes) in {} segments from {}",
+                    pendingRecords, pendingBytes(), segments.size(), directory);
+        }
+    }
+
+    /**
+     * Find the end of valid data, counting entries from countFrom as pending
+     */
+    private int scan(Segment segment, int countFrom) {
+        MappedByteBuffer buffer = segment.buffer;
+        int pos = 0;
+        while (pos + ENTRY_HEADER_BYTES <= buffer.capacity()) {
+            int length = buffer.getInt(pos);
+            if (length <= 0 || pos + ENTRY_HEADER_BYTES + length > buffer.capacity()) {
+                break;
+            }
+            byte[] payload = new byte[length];
+            buffer.get(pos + ENTRY_HEADER_BYTES, payload);
+            CRC32 crc = new CRC32();
+            crc.update(payload);
+            if ((int) crc.getValue() != buffer.getInt(pos + 4)) {
+                log.warn("Spool segment {} has a torn entry at {}, truncating", segment.path, pos);
+                break;
+            }
+            if (pos >= countFrom) {
+                pendingRecords++;
+            }
+            pos += ENTRY_HEADER_BYTES + length;
+        }
+        // Zero the rest so a torn tail cannot be mistaken for data after new appends
+        for (int i = pos; i < Math.min(pos + ENTRY_HEADER_BYTES, buffer.capacity()); i++) {
+            buffer.put(i, (byte) 0);
+        }
+        return pos;
+    }
+
+    // ==================== Internals ====================
+
+    /**
+     * Delete segments the cursor has fully passed (never the write segment)
+     */
+    private void dropDrainedSegments() {
+        Segment first = segments.firstEntry().getValue();
+        while (first != writeSegment && (first.seq < readSeq || readPos >= first.writePos)) {
+            segments.pollFirstEntry();
+            deleteQuietly(first.path);
+            if (first.seq >= readSeq) {
+                readSeq = segments.firstKey();
+                readPos = 0;
+            }
+            first = segments.firstEntry().getValue();
+        }
+    }
+
+    private Segment createSegment(long seq) {
+        Path path = directory.resolve(SEGMENT_PREFIX + String.format("%019d", seq) + SEGMENT_SUFFIX);
+        try {
+            Files.deleteIfExists(path);
+            Segment segment = new Segment(seq, path, map(path, segmentBytes));
+            segments.put(seq, segment);
+            return segment;
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot create spool segment " + path, e);
+        }
+    }
+
+    private void writeCursor() {
+        cursorBuffer.putLong(0, readSeq);
+        cursorBuffer.putInt(8, readPos);
+        dirty = true;
+    }
+
+    private static MappedByteBuffer map(Path path, int size) throws IOException {
+        try (FileChannel channel = FileChannel.open(path,
+                StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            return channel.map(FileChannel.MapMode.READ_WRITE, 0, size);
+        }
+    }
+
+    private static void deleteQuietly(Path path) {
+        try {
+            Files.deleteIfExists(path);
+        } catch (IOException e) {
+            log.warn("Cannot delete spool segment {}: {}", path, e.getMessage());
+        }
+    }
+
+    private static final class Segment {
+        private final long seq;
+        private final Path path;
+        private final MappedByteBuffer buffer;
+        private int writePos;
+
+        private Segment(long seq, Path path, MappedByteBuffer buffer) {
+            this.seq = seq;
+            this.path = path;
+            this.buffer = buffer;
+        }
+    }
+
+    /**
+     * Entry read from the spool, position is where the next entry starts
+     */
+    public record Entry(byte[] payload, long segmentSeq, int nextPosition) {
+    }
+}
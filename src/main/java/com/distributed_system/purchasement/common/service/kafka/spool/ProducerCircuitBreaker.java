@@ -0,0 +1,65 @@
+package com.distributed_system.purchasement.common.service.kafka.spool;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Circuit breaker around the Kafka producer
+ * - CLOSED: sends go to the broker
+ * - OPEN: after failure-threshold consecutive failures, sends go straight to the spool
+ * - HALF_OPEN: after open-ms the spool drainer probes the broker with one record,
+ *   success closes the circuit, failure opens it again
+ */
+@Slf4j
+public class ProducerCircuitBreaker {
+
+    public enum State { CLOSED, OPEN, HALF_OPEN }
+
+    private final int failureThreshold;
+    private final long openMillis;
+
+    private State state = State.CLOSED;
+    private int consecutiveFailures;
+    private long openedAt;
+
+    public ProducerCircuitBreaker(int failureThreshold, long openMillis) {
+        this.failureThreshold = Math.max(1, failureThreshold);
+        this.openMillis = openMillis;
+    }
+
+    public synchronized boolean isClosed() {
+        return state == State.CLOSED;
+    }
+
+    public synchronized State state() {
+        return state;
+    }
+
+    /**
+     * Whether the drainer may talk to the broker now (moves OPEN to HALF_OPEN once the wait is over)
+     */
+    public synchronized boolean allowProbe() {
+        if (state == State.OPEN && System.currentTimeMillis() - openedAt >= openMillis) {
+            state = State.HALF_OPEN;
+        }
+        return state != State.OPEN;
+    }
+
+    public synchronized void recordSuccess() {
+        consecutiveFailures = 0;
+        if (state != State.CLOSED) {
+            log.info("Kafka producer circuit closed");
+            state = State.CLOSED;
+        }
+    }
+
+    public synchronized void recordFailure() {
+        consecutiveFailures++;
+        if (state == State.HALF_OPEN || (state == State.CLOSED && consecutiveFailures >= failureThreshold)) {
+            if (state == State.CLOSED) {
+                log.warn("Kafka producer circuit opened after {} consecutive failures", consecutiveFailures);
+            }
+            state = State.OPEN;
+            openedAt = System.currentTimeMillis();
+        }
+    }
+}
@@ -0,0 +1,122 @@
+package com.distributed_system.purchasement.common.service.kafka.spool;
+
+import com.distributed_system.purchasement.common.service.kafka.tuning.ProducerProfileRouter;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.apache.kafka.clients.producer.RecordMetadata;
+import org.apache.kafka.common.TopicPartition;
+import org.apache.kafka.common.errors.RetriableException;
+import org.apache.kafka.common.header.internals.RecordHeaders;
+import org.apache.kafka.common.serialization.Serializer;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.support.SendResult;
+
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Producer front-end that falls back to the disk spool
+ * - circuit open or spool not empty: append to the spool (keeps the order of spooled records)
+ * - otherwise send to Kafka, a retriable failure appends the record to the spool
+ *
+ * A spooled send completes successfully with offset -1, SpoolDrainer delivers it later.
+ * Records that fail while in flight are spooled when they fail, so they can land behind
+ * records spooled in the meantime.
+ */
+@Slf4j
+public class ProducerSpool {
+
+    public static final long SPOOLED_OFFSET = -1L;
+
+    private final ProducerProfileRouter producerProfileRouter;
+    private final DiskSpool diskSpool;
+    private final ProducerCircuitBreaker circuitBreaker;
+    private final Serializer<String> keySerializer;
+    private final Serializer<Object> valueSerializer;
+
+    public ProducerSpool(ProducerProfileRouter producerProfileRouter, DiskSpool diskSpool,
+                         ProducerCircuitBreaker circuitBreaker) {
+        this.producerProfileRouter = producerProfileRouter;
+        KafkaTemplate<String, Object> kafkaTemplate = producerProfileRouter.getDefaultTemplate();
+        this.diskSpool = diskSpool;
+        this.circuitBreaker = circuitBreaker;
+        this.keySerializer = kafkaTemplate.getProducerFactory().getKeySerializer();
+        this.valueSerializer = kafkaTemplate.getProducerFactory().getValueSerializer();
+    }
+
+    public CompletableFuture<SendResult<String, Object>> send(ProducerRecord<String, Object> record) {
+        CompletableFuture<SendResult<String, Object>> result = new CompletableFuture<>();
+        if (!circuitBreaker.isClosed() || !diskSpool.isEmpty()) {
+            spool(record, result, null);
+            return result;
+        }
+
+        try {
+            producerProfileRouter.templateFor(record.topic()).send(record).whenComplete((sendResult, exception) -> {
+                if (exception == null) {
+                    circuitBreaker.recordSuccess();
+                    result.complete(sendResult);
+                } else if (isRetriable(exception)) {
+                    circuitBreaker.recordFailure();
+                    spool(record, result, exception);
+                } else {
+                    result.completeExceptionally(exception);
+                }
+            });
+        } catch (RuntimeException e) {
+            // max.block.ms elapsed (no metadata / buffer full)
+            if (!isRetriable(e)) {
+                throw e;
+            }
+            circuitBreaker.recordFailure();
+            spool(record, result, e);
+        }
+        return result;
+    }
+
+    public DiskSpool getDiskSpool() {
+        return diskSpool;
+    }
+
+    public ProducerCircuitBreaker getCircuitBreaker() {
+        return circuitBreaker;
+    }
+
+    private void spool(ProducerRecord<String, Object> record,
+                       CompletableFuture<SendResult<String, Object>> result, Throwable cause) {
+        try {
+            RecordHeaders headers = new RecordHeaders(record.headers().toArray());
+            byte[] key = record.key() != null ? keySerializer.serialize(record.topic(), headers, record.key()) : null;
+            byte[] value = valueSerializer.serialize(record.topic(), headers, record.value());
+            SpooledRecord spooled = new SpooledRecord(record.topic(), record.partition(), record.timestamp(),
+                    key, value, headers);
+
+            if (!diskSpool.append(spooled.encode())) {
+                IllegalStateException full = new IllegalStateException("Producer spool is full");
+                if (cause != null) {
+                    full.addSuppressed(cause);
+                }
+                result.completeExceptionally(full);
+                return;
+            }
+            log.debug("Record for topic {} spooled ({} pending)", record.topic(), diskSpool.pendingRecords());
+            RecordMetadata metadata = new RecordMetadata(
+                    new TopicPartition(record.topic(), record.partition() != null ? record.partition() : -1),
+                    SPOOLED_OFFSET, 0, System.currentTimeMillis(), -1, -1);
+            result.complete(new SendResult<>(record, metadata));
+        } catch (RuntimeException e) {
+            if (cause != null) {
+                e.addSuppressed(cause);
+            }
+            result.completeExceptionally(e);
+        }
+    }
+
+    static boolean isRetriable(Throwable exception) {
+        for (Throwable t = exception; t != null; t = t.getCause()) {
+            if (t instanceof RetriableException) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
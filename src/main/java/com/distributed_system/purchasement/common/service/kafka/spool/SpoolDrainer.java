@@ -0,0 +1,149 @@
+package com.distributed_system.purchasement.common.service.kafka.spool;
+
+import com.distributed_system.purchasement.common.service.kafka.SimpleRateLimiter;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.support.SendResult;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Background replay of the disk spool
+ * Reads batches from the spool cursor, sends them with the byte-array template at a
+ * limited rate and commits the longest acknowledged prefix, so the spool order is kept.
+ * While the circuit is half-open only one record is sent as a probe.
+ * Delivery is at-least-once: records after a failed one may be sent again.
+ */
+@Slf4j
+public class SpoolDrainer implements Runnable {
+
+    private static final long IDLE_SLEEP_MS = 100;
+
+    private final DiskSpool diskSpool;
+    private final ProducerCircuitBreaker circuitBreaker;
+    private final KafkaTemplate<byte[], byte[]> byteArrayKafkaTemplate;
+    private final SimpleRateLimiter rateLimiter;
+    private final int batchSize;
+    private final long sendTimeoutMs;
+    private final long failureBackoffMs;
+
+    private volatile boolean running;
+    private Thread thread;
+
+    public SpoolDrainer(DiskSpool diskSpool, ProducerCircuitBreaker circuitBreaker,
+                        KafkaTemplate<byte[], byte[]> byteArrayKafkaTemplate,
+                        double recordsPerSecond, int batchSize, long sendTimeoutMs, long failureBackoffMs) {
+        this.diskSpool = diskSpool;
+        this.circuitBreaker = circuitBreaker;
+        this.byteArrayKafkaTemplate = byteArrayKafkaTemplate;
+        this.rateLimiter = new SimpleRateLimiter(recordsPerSecond);
+        this.batchSize = batchSize;
+        this.sendTimeoutMs = sendTimeoutMs;
+        this.failureBackoffMs = failureBackoffMs;
+    }
+
+    public synchronized void start() {
+        if (running) {
+            return;
+        }
+        running = true;
+        thread = new Thread(this, "kafka-spool-drainer");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    public synchronized void stop() throws InterruptedException {
+        running = false;
+        if (thread != null) {
+            thread.interrupt();
+            thread.join(TimeUnit.SECONDS.toMillis(10));
+        }
+        diskSpool.force();
+    }
+
+    @Override
+    public void run() {
+        while (running) {
+            try {
+                if (diskSpool.isEmpty() || !circuitBreaker.allowProbe()) {
+                    diskSpool.force();
+                    Thread.sleep(IDLE_SLEEP_MS);
+                    continue;
+                }
+                int limit = circuitBreaker.isClosed() ? batchSize : 1;
+                List<DiskSpool.Entry> entries = diskSpool.peek(limit);
+                if (entries.isEmpty()) {
+                    Thread.sleep(IDLE_SLEEP_MS);
+                    continue;
+                }
+                rateLimiter.acquire(entries.size());
+                drainBatch(entries);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (Exception e) {
+                log.error("Spool drainer error: {}", e.getMessage(), e);
+                sleepQuietly(failureBackoffMs);
+            }
+        }
+    }
+
+    private void drainBatch(List<DiskSpool.Entry> entries) throws InterruptedException {
+        List<CompletableFuture<SendResult<byte[], byte[]>>> futures = new ArrayList<>(entries.size());
+        for (DiskSpool.Entry entry : entries) {
+            SpooledRecord spooled = SpooledRecord.decode(entry.payload());
+            ProducerRecord<byte[], byte[]> record = new ProducerRecord<>(spooled.topic(), spooled.partition(),
+                    spooled.timestamp(), spooled.key(), spooled.value(), spooled.headers());
+            try {
+                futures.add(byteArrayKafkaTemplate.send(record));
+            } catch (RuntimeException e) {
+                futures.add(CompletableFuture.failedFuture(e));
+                break;
+            }
+        }
+
+        // Commit only the acknowledged prefix so nothing is skipped
+        int acknowledged = 0;
+        String error = null;
+        long deadline = System.currentTimeMillis() + sendTimeoutMs;
+        for (CompletableFuture<SendResult<byte[], byte[]>> future : futures) {
+            try {
+                future.get(Math.max(1, deadline - System.currentTimeMillis()), TimeUnit.MILLISECONDS);
+                acknowledged++;
+            } catch (InterruptedException e) {
+                throw e;
+            } catch (Exception e) {
+                error = e.getCause() != null ? e.getCause().getMessage() : e.getMessage();
+                break;
+            }
+        }
+
+        if (acknowledged > 0) {
+            diskSpool.commit(entries.get(acknowledged - 1), acknowledged);
+        }
+        if (error == null) {
+            circuitBreaker.recordSuccess();
+            log.debug("Spool drained {} records, {} pending", acknowledged, diskSpool.pendingRecords());
+            if (diskSpool.isEmpty()) {
+                log.info("Producer spool drained");
+            }
+        } else {
+            circuitBreaker.recordFailure();
+            log.warn("Spool replay failed after {} records ({} pending): {}",
+                    acknowledged, diskSpool.pendingRecords(), error);
+            Thread.sleep(failureBackoffMs);
+        }
+    }
+
+    private static void sleepQuietly(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,84 @@
+package com.distributed_system.purchasement.common.service.kafka.spool;
+
+import org.apache.kafka.common.header.Header;
+import org.apache.kafka.common.header.Headers;
+import org.apache.kafka.common.header.internals.RecordHeaders;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Producer record in serialized form, as stored in the spool
+ * Layout: topic, partition (-1 = none), timestamp (-1 = none), key, value, headers.
+ * Byte arrays are length-prefixed, -1 encodes null.
+ */
+public record SpooledRecord(String topic, Integer partition, Long timestamp,
+                            byte[] key, byte[] value, Headers headers) {
+
+    public byte[] encode() {
+        byte[] topicBytes = topic.getBytes(StandardCharsets.UTF_8);
+        List<byte[]> headerNames = new ArrayList<>();
+        int size = 4 + topicBytes.length + 4 + 8 + sizeOf(key) + sizeOf(value) + 4;
+        for (Header header : headers) {
+            byte[] name = header.key().getBytes(StandardCharsets.UTF_8);
+            headerNames.add(name);
+            size += 4 + name.length + sizeOf(header.value());
+        }
+
+        ByteBuffer buffer = ByteBuffer.allocate(size);
+        putBytes(buffer, topicBytes);
+        buffer.putInt(partition != null ? partition : -1);
+        buffer.putLong(timestamp != null ? timestamp : -1L);
+        putBytes(buffer, key);
+        putBytes(buffer, value);
+        buffer.putInt(headerNames.size());
+        int index = 0;
+        for (Header header : headers) {
+            putBytes(buffer, headerNames.get(index++));
+            putBytes(buffer, header.value());
+        }
+        return buffer.array();
+    }
+
+    public static SpooledRecord decode(byte[] data) {
+        ByteBuffer buffer = ByteBuffer.wrap(data);
+        String topic = new String(getBytes(buffer), StandardCharsets.UTF_8);
+        int partition = buffer.getInt();
+        long timestamp = buffer.getLong();
+        byte[] key = getBytes(buffer);
+        byte[] value = getBytes(buffer);
+        int headerCount = buffer.getInt();
+        RecordHeaders headers = new RecordHeaders();
+        for (int i = 0; i < headerCount; i++) {
+            String name = new String(getBytes(buffer), StandardCharsets.UTF_8);
+            headers.add(name, getBytes(buffer));
+        }
+        return new SpooledRecord(topic, partition >= 0 ? partition : null,
+                timestamp >= 0 ? timestamp : null, key, value, headers);
+    }
+
+    private static int sizeOf(byte[] bytes) {
+        return 4 + (bytes != null ? bytes.length : 0);
+    }
+
+    private static void putBytes(ByteBuffer buffer, byte[] bytes) {
+        if (bytes == null) {
+            buffer.putInt(-1);
+            return;
+        }
+        buffer.putInt(bytes.length);
+        buffer.put(bytes);
+    }
+
+    private static byte[] getBytes(ByteBuffer buffer) {
+        int length = buffer.getInt();
+        if (length < 0) {
+            return null;
+        }
+        byte[] bytes = new byte[length];
+        buffer.get(bytes);
+        return bytes;
+    }
+}
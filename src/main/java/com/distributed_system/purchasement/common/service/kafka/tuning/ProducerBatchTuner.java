@@ -0,0 +1,232 @@
+package com.distributed_system.purchasement.common.service.kafka.tuning;
+
+import lombok.extern.slf4j.Slf4j;
+import org.apache.kafka.clients.producer.ProducerConfig;
+import org.apache.kafka.common.Metric;
+import org.apache.kafka.common.MetricName;
+import org.springframework.scheduling.annotation.Scheduled;
+
+import java.time.Instant;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Adjusts batch.size / linger.ms of each producer profile from its producer metrics
+ * - THROUGHPUT: grow batches that fill up, linger longer when batches close half empty
+ * - LATENCY: shorten linger while the record queue time is above target
+ *
+ * Hysteresis: a change is applied only after the same proposal came up
+ * stable-evaluations times in a row, and not within cooldown-ms of the previous change.
+ * Applying a change swaps in a new producer for the profile, then flushes and closes the old one.
+ */
+@Slf4j
+public class ProducerBatchTuner {
+
+    private static final int MAX_DECISIONS = 50;
+    private static final double FULL_BATCH_RATIO = 0.85;
+    private static final double HALF_BATCH_RATIO = 0.5;
+    private static final double SMALL_BATCH_RATIO = 0.2;
+
+    private final ProducerProfileRouter router;
+    private final boolean enabled;
+    private final int stableEvaluations;
+    private final long cooldownMs;
+    private final double minRecordsPerSecond;
+
+    private final Map<String, Proposal> pending = new HashMap<>();
+    private final Map<String, Long> lastChange = new HashMap<>();
+    private final Map<String, Map<String, Double>> lastMetrics = new HashMap<>();
+    private final ArrayDeque<TuningDecision> decisions = new ArrayDeque<>();
+
+    public ProducerBatchTuner(ProducerProfileRouter router, boolean enabled, int stableEvaluations,
+                              long cooldownMs, double minRecordsPerSecond) {
+        this.router = router;
+        this.enabled = enabled;
+        this.stableEvaluations = Math.max(1, stableEvaluations);
+        this.cooldownMs = cooldownMs;
+        this.minRecordsPerSecond = minRecordsPerSecond;
+    }
+
+    @Scheduled(fixedDelayString = "${kafka.producer.tuner.interval-ms:30000}",
+            initialDelayString = "${kafka.producer.tuner.interval-ms:30000}")
+    public void evaluate() {
+        if (!enabled) {
+            return;
+        }
+        for (ProducerProfileRouter.ProfiledProducer producer : router.getProducers()) {
+            try {
+                evaluate(producer);
+            } catch (Exception e) {
+                log.warn("Producer tuning of profile {} failed: {}", producer.profile().getName(), e.getMessage());
+            }
+        }
+    }
+
+    public synchronized List<TuningDecision> getDecisions() {
+        return new ArrayList<>(decisions);
+    }
+
+    public synchronized Map<String, Double> getLastMetrics(String profile) {
+        return lastMetrics.getOrDefault(profile, Map.of());
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    // ==================== Evaluation ====================
+
+    private synchronized void evaluate(ProducerProfileRouter.ProfiledProducer producer) {
+        ProducerProfile profile = producer.profile();
+        Map<String, Double> metrics = readMetrics(producer.template().metrics());
+        lastMetrics.put(profile.getName(), metrics);
+
+        double sendRate = metrics.getOrDefault("record-send-rate", Double.NaN);
+        double batchAvg = metrics.getOrDefault("batch-size-avg", Double.NaN);
+        double recordAvg = metrics.getOrDefault("record-size-avg", Double.NaN);
+        double queueAvg = metrics.getOrDefault("record-queue-time-avg", Double.NaN);
+        if (Double.isNaN(sendRate) || sendRate < minRecordsPerSecond || Double.isNaN(batchAvg)) {
+            pending.remove(profile.getName());
+            return;
+        }
+
+        Proposal proposal = propose(profile, batchAvg, recordAvg, queueAvg);
+        if (proposal == null) {
+            pending.remove(profile.getName());
+            return;
+        }
+
+        Proposal previous = pending.get(profile.getName());
+        int seen = previous != null && previous.sameTarget(proposal) ? previous.seen + 1 : 1;
+        pending.put(profile.getName(), proposal.withSeen(seen));
+        long sinceLastChange = System.currentTimeMillis() - lastChange.getOrDefault(profile.getName(), 0L);
+        if (seen < stableEvaluations || sinceLastChange < cooldownMs) {
+            return;
+        }
+
+        apply(producer, proposal, metrics);
+        pending.remove(profile.getName());
+    }
+
+    private Proposal propose(ProducerProfile profile, double batchAvg, double recordAvg, double queueAvg) {
+        int batchSize = profile.getBatchSize();
+        int lingerMs = profile.getLingerMs();
+        double fill = batchAvg / batchSize;
+
+        int newBatch = batchSize;
+        int newLinger = lingerMs;
+        String reason;
+
+        if (profile.getGoal() == ProducerProfile.Goal.THROUGHPUT) {
+            if (fill > FULL_BATCH_RATIO && batchSize < profile.getMaxBatchSize()) {
+                newBatch = batchSize * 2;
+                reason = "batches full";
+            } else if (fill < HALF_BATCH_RATIO && lingerMs < profile.getMaxLingerMs()) {
+                newLinger = Math.max(1, lingerMs * 2);
+                reason = "batches close half empty";
+            } else if (fill < SMALL_BATCH_RATIO && batchSize > profile.getMinBatchSize()) {
+                newBatch = batchSize / 2;
+                reason = "batches oversized at max linger";
+            } else {
+                return null;
+            }
+        } else {
+            double target = profile.getTargetQueueMs();
+            if (!Double.isNaN(queueAvg) && queueAvg > target && lingerMs > profile.getMinLingerMs()) {
+                newLinger = lingerMs / 2;
+                reason = "queue time above target";
+            } else if (!Double.isNaN(queueAvg) && queueAvg > target && fill > FULL_BATCH_RATIO
+                    && batchSize < profile.getMaxBatchSize()) {
+                newBatch = batchSize * 2;
+                reason = "full batches queueing";
+            } else if (!Double.isNaN(queueAvg) && queueAvg < target / 2 && fill < HALF_BATCH_RATIO
+                    && lingerMs < profile.getMaxLingerMs()) {
+                newLinger = lingerMs + 1;
+                reason = "queue time headroom";
+            } else {
+                return null;
+            }
+        }
+
+        // A batch should hold a few average records
+        if (!Double.isNaN(recordAvg) && newBatch < recordAvg * 4) {
+            newBatch = (int) Math.ceil(recordAvg * 4);
+        }
+        newBatch = profile.clampBatchSize(newBatch);
+        newLinger = profile.clampLingerMs(newLinger);
+        if (newBatch == batchSize && newLinger == lingerMs) {
+            return null;
+        }
+        return new Proposal(newBatch, newLinger, reason, 0);
+    }
+
+    private void apply(ProducerProfileRouter.ProfiledProducer producer, Proposal proposal,
+                       Map<String, Double> metrics) {
+        ProducerProfile profile = producer.profile();
+        TuningDecision decision = new TuningDecision(Instant.now(), profile.getName(),
+                profile.getBatchSize(), proposal.batchSize, profile.getLingerMs(), proposal.lingerMs,
+                proposal.reason, metrics);
+
+        Map<String, Object> updates = new HashMap<>();
+        updates.put(ProducerConfig.BATCH_SIZE_CONFIG, proposal.batchSize);
+        updates.put(ProducerConfig.LINGER_MS_CONFIG, proposal.lingerMs);
+        // New producer first, then drain the old one: sends never hit a closed producer
+        ProducerProfileRouter.ProfiledProducer replaced = router.reconfigure(profile, updates);
+        profile.apply(proposal.batchSize, proposal.lingerMs);
+        replaced.template().flush();
+        replaced.factory().destroy();
+
+        lastChange.put(profile.getName(), System.currentTimeMillis());
+        decisions.addLast(decision);
+        while (decisions.size() > MAX_DECISIONS) {
+            decisions.removeFirst();
+        }
+        log.info("Producer profile {} tuned: batch.size {} -> {}, linger.ms {} -> {} ({})",
+                profile.getName(), decision.oldBatchSize(), decision.newBatchSize(),
+                decision.oldLingerMs(), decision.newLingerMs(), decision.reason());
+    }
+
+    private static Map<String, Double> readMetrics(Map<MetricName, ? extends Metric> metrics) {
+        Map<String, Double> values = new HashMap<>();
+        for (Map.Entry<MetricName, ? extends Metric> entry : metrics.entrySet()) {
+            MetricName name = entry.getKey();
+            if (!"producer-metrics".equals(name.group())) {
+                continue;
+            }
+            switch (name.name()) {
+                case "record-send-rate", "batch-size-avg", "record-size-avg",
+                     "record-queue-time-avg", "request-latency-avg", "records-per-request-avg" -> {
+                    Object value = entry.getValue().metricValue();
+                    if (value instanceof Number number) {
+                        values.put(name.name(), number.doubleValue());
+                    }
+                }
+                default -> {
+                }
+            }
+        }
+        return values;
+    }
+
+    private record Proposal(int batchSize, int lingerMs, String reason, int seen) {
+
+        boolean sameTarget(Proposal other) {
+            return batchSize == other.batchSize && lingerMs == other.lingerMs;
+        }
+
+        Proposal withSeen(int seen) {
+            return new Proposal(batchSize, lingerMs, reason, seen);
+        }
+    }
+
+    /**
+     * Applied change with the metrics that triggered it
+     */
+    public record TuningDecision(Instant time, String profile, int oldBatchSize, int newBatchSize,
+                                 int oldLingerMs, int newLingerMs, String reason,
+                                 Map<String, Double> metrics) {
+    }
+}
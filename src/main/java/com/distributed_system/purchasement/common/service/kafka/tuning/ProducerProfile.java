@@ -0,0 +1,65 @@
+package com.distributed_system.purchasement.common.service.kafka.tuning;
+
+import lombok.Getter;
+
+import java.util.List;
+
+/**
+ * Producer profile: a dedicated producer for a group of topics with its own batching
+ * batch.size and linger.ms start at the configured values and are moved by
+ * ProducerBatchTuner within [min, max].
+ */
+@Getter
+public class ProducerProfile {
+
+    public enum Goal { THROUGHPUT, LATENCY }
+
+    private final String name;
+    private final Goal goal;
+    private final List<String> topicPrefixes;
+    private final int minBatchSize;
+    private final int maxBatchSize;
+    private final int minLingerMs;
+    private final int maxLingerMs;
+    private final double targetQueueMs;
+
+    private volatile int batchSize;
+    private volatile int lingerMs;
+
+    public ProducerProfile(String name, Goal goal, List<String> topicPrefixes,
+                           int batchSize, int minBatchSize, int maxBatchSize,
+                           int lingerMs, int minLingerMs, int maxLingerMs, double targetQueueMs) {
+        this.name = name;
+        this.goal = goal;
+        this.topicPrefixes = List.copyOf(topicPrefixes);
+        this.minBatchSize = minBatchSize;
+        this.maxBatchSize = maxBatchSize;
+        this.minLingerMs = minLingerMs;
+        this.maxLingerMs = maxLingerMs;
+        this.targetQueueMs = targetQueueMs;
+        this.batchSize = clampBatchSize(batchSize);
+        this.lingerMs = clampLingerMs(lingerMs);
+    }
+
+    public boolean matches(String topic) {
+        for (String prefix : topicPrefixes) {
+            if (topic.startsWith(prefix)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    public int clampBatchSize(int value) {
+        return Math.max(minBatchSize, Math.min(maxBatchSize, value));
+    }
+
+    public int clampLingerMs(int value) {
+        return Math.max(minLingerMs, Math.min(maxLingerMs, value));
+    }
+
+    void apply(int batchSize, int lingerMs) {
+        this.batchSize = batchSize;
+        this.lingerMs = lingerMs;
+    }
+}
@@ -0,0 +1,104 @@
+package com.distributed_system.purchasement.common.service.kafka.tuning;
+
+import org.springframework.kafka.core.DefaultKafkaProducerFactory;
+import org.springframework.kafka.core.KafkaTemplate;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Picks the producer for a topic: first profile whose prefix matches, else the default template
+ *
+ * The profile list is an immutable snapshot swapped as a whole, so a retuned profile's new
+ * producer replaces the old one atomically; topics are cached by profile index, not by template.
+ */
+public class ProducerProfileRouter {
+
+    private static final int DEFAULT_PRODUCER = -1;
+
+    private final KafkaTemplate<String, Object> defaultTemplate;
+    private final ConcurrentMap<String, Integer> topicCache = new ConcurrentHashMap<>();
+    private volatile List<ProfiledProducer> producers = List.of();
+
+    public ProducerProfileRouter(KafkaTemplate<String, Object> defaultTemplate) {
+        this.defaultTemplate = defaultTemplate;
+    }
+
+    public synchronized void register(ProducerProfile profile, DefaultKafkaProducerFactory<String, Object> factory,
+                                      KafkaTemplate<String, Object> template) {
+        List<ProfiledProducer> updated = new ArrayList<>(producers);
+        updated.add(new ProfiledProducer(profile, factory, template));
+        producers = List.copyOf(updated);
+        topicCache.clear();
+    }
+
+    /**
+     * Swap the profile's producer for a new one built with the config updates applied
+     * Sends issued after the swap use the new producer; the caller flushes and destroys the
+     * returned old one, so records already handed to it still go out.
+     *
+     * @return the replaced producer
+     */
+    public synchronized ProfiledProducer reconfigure(ProducerProfile profile, Map<String, Object> updates) {
+        List<ProfiledProducer> updated = new ArrayList<>(producers);
+        for (int i = 0; i < updated.size(); i++) {
+            ProfiledProducer current = updated.get(i);
+            if (current.profile() != profile) {
+                continue;
+            }
+            Map<String, Object> config = new HashMap<>(current.factory().getConfigurationProperties());
+            config.putAll(updates);
+            DefaultKafkaProducerFactory<String, Object> factory = new DefaultKafkaProducerFactory<>(config,
+                    current.factory().getKeySerializer(), current.factory().getValueSerializer(), false);
+            updated.set(i, new ProfiledProducer(profile, factory, new KafkaTemplate<>(factory)));
+            producers = List.copyOf(updated);
+            return current;
+        }
+        throw new IllegalArgumentException("Unknown producer profile " + profile.getName());
+    }
+
+    public KafkaTemplate<String, Object> templateFor(String topic) {
+        List<ProfiledProducer> snapshot = producers;
+        if (snapshot.isEmpty()) {
+            return defaultTemplate;
+        }
+        int index = topicCache.computeIfAbsent(topic, t -> {
+            for (int i = 0; i < snapshot.size(); i++) {
+                if (snapshot.get(i).profile().matches(t)) {
+                    return i;
+                }
+            }
+            return DEFAULT_PRODUCER;
+        });
+        return index == DEFAULT_PRODUCER ? defaultTemplate : snapshot.get(index).template();
+    }
+
+    public KafkaTemplate<String, Object> getDefaultTemplate() {
+        return defaultTemplate;
+    }
+
+    public List<ProfiledProducer> getProducers() {
+        return producers;
+    }
+
+    /**
+     * Close the profile producers (they are not Spring beans)
+     */
+    public void destroy() {
+        for (ProfiledProducer producer : producers) {
+            producer.factory().destroy();
+        }
+    }
+
+    /**
+     * Profile with its own producer factory and template
+     */
+    public record ProfiledProducer(ProducerProfile profile,
+                                   DefaultKafkaProducerFactory<String, Object> factory,
+                                   KafkaTemplate<String, Object> template) {
+    }
+}
@@ -0,0 +1,52 @@
+package com.distributed_system.purchasement.common.service.kafka.tuning;
+
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Actuator endpoint /actuator/producertuning
+ * Current batching of every producer profile, last metrics and recent tuner decisions
+ */
+@Endpoint(id = "producertuning")
+public class ProducerTuningEndpoint {
+
+    private final ProducerProfileRouter router;
+    private final ProducerBatchTuner tuner;
+
+    public ProducerTuningEndpoint(ProducerProfileRouter router, ProducerBatchTuner tuner) {
+        this.router = router;
+        this.tuner = tuner;
+    }
+
+    @ReadOperation
+    public Map<String, Object> tuning() {
+        List<Map<String, Object>> profiles = new ArrayList<>();
+        for (ProducerProfileRouter.ProfiledProducer producer : router.getProducers()) {
+            ProducerProfile profile = producer.profile();
+            Map<String, Object> view = new LinkedHashMap<>();
+            view.put("name", profile.getName());
+            view.put("goal", profile.getGoal());
+            view.put("topicPrefixes", profile.getTopicPrefixes());
+            view.put("batchSize", profile.getBatchSize());
+            view.put("batchSizeBounds", List.of(profile.getMinBatchSize(), profile.getMaxBatchSize()));
+            view.put("lingerMs", profile.getLingerMs());
+            view.put("lingerMsBounds", List.of(profile.getMinLingerMs(), profile.getMaxLingerMs()));
+            if (profile.getGoal() == ProducerProfile.Goal.LATENCY) {
+                view.put("targetQueueMs", profile.getTargetQueueMs());
+            }
+            view.put("metrics", tuner.getLastMetrics(profile.getName()));
+            profiles.add(view);
+        }
+
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("tunerEnabled", tuner.isEnabled());
+        result.put("profiles", profiles);
+        result.put("decisions", tuner.getDecisions());
+        return result;
+    }
+}
@@ -0,0 +1,288 @@
+package com.distributed_system.purchasement.common.service.orderindex;
+
+import com.distributed_system.purchasement.common.collection.LongIntMap;
+import com.distributed_system.purchasement.common.event.OrderEvent;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.locks.StampedLock;
+
+/**
+ * Columnar in-memory index of order status, totals and user
+ * - one row per order, columns are primitive arrays (no object per order)
+ * - orderId -> row in a LongIntMap, per-user rows chained newest first (userId -> head row,
+ *   row -> next row of the same user)
+ * - totals are kept as cents
+ *
+ * Order topics are not ordered against each other: an event older than the row is ignored
+ * and a terminal status (COMPLETED / CANCELLED) is never replaced by a non-terminal one.
+ *
+ * One writer (OrderIndexer) applies batches under the write lock, point lookups use an
+ * optimistic read stamp, range lookups the read lock.
+ */
+public class OrderIndex {
+
+    private static final int NO_ROW = LongIntMap.MISSING;
+    private static final int AMOUNT_SCALE = 2;
+    private static final int MIN_CAPACITY = 1024;
+
+    /** Bytes per row in a snapshot: 5 long columns + 1 status byte */
+    static final int ROW_BYTES = 5 * Long.BYTES + 1;
+
+    private final StampedLock lock = new StampedLock();
+    private final LongIntMap rowsByOrder;
+    private final LongIntMap userHeads;
+
+    private int rows;
+    private long[] orderIds;
+    private long[] userIds;
+    private long[] totalCents;
+    private long[] createdAt;
+    private long[] updatedAt;
+    private byte[] statuses;
+    private int[] nextByUser;
+
+    public OrderIndex(int expectedOrders) {
+        int capacity = Math.max(MIN_CAPACITY, expectedOrders);
+        this.rowsByOrder = new LongIntMap(capacity);
+        this.userHeads = new LongIntMap(capacity / 4);
+        allocate(capacity);
+    }
+
+    // ==================== Write ====================
+
+    /**
+     * @return events that changed the index
+     */
+    public int applyAll(List<OrderEvent> events) {
+        if (events.isEmpty()) {
+            return 0;
+        }
+        int changed = 0;
+        long stamp = lock.writeLock();
+        try {
+            for (OrderEvent event : events) {
+                if (apply(event)) {
+                    changed++;
+                }
+            }
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+        return changed;
+    }
+
+    private boolean apply(OrderEvent event) {
+        if (event.getOrderId() == null) {
+            return false;
+        }
+        long orderId = event.getOrderId();
+        long eventTime = event.timestampMillis(System.currentTimeMillis());
+        OrderStatus status = OrderStatus.of(event.getStatus(), event.getEventType());
+
+        int row = rowsByOrder.get(orderId);
+        if (row == NO_ROW) {
+            row = appendRow(orderId, eventTime);
+        } else if (eventTime < updatedAt[row]) {
+            return false;
+        }
+
+        if (userIds[row] == 0 && event.getUserId() != null && event.getUserId() != 0) {
+            userIds[row] = event.getUserId();
+            link(row);
+        }
+        OrderStatus current = OrderStatus.fromCode(statuses[row]);
+        if (status != OrderStatus.UNKNOWN && !(current.isTerminal() && !status.isTerminal())) {
+            statuses[row] = status.code();
+        }
+        if (event.getTotalAmount() != null) {
+            totalCents[row] = toCents(event.getTotalAmount());
+        }
+        updatedAt[row] = eventTime;
+        return true;
+    }
+
+    private int appendRow(long orderId, long eventTime) {
+        if (rows == orderIds.length) {
+            grow(rows << 1);
+        }
+        int row = rows++;
+        orderIds[row] = orderId;
+        createdAt[row] = eventTime;
+        nextByUser[row] = NO_ROW;
+        rowsByOrder.put(orderId, row);
+        return row;
+    }
+
+    private void link(int row) {
+        long userId = userIds[row];
+        nextByUser[row] = userHeads.get(userId);
+        userHeads.put(userId, row);
+    }
+
+    // ==================== Read ====================
+
+    public Optional<OrderSummary> find(long orderId) {
+        long stamp = lock.tryOptimisticRead();
+        if (stamp != 0) {
+            OrderSummary summary = null;
+            try {
+                summary = read(orderId);
+            } catch (RuntimeException e) {
+                // Torn read during a resize, the validation below fails
+            }
+            if (lock.validate(stamp)) {
+                return Optional.ofNullable(summary);
+            }
+        }
+        stamp = lock.readLock();
+        try {
+            return Optional.ofNullable(read(orderId));
+        } finally {
+            lock.unlockRead(stamp);
+        }
+    }
+
+    /**
+     * Orders of a user with fromOrderId <= orderId <= toOrderId, newest first
+     *
+     * @param status only orders in this status, null for all
+     */
+    public List<OrderSummary> findByUser(long userId, long fromOrderId, long toOrderId,
+                                         OrderStatus status, int limit) {
+        List<OrderSummary> result = new ArrayList<>(Math.min(limit, 64));
+        long stamp = lock.readLock();
+        try {
+            for (int row = userHeads.get(userId); row != NO_ROW && result.size() < limit; row = nextByUser[row]) {
+                long orderId = orderIds[row];
+                if (orderId < fromOrderId || orderId > toOrderId) {
+                    continue;
+                }
+                if (status != null && statuses[row] != status.code()) {
+                    continue;
+                }
+                result.add(summary(row));
+            }
+        } finally {
+            lock.unlockRead(stamp);
+        }
+        return result;
+    }
+
+    public int size() {
+        long stamp = lock.readLock();
+        try {
+            return rows;
+        } finally {
+            lock.unlockRead(stamp);
+        }
+    }
+
+    /**
+     * Bytes held by the columns and both hash maps (approximate, ignores object headers)
+     */
+    public long memoryBytes() {
+        long stamp = lock.readLock();
+        try {
+            return (long) orderIds.length * (ROW_BYTES + Integer.BYTES)
+                    + rowsByOrder.memoryBytes() + userHeads.memoryBytes();
+        } finally {
+            lock.unlockRead(stamp);
+        }
+    }
+
+    private OrderSummary read(long orderId) {
+        int row = rowsByOrder.get(orderId);
+        return row == NO_ROW ? null : summary(row);
+    }
+
+    private OrderSummary summary(int row) {
+        return new OrderSummary(orderIds[row], userIds[row], OrderStatus.fromCode(statuses[row]),
+                BigDecimal.valueOf(totalCents[row], AMOUNT_SCALE), createdAt[row], updatedAt[row]);
+    }
+
+    // ==================== Snapshot ====================
+
+    /**
+     * Row count of a snapshot, only called by the writer thread
+     */
+    int rowCount() {
+        return rows;
+    }
+
+    /**
+     * Column-wise copy of all rows, only called by the writer thread
+     */
+    void writeColumns(ByteBuffer buffer) {
+        buffer.asLongBuffer().put(orderIds, 0, rows);
+        buffer.position(buffer.position() + rows * Long.BYTES);
+        buffer.asLongBuffer().put(userIds, 0, rows);
+        buffer.position(buffer.position() + rows * Long.BYTES);
+        buffer.asLongBuffer().put(totalCents, 0, rows);
+        buffer.position(buffer.position() + rows * Long.BYTES);
+        buffer.asLongBuffer().put(createdAt, 0, rows);
+        buffer.position(buffer.position() + rows * Long.BYTES);
+        buffer.asLongBuffer().put(updatedAt, 0, rows);
+        buffer.position(buffer.position() + rows * Long.BYTES);
+        buffer.put(statuses, 0, rows);
+    }
+
+    /**
+     * Rebuild an index from columns written by writeColumns, maps and user chains are recomputed
+     */
+    static OrderIndex readColumns(ByteBuffer buffer, int rowCount, int expectedOrders) {
+        OrderIndex index = new OrderIndex(Math.max(expectedOrders, rowCount + rowCount / 4));
+        buffer.asLongBuffer().get(index.orderIds, 0, rowCount);
+        buffer.position(buffer.position() + rowCount * Long.BYTES);
+        buffer.asLongBuffer().get(index.userIds, 0, rowCount);
+        buffer.position(buffer.position() + rowCount * Long.BYTES);
+        buffer.asLongBuffer().get(index.totalCents, 0, rowCount);
+        buffer.position(buffer.position() + rowCount * Long.BYTES);
+        buffer.asLongBuffer().get(index.createdAt, 0, rowCount);
+        buffer.position(buffer.position() + rowCount * Long.BYTES);
+        buffer.asLongBuffer().get(index.updatedAt, 0, rowCount);
+        buffer.position(buffer.position() + rowCount * Long.BYTES);
+        buffer.get(index.statuses, 0, rowCount);
+
+        index.rows = rowCount;
+        for (int row = 0; row < rowCount; row++) {
+            index.rowsByOrder.put(index.orderIds[row], row);
+            index.nextByUser[row] = NO_ROW;
+            if (index.userIds[row] != 0) {
+                index.link(row);
+            }
+        }
+        return index;
+    }
+
+    // ==================== Internals ====================
+
+    private void allocate(int capacity) {
+        orderIds = new long[capacity];
+        userIds = new long[capacity];
+        totalCents = new long[capacity];
+        createdAt = new long[capacity];
+        updatedAt = new long[capacity];
+        statuses = new byte[capacity];
+        nextByUser = new int[capacity];
+    }
+
+    private void grow(int capacity) {
+        orderIds = Arrays.copyOf(orderIds, capacity);
+        userIds = Arrays.copyOf(userIds, capacity);
+        totalCents = Arrays.copyOf(totalCents, capacity);
+        createdAt = Arrays.copyOf(createdAt, capacity);
+        updatedAt = Arrays.copyOf(updatedAt, capacity);
+        statuses = Arrays.copyOf(statuses, capacity);
+        nextByUser = Arrays.copyOf(nextByUser, capacity);
+    }
+
+    private static long toCents(BigDecimal amount) {
+        return amount.setScale(AMOUNT_SCALE, RoundingMode.HALF_UP).unscaledValue().longValue();
+    }
+}
@@ -0,0 +1,114 @@
+package com.distributed_system.purchasement.common.service.orderindex;
+
+import lombok.extern.slf4j.Slf4j;
+import org.apache.kafka.common.TopicPartition;
+
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Memory-mapped snapshot file of the order index and the offsets it reflects
+ *
+ * Layout: [int magic][int version][int rows][int partitions]
+ *         partitions x [short topic length][topic utf-8][int partition][long next offset]
+ *         then the columns: orderIds, userIds, totalCents, createdAt, updatedAt (long each), statuses (byte)
+ *
+ * Written to a temp file, forced and atomically renamed over the previous snapshot, so a
+ * reader sees either the old or the new file complete.
+ */
+@Slf4j
+public final class OrderIndexSnapshot {
+
+    private static final int MAGIC = 0x4F494458; // "OIDX"
+    private static final int VERSION = 1;
+    private static final int HEADER_BYTES = 4 * Integer.BYTES;
+
+    private OrderIndexSnapshot() {
+        // Prevent instantiation
+    }
+
+    /**
+     * Index restored from a snapshot plus the next offset to read per partition
+     */
+    public record Loaded(OrderIndex index, Map<TopicPartition, Long> offsets) {
+    }
+
+    /**
+     * Write the index and its offsets, only called by the thread that applies events
+     *
+     * @return bytes written
+     */
+    public static long write(Path file, OrderIndex index, Map<TopicPartition, Long> offsets) throws IOException {
+        int rows = index.rowCount();
+        long size = HEADER_BYTES + (long) rows * OrderIndex.ROW_BYTES;
+        for (TopicPartition tp : offsets.keySet()) {
+            size += Short.BYTES + tp.topic().getBytes(StandardCharsets.UTF_8).length + Integer.BYTES + Long.BYTES;
+        }
+        if (size > Integer.MAX_VALUE) {
+            throw new IOException("Order index too large for one snapshot mapping: " + size + " bytes");
+        }
+
+        Path temp = file.resolveSibling(file.getFileName() + ".tmp");
+        Files.createDirectories(file.toAbsolutePath().getParent());
+        try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, size);
+            buffer.putInt(MAGIC);
+            buffer.putInt(VERSION);
+            buffer.putInt(rows);
+            buffer.putInt(offsets.size());
+            for (Map.Entry<TopicPartition, Long> entry : offsets.entrySet()) {
+                byte[] topic = entry.getKey().topic().getBytes(StandardCharsets.UTF_8);
+                buffer.putShort((short) topic.length);
+                buffer.put(topic);
+                buffer.putInt(entry.getKey().partition());
+                buffer.putLong(entry.getValue());
+            }
+            index.writeColumns(buffer);
+            buffer.force();
+        }
+        Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        return size;
+    }
+
+    /**
+     * @return null if there is no snapshot or it cannot be used
+     */
+    public static Loaded load(Path file, int expectedOrders) {
+        if (!Files.isRegularFile(file)) {
+            return null;
+        }
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            if (buffer.getInt() != MAGIC || buffer.getInt() != VERSION) {
+                log.warn("Ignoring order index snapshot {} with unknown format", file);
+                return null;
+            }
+            int rows = buffer.getInt();
+            int partitions = buffer.getInt();
+            Map<TopicPartition, Long> offsets = new HashMap<>();
+            for (int i = 0; i < partitions; i++) {
+                byte[] topic = new byte[buffer.getShort()];
+                buffer.get(topic);
+                offsets.put(new TopicPartition(new String(topic, StandardCharsets.UTF_8), buffer.getInt()),
+                        buffer.getLong());
+            }
+            if (buffer.remaining() != (long) rows * OrderIndex.ROW_BYTES) {
+                log.warn("Ignoring truncated order index snapshot {}", file);
+                return null;
+            }
+            return new Loaded(OrderIndex.readColumns(buffer, rows, expectedOrders), offsets);
+        } catch (IOException | RuntimeException e) {
+            log.warn("Cannot read order index snapshot {}: {}", file, e.getMessage());
+            return null;
+        }
+    }
+}
@@ -0,0 +1,226 @@
+package com.distributed_system.purchasement.common.service.orderindex;
+
+import com.distributed_system.purchasement.common.event.OrderEvent;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.kafka.clients.consumer.Consumer;
+import org.apache.kafka.clients.consumer.ConsumerConfig;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.clients.consumer.ConsumerRecords;
+import org.apache.kafka.common.PartitionInfo;
+import org.apache.kafka.common.TopicPartition;
+import org.apache.kafka.common.errors.WakeupException;
+import org.springframework.kafka.core.ConsumerFactory;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Keeps the OrderIndex up to date from the order-* topics
+ * - every instance reads all partitions (assign, nothing committed), the index is local
+ * - startup restores the latest snapshot and continues from its offsets, partitions without
+ *   a snapshot offset are read from the beginning
+ * - a snapshot is written every snapshot-interval-ms when something changed, and on stop
+ *
+ * Lookups are served once the reader has caught up with the end offsets seen at startup.
+ * Partitions added to the topics later are picked up on the next restart.
+ */
+@Slf4j
+public class OrderIndexer implements Runnable {
+
+    private final ConsumerFactory<String, Object> consumerFactory;
+    private final List<String> topics;
+    private final Path snapshotFile;
+    private final long snapshotIntervalMs;
+    private final Duration pollTimeout;
+    private final int expectedOrders;
+
+    private final Map<TopicPartition, Long> positions = new HashMap<>();
+
+    private volatile OrderIndex index;
+    private volatile boolean caughtUp;
+    private volatile boolean running;
+    private volatile Consumer<String, Object> consumer;
+    private volatile long lastSnapshotAt;
+    private volatile long lastSnapshotBytes;
+    private Thread thread;
+    private boolean dirty;
+
+    public OrderIndexer(ConsumerFactory<String, Object> consumerFactory, List<String> topics, Path snapshotFile,
+                        long snapshotIntervalMs, long pollTimeoutMs, int expectedOrders) {
+        this.consumerFactory = consumerFactory;
+        this.topics = List.copyOf(topics);
+        this.snapshotFile = snapshotFile;
+        this.snapshotIntervalMs = snapshotIntervalMs;
+        this.pollTimeout = Duration.ofMillis(pollTimeoutMs);
+        this.expectedOrders = expectedOrders;
+        this.index = new OrderIndex(expectedOrders);
+    }
+
+    public synchronized void start() {
+        if (running) {
+            return;
+        }
+        running = true;
+        thread = new Thread(this, "order-indexer");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    public synchronized void stop() throws InterruptedException {
+        running = false;
+        Consumer<String, Object> current = consumer;
+        if (current != null) {
+            current.wakeup();
+        }
+        if (thread != null) {
+            thread.join(TimeUnit.SECONDS.toMillis(30));
+        }
+    }
+
+    // ==================== Lookup ====================
+
+    public OrderIndex getIndex() {
+        return index;
+    }
+
+    public boolean isCaughtUp() {
+        return caughtUp;
+    }
+
+    public long getLastSnapshotAt() {
+        return lastSnapshotAt;
+    }
+
+    public long getLastSnapshotBytes() {
+        return lastSnapshotBytes;
+    }
+
+    // ==================== Indexing ====================
+
+    @Override
+    public void run() {
+        restore();
+        while (running) {
+            try {
+                follow();
+            } catch (WakeupException e) {
+                // stop()
+            } catch (Exception e) {
+                if (running) {
+                    // Index and positions stay consistent, the next attempt resumes from them
+                    log.warn("Order indexer failed, resuming in 5s: {}", e.getMessage());
+                    sleep(5000);
+                }
+            }
+        }
+        if (dirty) {
+            snapshot();
+        }
+    }
+
+    private void restore() {
+        long start = System.currentTimeMillis();
+        OrderIndexSnapshot.Loaded loaded = OrderIndexSnapshot.load(snapshotFile, expectedOrders);
+        if (loaded != null) {
+            index = loaded.index();
+            positions.putAll(loaded.offsets());
+            log.info("Order index restored from {}: {} orders, {} partitions, {} ms", snapshotFile,
+                    loaded.index().rowCount(), loaded.offsets().size(), System.currentTimeMillis() - start);
+        }
+    }
+
+    private void follow() {
+        Properties overrides = new Properties();
+        overrides.put(ConsumerConfig.MAX_POLL_RECORDS_CONFIG, 5000);
+        try (Consumer<String, Object> current = consumerFactory.createConsumer(null, "order-indexer", null, overrides)) {
+            consumer = current;
+            List<TopicPartition> partitions = new ArrayList<>();
+            for (String topic : topics) {
+                for (PartitionInfo info : current.partitionsFor(topic, Duration.ofSeconds(30))) {
+                    partitions.add(new TopicPartition(info.topic(), info.partition()));
+                }
+            }
+            current.assign(partitions);
+            for (TopicPartition tp : partitions) {
+                Long position = positions.get(tp);
+                if (position != null) {
+                    current.seek(tp, position);
+                } else {
+                    current.seekToBeginning(List.of(tp));
+                }
+            }
+
+            Map<TopicPartition, Long> endOffsets = caughtUp ? Map.of() : current.endOffsets(partitions);
+            long lastSnapshotCheck = System.currentTimeMillis();
+            while (running) {
+                ConsumerRecords<String, Object> records = current.poll(pollTimeout);
+                if (!records.isEmpty()) {
+                    apply(records);
+                    for (TopicPartition tp : records.partitions()) {
+                        positions.put(tp, current.position(tp));
+                    }
+                }
+                if (!caughtUp && reached(current, endOffsets)) {
+                    caughtUp = true;
+                    log.info("Order index caught up: {} orders, ~{} KB", index.size(), index.memoryBytes() / 1024);
+                }
+                long now = System.currentTimeMillis();
+                if (dirty && now - lastSnapshotCheck >= snapshotIntervalMs) {
+                    snapshot();
+                    lastSnapshotCheck = now;
+                }
+            }
+        } finally {
+            consumer = null;
+        }
+    }
+
+    private void apply(ConsumerRecords<String, Object> records) {
+        List<OrderEvent> events = new ArrayList<>(records.count());
+        for (ConsumerRecord<String, Object> record : records) {
+            // Undeserializable records arrive with a null value, the listeners' DLQ handles them
+            if (record.value() instanceof OrderEvent event) {
+                events.add(event);
+            }
+        }
+        if (index.applyAll(events) > 0) {
+            dirty = true;
+        }
+    }
+
+    private static boolean reached(Consumer<String, Object> consumer, Map<TopicPartition, Long> endOffsets) {
+        for (Map.Entry<TopicPartition, Long> entry : endOffsets.entrySet()) {
+            if (consumer.position(entry.getKey()) < entry.getValue()) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private void snapshot() {
+        long start = System.currentTimeMillis();
+        try {
+            lastSnapshotBytes = OrderIndexSnapshot.write(snapshotFile, index, positions);
+            lastSnapshotAt = System.currentTimeMillis();
+            dirty = false;
+            log.debug("Order index snapshot written: {} orders, {} KB, {} ms", index.rowCount(),
+                    lastSnapshotBytes / 1024, lastSnapshotAt - start);
+        } catch (Exception e) {
+            log.warn("Cannot write order index snapshot {}: {}", snapshotFile, e.getMessage());
+        }
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,56 @@
+package com.distributed_system.purchasement.common.service.orderindex;
+
+/**
+ * Order status as stored in the index (one byte per order, the ordinal)
+ */
+public enum OrderStatus {
+
+    UNKNOWN(false),
+    CREATED(false),
+    PROCESSING(false),
+    COMPLETED(true),
+    CANCELLED(true);
+
+    private static final OrderStatus[] VALUES = values();
+
+    private final boolean terminal;
+
+    OrderStatus(boolean terminal) {
+        this.terminal = terminal;
+    }
+
+    public boolean isTerminal() {
+        return terminal;
+    }
+
+    public byte code() {
+        return (byte) ordinal();
+    }
+
+    public static OrderStatus fromCode(byte code) {
+        return code >= 0 && code < VALUES.length ? VALUES[code] : UNKNOWN;
+    }
+
+    /**
+     * Status of an order event: its status field, else derived from the event type
+     */
+    public static OrderStatus of(String status, String eventType) {
+        if (status != null) {
+            try {
+                return valueOf(status);
+            } catch (IllegalArgumentException e) {
+                // Fall through to the event type
+            }
+        }
+        if (eventType == null) {
+            return UNKNOWN;
+        }
+        return switch (eventType) {
+            case "ORDER_CREATED" -> CREATED;
+            case "ORDER_UPDATED" -> PROCESSING;
+            case "ORDER_COMPLETED" -> COMPLETED;
+            case "ORDER_CANCELLED" -> CANCELLED;
+            default -> UNKNOWN;
+        };
+    }
+}
@@ -0,0 +1,13 @@
+package com.distributed_system.purchasement.common.service.orderindex;
+
+import java.math.BigDecimal;
+
+/**
+ * One order as served by the order index
+ *
+ * @param createdAt epoch millis of the first event seen for the order
+ * @param updatedAt epoch millis of the latest applied event
+ */
+public record OrderSummary(long orderId, long userId, OrderStatus status, BigDecimal totalAmount,
+                           long createdAt, long updatedAt) {
+}
@@ -0,0 +1,347 @@
+package com.distributed_system.purchasement.common.service.ordertimeout;
+
+import com.distributed_system.purchasement.common.constant.KafkaTopics;
+import com.distributed_system.purchasement.common.event.OrderEvent;
+import com.distributed_system.purchasement.common.event.PaymentEvent;
+import com.distributed_system.purchasement.common.service.kafka.BatchSendResult;
+import com.distributed_system.purchasement.common.service.kafka.KafkaProducerService;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.kafka.clients.consumer.Consumer;
+import org.apache.kafka.clients.consumer.ConsumerConfig;
+import org.apache.kafka.clients.consumer.ConsumerRebalanceListener;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.clients.consumer.ConsumerRecords;
+import org.apache.kafka.clients.consumer.OffsetAndTimestamp;
+import org.apache.kafka.common.PartitionInfo;
+import org.apache.kafka.common.TopicPartition;
+import org.apache.kafka.common.errors.WakeupException;
+import org.springframework.kafka.core.ConsumerFactory;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Cancels orders that are not paid within timeout-ms
+ * - ORDER_CREATED arms a timer at its creation time + timeout, PAYMENT_COMPLETED / ORDER_CANCELLED /
+ *   ORDER_COMPLETED disarm it, expired timers are sent as ORDER_CANCELLED in batches
+ * - timers live in a TimingWheel owned by the service thread, nothing is stored elsewhere
+ *
+ * Ownership: order-created is consumed in the order-timeout-group, each instance keeps the timers
+ * of its partitions. Disarming events cannot be routed by key: with the user key strategy
+ * ORDER_CREATED is keyed by userId while payment events (and the ORDER_COMPLETED derived from
+ * them) carry no userId and fall back to the orderId. Every instance therefore reads all partitions
+ * of the disarming topics and closes each orderId in its own wheel; an orderId it has not armed
+ * keeps a closed marker for timeout-ms, in case its ORDER_CREATED is read later (size
+ * expected-timers for every order created within timeout-ms, not just the local share).
+ *
+ * Recovery: nothing is committed. On every assignment the wheel is rebuilt by reading the topics
+ * from now - lookback-ms; timers only fire once that replay has reached the end offsets, so an
+ * order paid during the replay is not cancelled and orders that expired while down are.
+ */
+@Slf4j
+public class OrderTimeoutService implements Runnable {
+
+    private static final List<String> DISARM_TOPICS = List.of(
+            KafkaTopics.PAYMENT_COMPLETED, KafkaTopics.ORDER_CANCELLED, KafkaTopics.ORDER_COMPLETED);
+
+    private final ConsumerFactory<String, Object> consumerFactory;
+    private final KafkaProducerService kafkaProducerService;
+    private final long timeoutMs;
+    private final long lookbackMs;
+    private final int batchSize;
+    private final long retryDelayMs;
+    private final Duration pollTimeout;
+    private final TimingWheel wheel;
+
+    private final Queue<long[]> failedCancels = new ConcurrentLinkedQueue<>();
+    private final AtomicLong cancelled = new AtomicLong();
+
+    private volatile boolean running;
+    private volatile boolean catchingUp = true;
+    private volatile int armedTimers;
+    private volatile Consumer<String, Object> createdConsumer;
+    private volatile Consumer<String, Object> disarmConsumer;
+    private Thread thread;
+
+    private Set<Integer> ownedPartitions = Set.of();
+    private Map<TopicPartition, Long> createdEnd = Map.of();
+    private Map<TopicPartition, Long> disarmEnd = Map.of();
+
+    public OrderTimeoutService(ConsumerFactory<String, Object> consumerFactory,
+                               KafkaProducerService kafkaProducerService,
+                               long timeoutMs, long lookbackMs, long tickMs, int expectedTimers,
+                               int batchSize, long retryDelayMs, long pollTimeoutMs) {
+        this.consumerFactory = consumerFactory;
+        this.kafkaProducerService = kafkaProducerService;
+        this.timeoutMs = timeoutMs;
+        this.lookbackMs = Math.max(lookbackMs, timeoutMs);
+        this.batchSize = Math.max(1, batchSize);
+        this.retryDelayMs = retryDelayMs;
+        this.pollTimeout = Duration.ofMillis(pollTimeoutMs);
+        this.wheel = new TimingWheel(tickMs, 6, 4, expectedTimers, System.currentTimeMillis());
+    }
+
+    public synchronized void start() {
+        if (running) {
+            return;
+        }
+        running = true;
+        thread = new Thread(this, "order-timeout");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    public synchronized void stop() throws InterruptedException {
+        running = false;
+        wakeup(createdConsumer);
+        wakeup(disarmConsumer);
+        if (thread != null) {
+            thread.join(TimeUnit.SECONDS.toMillis(10));
+        }
+    }
+
+    public boolean isCatchingUp() {
+        return catchingUp;
+    }
+
+    public int getArmedTimers() {
+        return armedTimers;
+    }
+
+    public long getCancelledCount() {
+        return cancelled.get();
+    }
+
+    // ==================== Loop ====================
+
+    @Override
+    public void run() {
+        while (running) {
+            try {
+                follow();
+            } catch (WakeupException e) {
+                // stop()
+            } catch (Exception e) {
+                if (running) {
+                    // The wheel is rebuilt from the topics on the next assignment
+                    log.warn("Order timeout service failed, restarting in 5s: {}", e.getMessage());
+                    wheel.clear();
+                    catchingUp = true;
+                    sleep(5000);
+                }
+            }
+        }
+    }
+
+    private void follow() {
+        Properties overrides = new Properties();
+        overrides.put(ConsumerConfig.MAX_POLL_RECORDS_CONFIG, 5000);
+        try (Consumer<String, Object> created = consumerFactory.createConsumer(KafkaTopics.GROUP_ORDER_TIMEOUT,
+                "order-timeout", null, overrides);
+             Consumer<String, Object> disarm = consumerFactory.createConsumer(null,
+                     "order-timeout-disarm", null, overrides)) {
+            createdConsumer = created;
+            disarmConsumer = disarm;
+
+            List<TopicPartition> disarmPartitions = new ArrayList<>();
+            for (String topic : DISARM_TOPICS) {
+                for (PartitionInfo info : disarm.partitionsFor(topic, Duration.ofSeconds(30))) {
+                    disarmPartitions.add(new TopicPartition(info.topic(), info.partition()));
+                }
+            }
+            disarm.assign(disarmPartitions);
+            created.subscribe(List.of(KafkaTopics.ORDER_CREATED), new Rebuild(created, disarm, disarmPartitions));
+
+            while (running) {
+                arm(created.poll(pollTimeout));
+                if (!ownedPartitions.isEmpty()) {
+                    disarm(disarm.poll(pollTimeout));
+                }
+                retryFailedCancels();
+                if (catchingUp && reached(created, createdEnd) && reached(disarm, disarmEnd)) {
+                    catchingUp = false;
+                    log.info("Order timeouts rebuilt for partitions {}: {} armed, ~{} KB", ownedPartitions,
+                            wheel.armedCount(), wheel.memoryBytes() / 1024);
+                }
+                if (!catchingUp) {
+                    expire();
+                }
+                armedTimers = wheel.armedCount();
+            }
+        } finally {
+            createdConsumer = null;
+            disarmConsumer = null;
+        }
+    }
+
+    private void arm(ConsumerRecords<String, Object> records) {
+        for (ConsumerRecord<String, Object> record : records) {
+            if (record.value() instanceof OrderEvent event && event.getOrderId() != null) {
+                long userId = event.getUserId() != null ? event.getUserId() : 0;
+                wheel.schedule(event.getOrderId(), userId, createdAt(event, record) + timeoutMs);
+            }
+        }
+    }
+
+    private void disarm(ConsumerRecords<String, Object> records) {
+        long closeUntil = System.currentTimeMillis() + timeoutMs;
+        for (ConsumerRecord<String, Object> record : records) {
+            Long orderId = null;
+            if (record.value() instanceof PaymentEvent event) {
+                orderId = event.getOrderId();
+            } else if (record.value() instanceof OrderEvent event) {
+                orderId = event.getOrderId();
+            }
+            if (orderId != null) {
+                wheel.close(orderId, closeUntil);
+            }
+        }
+    }
+
+    private void expire() {
+        List<OrderEvent> expired = new ArrayList<>();
+        wheel.advance(System.currentTimeMillis(), (orderId, userId) -> expired.add(OrderEvent.cancelled(orderId,
+                userId != 0 ? userId : null)));
+        for (int from = 0; from < expired.size(); from += batchSize) {
+            List<OrderEvent> batch = expired.subList(from, Math.min(from + batchSize, expired.size()));
+            // Poll thread: a full batch window blocks here at most kafka.producer.batch.acquire-timeout-ms,
+            // records that got no slot come back as failures and are retried on a later poll
+            kafkaProducerService.sendEventBatchAsync(KafkaTopics.ORDER_CANCELLED, batch)
+                    .whenComplete((result, error) -> onSent(batch, result, error));
+        }
+        if (!expired.isEmpty()) {
+            log.info("Unpaid orders timed out: {} ORDER_CANCELLED sent, {} timers armed",
+                    expired.size(), wheel.armedCount());
+        }
+    }
+
+    private void onSent(List<OrderEvent> batch, BatchSendResult result, Throwable error) {
+        if (error != null) {
+            batch.forEach(this::retryLater);
+            return;
+        }
+        cancelled.addAndGet(result.getSucceeded());
+        for (BatchSendResult.SendOutcome failure : result.getFailures()) {
+            retryLater(batch.get(failure.index()));
+        }
+    }
+
+    private void retryLater(OrderEvent event) {
+        failedCancels.add(new long[]{event.getOrderId(), event.getUserId() != null ? event.getUserId() : 0});
+    }
+
+    private void retryFailedCancels() {
+        long retryAt = System.currentTimeMillis() + retryDelayMs;
+        long[] failed;
+        while ((failed = failedCancels.poll()) != null) {
+            wheel.schedule(failed[0], failed[1], retryAt);
+        }
+    }
+
+    // ==================== Rebuild ====================
+
+    /**
+     * Clears the wheel on revocation and replays the lookback window for the new assignment
+     */
+    private final class Rebuild implements ConsumerRebalanceListener {
+
+        private final Consumer<String, Object> created;
+        private final Consumer<String, Object> disarm;
+        private final List<TopicPartition> disarmPartitions;
+
+        private Rebuild(Consumer<String, Object> created, Consumer<String, Object> disarm,
+                        List<TopicPartition> disarmPartitions) {
+            this.created = created;
+            this.disarm = disarm;
+            this.disarmPartitions = disarmPartitions;
+        }
+
+        @Override
+        public void onPartitionsRevoked(Collection<TopicPartition> partitions) {
+            wheel.clear();
+            ownedPartitions = Set.of();
+            catchingUp = true;
+        }
+
+        @Override
+        public void onPartitionsAssigned(Collection<TopicPartition> partitions) {
+            Set<TopicPartition> assignment = created.assignment();
+            Set<Integer> owned = new HashSet<>();
+            assignment.forEach(tp -> owned.add(tp.partition()));
+
+            wheel.clear();
+            long from = System.currentTimeMillis() - lookbackMs;
+            seekToTime(created, assignment, from);
+            seekToTime(disarm, disarmPartitions, from);
+            createdEnd = created.endOffsets(assignment);
+            disarmEnd = owned.isEmpty() ? Map.of() : disarm.endOffsets(disarmPartitions);
+            ownedPartitions = owned;
+            catchingUp = true;
+            log.info("Order timeouts: rebuilding partitions {} from the last {} min", owned,
+                    TimeUnit.MILLISECONDS.toMinutes(lookbackMs));
+        }
+    }
+
+    private static void seekToTime(Consumer<String, Object> consumer, Collection<TopicPartition> partitions,
+                                   long timestamp) {
+        if (partitions.isEmpty()) {
+            return;
+        }
+        Map<TopicPartition, Long> query = new HashMap<>();
+        partitions.forEach(tp -> query.put(tp, timestamp));
+        List<TopicPartition> toEnd = new ArrayList<>();
+        for (Map.Entry<TopicPartition, OffsetAndTimestamp> entry : consumer.offsetsForTimes(query).entrySet()) {
+            if (entry.getValue() != null) {
+                consumer.seek(entry.getKey(), entry.getValue().offset());
+            } else {
+                // Nothing newer than the lookback
+                toEnd.add(entry.getKey());
+            }
+        }
+        consumer.seekToEnd(toEnd);
+    }
+
+    // ==================== Internals ====================
+
+    private static boolean reached(Consumer<String, Object> consumer, Map<TopicPartition, Long> endOffsets) {
+        for (Map.Entry<TopicPartition, Long> entry : endOffsets.entrySet()) {
+            if (consumer.position(entry.getKey()) < entry.getValue()) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Creation time of an order in epoch millis: the record timestamp (zone-free, and the clock the
+     * lookback replay seeks by), else the event's own timestamp
+     */
+    static long createdAt(OrderEvent event, ConsumerRecord<String, Object> record) {
+        return record.timestamp() >= 0 ? record.timestamp() : event.timestampMillis(System.currentTimeMillis());
+    }
+
+    private static void wakeup(Consumer<String, Object> consumer) {
+        if (consumer != null) {
+            consumer.wakeup();
+        }
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,278 @@
+package com.distributed_system.purchasement.common.service.ordertimeout;
+
+import com.distributed_system.purchasement.common.collection.LongIntMap;
+
+import java.util.Arrays;
+
+/**
+ * Hierarchical timing wheel keyed by a long id (Varghese &amp; Lauck, cascading like the Linux kernel)
+ * - levels x 2^bits slots, level n slot spans 2^(bits*n) ticks (defaults: 4 x 64 slots of 1s,
+ *   64s / 68min / 73h / 194 days)
+ * - timers are nodes in primitive arrays chained into per-slot doubly-linked lists, id -> node in
+ *   a LongIntMap: schedule and cancel are O(1), freed nodes are reused (flat memory)
+ * - when a lower level wraps, the due slot of the level above is re-inserted one level down
+ * - a closed id keeps a marker node until its own deadline, so a schedule arriving after the
+ *   cancel (topics read out of order) is ignored
+ *
+ * Not thread-safe, owned by a single thread (OrderTimeoutService).
+ */
+public class TimingWheel {
+
+    /**
+     * Receives armed timers as they expire
+     */
+    @FunctionalInterface
+    public interface ExpiryHandler {
+        void expired(long id, long payload);
+    }
+
+    private static final int NIL = -1;
+    private static final byte ARMED = 1;
+    private static final byte CLOSED = 2;
+
+    private final long tickMs;
+    private final int bits;
+    private final int levels;
+    private final int slotMask;
+    private final int[] heads;
+    private final LongIntMap nodesById;
+
+    private long[] ids;
+    private long[] payloads;
+    private long[] deadlineTicks;
+    private int[] prev;
+    private int[] next;
+    private int[] slotOf;
+    private byte[] states;
+
+    private int allocated;
+    private int freeHead = NIL;
+    private int armed;
+    private long currentTick;
+
+    public TimingWheel(long tickMs, int bits, int levels, int expectedTimers, long startMs) {
+        this.tickMs = tickMs;
+        this.bits = bits;
+        this.levels = levels;
+        this.slotMask = (1 << bits) - 1;
+        this.heads = new int[levels << bits];
+        Arrays.fill(heads, NIL);
+        this.nodesById = new LongIntMap(expectedTimers);
+        this.currentTick = startMs / tickMs;
+        allocate(Math.max(16, expectedTimers));
+    }
+
+    // ==================== Timers ====================
+
+    /**
+     * Arm a timer, ignored if the id already has one (armed or closed)
+     *
+     * @return true if armed
+     */
+    public boolean schedule(long id, long payload, long deadlineMs) {
+        if (nodesById.get(id) != LongIntMap.MISSING) {
+            return false;
+        }
+        insert(newNode(id, payload, deadlineMs / tickMs, ARMED));
+        armed++;
+        return true;
+    }
+
+    /**
+     * Disarm the timer of an id; the id stays closed until untilMs so a late schedule is ignored
+     */
+    public void close(long id, long untilMs) {
+        int node = nodesById.get(id);
+        if (node == LongIntMap.MISSING) {
+            insert(newNode(id, 0, untilMs / tickMs, CLOSED));
+            return;
+        }
+        if (states[node] == ARMED) {
+            unlink(node);
+            states[node] = CLOSED;
+            deadlineTicks[node] = untilMs / tickMs;
+            armed--;
+            insert(node);
+        }
+    }
+
+    /**
+     * Move the wheel to nowMs, armed timers due by then go to the handler (which may schedule again)
+     *
+     * @return expired armed timers
+     */
+    public int advance(long nowMs, ExpiryHandler handler) {
+        long target = nowMs / tickMs;
+        int expired = 0;
+        while (currentTick < target) {
+            currentTick++;
+            for (int level = levels - 1; level > 0; level--) {
+                if ((currentTick & ((1L << (bits * level)) - 1)) == 0) {
+                    cascade(level);
+                }
+            }
+            expired += expire(currentTick & slotMask, handler);
+        }
+        return expired;
+    }
+
+    public void clear() {
+        Arrays.fill(heads, NIL);
+        nodesById.clear();
+        allocated = 0;
+        freeHead = NIL;
+        armed = 0;
+    }
+
+    public int armedCount() {
+        return armed;
+    }
+
+    /**
+     * Armed timers plus closed markers
+     */
+    public int size() {
+        return nodesById.size();
+    }
+
+    /**
+     * Bytes held by the node arrays, slot heads and id map (approximate, ignores object headers)
+     */
+    public long memoryBytes() {
+        return (long) ids.length * (3 * Long.BYTES + 3 * Integer.BYTES + 1)
+                + (long) heads.length * Integer.BYTES + nodesById.memoryBytes();
+    }
+
+    // ==================== Wheel ====================
+
+    private void insert(int node) {
+        insert(node, false);
+    }
+
+    /**
+     * @param cascading true while advance() re-inserts a cascaded slot: the current tick's slot is
+     *                  expired right after, so entries already due go there instead of the next tick
+     */
+    private void insert(int node, boolean cascading) {
+        long tick = deadlineTicks[node];
+        long delta = tick - currentTick;
+        int slot;
+        if (delta <= 0) {
+            // Already due: the slot about to expire while cascading, else the next tick
+            slot = (int) ((cascading ? currentTick : currentTick + 1) & slotMask);
+        } else {
+            int level = 0;
+            while (level < levels - 1 && delta >= 1L << (bits * (level + 1))) {
+                level++;
+            }
+            // Beyond the top level: park in its farthest slot, re-inserted when that slot cascades
+            long placed = Math.min(tick, currentTick + (1L << (bits * levels)) - 1);
+            slot = (level << bits) + (int) ((placed >> (bits * level)) & slotMask);
+        }
+        int head = heads[slot];
+        prev[node] = NIL;
+        next[node] = head;
+        if (head != NIL) {
+            prev[head] = node;
+        }
+        heads[slot] = node;
+        slotOf[node] = slot;
+    }
+
+    private void unlink(int node) {
+        int before = prev[node];
+        int after = next[node];
+        if (before != NIL) {
+            next[before] = after;
+        } else {
+            heads[slotOf[node]] = after;
+        }
+        if (after != NIL) {
+            prev[after] = before;
+        }
+    }
+
+    private void cascade(int level) {
+        int slot = (level << bits) + (int) ((currentTick >> (bits * level)) & slotMask);
+        int node = heads[slot];
+        heads[slot] = NIL;
+        while (node != NIL) {
+            int following = next[node];
+            insert(node, true);
+            node = following;
+        }
+    }
+
+    private int expire(long levelZeroSlot, ExpiryHandler handler) {
+        int slot = (int) levelZeroSlot;
+        int node = heads[slot];
+        heads[slot] = NIL;
+        int expired = 0;
+        while (node != NIL) {
+            int following = next[node];
+            if (deadlineTicks[node] > currentTick) {
+                insert(node);
+            } else {
+                long id = ids[node];
+                long payload = payloads[node];
+                boolean wasArmed = states[node] == ARMED;
+                free(node);
+                if (wasArmed) {
+                    armed--;
+                    expired++;
+                    handler.expired(id, payload);
+                }
+            }
+            node = following;
+        }
+        return expired;
+    }
+
+    // ==================== Nodes ====================
+
+    private int newNode(long id, long payload, long deadlineTick, byte state) {
+        int node;
+        if (freeHead != NIL) {
+            node = freeHead;
+            freeHead = next[node];
+        } else {
+            if (allocated == ids.length) {
+                grow(ids.length << 1);
+            }
+            node = allocated++;
+        }
+        ids[node] = id;
+        payloads[node] = payload;
+        deadlineTicks[node] = deadlineTick;
+        states[node] = state;
+        nodesById.put(id, node);
+        return node;
+    }
+
+    private void free(int node) {
+        nodesById.remove(ids[node]);
+        states[node] = 0;
+        next[node] = freeHead;
+        freeHead = node;
+    }
+
+    private void allocate(int capacity) {
+        ids = new long[capacity];
+        payloads = new long[capacity];
+        deadlineTicks = new long[capacity];
+        prev = new int[capacity];
+        next = new int[capacity];
+        slotOf = new int[capacity];
+        states = new byte[capacity];
+    }
+
+    private void grow(int capacity) {
+        ids = Arrays.copyOf(ids, capacity);
+        payloads = Arrays.copyOf(payloads, capacity);
+        deadlineTicks = Arrays.copyOf(deadlineTicks, capacity);
+        prev = Arrays.copyOf(prev, capacity);
+        next = Arrays.copyOf(next, capacity);
+        slotOf = Arrays.copyOf(slotOf, capacity);
+        states = Arrays.copyOf(states, capacity);
+    }
+}
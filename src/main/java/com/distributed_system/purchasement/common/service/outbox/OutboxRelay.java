@@ -0,0 +1,357 @@
+package com.distributed_system.purchasement.common.service.outbox;
+
+import com.distributed_system.purchasement.common.codec.EventBinaryCodec;
+import com.distributed_system.purchasement.common.service.kafka.KafkaProducerService;
+import com.distributed_system.purchasement.entity.OutboxEvent;
+import com.distributed_system.purchasement.mapper.OutboxEventMapper;
+import com.distributed_system.purchasement.mapper.OutboxLeaseMapper;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Outbox Relay
+ * Drains tb_outbox_event to Kafka in batches:
+ * - one UPDATE claims up to batch-size rows, one SELECT loads them
+ * - rows are grouped per aggregate and spread over parallel lanes by aggregate hash
+ * - sends are pipelined across aggregates, one markSent / release statement per batch
+ *
+ * Ordering: events of one aggregate are sent in id order from a single lane, one at a time
+ * (the next row goes out only after the previous one was acknowledged). If a send fails, the
+ * failed row and the never-sent later rows of the same aggregate go back to PENDING
+ * (at-least-once), so a retry never lands behind a later row of its aggregate.
+ * A row that fails max-attempts times (e.g. a payload the codec rejects) is parked as FAILED
+ * so it stops blocking its aggregate, later rows of that aggregate are then relayed without it.
+ * Per-aggregate order across relays needs a single active relay, two instances claiming
+ * concurrently could interleave rows of the same aggregate. Every drain (scheduled or
+ * outboxCatchUpJob) therefore runs under a database lease (tb_outbox_lease): one instance
+ * relays, the others retry the lease every lease-ms / 4 and take over once it expired.
+ * The lease is renewed before each batch, lease-ms must stay well above the time one batch
+ * can take (send-timeout-ms per round of sends).
+ */
+@Slf4j
+@Component
+public class OutboxRelay {
+
+    private static final int MAX_ERROR_LENGTH = 500;
+    private static final int MAX_OWNER_HOST_LENGTH = 48;
+    private static final String LEASE_NAME = "outbox-relay";
+
+    private final OutboxEventMapper outboxEventMapper;
+    private final OutboxLeaseMapper outboxLeaseMapper;
+    private final KafkaProducerService kafkaProducerService;
+    private final ExecutorService laneExecutor;
+    private final ReentrantLock drainLock = new ReentrantLock();
+    private final String owner;
+    private final int parallelism;
+
+    /**
+     * Scheduled drain on every instance, only the lease holder relays
+     */
+    @Value("${kafka.outbox.relay.enabled:true}")
+    private boolean enabled;
+
+    @Value("${kafka.outbox.relay.lease-ms:60000}")
+    private long leaseMs;
+
+    @Value("${kafka.outbox.relay.batch-size:1000}")
+    private int batchSize;
+
+    @Value("${kafka.outbox.relay.max-batches-per-run:20}")
+    private int maxBatchesPerRun;
+
+    @Value("${kafka.outbox.relay.send-timeout-ms:30000}")
+    private long sendTimeoutMs;
+
+    @Value("${kafka.outbox.relay.max-attempts:10}")
+    private int maxAttempts;
+
+    private volatile boolean stopped;
+    private boolean leaseCreated;
+    private long nextLeaseAttempt;
+
+    public OutboxRelay(OutboxEventMapper outboxEventMapper,
+                       OutboxLeaseMapper outboxLeaseMapper,
+                       KafkaProducerService kafkaProducerService,
+                       @Value("${kafka.outbox.relay.parallelism:4}") int parallelism) {
+        this.outboxEventMapper = outboxEventMapper;
+        this.outboxLeaseMapper = outboxLeaseMapper;
+        this.kafkaProducerService = kafkaProducerService;
+        this.parallelism = Math.max(1, parallelism);
+        AtomicInteger threadIndex = new AtomicInteger();
+        this.laneExecutor = Executors.newFixedThreadPool(this.parallelism, r -> {
+            Thread thread = new Thread(r, "outbox-relay-" + threadIndex.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.owner = ownerToken(ManagementFactory.getRuntimeMXBean().getName());
+    }
+
+    @Scheduled(fixedDelayString = "${kafka.outbox.relay.interval-ms:200}")
+    public void scheduledDrain() {
+        if (!enabled) {
+            return;
+        }
+        try {
+            drain(maxBatchesPerRun);
+        } catch (Exception e) {
+            log.warn("Outbox relay run failed: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Drain until the outbox is empty or maxBatches batches were relayed
+     * Nothing is relayed unless this instance holds (or takes) the relay lease.
+     *
+     * @return number of rows published
+     */
+    public int drain(int maxBatches) {
+        if (stopped || !drainLock.tryLock()) {
+            return 0;
+        }
+        try {
+            int published = 0;
+            for (int i = 0; i < maxBatches; i++) {
+                if (!holdLease()) {
+                    break;
+                }
+                BatchOutcome outcome = relayBatch();
+                published += outcome.sent();
+                // A short batch means we caught up, a failing batch should wait for the next run
+                if (outcome.claimed() < batchSize || outcome.failed() > 0) {
+                    break;
+                }
+            }
+            return published;
+        } finally {
+            drainLock.unlock();
+        }
+    }
+
+    /**
+     * Put rows claimed by a dead relay back to PENDING
+     */
+    public int releaseStale(int staleSeconds) {
+        return outboxEventMapper.releaseStale(staleSeconds);
+    }
+
+    /**
+     * Put FAILED rows back to PENDING with a fresh attempt budget
+     */
+    public int requeueFailed(int limit) {
+        return outboxEventMapper.requeueFailed(limit);
+    }
+
+    /**
+     * Delete published rows older than retentionDays, in chunks of limit
+     */
+    public int purgeSent(int retentionDays, int limit) {
+        return outboxEventMapper.purgeSent(retentionDays, limit);
+    }
+
+    @PreDestroy
+    public void shutdown() throws InterruptedException {
+        stopped = true;
+        laneExecutor.shutdown();
+        // Let another instance take over without waiting for the lease to expire
+        if (drainLock.tryLock(sendTimeoutMs, TimeUnit.MILLISECONDS)) {
+            try {
+                if (leaseCreated && outboxLeaseMapper.release(LEASE_NAME, owner) > 0) {
+                    log.info("Outbox relay lease released by {}", owner);
+                }
+            } catch (Exception e) {
+                log.warn("Outbox relay lease not released: {}", e.getMessage());
+            } finally {
+                drainLock.unlock();
+            }
+        }
+    }
+
+    // ==================== Lease ====================
+
+    /**
+     * Take or renew the relay lease, called under drainLock
+     * A follower only retries every lease-ms / 4 so idle instances do not hammer the lease row.
+     */
+    private boolean holdLease() {
+        long now = System.currentTimeMillis();
+        if (now < nextLeaseAttempt) {
+            return false;
+        }
+        if (!leaseCreated) {
+            outboxLeaseMapper.createIfAbsent(LEASE_NAME);
+            leaseCreated = true;
+        }
+        if (outboxLeaseMapper.acquire(LEASE_NAME, owner, leaseMs) > 0) {
+            nextLeaseAttempt = 0;
+            return true;
+        }
+        nextLeaseAttempt = now + leaseMs / 4;
+        return false;
+    }
+
+    // ==================== Batch Relay ====================
+
+    private BatchOutcome relayBatch() {
+        int claimed = outboxEventMapper.claimBatch(owner, batchSize);
+        if (claimed == 0) {
+            return new BatchOutcome(0, 0, 0);
+        }
+        List<OutboxEvent> rows = outboxEventMapper.selectClaimed(owner);
+
+        // Rows come ordered by id, LinkedHashMap keeps that order within each aggregate
+        Map<String, List<OutboxEvent>> byAggregate = new LinkedHashMap<>();
+        for (OutboxEvent row : rows) {
+            byAggregate.computeIfAbsent(row.getAggregateId(), k -> new ArrayList<>()).add(row);
+        }
+
+        int lanes = Math.max(1, Math.min(parallelism, byAggregate.size()));
+        List<List<List<OutboxEvent>>> laneGroups = new ArrayList<>(lanes);
+        for (int i = 0; i < lanes; i++) {
+            laneGroups.add(new ArrayList<>());
+        }
+        for (Map.Entry<String, List<OutboxEvent>> entry : byAggregate.entrySet()) {
+            int lane = Math.floorMod(String.valueOf(entry.getKey()).hashCode(), lanes);
+            laneGroups.get(lane).add(entry.getValue());
+        }
+
+        List<CompletableFuture<LaneResult>> futures = new ArrayList<>(lanes);
+        for (List<List<OutboxEvent>> group : laneGroups) {
+            futures.add(CompletableFuture.supplyAsync(() -> relayLane(group), laneExecutor));
+        }
+
+        List<Long> sentIds = new ArrayList<>(rows.size());
+        List<Long> failedIds = new ArrayList<>();
+        List<Long> unsentIds = new ArrayList<>();
+        String lastError = null;
+        for (int i = 0; i < futures.size(); i++) {
+            try {
+                LaneResult result = futures.get(i).join();
+                sentIds.addAll(result.sentIds);
+                failedIds.addAll(result.failedIds);
+                unsentIds.addAll(result.unsentIds);
+                if (result.error != null) {
+                    lastError = result.error;
+                }
+            } catch (Exception e) {
+                // Lane crashed before reporting: its rows may or may not be out, count them as failed
+                for (List<OutboxEvent> aggregateRows : laneGroups.get(i)) {
+                    aggregateRows.forEach(row -> failedIds.add(row.getId()));
+                }
+                lastError = e.getMessage();
+            }
+        }
+
+        if (!sentIds.isEmpty()) {
+            outboxEventMapper.markSent(sentIds);
+        }
+        if (!failedIds.isEmpty()) {
+            outboxEventMapper.release(failedIds, truncate(lastError), maxAttempts);
+            log.warn("Outbox relay: {} events released for retry, last error: {}", failedIds.size(), lastError);
+            List<Long> parked = outboxEventMapper.selectFailedIds(failedIds);
+            if (!parked.isEmpty()) {
+                log.error("Outbox relay: {} events reached {} attempts and were marked FAILED, ids={}, last error: {}",
+                        parked.size(), maxAttempts, parked, lastError);
+            }
+        }
+        if (!unsentIds.isEmpty()) {
+            outboxEventMapper.unclaim(unsentIds);
+        }
+        log.debug("Outbox relay batch: claimed={}, sent={}, failed={}, unsent={}, aggregates={}, lanes={}",
+                rows.size(), sentIds.size(), failedIds.size(), unsentIds.size(), byAggregate.size(), lanes);
+        return new BatchOutcome(rows.size(), sentIds.size(), failedIds.size() + unsentIds.size());
+    }
+
+    /**
+     * Send the lane in rounds: round r sends row r of every aggregate still going, then waits
+     * for those acknowledgments. Aggregates are pipelined against each other, but an aggregate
+     * never has more than one row in flight, so nothing is sent past a failed row.
+     */
+    private LaneResult relayLane(Collection<List<OutboxEvent>> aggregates) {
+        LaneResult result = new LaneResult();
+        List<List<OutboxEvent>> active = new ArrayList<>(aggregates);
+        for (int round = 0; !active.isEmpty(); round++) {
+            List<CompletableFuture<?>> sends = new ArrayList<>(active.size());
+            for (List<OutboxEvent> aggregateRows : active) {
+                sends.add(send(aggregateRows.get(round)));
+            }
+
+            long deadline = System.currentTimeMillis() + sendTimeoutMs;
+            List<List<OutboxEvent>> next = new ArrayList<>(active.size());
+            for (int i = 0; i < active.size(); i++) {
+                List<OutboxEvent> aggregateRows = active.get(i);
+                OutboxEvent row = aggregateRows.get(round);
+                try {
+                    long remaining = Math.max(1, deadline - System.currentTimeMillis());
+                    sends.get(i).get(remaining, TimeUnit.MILLISECONDS);
+                    result.sentIds.add(row.getId());
+                    if (round + 1 < aggregateRows.size()) {
+                        next.add(aggregateRows);
+                    }
+                } catch (Exception e) {
+                    result.failedIds.add(row.getId());
+                    result.error = e.getCause() != null ? e.getCause().getMessage() : e.getMessage();
+                    // Later rows of the aggregate were never sent, they go back after the failed one
+                    for (int j = round + 1; j < aggregateRows.size(); j++) {
+                        result.unsentIds.add(aggregateRows.get(j).getId());
+                    }
+                }
+            }
+            active = next;
+        }
+        return result;
+    }
+
+    private CompletableFuture<?> send(OutboxEvent row) {
+        try {
+            return kafkaProducerService.sendEvent(row.getTopic(), row.getAggregateId(),
+                    EventBinaryCodec.decode(row.getPayload()));
+        } catch (Exception e) {
+            return CompletableFuture.failedFuture(e);
+        }
+    }
+
+    /**
+     * claimed_by value: tail of pid@hostname (pod suffixes are at the end) plus a random suffix,
+     * bounded to fit claimed_by VARCHAR(64) whatever the hostname length
+     */
+    static String ownerToken(String runtimeName) {
+        String host = runtimeName.length() <= MAX_OWNER_HOST_LENGTH
+                ? runtimeName
+                : runtimeName.substring(runtimeName.length() - MAX_OWNER_HOST_LENGTH);
+        return host + "-" + UUID.randomUUID().toString().substring(0, 8);
+    }
+
+    private static String truncate(String error) {
+        if (error == null || error.length() <= MAX_ERROR_LENGTH) {
+            return error;
+        }
+        return error.substring(0, MAX_ERROR_LENGTH);
+    }
+
+    private static final class LaneResult {
+        private final List<Long> sentIds = new ArrayList<>();
+        private final List<Long> failedIds = new ArrayList<>();
+        private final List<Long> unsentIds = new ArrayList<>();
+        private String error;
+    }
+
+    private record BatchOutcome(int claimed, int sent, int failed) {
+    }
+}
@@ -0,0 +1,65 @@
+package com.distributed_system.purchasement.common.service.outbox;
+
+import com.distributed_system.purchasement.common.codec.EventBinaryCodec;
+import com.distributed_system.purchasement.common.event.BaseEvent;
+import com.distributed_system.purchasement.common.service.kafka.EventKeyStrategy;
+import com.distributed_system.purchasement.entity.OutboxEvent;
+import com.distributed_system.purchasement.mapper.OutboxEventMapper;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Transactional outbox writer
+ * Must be called inside the business transaction, the event becomes visible to the
+ * relay only if that transaction commits. OutboxRelay publishes it to Kafka afterwards.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class OutboxService {
+
+    private final OutboxEventMapper outboxEventMapper;
+    private final EventKeyStrategy eventKeyStrategy;
+
+    /**
+     * Append one event to the outbox (joins the caller's transaction)
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void append(String topic, BaseEvent event) {
+        outboxEventMapper.insertBatch(Collections.singletonList(toRow(topic, event)));
+        log.debug("Event appended to outbox: topic={}, eventId={}", topic, event.getEventId());
+    }
+
+    /**
+     * Append several events with a single multi-row insert
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void appendAll(String topic, List<? extends BaseEvent> events) {
+        if (events.isEmpty()) {
+            return;
+        }
+        List<OutboxEvent> rows = new ArrayList<>(events.size());
+        for (BaseEvent event : events) {
+            rows.add(toRow(topic, event));
+        }
+        outboxEventMapper.insertBatch(rows);
+        log.debug("{} events appended to outbox: topic={}", rows.size(), topic);
+    }
+
+    private OutboxEvent toRow(String topic, BaseEvent event) {
+        OutboxEvent row = new OutboxEvent();
+        row.setAggregateId(eventKeyStrategy.resolveKey(event));
+        row.setTopic(topic);
+        row.setEventType(event.getEventType());
+        row.setCorrelationId(event.getCorrelationId());
+        row.setPayload(EventBinaryCodec.encode(event));
+        return row;
+    }
+}
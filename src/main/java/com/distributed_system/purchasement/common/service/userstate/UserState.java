@@ -0,0 +1,9 @@
+package com.distributed_system.purchasement.common.service.userstate;
+
+/**
+ * Latest known state of a user, as materialized from the user-state topic
+ *
+ * @param updatedAt epoch millis of the event that produced this state
+ */
+public record UserState(long userId, String username, String email, int age, long updatedAt) {
+}
@@ -0,0 +1,63 @@
+package com.distributed_system.purchasement.common.service.userstate;
+
+import com.distributed_system.purchasement.common.codec.UserStateCodec;
+import com.distributed_system.purchasement.common.constant.KafkaTopics;
+import com.distributed_system.purchasement.common.event.UserEvent;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.kafka.core.KafkaTemplate;
+
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Folds USER_CREATED / USER_UPDATED / USER_DELETED into the compacted user-state topic
+ * - key: userId, value: UserStateCodec bytes, delete: tombstone
+ * - the three user topics are not ordered against each other, so an event older than the
+ *   state already in the view is dropped instead of overwriting it
+ *
+ * The send is synchronous: the caller acknowledges its record only once the state is written.
+ */
+@Slf4j
+public class UserStateProjector {
+
+    private static final long SEND_TIMEOUT_SECONDS = 10;
+
+    private final KafkaTemplate<String, Object> kafkaTemplate;
+    private final UserStateView view;
+
+    public UserStateProjector(KafkaTemplate<String, Object> kafkaTemplate, UserStateView view) {
+        this.kafkaTemplate = kafkaTemplate;
+        this.view = view;
+    }
+
+    public void project(UserEvent event) {
+        if (event.getUserId() == null) {
+            log.warn("Skipping user state projection without userId: eventId={}", event.getEventId());
+            return;
+        }
+        long userId = event.getUserId();
+        if (isStale(userId, event)) {
+            log.debug("Skipping stale {} for userId={}", event.getEventType(), userId);
+            return;
+        }
+
+        byte[] value = "USER_DELETED".equals(event.getEventType()) ? null : UserStateCodec.encode(event);
+        send(String.valueOf(userId), value);
+    }
+
+    private boolean isStale(long userId, UserEvent event) {
+        return view.isReady() && view.updatedAt(userId) > UserStateCodec.updatedAt(event);
+    }
+
+    private void send(String key, byte[] value) {
+        try {
+            kafkaTemplate.send(KafkaTopics.USER_STATE, key, value).get(SEND_TIMEOUT_SECONDS, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while writing user state " + key, e);
+        } catch (ExecutionException | TimeoutException e) {
+            throw new IllegalStateException("Failed to write user state " + key, e);
+        }
+    }
+}
@@ -0,0 +1,321 @@
+package com.distributed_system.purchasement.common.service.userstate;
+
+import com.distributed_system.purchasement.common.codec.UserStateCodec;
+import com.distributed_system.purchasement.common.collection.LongBytesMap;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.kafka.clients.consumer.Consumer;
+import org.apache.kafka.clients.consumer.ConsumerConfig;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.clients.consumer.ConsumerRecords;
+import org.apache.kafka.clients.consumer.KafkaConsumer;
+import org.apache.kafka.common.PartitionInfo;
+import org.apache.kafka.common.TopicPartition;
+import org.apache.kafka.common.errors.WakeupException;
+import org.apache.kafka.common.serialization.ByteArrayDeserializer;
+import org.apache.kafka.common.serialization.StringDeserializer;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.StampedLock;
+
+/**
+ * Local materialized view of the compacted user-state topic
+ * - every instance reads all partitions (assign, no consumer group), nothing is committed
+ * - startup bootstrap: partitions are split over bootstrap-parallelism consumers that read
+ *   from the beginning up to the end offsets taken at start, in parallel
+ * - then one tailer thread follows the topic from those end offsets
+ * - userId -> compact encoded state in a LongBytesMap, decoded on lookup
+ *
+ * Lookups use an optimistic read stamp, writers (bootstrap and tailer) take the write lock.
+ * Until the bootstrap completes find() returns empty and callers fall back to their own source.
+ */
+@Slf4j
+public class UserStateView implements Runnable {
+
+    private final String topic;
+    private final Map<String, Object> consumerConfig;
+    private final int bootstrapParallelism;
+    private final Duration pollTimeout;
+
+    private final LongBytesMap states;
+    private final StampedLock lock = new StampedLock();
+    private final AtomicLong applied = new AtomicLong();
+
+    private volatile boolean ready;
+    private volatile boolean running;
+    private volatile Consumer<String, byte[]> tailConsumer;
+    private Thread thread;
+
+    public UserStateView(String topic, Map<String, Object> consumerConfig, int bootstrapParallelism,
+                         long pollTimeoutMs, int expectedUsers) {
+        this.topic = topic;
+        this.consumerConfig = viewConsumerConfig(consumerConfig);
+        this.bootstrapParallelism = Math.max(1, bootstrapParallelism);
+        this.pollTimeout = Duration.ofMillis(pollTimeoutMs);
+        this.states = new LongBytesMap(expectedUsers);
+    }
+
+    public synchronized void start() {
+        if (running) {
+            return;
+        }
+        running = true;
+        thread = new Thread(this, "user-state-view");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    public synchronized void stop() throws InterruptedException {
+        running = false;
+        Consumer<String, byte[]> consumer = tailConsumer;
+        if (consumer != null) {
+            consumer.wakeup();
+        }
+        if (thread != null) {
+            thread.interrupt();
+            thread.join(TimeUnit.SECONDS.toMillis(10));
+        }
+    }
+
+    // ==================== Lookup ====================
+
+    /**
+     * Current state of the user, empty if unknown, deleted or the view is still bootstrapping
+     */
+    public Optional<UserState> find(long userId) {
+        if (!ready) {
+            return Optional.empty();
+        }
+        byte[] value = read(userId);
+        return value != null ? Optional.of(UserStateCodec.decode(userId, value)) : Optional.empty();
+    }
+
+    /**
+     * updatedAt of the stored state, -1 if none
+     */
+    public long updatedAt(long userId) {
+        byte[] value = read(userId);
+        return value != null ? UserStateCodec.updatedAt(value) : -1;
+    }
+
+    public boolean isReady() {
+        return ready;
+    }
+
+    public int size() {
+        long stamp = lock.readLock();
+        try {
+            return states.size();
+        } finally {
+            lock.unlockRead(stamp);
+        }
+    }
+
+    public long memoryBytes() {
+        long stamp = lock.readLock();
+        try {
+            return states.memoryBytes();
+        } finally {
+            lock.unlockRead(stamp);
+        }
+    }
+
+    public long getAppliedCount() {
+        return applied.get();
+    }
+
+    private byte[] read(long userId) {
+        long stamp = lock.tryOptimisticRead();
+        byte[] value = null;
+        if (stamp != 0) {
+            try {
+                value = states.get(userId);
+            } catch (RuntimeException e) {
+                // Torn read during a write, the validation below fails
+            }
+            if (lock.validate(stamp)) {
+                return value;
+            }
+        }
+        stamp = lock.readLock();
+        try {
+            return states.get(userId);
+        } finally {
+            lock.unlockRead(stamp);
+        }
+    }
+
+    // ==================== Bootstrap & Tail ====================
+
+    @Override
+    public void run() {
+        while (running) {
+            try {
+                Map<TopicPartition, Long> endOffsets = bootstrap();
+                ready = true;
+                tail(endOffsets);
+            } catch (WakeupException e) {
+                // stop()
+            } catch (Exception e) {
+                if (running) {
+                    // Rebuild from scratch: tombstones may have been compacted away meanwhile
+                    log.warn("User state view failed, rebuilding in 5s: {}", e.getMessage());
+                    reset();
+                    sleep(5000);
+                }
+            }
+        }
+    }
+
+    /**
+     * Read every partition up to its current end offset, partitions spread over parallel consumers
+     *
+     * @return the end offsets the tailer continues from
+     */
+    private Map<TopicPartition, Long> bootstrap() throws Exception {
+        long start = System.currentTimeMillis();
+        List<TopicPartition> partitions = new ArrayList<>();
+        Map<TopicPartition, Long> endOffsets;
+        try (Consumer<String, byte[]> consumer = newConsumer("bootstrap-meta")) {
+            for (PartitionInfo info : consumer.partitionsFor(topic, Duration.ofSeconds(30))) {
+                partitions.add(new TopicPartition(info.topic(), info.partition()));
+            }
+            endOffsets = consumer.endOffsets(partitions, Duration.ofSeconds(30));
+        }
+
+        int workers = Math.min(bootstrapParallelism, partitions.size());
+        List<List<TopicPartition>> assignments = new ArrayList<>();
+        for (int i = 0; i < workers; i++) {
+            assignments.add(new ArrayList<>());
+        }
+        for (int i = 0; i < partitions.size(); i++) {
+            assignments.get(i % workers).add(partitions.get(i));
+        }
+
+        AtomicInteger index = new AtomicInteger();
+        ExecutorService executor = Executors.newFixedThreadPool(Math.max(1, workers), r -> {
+            Thread worker = new Thread(r, "user-state-bootstrap-" + index.incrementAndGet());
+            worker.setDaemon(true);
+            return worker;
+        });
+        try {
+            List<CompletableFuture<Long>> futures = new ArrayList<>();
+            for (List<TopicPartition> assignment : assignments) {
+                futures.add(CompletableFuture.supplyAsync(() -> readToEnd(assignment, endOffsets), executor));
+            }
+            long records = 0;
+            for (CompletableFuture<Long> future : futures) {
+                records += future.get();
+            }
+            log.info("User state view bootstrapped from {} partitions with {} consumers: {} records, {} users, "
+                            + "~{} KB, {} ms", partitions.size(), workers, records, size(), memoryBytes() / 1024,
+                    System.currentTimeMillis() - start);
+        } finally {
+            executor.shutdownNow();
+        }
+        return endOffsets;
+    }
+
+    private long readToEnd(List<TopicPartition> assignment, Map<TopicPartition, Long> endOffsets) {
+        long records = 0;
+        try (Consumer<String, byte[]> consumer = newConsumer("bootstrap")) {
+            consumer.assign(assignment);
+            consumer.seekToBeginning(assignment);
+            List<TopicPartition> remaining = new ArrayList<>(assignment);
+            while (running && !remaining.isEmpty()) {
+                ConsumerRecords<String, byte[]> batch = consumer.poll(pollTimeout);
+                apply(batch);
+                records += batch.count();
+                remaining.removeIf(tp -> consumer.position(tp) >= endOffsets.getOrDefault(tp, 0L));
+            }
+        }
+        return records;
+    }
+
+    private void tail(Map<TopicPartition, Long> endOffsets) {
+        try (Consumer<String, byte[]> consumer = newConsumer("tail")) {
+            tailConsumer = consumer;
+            consumer.assign(endOffsets.keySet());
+            endOffsets.forEach(consumer::seek);
+            while (running) {
+                apply(consumer.poll(pollTimeout));
+            }
+        } finally {
+            tailConsumer = null;
+        }
+    }
+
+    private void apply(ConsumerRecords<String, byte[]> batch) {
+        if (batch.isEmpty()) {
+            return;
+        }
+        long stamp = lock.writeLock();
+        try {
+            for (ConsumerRecord<String, byte[]> record : batch) {
+                long userId;
+                try {
+                    userId = Long.parseLong(record.key());
+                } catch (NumberFormatException e) {
+                    log.warn("Skipping user state with key {} at {}-{}@{}", record.key(),
+                            record.topic(), record.partition(), record.offset());
+                    continue;
+                }
+                if (record.value() == null) {
+                    states.remove(userId);
+                } else {
+                    states.put(userId, record.value());
+                }
+            }
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+        applied.addAndGet(batch.count());
+    }
+
+    // ==================== Internals ====================
+
+    private void reset() {
+        ready = false;
+        long stamp = lock.writeLock();
+        try {
+            states.clear();
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    private Consumer<String, byte[]> newConsumer(String role) {
+        Map<String, Object> config = new HashMap<>(consumerConfig);
+        config.put(ConsumerConfig.CLIENT_ID_CONFIG, "user-state-view-" + role + "-" + Thread.currentThread().getId());
+        return new KafkaConsumer<>(config, new StringDeserializer(), new ByteArrayDeserializer());
+    }
+
+    private static Map<String, Object> viewConsumerConfig(Map<String, Object> base) {
+        Map<String, Object> config = new HashMap<>(base);
+        // Assigned partitions only: no group membership, no offsets to commit
+        config.remove(ConsumerConfig.GROUP_ID_CONFIG);
+        config.remove(ConsumerConfig.KEY_DESERIALIZER_CLASS_CONFIG);
+        config.remove(ConsumerConfig.VALUE_DESERIALIZER_CLASS_CONFIG);
+        config.put(ConsumerConfig.ENABLE_AUTO_COMMIT_CONFIG, false);
+        config.put(ConsumerConfig.MAX_POLL_RECORDS_CONFIG, 5000);
+        return config;
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
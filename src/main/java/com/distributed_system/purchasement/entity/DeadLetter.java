@@ -0,0 +1,63 @@
+package com.distributed_system.purchasement.entity;
+
+import com.baomidou.mybatisplus.annotation.IdType;
+import com.baomidou.mybatisplus.annotation.TableId;
+import com.baomidou.mybatisplus.annotation.TableName;
+import lombok.Data;
+
+import java.time.LocalDateTime;
+
+/**
+ * Dead letter read from a dlq-* topic
+ * The kafka_dlt-* error headers are parsed into columns, the record itself is kept
+ * byte for byte (payload + headers) so it can be replayed unchanged.
+ */
+@Data
+@TableName("tb_dead_letter")
+public class DeadLetter {
+
+    public static final String STATUS_PENDING = "PENDING";
+    public static final String STATUS_REPLAYED = "REPLAYED";
+
+    @TableId(type = IdType.AUTO)
+    private Long id;
+
+    /**
+     * Position in the DLQ topic, unique (redelivered dead letters are ignored)
+     */
+    private String dlqTopic;
+    private Integer dlqPartition;
+    private Long dlqOffset;
+
+    /**
+     * Main topic the record was first consumed from (replay target)
+     */
+    private String originalTopic;
+    private Integer originalPartition;
+    private Long originalOffset;
+    private LocalDateTime originalTimestamp;
+    private String consumerGroup;
+
+    private String recordKey;
+    private byte[] payload;
+
+    /**
+     * Record headers as JSON [{"key": ..., "value": base64}]
+     */
+    private String headers;
+
+    private String exceptionClass;
+    private String exceptionMessage;
+    private String exceptionStacktrace;
+
+    /**
+     * Error cluster id (ErrorFingerprint of exception class, message template and original topic)
+     */
+    private String fingerprint;
+
+    private String status;
+    private int replayCount;
+    private String lastReplayError;
+    private LocalDateTime createdAt;
+    private LocalDateTime replayedAt;
+}
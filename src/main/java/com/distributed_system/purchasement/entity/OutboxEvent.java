@@ -0,0 +1,46 @@
+package com.distributed_system.purchasement.entity;
+
+import com.baomidou.mybatisplus.annotation.IdType;
+import com.baomidou.mybatisplus.annotation.TableId;
+import com.baomidou.mybatisplus.annotation.TableName;
+import lombok.Data;
+
+import java.time.LocalDateTime;
+
+/**
+ * Transactional outbox row
+ * Written in the same DB transaction as the business change, relayed to Kafka afterwards.
+ */
+@Data
+@TableName("tb_outbox_event")
+public class OutboxEvent {
+
+    @TableId(type = IdType.AUTO)
+    private Long id;
+
+    /**
+     * Record key, also the ordering unit (events of one aggregate are relayed in id order)
+     */
+    private String aggregateId;
+
+    private String topic;
+    private String eventType;
+    private String correlationId;
+
+    /**
+     * Event encoded with EventBinaryCodec
+     */
+    private byte[] payload;
+
+    /**
+     * PENDING / SENDING (claimed by a relay) / SENT, or FAILED once max attempts are reached
+     * (no longer claimed, see OutboxRelay.requeueFailed); the mapper SQL owns the transitions
+     */
+    private String status;
+    private int attempts;
+    private String lastError;
+    private String claimedBy;
+    private LocalDateTime claimedAt;
+    private LocalDateTime createdAt;
+    private LocalDateTime sentAt;
+}
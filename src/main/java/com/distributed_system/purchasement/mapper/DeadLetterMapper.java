@@ -0,0 +1,75 @@
+package com.distributed_system.purchasement.mapper;
+
+import com.baomidou.mybatisplus.core.mapper.BaseMapper;
+import com.distributed_system.purchasement.entity.DeadLetter;
+import org.apache.ibatis.annotations.Insert;
+import org.apache.ibatis.annotations.Mapper;
+import org.apache.ibatis.annotations.Param;
+import org.apache.ibatis.annotations.Select;
+import org.apache.ibatis.annotations.Update;
+
+import java.util.List;
+
+/**
+ * Dead letter mapper - inserts and replay updates are one statement per batch
+ */
+@Mapper
+public interface DeadLetterMapper extends BaseMapper<DeadLetter> {
+
+    /**
+     * Multi-row insert, rows already stored for the same DLQ position are skipped
+     */
+    @Insert("<script>"
+            + "INSERT IGNORE INTO tb_dead_letter (dlq_topic, dlq_partition, dlq_offset, original_topic, "
+            + "original_partition, original_offset, original_timestamp, consumer_group, record_key, payload, headers, "
+            + "exception_class, exception_message, exception_stacktrace, fingerprint, status) VALUES "
+            + "<foreach collection='letters' item='d' separator=','>"
+            + "(#{d.dlqTopic}, #{d.dlqPartition}, #{d.dlqOffset}, #{d.originalTopic}, #{d.originalPartition}, "
+            + "#{d.originalOffset}, #{d.originalTimestamp}, #{d.consumerGroup}, #{d.recordKey}, #{d.payload}, "
+            + "#{d.headers}, #{d.exceptionClass}, #{d.exceptionMessage}, #{d.exceptionStacktrace}, #{d.fingerprint}, "
+            + "'PENDING')"
+            + "</foreach>"
+            + "</script>")
+    int insertBatch(@Param("letters") List<DeadLetter> letters);
+
+    /**
+     * Next page of a replay selection (keyset pagination on id)
+     */
+    @Select("<script>"
+            + "SELECT * FROM tb_dead_letter WHERE id &gt; #{afterId}"
+            + "<if test='toId != null'> AND id &lt;= #{toId}</if>"
+            + "<if test='originalTopic != null'> AND original_topic = #{originalTopic}</if>"
+            + "<if test='status != null'> AND status = #{status}</if>"
+            + "<if test='fingerprint != null'> AND fingerprint = #{fingerprint}</if>"
+            + " ORDER BY id LIMIT #{limit}"
+            + "</script>")
+    List<DeadLetter> selectReplayPage(@Param("afterId") long afterId, @Param("toId") Long toId,
+                                      @Param("originalTopic") String originalTopic,
+                                      @Param("status") String status, @Param("fingerprint") String fingerprint,
+                                      @Param("limit") int limit);
+
+    @Select("<script>"
+            + "SELECT id, dlq_topic, dlq_partition, dlq_offset, original_topic, original_partition, original_offset, "
+            + "original_timestamp, consumer_group, record_key, exception_class, exception_message, fingerprint, status, "
+            + "replay_count, last_replay_error, created_at, replayed_at FROM tb_dead_letter WHERE 1 = 1"
+            + "<if test='originalTopic != null'> AND original_topic = #{originalTopic}</if>"
+            + "<if test='status != null'> AND status = #{status}</if>"
+            + "<if test='fingerprint != null'> AND fingerprint = #{fingerprint}</if>"
+            + " ORDER BY id DESC LIMIT #{limit}"
+            + "</script>")
+    List<DeadLetter> selectRecent(@Param("originalTopic") String originalTopic, @Param("status") String status,
+                                  @Param("fingerprint") String fingerprint, @Param("limit") int limit);
+
+    @Update("<script>"
+            + "UPDATE tb_dead_letter SET status = 'REPLAYED', replay_count = replay_count + 1, replayed_at = NOW(3), "
+            + "last_replay_error = NULL WHERE id IN "
+            + "<foreach collection='ids' item='id' open='(' separator=',' close=')'>#{id}</foreach>"
+            + "</script>")
+    int markReplayed(@Param("ids") List<Long> ids);
+
+    @Update("<script>"
+            + "UPDATE tb_dead_letter SET replay_count = replay_count + 1, last_replay_error = #{error} WHERE id IN "
+            + "<foreach collection='ids' item='id' open='(' separator=',' close=')'>#{id}</foreach>"
+            + "</script>")
+    int markReplayFailed(@Param("ids") List<Long> ids, @Param("error") String error);
+}
@@ -0,0 +1,95 @@
+package com.distributed_system.purchasement.mapper;
+
+import com.baomidou.mybatisplus.core.mapper.BaseMapper;
+import com.distributed_system.purchasement.entity.OutboxEvent;
+import org.apache.ibatis.annotations.Delete;
+import org.apache.ibatis.annotations.Insert;
+import org.apache.ibatis.annotations.Mapper;
+import org.apache.ibatis.annotations.Param;
+import org.apache.ibatis.annotations.Select;
+import org.apache.ibatis.annotations.Update;
+
+import java.util.List;
+
+/**
+ * Outbox mapper - every relay step is one statement per batch, not per row
+ */
+@Mapper
+public interface OutboxEventMapper extends BaseMapper<OutboxEvent> {
+
+    /**
+     * Multi-row insert
+     */
+    @Insert("<script>"
+            + "INSERT INTO tb_outbox_event (aggregate_id, topic, event_type, correlation_id, payload, status) VALUES "
+            + "<foreach collection='events' item='e' separator=','>"
+            + "(#{e.aggregateId}, #{e.topic}, #{e.eventType}, #{e.correlationId}, #{e.payload}, 'PENDING')"
+            + "</foreach>"
+            + "</script>")
+    int insertBatch(@Param("events") List<OutboxEvent> events);
+
+    /**
+     * Claim the oldest pending rows for this relay
+     */
+    @Update("UPDATE tb_outbox_event SET status = 'SENDING', claimed_by = #{owner}, claimed_at = NOW(3) "
+            + "WHERE status = 'PENDING' ORDER BY id LIMIT #{limit}")
+    int claimBatch(@Param("owner") String owner, @Param("limit") int limit);
+
+    @Select("SELECT * FROM tb_outbox_event WHERE status = 'SENDING' AND claimed_by = #{owner} ORDER BY id")
+    List<OutboxEvent> selectClaimed(@Param("owner") String owner);
+
+    @Update("<script>"
+            + "UPDATE tb_outbox_event SET status = 'SENT', sent_at = NOW(3), claimed_by = NULL WHERE id IN "
+            + "<foreach collection='ids' item='id' open='(' separator=',' close=')'>#{id}</foreach>"
+            + "</script>")
+    int markSent(@Param("ids") List<Long> ids);
+
+    /**
+     * Put rows back to PENDING after a failed send, or park them as FAILED once maxAttempts is reached
+     * (status is assigned before attempts, MySQL evaluates SET left to right)
+     */
+    @Update("<script>"
+            + "UPDATE tb_outbox_event SET "
+            + "status = IF(attempts + 1 &gt;= #{maxAttempts}, 'FAILED', 'PENDING'), "
+            + "attempts = attempts + 1, claimed_by = NULL, last_error = #{error} WHERE id IN "
+            + "<foreach collection='ids' item='id' open='(' separator=',' close=')'>#{id}</foreach>"
+            + "</script>")
+    int release(@Param("ids") List<Long> ids, @Param("error") String error,
+                @Param("maxAttempts") int maxAttempts);
+
+    /**
+     * Ids among the given rows that are parked as FAILED
+     */
+    @Select("<script>"
+            + "SELECT id FROM tb_outbox_event WHERE status = 'FAILED' AND id IN "
+            + "<foreach collection='ids' item='id' open='(' separator=',' close=')'>#{id}</foreach>"
+            + "</script>")
+    List<Long> selectFailedIds(@Param("ids") List<Long> ids);
+
+    /**
+     * Give FAILED rows a fresh set of attempts (after the cause was fixed)
+     */
+    @Update("UPDATE tb_outbox_event SET status = 'PENDING', attempts = 0 WHERE status = 'FAILED' "
+            + "ORDER BY id LIMIT #{limit}")
+    int requeueFailed(@Param("limit") int limit);
+
+    /**
+     * Put claimed rows that were never sent back to PENDING, without counting an attempt
+     */
+    @Update("<script>"
+            + "UPDATE tb_outbox_event SET status = 'PENDING', claimed_by = NULL WHERE id IN "
+            + "<foreach collection='ids' item='id' open='(' separator=',' close=')'>#{id}</foreach>"
+            + "</script>")
+    int unclaim(@Param("ids") List<Long> ids);
+
+    /**
+     * Release rows whose relay died while sending
+     */
+    @Update("UPDATE tb_outbox_event SET status = 'PENDING', claimed_by = NULL "
+            + "WHERE status = 'SENDING' AND claimed_at < NOW(3) - INTERVAL #{seconds} SECOND")
+    int releaseStale(@Param("seconds") int seconds);
+
+    @Delete("DELETE FROM tb_outbox_event WHERE status = 'SENT' AND sent_at < NOW(3) - INTERVAL #{days} DAY "
+            + "LIMIT #{limit}")
+    int purgeSent(@Param("days") int days, @Param("limit") int limit);
+}
@@ -0,0 +1,32 @@
+package com.distributed_system.purchasement.mapper;
+
+import org.apache.ibatis.annotations.Insert;
+import org.apache.ibatis.annotations.Mapper;
+import org.apache.ibatis.annotations.Param;
+import org.apache.ibatis.annotations.Update;
+
+/**
+ * Outbox relay lease - one row per lease, held by the owner that renewed it last
+ * Times are taken from the database clock, so instances need not agree on theirs.
+ */
+@Mapper
+public interface OutboxLeaseMapper {
+
+    /**
+     * Create the lease row if missing, already expired so the first relay takes it
+     */
+    @Insert("INSERT IGNORE INTO tb_outbox_lease (name, owner, expires_at) VALUES (#{name}, NULL, NOW(3))")
+    int createIfAbsent(@Param("name") String name);
+
+    /**
+     * Take the lease if free or expired, extend it if owner already holds it
+     *
+     * @return 1 if owner holds the lease for leaseMs from now, 0 if another owner does
+     */
+    @Update("UPDATE tb_outbox_lease SET owner = #{owner}, "
+            + "expires_at = NOW(3) + INTERVAL (#{leaseMs} * 1000) MICROSECOND WHERE name = #{name} AND (owner = #{owner} OR owner IS NULL OR expires_at < NOW(3))")
+    int acquire(@Param("name") String name, @Param("owner") String owner, @Param("leaseMs") long leaseMs);
+
+    @Update("UPDATE tb_outbox_lease SET owner = NULL WHERE name = #{name} AND owner = #{owner}")
+    int release(@Param("name") String name, @Param("owner") String owner);
+}
@@ -0,0 +1,29 @@
+-- Dead letters persisted from the dlq-* topics (see DeadLetterQueueConsumer / DeadLetterReplayService)
+CREATE TABLE IF NOT EXISTS `tb_dead_letter` (
+    `id`                 BIGINT        NOT NULL AUTO_INCREMENT,
+    `dlq_topic`          VARCHAR(128)  NOT NULL,
+    `dlq_partition`      INT           NOT NULL,
+    `dlq_offset`         BIGINT        NOT NULL,
+    `original_topic`     VARCHAR(128)  NOT NULL,
+    `original_partition` INT           DEFAULT NULL,
+    `original_offset`    BIGINT        DEFAULT NULL,
+    `original_timestamp` DATETIME(3)   DEFAULT NULL,
+    `consumer_group`     VARCHAR(128)  DEFAULT NULL,
+    `record_key`         VARCHAR(256)  DEFAULT NULL,
+    `payload`            MEDIUMBLOB    DEFAULT NULL,
+    `headers`            TEXT          DEFAULT NULL,
+    `exception_class`    VARCHAR(256)  DEFAULT NULL,
+    `exception_message`  VARCHAR(1024) DEFAULT NULL,
+    `exception_stacktrace` TEXT        DEFAULT NULL,
+    `fingerprint`        VARCHAR(16)   DEFAULT NULL,
+    `status`             VARCHAR(16)   NOT NULL DEFAULT 'PENDING',
+    `replay_count`       INT           NOT NULL DEFAULT 0,
+    `last_replay_error`  VARCHAR(512)  DEFAULT NULL,
+    `created_at`         DATETIME(3)   NOT NULL DEFAULT CURRENT_TIMESTAMP(3),
+    `replayed_at`        DATETIME(3)   DEFAULT NULL,
+    PRIMARY KEY (`id`),
+    UNIQUE KEY `uk_dlq_position` (`dlq_topic`, `dlq_partition`, `dlq_offset`),
+    KEY `idx_topic_status_id` (`original_topic`, `status`, `id`),
+    KEY `idx_status_id` (`status`, `id`),
+    KEY `idx_fingerprint_id` (`fingerprint`, `id`)
+) ENGINE = InnoDB DEFAULT CHARSET = utf8mb4;
@@ -0,0 +1,28 @@
+-- Transactional outbox for Kafka events (see OutboxService / OutboxRelay)
+CREATE TABLE IF NOT EXISTS `tb_outbox_event` (
+    `id`             BIGINT       NOT NULL AUTO_INCREMENT,
+    `aggregate_id`   VARCHAR(64)  NOT NULL,
+    `topic`          VARCHAR(128) NOT NULL,
+    `event_type`     VARCHAR(64)  DEFAULT NULL,
+    `correlation_id` VARCHAR(64)  DEFAULT NULL,
+    `payload`        BLOB         NOT NULL,
+    `status`         VARCHAR(16)  NOT NULL DEFAULT 'PENDING', -- PENDING / SENDING / SENT / FAILED
+    `attempts`       INT          NOT NULL DEFAULT 0,
+    `last_error`     VARCHAR(512) DEFAULT NULL,
+    `claimed_by`     VARCHAR(64)  DEFAULT NULL,
+    `claimed_at`     DATETIME(3)  DEFAULT NULL,
+    `created_at`     DATETIME(3)  NOT NULL DEFAULT CURRENT_TIMESTAMP(3),
+    `sent_at`        DATETIME(3)  DEFAULT NULL,
+    PRIMARY KEY (`id`),
+    KEY `idx_status_id` (`status`, `id`),
+    KEY `idx_claimed_by` (`claimed_by`, `status`),
+    KEY `idx_sent_at` (`status`, `sent_at`)
+) ENGINE = InnoDB DEFAULT CHARSET = utf8mb4;
+
+-- Relay lease: the outbox relay only drains while its instance holds this row (see OutboxLeaseMapper)
+CREATE TABLE IF NOT EXISTS `tb_outbox_lease` (
+    `name`       VARCHAR(64) NOT NULL,
+    `owner`      VARCHAR(64) DEFAULT NULL,
+    `expires_at` DATETIME(3) NOT NULL,
+    PRIMARY KEY (`name`)
+) ENGINE = InnoDB DEFAULT CHARSET = utf8mb4;
@@ -0,0 +1,43 @@
+-- ============================================
+-- Outbox jobs for the purchasement executor (see OutboxJobHandler)
+-- Run against the xxl_job database after xxl_job_schema.sql; safe to run again.
+-- app_name must match xxl.job.executor.appname.
+-- ============================================
+USE xxl_job;
+
+INSERT INTO xxl_job_group (app_name, title, address_type, address_list, update_time)
+SELECT 'purchasement-executor', 'purchasement', 0, NULL, NOW()
+FROM DUAL
+WHERE NOT EXISTS (SELECT 1 FROM xxl_job_group WHERE app_name = 'purchasement-executor');
+
+SET @group_id = (SELECT id FROM xxl_job_group WHERE app_name = 'purchasement-executor' ORDER BY id LIMIT 1);
+
+-- Catch-up sweep every 5 minutes: stale claims back to PENDING, then drain under the relay lease
+INSERT INTO xxl_job_info (job_group, job_desc, add_time, update_time, author, schedule_type, schedule_conf,
+                          misfire_strategy, executor_route_strategy, executor_handler, executor_param,
+                          executor_block_strategy, executor_timeout, executor_fail_retry_count,
+                          glue_type, glue_remark, glue_updatetime, trigger_status)
+SELECT @group_id, 'Outbox catch-up', NOW(), NOW(), 'purchasement', 'CRON', '0 */5 * * * ?',
+       'DO_NOTHING', 'FIRST', 'outboxCatchUpJob', '', 'DISCARD_LATER', 0, 0, 'BEAN', 'init', NOW(), 1
+FROM DUAL
+WHERE NOT EXISTS (SELECT 1 FROM xxl_job_info WHERE job_group = @group_id AND executor_handler = 'outboxCatchUpJob');
+
+-- Daily purge of SENT rows older than kafka.outbox.job.retention-days
+INSERT INTO xxl_job_info (job_group, job_desc, add_time, update_time, author, schedule_type, schedule_conf,
+                          misfire_strategy, executor_route_strategy, executor_handler, executor_param,
+                          executor_block_strategy, executor_timeout, executor_fail_retry_count,
+                          glue_type, glue_remark, glue_updatetime, trigger_status)
+SELECT @group_id, 'Outbox purge', NOW(), NOW(), 'purchasement', 'CRON', '0 30 3 * * ?',
+       'DO_NOTHING', 'FIRST', 'outboxPurgeJob', '', 'DISCARD_LATER', 0, 0, 'BEAN', 'init', NOW(), 1
+FROM DUAL
+WHERE NOT EXISTS (SELECT 1 FROM xxl_job_info WHERE job_group = @group_id AND executor_handler = 'outboxPurgeJob');
+
+-- FAILED rows back to PENDING: not scheduled, trigger by hand once the cause is fixed
+INSERT INTO xxl_job_info (job_group, job_desc, add_time, update_time, author, schedule_type, schedule_conf,
+                          misfire_strategy, executor_route_strategy, executor_handler, executor_param,
+                          executor_block_strategy, executor_timeout, executor_fail_retry_count,
+                          glue_type, glue_remark, glue_updatetime, trigger_status)
+SELECT @group_id, 'Outbox requeue FAILED', NOW(), NOW(), 'purchasement', 'NONE', NULL,
+       'DO_NOTHING', 'FIRST', 'outboxRequeueFailedJob', '', 'SERIAL_EXECUTION', 0, 0, 'BEAN', 'init', NOW(), 0
+FROM DUAL
+WHERE NOT EXISTS (SELECT 1 FROM xxl_job_info WHERE job_group = @group_id AND executor_handler = 'outboxRequeueFailedJob');
@@ -0,0 +1,55 @@
+package com.distributed_system.purchasement.common.codec;
+
+import com.distributed_system.purchasement.common.event.BaseEvent;
+import com.distributed_system.purchasement.common.event.OrderEvent;
+import com.distributed_system.purchasement.common.event.PaymentEvent;
+import com.distributed_system.purchasement.common.event.UserEvent;
+import org.apache.kafka.common.header.internals.RecordHeaders;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.MethodSource;
+import org.springframework.kafka.support.serializer.JsonSerializer;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Round trip and bytes per event against the JSON payload (timings: EventCodecBenchmark, -Pjmh)
+ */
+class EventBinaryCodecTest {
+
+    static Stream<BaseEvent> events() {
+        return Stream.of(
+                UserEvent.created(1_024_001L, "alice", "alice@example.com", 31),
+                OrderEvent.created(2_048_001L, 1_024_001L, List.of(
+                        new OrderEvent.OrderItem(501L, "Mechanical keyboard", 1, new BigDecimal("399.00")),
+                        new OrderEvent.OrderItem(502L, "USB-C cable", 2, new BigDecimal("29.90")),
+                        new OrderEvent.OrderItem(503L, "Desk mat", 1, new BigDecimal("59.00"))),
+                        new BigDecimal("517.80")),
+                PaymentEvent.initiated(4_096_001L, 2_048_001L, 1_024_001L,
+                        new BigDecimal("517.80"), "CNY", "ALIPAY"));
+    }
+
+    @ParameterizedTest
+    @MethodSource("events")
+    void roundTripKeepsEveryField(BaseEvent event) {
+        assertThat(EventBinaryCodec.decode(EventBinaryCodec.encode(event))).isEqualTo(event);
+    }
+
+    @ParameterizedTest
+    @MethodSource("events")
+    void binaryPayloadIsUnderSixtyPercentOfTheJson(BaseEvent event) {
+        int binary = EventBinaryCodec.encode(event).length;
+        int json;
+        try (JsonSerializer<Object> serializer = new JsonSerializer<>()) {
+            json = serializer.serialize("events", new RecordHeaders(), event).length;
+        }
+
+        System.out.printf("%-13s binary %4d bytes, json %4d bytes (%.0f%%)%n",
+                event.getClass().getSimpleName(), binary, json, 100.0 * binary / json);
+        // Fixed-size base fields (eventId UUID, source) dominate the smallest events
+        assertThat(binary).isLessThan(json * 6 / 10);
+    }
+}
@@ -0,0 +1,74 @@
+package com.distributed_system.purchasement.common.codec;
+
+import com.distributed_system.purchasement.common.event.UserEvent;
+import com.distributed_system.purchasement.common.service.userstate.UserState;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import java.time.ZoneOffset;
+import java.util.TimeZone;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.within;
+
+class UserStateCodecTest {
+
+    private TimeZone defaultZone;
+
+    @BeforeEach
+    void saveZone() {
+        defaultZone = TimeZone.getDefault();
+    }
+
+    @AfterEach
+    void restoreZone() {
+        TimeZone.setDefault(defaultZone);
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {"UTC", "America/Los_Angeles", "Asia/Shanghai"})
+    void roundTripKeepsFieldsAndEpochUpdatedAt(String zone) {
+        TimeZone.setDefault(TimeZone.getTimeZone(zone));
+        UserEvent event = UserEvent.updated(5L, "alice", "alice@example.com", 31);
+
+        byte[] value = UserStateCodec.encode(event);
+        UserState state = UserStateCodec.decode(5L, value);
+
+        assertThat(state).isEqualTo(new UserState(5L, "alice", "alice@example.com", 31, state.updatedAt()));
+        assertThat(state.updatedAt()).isCloseTo(System.currentTimeMillis(), within(5_000L));
+        assertThat(UserStateCodec.updatedAt(value)).isEqualTo(state.updatedAt());
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {"UTC", "America/Los_Angeles", "Asia/Shanghai"})
+    void versionOneLocalTimeIsConverted(String zone) {
+        TimeZone.setDefault(TimeZone.getTimeZone(zone));
+        UserEvent event = UserEvent.updated(5L, "bob", null, 40);
+        BinaryWriter writer = new BinaryWriter(64);
+        writer.writeByte(1);
+        writer.writeVarLong(event.getTimestamp().toInstant(ZoneOffset.UTC).toEpochMilli());
+        writer.writeString(event.getUsername());
+        writer.writeString(event.getEmail());
+        writer.writeZigZagInt(event.getAge());
+
+        UserState state = UserStateCodec.decode(5L, writer.toByteArray());
+
+        assertThat(state.updatedAt()).isEqualTo(event.timestampMillis(-1));
+        assertThat(state.username()).isEqualTo("bob");
+        assertThat(state.email()).isNull();
+    }
+
+    @ParameterizedTest
+    @ValueSource(ints = {0, 3})
+    void unknownVersionIsRejected(int version) {
+        BinaryWriter writer = new BinaryWriter(16);
+        writer.writeByte(version);
+        writer.writeVarLong(1);
+
+        assertThatThrownBy(() -> UserStateCodec.updatedAt(writer.toByteArray()))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+}
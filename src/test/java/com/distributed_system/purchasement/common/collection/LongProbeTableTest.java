@@ -0,0 +1,236 @@
+package com.distributed_system.purchasement.common.collection;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.MethodSource;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * One suite for the probe core, run against every map built on it (values are ints, a map stores
+ * them its own way); map-specific behaviour is tested at the end.
+ */
+class LongProbeTableTest {
+
+    /**
+     * Int view of a long-keyed map, null for absent keys
+     */
+    interface IntView {
+
+        Integer get(long key);
+
+        void put(long key, int value);
+
+        Integer remove(long key);
+
+        int size();
+
+        void clear();
+    }
+
+    static Stream<IntView> maps() {
+        LongIntMap ints = new LongIntMap(16);
+        LongBytesMap bytes = new LongBytesMap(16);
+        return Stream.of(
+                new IntView() {
+                    public Integer get(long key) {
+                        return orNull(ints.get(key));
+                    }
+
+                    public void put(long key, int value) {
+                        ints.put(key, value);
+                    }
+
+                    public Integer remove(long key) {
+                        return orNull(ints.remove(key));
+                    }
+
+                    public int size() {
+                        return ints.size();
+                    }
+
+                    public void clear() {
+                        ints.clear();
+                    }
+
+                    @Override
+                    public String toString() {
+                        return "LongIntMap";
+                    }
+                },
+                new IntView() {
+                    public Integer get(long key) {
+                        return decode(bytes.get(key));
+                    }
+
+                    public void put(long key, int value) {
+                        bytes.put(key, encode(value));
+                    }
+
+                    public Integer remove(long key) {
+                        return decode(bytes.remove(key));
+                    }
+
+                    public int size() {
+                        return bytes.size();
+                    }
+
+                    public void clear() {
+                        bytes.clear();
+                    }
+
+                    @Override
+                    public String toString() {
+                        return "LongBytesMap";
+                    }
+                });
+    }
+
+    @ParameterizedTest
+    @MethodSource("maps")
+    void putGetReplaceRemove(IntView map) {
+        map.put(42L, 1);
+        map.put(42L, 2);
+        assertThat(map.get(42L)).isEqualTo(2);
+        assertThat(map.size()).isEqualTo(1);
+
+        assertThat(map.remove(42L)).isEqualTo(2);
+        assertThat(map.remove(42L)).isNull();
+        assertThat(map.get(42L)).isNull();
+        assertThat(map.size()).isZero();
+    }
+
+    @ParameterizedTest
+    @MethodSource("maps")
+    void zeroAndExtremeKeys(IntView map) {
+        map.put(0L, 10);
+        map.put(Long.MIN_VALUE, 11);
+        map.put(Long.MAX_VALUE, 12);
+        map.put(-1L, 13);
+
+        assertThat(map.size()).isEqualTo(4);
+        assertThat(map.get(0L)).isEqualTo(10);
+        assertThat(map.get(Long.MIN_VALUE)).isEqualTo(11);
+        assertThat(map.get(Long.MAX_VALUE)).isEqualTo(12);
+        assertThat(map.get(-1L)).isEqualTo(13);
+
+        assertThat(map.remove(0L)).isEqualTo(10);
+        assertThat(map.get(0L)).isNull();
+        assertThat(map.size()).isEqualTo(3);
+    }
+
+    @ParameterizedTest
+    @MethodSource("maps")
+    void resizeKeepsEveryEntry(IntView map) {
+        for (int key = 1; key <= 10_000; key++) {
+            map.put(key, key);
+        }
+
+        assertThat(map.size()).isEqualTo(10_000);
+        for (int key = 1; key <= 10_000; key++) {
+            assertThat(map.get(key)).isEqualTo(key);
+        }
+    }
+
+    @ParameterizedTest
+    @MethodSource("maps")
+    void removalKeepsProbeChainsReachable(IntView map) {
+        // Dense key space in a small table: long probe chains, every removal shifts entries back
+        for (int key = 1; key <= 12; key++) {
+            map.put(key * 1024L, key);
+        }
+        for (int key = 1; key <= 12; key += 2) {
+            map.remove(key * 1024L);
+        }
+
+        for (int key = 1; key <= 12; key++) {
+            assertThat(map.get(key * 1024L)).isEqualTo(key % 2 == 1 ? null : key);
+        }
+        assertThat(map.size()).isEqualTo(6);
+    }
+
+    @ParameterizedTest
+    @MethodSource("maps")
+    void matchesHashMapUnderRandomOperations(IntView map) {
+        Map<Long, Integer> expected = new HashMap<>();
+        Random random = new Random(11);
+
+        for (int i = 0; i < 200_000; i++) {
+            long key = random.nextInt(2_000) - 1_000;
+            if (random.nextInt(3) == 0) {
+                assertThat(map.remove(key)).isEqualTo(expected.remove(key));
+            } else {
+                map.put(key, i);
+                expected.put(key, i);
+            }
+        }
+
+        assertThat(map.size()).isEqualTo(expected.size());
+        for (long key = -1_000; key < 1_000; key++) {
+            assertThat(map.get(key)).isEqualTo(expected.get(key));
+        }
+    }
+
+    @ParameterizedTest
+    @MethodSource("maps")
+    void clearEmptiesTheMap(IntView map) {
+        map.put(0L, 1);
+        map.put(7L, 2);
+
+        map.clear();
+
+        assertThat(map.size()).isZero();
+        assertThat(map.get(0L)).isNull();
+        assertThat(map.get(7L)).isNull();
+
+        map.put(7L, 3);
+        assertThat(map.get(7L)).isEqualTo(3);
+    }
+
+    // ==================== Map specific ====================
+
+    @Test
+    void intMapReportsMissing() {
+        LongIntMap map = new LongIntMap(16);
+
+        assertThat(map.get(1L)).isEqualTo(LongIntMap.MISSING);
+        assertThat(map.remove(1L)).isEqualTo(LongIntMap.MISSING);
+    }
+
+    @Test
+    void bytesMapReturnsThePreviousValue() {
+        LongBytesMap map = new LongBytesMap(16);
+
+        assertThat(map.put(42L, encode(1))).isNull();
+        assertThat(map.put(42L, encode(2))).isEqualTo(encode(1));
+        assertThat(map.put(0L, encode(3))).isNull();
+        assertThat(map.put(0L, encode(4))).isEqualTo(encode(3));
+    }
+
+    @Test
+    void bytesMapRejectsNullValue() {
+        assertThatThrownBy(() -> new LongBytesMap(16).put(1L, null))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    private static Integer orNull(int value) {
+        return value != LongIntMap.MISSING ? value : null;
+    }
+
+    private static byte[] encode(int value) {
+        return new byte[]{(byte) (value >>> 24), (byte) (value >>> 16), (byte) (value >>> 8), (byte) value};
+    }
+
+    private static Integer decode(byte[] bytes) {
+        if (bytes == null) {
+            return null;
+        }
+        return (bytes[0] & 0xff) << 24 | (bytes[1] & 0xff) << 16 | (bytes[2] & 0xff) << 8 | (bytes[3] & 0xff);
+    }
+}
@@ -0,0 +1,57 @@
+package com.distributed_system.purchasement.common.event;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import java.time.LocalDateTime;
+import java.util.TimeZone;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+
+class BaseEventTest {
+
+    private TimeZone defaultZone;
+
+    @BeforeEach
+    void saveZone() {
+        defaultZone = TimeZone.getDefault();
+    }
+
+    @AfterEach
+    void restoreZone() {
+        TimeZone.setDefault(defaultZone);
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {"UTC", "America/Los_Angeles", "Asia/Shanghai", "Asia/Kolkata"})
+    void timestampMillisIsTheWallClockInAnyZone(String zone) {
+        TimeZone.setDefault(TimeZone.getTimeZone(zone));
+
+        long before = System.currentTimeMillis();
+        OrderEvent event = OrderEvent.created(1L, 2L, null, null);
+        long after = System.currentTimeMillis();
+
+        assertThat(event.timestampMillis(-1)).isBetween(before, after);
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {"UTC", "America/Los_Angeles", "Asia/Shanghai"})
+    void timestampMillisFollowsTheLocalDateTime(String zone) {
+        TimeZone.setDefault(TimeZone.getTimeZone(zone));
+        OrderEvent event = new OrderEvent();
+        event.setTimestamp(LocalDateTime.now().minusMinutes(30));
+
+        assertThat(event.timestampMillis(-1)).isCloseTo(System.currentTimeMillis() - 30 * 60_000, within(5_000L));
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {"UTC", "Asia/Shanghai"})
+    void missingTimestampUsesTheFallback(String zone) {
+        TimeZone.setDefault(TimeZone.getTimeZone(zone));
+
+        assertThat(new OrderEvent().timestampMillis(42)).isEqualTo(42);
+    }
+}
@@ -0,0 +1,66 @@
+package com.distributed_system.purchasement.common.service.dedup;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class RotatingBloomFilterTest {
+
+    @Test
+    void sizingFollowsExpectedInsertionsAndRate() {
+        RotatingBloomFilter filter = new RotatingBloomFilter(3, 10_000, 0.01);
+
+        assertThat(filter.getGenerations()).isEqualTo(3);
+        // m = -n ln(p) / ln(2)^2, k = m / n ln(2)
+        assertThat(filter.getBitsPerGeneration()).isEqualTo(95_851);
+        assertThat(filter.getHashFunctions()).isEqualTo(7);
+        assertThat(new RotatingBloomFilter(1, 10, 0.01).getGenerations()).isEqualTo(2);
+    }
+
+    @Test
+    void entryIsRememberedUntilItsGenerationIsCleared() {
+        RotatingBloomFilter filter = new RotatingBloomFilter(3, 1_000, 0.01);
+        filter.put("event-1");
+
+        assertThat(filter.mightContain("event-1")).isTrue();
+        filter.rotate();
+        assertThat(filter.mightContain("event-1")).isTrue();
+        filter.rotate();
+        assertThat(filter.mightContain("event-1")).isTrue();
+
+        filter.rotate();
+        assertThat(filter.mightContain("event-1")).isFalse();
+    }
+
+    @Test
+    void entriesOfEachGenerationExpireInTurn() {
+        RotatingBloomFilter filter = new RotatingBloomFilter(2, 1_000, 0.01);
+        filter.put("old");
+        filter.rotate();
+        filter.put("new");
+
+        assertThat(filter.mightContain("old")).isTrue();
+        assertThat(filter.mightContain("new")).isTrue();
+
+        filter.rotate();
+        assertThat(filter.mightContain("old")).isFalse();
+        assertThat(filter.mightContain("new")).isTrue();
+    }
+
+    @Test
+    void noFalseNegativesAndFalsePositivesNearTheTarget() {
+        RotatingBloomFilter filter = new RotatingBloomFilter(3, 10_000, 0.01);
+        for (int i = 0; i < 10_000; i++) {
+            filter.put("present-" + i);
+        }
+
+        int falsePositives = 0;
+        for (int i = 0; i < 10_000; i++) {
+            assertThat(filter.mightContain("present-" + i)).isTrue();
+            if (filter.mightContain("absent-" + i)) {
+                falsePositives++;
+            }
+        }
+        assertThat(falsePositives).isLessThan(200);
+    }
+}
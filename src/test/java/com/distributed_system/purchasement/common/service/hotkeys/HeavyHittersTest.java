@@ -0,0 +1,140 @@
+package com.distributed_system.purchasement.common.service.hotkeys;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.tuple;
+
+class HeavyHittersTest {
+
+    // 1s window of 4 buckets of 250ms; a wide sketch keeps the handful of test keys collision-free
+    private static final long WINDOW_MS = 1_000;
+
+    @Test
+    void topIsOrderedByWeightAndLimitedToK() {
+        HeavyHitters hitters = new HeavyHitters(3, 8, 4, 1024, WINDOW_MS, 4);
+        for (long key = 1; key <= 6; key++) {
+            hitters.add(key, "key-" + key, key * 10, 0);
+        }
+
+        List<HeavyHitter> top = hitters.top(0);
+
+        assertThat(top).extracting(HeavyHitter::key).containsExactly(6L, 5L, 4L);
+        assertThat(top.get(0).label()).isEqualTo("key-6");
+        assertThat(top.get(0).estimate()).isEqualTo(60);
+        assertThat(top.get(0).share()).isEqualTo(60.0 / 210);
+        assertThat(hitters.total(0)).isEqualTo(210);
+    }
+
+    @Test
+    void heavierNewKeyEvictsTheMinimumCandidate() {
+        HeavyHitters hitters = new HeavyHitters(2, 2, 4, 1024, WINDOW_MS, 4);
+        hitters.add(1, "a", 5, 0);
+        hitters.add(2, "b", 3, 0);
+
+        // Not above the minimum (3): stays out
+        hitters.add(3, "c", 3, 0);
+        assertThat(hitters.top(0)).extracting(HeavyHitter::key).containsExactly(1L, 2L);
+
+        // Above the minimum: replaces key 2
+        hitters.add(4, "d", 4, 0);
+        assertThat(hitters.top(0)).extracting(HeavyHitter::key).containsExactly(1L, 4L);
+
+        // Key 3 keeps accumulating in the sketch and gets in once its estimate passes the minimum
+        hitters.add(3, "c", 3, 0);
+        assertThat(hitters.top(0)).extracting(HeavyHitter::key).containsExactly(3L, 1L);
+        assertThat(hitters.top(0).get(0).estimate()).isEqualTo(6);
+    }
+
+    @Test
+    void candidateCountIsUpdatedInPlace() {
+        HeavyHitters hitters = new HeavyHitters(3, 3, 4, 1024, WINDOW_MS, 4);
+        hitters.add(1, "a", 1, 0);
+        hitters.add(2, "b", 2, 0);
+        hitters.add(3, "c", 3, 0);
+
+        for (int i = 0; i < 5; i++) {
+            hitters.add(1, "a", 1, 0);
+        }
+
+        assertThat(hitters.top(0)).extracting(HeavyHitter::key).containsExactly(1L, 3L, 2L);
+        assertThat(hitters.top(0).get(0).estimate()).isEqualTo(6);
+    }
+
+    @Test
+    void expiredBucketsLeaveTheWindow() {
+        HeavyHitters hitters = new HeavyHitters(3, 4, 4, 1024, WINDOW_MS, 4);
+        hitters.add(1, "a", 5, 0);
+        hitters.add(1, "a", 3, 500);
+        hitters.add(2, "b", 2, 600);
+
+        // Last ms of the first bucket's window
+        assertThat(hitters.total(999)).isEqualTo(10);
+        assertThat(hitters.top(999).get(0).estimate()).isEqualTo(8);
+
+        // First bucket expired, the 500ms one is still in
+        assertThat(hitters.total(1_000)).isEqualTo(5);
+        assertThat(hitters.top(1_000)).extracting(HeavyHitter::key, HeavyHitter::estimate)
+                .containsExactly(tuple(1L, 3L), tuple(2L, 2L));
+
+        // Everything expired: candidates with nothing left drop out
+        assertThat(hitters.total(1_750)).isZero();
+        assertThat(hitters.top(1_750)).isEmpty();
+    }
+
+    @Test
+    void jumpPastTheWholeWindowClearsIt() {
+        HeavyHitters hitters = new HeavyHitters(2, 2, 4, 1024, WINDOW_MS, 4);
+        for (long now = 0; now < WINDOW_MS; now += 100) {
+            hitters.add(now, "k", 1, now);
+        }
+
+        assertThat(hitters.total(60_000)).isZero();
+        assertThat(hitters.top(60_000)).isEmpty();
+
+        hitters.add(9, "new", 1, 60_000);
+        assertThat(hitters.top(60_000)).extracting(HeavyHitter::key).containsExactly(9L);
+    }
+
+    @Test
+    void findsHeavyKeysAmongManyLightOnes() {
+        HeavyHitters hitters = new HeavyHitters(3, 32, 4, 1024, WINDOW_MS, 4);
+        for (long key = 1_000; key < 11_000; key++) {
+            hitters.add(key, null, 1, 0);
+            if (key % 10 == 0) {
+                hitters.add(1, "hot-1", 30, 0);
+                hitters.add(2, "hot-2", 20, 0);
+                hitters.add(3, "hot-3", 10, 0);
+            }
+        }
+
+        List<HeavyHitter> top = hitters.top(0);
+
+        assertThat(top).extracting(HeavyHitter::key).containsExactly(1L, 2L, 3L);
+        // Count-min never underestimates
+        assertThat(top.get(0).estimate()).isGreaterThanOrEqualTo(30_000);
+        assertThat(top.get(2).estimate()).isGreaterThanOrEqualTo(10_000);
+    }
+
+    @Test
+    void labelPartsAreJoinedInTop() {
+        HeavyHitters hitters = new HeavyHitters(3, 3, 4, 1024, WINDOW_MS, 4);
+        hitters.add(1, "order-created", "42", 2, 0);
+        hitters.add(2, null, "plain", 1, 0);
+
+        assertThat(hitters.top(0)).extracting(HeavyHitter::label).containsExactly("order-created/42", "plain");
+    }
+
+    @Test
+    void rejectsInvalidSketch() {
+        assertThatThrownBy(() -> new HeavyHitters(3, 8, 4, 1000, WINDOW_MS, 4))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> new HeavyHitters(3, 2, 4, 1024, WINDOW_MS, 4))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> new HeavyHitters(3, 8, 9, 1024, WINDOW_MS, 4))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+}
@@ -0,0 +1,65 @@
+package com.distributed_system.purchasement.common.service.hotkeys;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryMXBean;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Memory of producer-key counting by key cardinality:
+ * - HotKeyTracker (default settings): memoryBytes of the producer-keys sketch as reported by stats(),
+ *   its ~1 MB is below what heap-after-GC deltas can resolve
+ * - exact counts in ConcurrentHashMap<String, LongAdder> by topic/key: used heap after GC
+ * (per-send timings: HotKeyTrackerBenchmark, -Pjmh)
+ */
+@Tag("benchmark")
+class HotKeyTrackerBenchmarkTest {
+
+    private static final String TOPIC = "user-created";
+
+    private final MemoryMXBean memory = ManagementFactory.getMemoryMXBean();
+
+    @Test
+    void trackerStaysFlatWhileExactCountsGrow() {
+        long firstSketchBytes = -1;
+        long previousExactBytes = 0;
+        for (int distinctKeys : new int[]{10_000, 100_000, 1_000_000}) {
+            HotKeyTracker tracker = new HotKeyTracker(new SimpleMeterRegistry(), true, 20, 100, 4, 2048, 60_000, 6, 8);
+            for (int i = 0; i < distinctKeys; i++) {
+                tracker.recordProduce(TOPIC, String.valueOf(2_000_000 + i));
+            }
+            long sketchBytes = (long) tracker.stats().get(HotKeyTracker.PRODUCER_KEYS).get("memoryBytes");
+            assertThat(tracker.top().get(HotKeyTracker.PRODUCER_KEYS)).isNotEmpty();
+
+            long before = usedHeapAfterGc();
+            Map<String, LongAdder> exact = new ConcurrentHashMap<>();
+            for (int i = 0; i < distinctKeys; i++) {
+                exact.computeIfAbsent(TOPIC + "/" + (2_000_000 + i), k -> new LongAdder()).increment();
+            }
+            long exactBytes = usedHeapAfterGc() - before;
+
+            System.out.printf("%8d keys  HotKeyTracker producer-keys %4d KB  ConcurrentHashMap<String, LongAdder>"
+                    + " %7d KB%n", distinctKeys, sketchBytes >> 10, exactBytes >> 10);
+            assertThat(exact).hasSize(distinctKeys);
+            if (firstSketchBytes < 0) {
+                firstSketchBytes = sketchBytes;
+            }
+            assertThat(sketchBytes).isEqualTo(firstSketchBytes);
+            assertThat(exactBytes).isGreaterThan(previousExactBytes);
+            previousExactBytes = exactBytes;
+        }
+    }
+
+    private long usedHeapAfterGc() {
+        System.gc();
+        System.gc();
+        return memory.getHeapMemoryUsage().getUsed();
+    }
+}
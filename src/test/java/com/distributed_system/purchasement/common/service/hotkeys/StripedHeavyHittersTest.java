@@ -0,0 +1,65 @@
+package com.distributed_system.purchasement.common.service.hotkeys;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class StripedHeavyHittersTest {
+
+    private static final long WINDOW_MS = 1_000;
+
+    @Test
+    void mergesTheStripeTopsWithSharesOfTheWholeWindow() {
+        StripedHeavyHitters hitters = new StripedHeavyHitters(4, 3, 32, 4, 4096, WINDOW_MS, 4);
+        for (long key = 1; key <= 8; key++) {
+            hitters.add(key, "topic", "key-" + key, key * 10, 0);
+        }
+
+        List<HeavyHitter> top = hitters.top(0);
+
+        assertThat(top).extracting(HeavyHitter::key).containsExactly(8L, 7L, 6L);
+        assertThat(top.get(0).label()).isEqualTo("topic/key-8");
+        assertThat(hitters.total(0)).isEqualTo(360);
+        assertThat(top.get(0).share()).isEqualTo(80.0 / 360);
+    }
+
+    @Test
+    void findsHeavyKeysAcrossStripes() {
+        StripedHeavyHitters hitters = new StripedHeavyHitters(8, 3, 100, 4, 2048, WINDOW_MS, 4);
+        for (long key = 1_000; key < 11_000; key++) {
+            hitters.add(key, null, 1, 0);
+            if (key % 10 == 0) {
+                hitters.add(1, "hot-1", 30, 0);
+                hitters.add(2, "hot-2", 20, 0);
+                hitters.add(3, "hot-3", 10, 0);
+            }
+        }
+
+        List<HeavyHitter> top = hitters.top(0);
+
+        assertThat(top).extracting(HeavyHitter::key).containsExactly(1L, 2L, 3L);
+        assertThat(top.get(2).estimate()).isGreaterThanOrEqualTo(10_000);
+    }
+
+    @Test
+    void singleStripeBehavesLikeHeavyHitters() {
+        StripedHeavyHitters hitters = new StripedHeavyHitters(1, 2, 2, 4, 1024, WINDOW_MS, 4);
+        hitters.add(1, "a", 5, 0);
+        hitters.add(2, "b", 3, 0);
+        hitters.add(3, "c", 4, 0);
+
+        assertThat(hitters.top(0)).extracting(HeavyHitter::key).containsExactly(1L, 3L);
+        assertThat(hitters.memoryBytes()).isEqualTo(new HeavyHitters(2, 2, 4, 1024, WINDOW_MS, 4).memoryBytes());
+    }
+
+    @Test
+    void rejectsInvalidStripes() {
+        assertThatThrownBy(() -> new StripedHeavyHitters(3, 3, 32, 4, 1024, WINDOW_MS, 4))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> new StripedHeavyHitters(2048, 3, 32, 4, 1024, WINDOW_MS, 4))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+}
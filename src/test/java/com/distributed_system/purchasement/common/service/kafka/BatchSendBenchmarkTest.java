@@ -0,0 +1,178 @@
+package com.distributed_system.purchasement.common.service.kafka;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import com.distributed_system.purchasement.common.codec.EventCodecSerializer;
+import com.distributed_system.purchasement.common.event.UserEvent;
+import com.distributed_system.purchasement.common.service.hotkeys.HotKeyTracker;
+import com.distributed_system.purchasement.common.service.kafka.metrics.KafkaLatencyMetrics;
+import com.distributed_system.purchasement.common.service.kafka.spool.ProducerSpool;
+import com.distributed_system.purchasement.common.service.kafka.tuning.ProducerProfileRouter;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.distribution.ValueAtPercentile;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.apache.kafka.clients.producer.ProducerConfig;
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.apache.kafka.common.serialization.StringSerializer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.kafka.core.DefaultKafkaProducerFactory;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.support.SendResult;
+import org.springframework.kafka.support.serializer.JsonSerializer;
+import org.springframework.kafka.test.EmbeddedKafkaBroker;
+import org.springframework.kafka.test.context.EmbeddedKafka;
+
+import java.text.DecimalFormat;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+import static org.mockito.Mockito.withSettings;
+
+/**
+ * 100k UserEvents against an embedded broker, producer settings as in KafkaConfig:
+ * - per-element loop: sendEventAsync per event, as sendEventBatch did before the batch API
+ * - windowed batch: sendEventBatchAsync with kafka.producer.batch.max-in-flight slots
+ * Reported: wall time until every record is acknowledged, the produce-ack latency per record
+ * (send to acknowledgment, KafkaLatencyMetrics) and the peak of records sent but not yet acknowledged.
+ */
+@Tag("benchmark")
+@EmbeddedKafka(partitions = 3, topics = {"bench-loop", "bench-windowed"})
+class BatchSendBenchmarkTest {
+
+    private static final int EVENTS = 100_000;
+    private static final int MAX_IN_FLIGHT = 1000;
+    private static final DecimalFormat PERCENT = new DecimalFormat("0.#");
+
+    private final List<UserEvent> events = new ArrayList<>(EVENTS);
+    private Level rootLevel;
+    private DefaultKafkaProducerFactory<String, Object> producerFactory;
+
+    @BeforeEach
+    void setUp(EmbeddedKafkaBroker broker) {
+        Logger root = (Logger) LoggerFactory.getLogger(Logger.ROOT_LOGGER_NAME);
+        rootLevel = root.getLevel();
+        root.setLevel(Level.WARN);
+        for (long userId = 1; userId <= EVENTS; userId++) {
+            events.add(UserEvent.created(userId, "user" + userId, "user" + userId + "@example.com", 30));
+        }
+
+        Map<String, Object> config = new HashMap<>();
+        config.put(ProducerConfig.BOOTSTRAP_SERVERS_CONFIG, broker.getBrokersAsString());
+        config.put(ProducerConfig.ACKS_CONFIG, "all");
+        config.put(ProducerConfig.ENABLE_IDEMPOTENCE_CONFIG, true);
+        config.put(ProducerConfig.BATCH_SIZE_CONFIG, 16384);
+        config.put(ProducerConfig.LINGER_MS_CONFIG, 5);
+        config.put(ProducerConfig.BUFFER_MEMORY_CONFIG, 33554432);
+        config.put(ProducerConfig.COMPRESSION_TYPE_CONFIG, "snappy");
+        producerFactory = new DefaultKafkaProducerFactory<>(config, new StringSerializer(),
+                new EventCodecSerializer(new JsonSerializer<>(), true));
+    }
+
+    @AfterEach
+    void tearDown() {
+        producerFactory.destroy();
+        ((Logger) LoggerFactory.getLogger(Logger.ROOT_LOGGER_NAME)).setLevel(rootLevel);
+    }
+
+    @Test
+    void windowedBatchVersusPerElementLoop() {
+        InFlightTemplate template = new InFlightTemplate(producerFactory);
+        // One unmeasured round of each (connections, metadata, JIT), then the measured one
+        Timer loop = null;
+        Timer windowed = null;
+        for (int round = 0; round < 2; round++) {
+            loop = perElementLoop(template, round == 1);
+            windowed = windowedBatch(template, round == 1);
+        }
+
+        assertThat(loop.count()).isEqualTo(EVENTS);
+        assertThat(windowed.count()).isEqualTo(EVENTS);
+    }
+
+    private Timer perElementLoop(InFlightTemplate template, boolean print) {
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        KafkaProducerService service = service(template, registry);
+        template.peak.set(0);
+        long start = System.nanoTime();
+        events.forEach(event -> service.sendEventAsync("bench-loop", event));
+        template.flush();
+        return report("per-element loop", seconds(start), registry, "bench-loop", template.peak.get(), print);
+    }
+
+    private Timer windowedBatch(InFlightTemplate template, boolean print) {
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        KafkaProducerService service = service(template, registry);
+        template.peak.set(0);
+        long start = System.nanoTime();
+        BatchSendResult result = service.sendEventBatchAsync("bench-windowed", events).join();
+        assertThat(result.isAllSucceeded()).isTrue();
+        assertThat(template.peak.get()).isLessThanOrEqualTo(MAX_IN_FLIGHT);
+        return report("windowed batch (" + MAX_IN_FLIGHT + " in flight)", seconds(start), registry,
+                "bench-windowed", template.peak.get(), print);
+    }
+
+    private KafkaProducerService service(KafkaTemplate<String, Object> template, SimpleMeterRegistry registry) {
+        ProducerProfileRouter router = mock(ProducerProfileRouter.class, withSettings().stubOnly());
+        when(router.templateFor(anyString())).thenReturn(template);
+        @SuppressWarnings("unchecked")
+        ObjectProvider<ProducerSpool> spool = mock(ObjectProvider.class, withSettings().stubOnly());
+        return new KafkaProducerService(router, new AggregateKeyStrategy(), spool,
+                new KafkaLatencyMetrics(registry, 20), mock(HotKeyTracker.class, withSettings().stubOnly()),
+                MAX_IN_FLIGHT, 5000);
+    }
+
+    private static Timer report(String name, double seconds, SimpleMeterRegistry registry, String topic,
+                                int peakInFlight, boolean print) {
+        Timer timer = registry.get("kafka.produce.ack").tags("topic", topic, "outcome", "success").timer();
+        if (!print) {
+            return timer;
+        }
+        StringBuilder percentiles = new StringBuilder();
+        for (ValueAtPercentile value : timer.takeSnapshot().percentileValues()) {
+            percentiles.append(String.format("  p%s %6.1f ms", PERCENT.format(value.percentile() * 100),
+                    value.value(TimeUnit.MILLISECONDS)));
+        }
+        System.out.printf("%-32s %6.0f records/s  %6d peak in flight  ack latency%s  max %6.1f ms%n", name,
+                EVENTS / seconds, peakInFlight, percentiles, timer.max(TimeUnit.MILLISECONDS));
+        return timer;
+    }
+
+    private static double seconds(long startNanos) {
+        return (System.nanoTime() - startNanos) / 1e9;
+    }
+
+    /**
+     * Counts records handed to the producer and not yet acknowledged
+     */
+    private static final class InFlightTemplate extends KafkaTemplate<String, Object> {
+
+        private final AtomicInteger inFlight = new AtomicInteger();
+        private final AtomicInteger peak = new AtomicInteger();
+
+        private InFlightTemplate(DefaultKafkaProducerFactory<String, Object> producerFactory) {
+            super(producerFactory);
+        }
+
+        @Override
+        public CompletableFuture<SendResult<String, Object>> send(ProducerRecord<String, Object> record) {
+            peak.accumulateAndGet(inFlight.incrementAndGet(), Math::max);
+            CompletableFuture<SendResult<String, Object>> future = super.send(record);
+            future.whenComplete((result, exception) -> inFlight.decrementAndGet());
+            return future;
+        }
+    }
+}
@@ -0,0 +1,76 @@
+package com.distributed_system.purchasement.common.service.kafka;
+
+import com.distributed_system.purchasement.common.service.hotkeys.HotKeyTracker;
+import com.distributed_system.purchasement.common.service.kafka.metrics.KafkaLatencyMetrics;
+import com.distributed_system.purchasement.common.service.kafka.spool.ProducerSpool;
+import com.distributed_system.purchasement.common.service.kafka.tuning.ProducerProfileRouter;
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.support.SendResult;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeoutException;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class KafkaProducerServiceTest {
+
+    private final List<CompletableFuture<SendResult<String, Object>>> pending = new ArrayList<>();
+    private KafkaProducerService service;
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void setUp() {
+        KafkaTemplate<String, Object> template = mock(KafkaTemplate.class);
+        when(template.send(any(ProducerRecord.class))).thenAnswer(invocation -> {
+            CompletableFuture<SendResult<String, Object>> future = new CompletableFuture<>();
+            pending.add(future);
+            return future;
+        });
+        ProducerProfileRouter router = mock(ProducerProfileRouter.class);
+        when(router.templateFor(anyString())).thenReturn(template);
+        ObjectProvider<ProducerSpool> spool = mock(ObjectProvider.class);
+        service = new KafkaProducerService(router, mock(EventKeyStrategy.class), spool,
+                mock(KafkaLatencyMetrics.class), mock(HotKeyTracker.class), 2, 50);
+    }
+
+    @Test
+    void fullWindowFailsTheRecordsThatGetNoSlot() {
+        CompletableFuture<BatchSendResult> done = service.sendBatchAsync("t", List.of("a", "b", "c", "d"));
+
+        // Two slots, both held by unacknowledged sends: c and d time out instead of blocking forever
+        assertThat(pending).hasSize(2);
+        assertThat(done).isNotDone();
+        acknowledgeAll();
+
+        BatchSendResult result = done.join();
+        assertThat(result.getFailed()).isEqualTo(2);
+        assertThat(result.getFailures()).extracting(BatchSendResult.SendOutcome::index).containsExactly(2, 3);
+        assertThat(result.getFailures().get(0).error()).isInstanceOf(TimeoutException.class);
+    }
+
+    @Test
+    void acknowledgedSendsFreeTheirSlots() {
+        service.sendBatchAsync("t", List.of("a", "b"));
+        acknowledgeAll();
+
+        CompletableFuture<BatchSendResult> done = service.sendBatchAsync("t", List.of("c", "d"));
+        assertThat(pending).hasSize(4);
+        acknowledgeAll();
+        assertThat(done.join().isAllSucceeded()).isTrue();
+    }
+
+    @SuppressWarnings("unchecked")
+    private void acknowledgeAll() {
+        pending.forEach(future -> future.complete(mock(SendResult.class)));
+    }
+}
@@ -0,0 +1,110 @@
+package com.distributed_system.purchasement.common.service.kafka;
+
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.kafka.listener.AcknowledgingConsumerAwareMessageListener;
+import org.springframework.kafka.listener.ConsumerRecordRecoverer;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Listener throughput on the user topics for a handler that blocks 100 ms per record
+ * (UserEventConsumer.simulateProcessing), one poll of 3 partitions x 200 keys:
+ * - per-topic container: each of the 3 container threads runs its partition's records one by one
+ * - key-ordered factory: lanes on the shared platform pool (kafka.listener.key-ordered.workers)
+ * - virtual-thread factory: one thread per lane, at most max-in-flight-per-partition per partition
+ * On a Java 17 runtime VirtualThreads falls back to a platform thread per task, the same code
+ * gets virtual threads on Java 21 (-Pjava21).
+ */
+@Tag("benchmark")
+class KeyOrderedListenerBenchmarkTest {
+
+    private static final int PARTITIONS = 3;
+    private static final int KEYS_PER_PARTITION = 200;
+    private static final long BLOCKING_MS = 100;
+
+    private final ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+    private final int baselineThreads = threads.getThreadCount();
+    private final ConsumerRecordRecoverer recoverer = (record, exception) -> { };
+
+    @Test
+    void platformPoolVersusVirtualThreads() throws Exception {
+        List<ConsumerRecord<String, Object>> poll = poll();
+
+        // Per-topic container: one record at a time per container thread, measured on a sample
+        int sample = 20;
+        long start = System.nanoTime();
+        for (ConsumerRecord<String, Object> record : poll.subList(0, sample)) {
+            blockingHandler().onMessage(record, null, null);
+        }
+        double perContainerThread = sample / seconds(start);
+        report("per-topic container (3 threads)", PARTITIONS * perContainerThread, PARTITIONS);
+
+        ThreadPoolTaskExecutor pool = new ThreadPoolTaskExecutor();
+        pool.setCorePoolSize(16);
+        pool.setMaxPoolSize(16);
+        pool.initialize();
+        double platform = run("key-ordered, 16 platform workers", poll,
+                new KeyOrderedBatchListener(blockingHandler(), pool, recoverer));
+        pool.getThreadPoolExecutor().shutdown();
+        pool.getThreadPoolExecutor().awaitTermination(5, TimeUnit.SECONDS);
+
+        ExecutorService perTask = VirtualThreads.newPerTaskExecutor("bench-vt-");
+        double virtual = run((VirtualThreads.isSupported() ? "virtual" : "platform-per-task fallback")
+                        + ", 50 in flight per partition", poll,
+                new KeyOrderedBatchListener(blockingHandler(), perTask, recoverer, 50));
+        perTask.shutdown();
+
+        assertThat(platform).isGreaterThan(PARTITIONS * perContainerThread);
+        assertThat(virtual).isGreaterThan(platform);
+    }
+
+    private double run(String name, List<ConsumerRecord<String, Object>> poll, KeyOrderedBatchListener listener) {
+        // One warm-up poll (thread creation), then the measured one
+        listener.onMessage(poll, () -> { }, null);
+        threads.resetPeakThreadCount();
+        long start = System.nanoTime();
+        listener.onMessage(poll, () -> { }, null);
+        double perSecond = poll.size() / seconds(start);
+        report(name, perSecond, threads.getPeakThreadCount() - baselineThreads);
+        return perSecond;
+    }
+
+    private static AcknowledgingConsumerAwareMessageListener<String, Object> blockingHandler() {
+        return (record, acknowledgment, consumer) -> {
+            try {
+                Thread.sleep(BLOCKING_MS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        };
+    }
+
+    private static List<ConsumerRecord<String, Object>> poll() {
+        List<ConsumerRecord<String, Object>> records = new ArrayList<>();
+        for (int partition = 0; partition < PARTITIONS; partition++) {
+            for (int key = 0; key < KEYS_PER_PARTITION; key++) {
+                records.add(new ConsumerRecord<>("user-created", partition, key,
+                        partition + "-" + key, "payload"));
+            }
+        }
+        return records;
+    }
+
+    private static double seconds(long startNanos) {
+        return (System.nanoTime() - startNanos) / 1e9;
+    }
+
+    private static void report(String name, double perSecond, int workerThreads) {
+        System.out.printf("%-52s %6.0f records/s  %4d threads%n", name, perSecond, workerThreads);
+    }
+}
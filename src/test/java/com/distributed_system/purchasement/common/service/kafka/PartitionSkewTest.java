@@ -0,0 +1,130 @@
+package com.distributed_system.purchasement.common.service.kafka;
+
+import com.distributed_system.purchasement.common.event.BaseEvent;
+import com.distributed_system.purchasement.common.event.OrderEvent;
+import com.distributed_system.purchasement.common.event.PaymentEvent;
+import com.distributed_system.purchasement.common.event.UserEvent;
+import org.apache.kafka.common.utils.Utils;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+import java.util.function.Function;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Partition skew of the key strategies, computed with the default partitioner's hash
+ * (murmur2(key) % partitions) over a synthetic order stream, no broker needed:
+ * 20k users with Zipf(1.0)-distributed activity, each order created, updated once, paid.
+ */
+class PartitionSkewTest {
+
+    private static final int ORDER_PARTITIONS = 6;
+    private static final int USER_PARTITIONS = 3;
+    private static final int USERS = 20_000;
+    private static final int ORDERS = 100_000;
+
+    private final List<OrderFlow> flows = orderFlows();
+
+    @Test
+    void aggregateKeysKeepEveryOrderOnOnePartitionWithoutSkew() {
+        Skew eventIds = skew(event -> event.getEventId());
+        Skew aggregate = skew(new AggregateKeyStrategy()::resolveKey);
+        Skew user = skew(new UserCoPartitionKeyStrategy()::resolveKey);
+
+        System.out.printf("order-* skew (max/mean partition load), orders spread over >1 partition:%n"
+                        + "  eventId   %.3f  %5.1f%%%n  aggregate %.3f  %5.1f%%%n  user      %.3f  %5.1f%%%n",
+                eventIds.maxOverMean, eventIds.scatteredPercent, aggregate.maxOverMean, aggregate.scatteredPercent,
+                user.maxOverMean, user.scatteredPercent);
+
+        // Random keys balance load but scatter almost every order over several partitions
+        assertThat(eventIds.scatteredPercent).isGreaterThan(80);
+        assertThat(aggregate.scatteredPercent).isZero();
+        assertThat(aggregate.maxOverMean).isLessThan(1.02);
+        // Keying by user keeps orders whole too, but the hottest users pile onto their partitions
+        assertThat(user.scatteredPercent).isZero();
+        assertThat(user.maxOverMean).isGreaterThan(aggregate.maxOverMean);
+    }
+
+    @Test
+    void userKeysCoPartitionUserOrderAndPaymentStreams() {
+        UserCoPartitionKeyStrategy strategy = new UserCoPartitionKeyStrategy();
+        for (OrderFlow flow : flows.subList(0, 10_000)) {
+            int userPartition = partition(strategy.resolveKey(flow.user), USER_PARTITIONS);
+            int paymentPartition = partition(strategy.resolveKey(flow.payment), USER_PARTITIONS);
+            for (OrderEvent order : List.of(flow.created, flow.updated)) {
+                int orderPartition = partition(strategy.resolveKey(order), ORDER_PARTITIONS);
+                assertThat(orderPartition % USER_PARTITIONS).isEqualTo(userPartition);
+            }
+            assertThat(paymentPartition).isEqualTo(userPartition);
+        }
+    }
+
+    private Skew skew(Function<BaseEvent, String> key) {
+        long[] load = new long[ORDER_PARTITIONS];
+        int scattered = 0;
+        for (OrderFlow flow : flows) {
+            Set<Integer> partitions = new HashSet<>();
+            for (OrderEvent event : List.of(flow.created, flow.updated)) {
+                int partition = partition(key.apply(event), ORDER_PARTITIONS);
+                load[partition]++;
+                partitions.add(partition);
+            }
+            if (partitions.size() > 1) {
+                scattered++;
+            }
+        }
+        long max = 0;
+        long sum = 0;
+        for (long partitionLoad : load) {
+            max = Math.max(max, partitionLoad);
+            sum += partitionLoad;
+        }
+        return new Skew(max / ((double) sum / ORDER_PARTITIONS), 100.0 * scattered / flows.size());
+    }
+
+    /**
+     * Partition the default partitioner picks for a keyed record
+     */
+    private static int partition(String key, int partitions) {
+        return Utils.toPositive(Utils.murmur2(key.getBytes(StandardCharsets.UTF_8))) % partitions;
+    }
+
+    private static List<OrderFlow> orderFlows() {
+        Random random = new Random(42);
+        double[] cumulative = new double[USERS];
+        double total = 0;
+        for (int rank = 0; rank < USERS; rank++) {
+            total += 1.0 / (rank + 1);
+            cumulative[rank] = total;
+        }
+        Map<Long, UserEvent> users = new HashMap<>();
+        List<OrderFlow> flows = new ArrayList<>(ORDERS);
+        for (long orderId = 1; orderId <= ORDERS; orderId++) {
+            int rank = Arrays.binarySearch(cumulative, random.nextDouble() * total);
+            long userId = 1_000_000L + (rank < 0 ? -rank - 1 : rank);
+            UserEvent user = users.computeIfAbsent(userId, id -> UserEvent.created(id, "u" + id, "u@x", 30));
+            BigDecimal amount = BigDecimal.TEN;
+            OrderEvent created = OrderEvent.created(orderId, userId, List.of(), amount);
+            OrderEvent updated = OrderEvent.completed(orderId, userId, amount);
+            PaymentEvent payment = PaymentEvent.initiated(orderId, orderId, userId, amount, "CNY", "CARD");
+            flows.add(new OrderFlow(user, created, updated, payment));
+        }
+        return flows;
+    }
+
+    private record OrderFlow(UserEvent user, OrderEvent created, OrderEvent updated, PaymentEvent payment) {
+    }
+
+    private record Skew(double maxOverMean, double scatteredPercent) {
+    }
+}
@@ -0,0 +1,185 @@
+package com.distributed_system.purchasement.common.service.kafka;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import com.distributed_system.purchasement.common.constant.KafkaTopics;
+import org.apache.kafka.clients.consumer.ConsumerConfig;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.clients.producer.ProducerConfig;
+import org.apache.kafka.common.serialization.StringDeserializer;
+import org.apache.kafka.common.serialization.StringSerializer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.slf4j.LoggerFactory;
+import org.springframework.kafka.core.DefaultKafkaConsumerFactory;
+import org.springframework.kafka.core.DefaultKafkaProducerFactory;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.listener.AcknowledgingMessageListener;
+import org.springframework.kafka.listener.BatchMessageListener;
+import org.springframework.kafka.listener.ConcurrentMessageListenerContainer;
+import org.springframework.kafka.listener.ContainerProperties;
+import org.springframework.kafka.listener.MessageListener;
+import org.springframework.kafka.test.EmbeddedKafkaBroker;
+import org.springframework.kafka.test.context.EmbeddedKafka;
+import org.springframework.kafka.test.utils.KafkaTestUtils;
+import org.springframework.kafka.transaction.KafkaTransactionManager;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * payment-completed -> order-completed against an embedded broker, 20k records, one consumer:
+ * - record path: record listener with MANUAL_IMMEDIATE acks (kafkaListenerContainerFactory),
+ *   output through the regular producer; the outbox write of handlePaymentCompleted is left out
+ *   (no database here), so this is the Kafka share of the current path
+ * - transactional path: batch container with a KafkaTransactionManager as in
+ *   transactionalKafkaListenerContainerFactory, one transaction per poll of up to 500 records
+ * Throughput is counted on a read_committed consumer of the output topic, i.e. what downstream sees.
+ */
+@Tag("benchmark")
+@EmbeddedKafka(partitions = 3, topics = {KafkaTopics.PAYMENT_COMPLETED, KafkaTopics.ORDER_COMPLETED},
+        brokerProperties = {"transaction.state.log.replication.factor=1", "transaction.state.log.min.isr=1"})
+class TransactionalChainBenchmarkTest {
+
+    private static final int RECORDS = 20_000;
+    private static final int MAX_POLL_RECORDS = 500;
+
+    private final List<ConcurrentMessageListenerContainer<String, Object>> containers = new ArrayList<>();
+    private final List<DefaultKafkaProducerFactory<String, Object>> producerFactories = new ArrayList<>();
+    private EmbeddedKafkaBroker broker;
+    private Level rootLevel;
+
+    @BeforeEach
+    void setUp(EmbeddedKafkaBroker broker) {
+        this.broker = broker;
+        Logger root = (Logger) LoggerFactory.getLogger(Logger.ROOT_LOGGER_NAME);
+        rootLevel = root.getLevel();
+        root.setLevel(Level.WARN);
+
+        KafkaTemplate<String, Object> template = new KafkaTemplate<>(producerFactory(null));
+        for (int i = 0; i < RECORDS; i++) {
+            template.send(KafkaTopics.PAYMENT_COMPLETED, "order-" + i, "payment-" + i);
+        }
+        template.flush();
+    }
+
+    @AfterEach
+    void tearDown() {
+        containers.forEach(ConcurrentMessageListenerContainer::stop);
+        producerFactories.forEach(DefaultKafkaProducerFactory::destroy);
+        ((Logger) LoggerFactory.getLogger(Logger.ROOT_LOGGER_NAME)).setLevel(rootLevel);
+    }
+
+    @Test
+    void transactionalBatchVersusRecordPath() throws Exception {
+        // Each round consumes the input again with fresh groups, the first round is the warm-up
+        double record = 0;
+        double transactional = 0;
+        for (int round = 1; round <= 2; round++) {
+            record = run("record path, manual ack", round, this::startRecordPath);
+            transactional = run("transactional batch", round, this::startTransactionalPath);
+        }
+
+        assertThat(record).isPositive();
+        assertThat(transactional).isPositive();
+    }
+
+    private double run(String name, int round, Starter starter) throws Exception {
+        CountDownLatch visible = new CountDownLatch(RECORDS);
+        String group = "bench-" + name.charAt(0) + round;
+        MessageListener<String, Object> downstream = output -> {
+            if (output.value().toString().startsWith(group + ":")) {
+                visible.countDown();
+            }
+        };
+        start(group + "-downstream", KafkaTopics.ORDER_COMPLETED, downstream, null);
+
+        long start = System.nanoTime();
+        starter.start(group);
+        assertThat(visible.await(5, TimeUnit.MINUTES)).isTrue();
+        double perSecond = RECORDS / ((System.nanoTime() - start) / 1e9);
+        System.out.printf("round %d  %-26s %7.0f records/s visible downstream%n", round, name, perSecond);
+        containers.forEach(ConcurrentMessageListenerContainer::stop);
+        containers.clear();
+        return perSecond;
+    }
+
+    private void startRecordPath(String group) {
+        KafkaTemplate<String, Object> output = new KafkaTemplate<>(producerFactory(null));
+        AcknowledgingMessageListener<String, Object> listener = (record, acknowledgment) -> {
+            output.send(KafkaTopics.ORDER_COMPLETED, record.key(), group + ":" + record.value());
+            acknowledgment.acknowledge();
+        };
+        start(group, KafkaTopics.PAYMENT_COMPLETED, listener,
+                properties -> properties.setAckMode(ContainerProperties.AckMode.MANUAL_IMMEDIATE));
+    }
+
+    private void startTransactionalPath(String group) {
+        DefaultKafkaProducerFactory<String, Object> transactional = producerFactory("bench-tx-" + group + "-");
+        KafkaTemplate<String, Object> output = new KafkaTemplate<>(transactional);
+        BatchMessageListener<String, Object> listener = records -> {
+            for (ConsumerRecord<String, Object> record : records) {
+                output.send(KafkaTopics.ORDER_COMPLETED, record.key(), group + ":" + record.value());
+            }
+        };
+        start(group, KafkaTopics.PAYMENT_COMPLETED, listener, properties -> {
+            properties.setAckMode(ContainerProperties.AckMode.BATCH);
+            properties.setKafkaAwareTransactionManager(new KafkaTransactionManager<>(transactional));
+        });
+    }
+
+    private void start(String groupId, String topic, Object listener, Customizer customizer) {
+        Map<String, Object> config = KafkaTestUtils.consumerProps(groupId, "false", broker);
+        config.put(ConsumerConfig.AUTO_OFFSET_RESET_CONFIG, "earliest");
+        config.put(ConsumerConfig.ISOLATION_LEVEL_CONFIG, "read_committed");
+        config.put(ConsumerConfig.MAX_POLL_RECORDS_CONFIG, MAX_POLL_RECORDS);
+        config.put(ConsumerConfig.KEY_DESERIALIZER_CLASS_CONFIG, StringDeserializer.class);
+        config.put(ConsumerConfig.VALUE_DESERIALIZER_CLASS_CONFIG, StringDeserializer.class);
+        ContainerProperties properties = new ContainerProperties(topic);
+        properties.setMessageListener(listener);
+        if (customizer != null) {
+            customizer.customize(properties);
+        }
+        ConcurrentMessageListenerContainer<String, Object> container =
+                new ConcurrentMessageListenerContainer<>(new DefaultKafkaConsumerFactory<>(config), properties);
+        container.setBeanName(groupId);
+        container.start();
+        containers.add(container);
+    }
+
+    /**
+     * Producer settings of KafkaConfig.producerFactory, transactional when a prefix is given
+     */
+    private DefaultKafkaProducerFactory<String, Object> producerFactory(String transactionIdPrefix) {
+        Map<String, Object> config = KafkaTestUtils.producerProps(broker);
+        config.put(ProducerConfig.KEY_SERIALIZER_CLASS_CONFIG, StringSerializer.class);
+        config.put(ProducerConfig.VALUE_SERIALIZER_CLASS_CONFIG, StringSerializer.class);
+        config.put(ProducerConfig.ACKS_CONFIG, "all");
+        config.put(ProducerConfig.ENABLE_IDEMPOTENCE_CONFIG, true);
+        config.put(ProducerConfig.LINGER_MS_CONFIG, 5);
+        config.put(ProducerConfig.COMPRESSION_TYPE_CONFIG, "snappy");
+        DefaultKafkaProducerFactory<String, Object> factory = new DefaultKafkaProducerFactory<>(config);
+        if (transactionIdPrefix != null) {
+            factory.setTransactionIdPrefix(transactionIdPrefix);
+        }
+        producerFactories.add(factory);
+        return factory;
+    }
+
+    private interface Starter {
+
+        void start(String group);
+    }
+
+    private interface Customizer {
+
+        void customize(ContainerProperties properties);
+    }
+}
@@ -0,0 +1,126 @@
+package com.distributed_system.purchasement.common.service.kafka.commit;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class PartitionWatermarkTest {
+
+    @Test
+    void watermarkOnlyPassesAContiguousCompletedPrefix() {
+        PartitionWatermark watermark = new PartitionWatermark();
+        for (long offset = 0; offset < 4; offset++) {
+            watermark.register(offset);
+        }
+
+        watermark.complete(1);
+        watermark.complete(3);
+        assertThat(watermark.committable()).isEqualTo(-1);
+
+        watermark.complete(0);
+        assertThat(watermark.committable()).isEqualTo(2);
+
+        watermark.complete(2);
+        assertThat(watermark.committable()).isEqualTo(4);
+    }
+
+    @Test
+    void offsetGapsAreSkipped() {
+        PartitionWatermark watermark = new PartitionWatermark();
+        watermark.register(10);
+        watermark.register(12);
+        watermark.register(15);
+
+        watermark.complete(12);
+        assertThat(watermark.committable()).isEqualTo(-1);
+        watermark.complete(10);
+        assertThat(watermark.committable()).isEqualTo(13);
+        watermark.complete(15);
+        assertThat(watermark.committable()).isEqualTo(16);
+    }
+
+    @Test
+    void completeIgnoresUnknownAndRepeatedOffsets() {
+        PartitionWatermark watermark = new PartitionWatermark();
+        watermark.register(5);
+        watermark.register(6);
+
+        assertThat(watermark.complete(4)).isFalse();
+        assertThat(watermark.complete(6)).isTrue();
+        assertThat(watermark.complete(6)).isFalse();
+        assertThat(watermark.complete(5)).isTrue();
+        // Already past the watermark
+        assertThat(watermark.complete(5)).isFalse();
+    }
+
+    @Test
+    void committableIsReportedOncePerAdvance() {
+        PartitionWatermark watermark = new PartitionWatermark();
+        watermark.register(0);
+        watermark.register(1);
+        watermark.complete(0);
+
+        assertThat(watermark.committable()).isEqualTo(1);
+        watermark.committed(1);
+        assertThat(watermark.committable()).isEqualTo(-1);
+
+        watermark.complete(1);
+        assertThat(watermark.committable()).isEqualTo(2);
+    }
+
+    @Test
+    void failedCommitIsOfferedAgain() {
+        PartitionWatermark watermark = new PartitionWatermark();
+        watermark.register(0);
+        watermark.complete(0);
+        watermark.committed(1);
+
+        watermark.commitFailed(0);
+        assertThat(watermark.committable()).isEqualTo(-1);
+
+        watermark.commitFailed(1);
+        assertThat(watermark.committable()).isEqualTo(1);
+    }
+
+    @Test
+    void redeliveryStartsTrackingOver() {
+        PartitionWatermark watermark = new PartitionWatermark();
+        watermark.register(0);
+        watermark.register(1);
+        watermark.register(2);
+        watermark.complete(0);
+
+        // Seek back to 1: offsets 1 and 2 are delivered again
+        watermark.register(1);
+        assertThat(watermark.complete(2)).isFalse();
+        watermark.register(2);
+        watermark.complete(2);
+        assertThat(watermark.committable()).isEqualTo(1);
+        watermark.complete(1);
+        assertThat(watermark.committable()).isEqualTo(3);
+    }
+
+    @Test
+    void growsWhileWrappedAround() {
+        PartitionWatermark watermark = new PartitionWatermark();
+        for (long offset = 0; offset < 50; offset++) {
+            watermark.register(offset);
+        }
+        for (long offset = 0; offset < 40; offset++) {
+            watermark.complete(offset);
+        }
+        assertThat(watermark.committable()).isEqualTo(40);
+
+        // Head is at 40 of 64: the buffer wraps, then grows twice
+        for (long offset = 50; offset < 300; offset++) {
+            watermark.register(offset);
+        }
+        for (long offset = 299; offset >= 41; offset--) {
+            assertThat(watermark.complete(offset)).isTrue();
+        }
+        assertThat(watermark.committable()).isEqualTo(40);
+
+        watermark.complete(40);
+        assertThat(watermark.committable()).isEqualTo(300);
+    }
+}
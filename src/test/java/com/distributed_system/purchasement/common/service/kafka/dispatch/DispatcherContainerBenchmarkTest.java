@@ -0,0 +1,223 @@
+package com.distributed_system.purchasement.common.service.kafka.dispatch;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import com.distributed_system.purchasement.common.constant.KafkaTopics;
+import com.distributed_system.purchasement.common.service.kafka.filter.EventTypeRecordFilter;
+import org.apache.kafka.clients.consumer.ConsumerConfig;
+import org.apache.kafka.clients.producer.ProducerConfig;
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.apache.kafka.common.serialization.StringDeserializer;
+import org.apache.kafka.common.serialization.StringSerializer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.slf4j.LoggerFactory;
+import org.springframework.kafka.core.DefaultKafkaConsumerFactory;
+import org.springframework.kafka.core.DefaultKafkaProducerFactory;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.listener.AcknowledgingConsumerAwareMessageListener;
+import org.springframework.kafka.listener.ConcurrentMessageListenerContainer;
+import org.springframework.kafka.listener.ContainerProperties;
+import org.springframework.kafka.listener.MessageListener;
+import org.springframework.kafka.listener.adapter.FilteringMessageListenerAdapter;
+import org.springframework.kafka.test.EmbeddedKafkaBroker;
+import org.springframework.kafka.test.context.EmbeddedKafka;
+import org.springframework.kafka.test.utils.ContainerTestUtils;
+import org.springframework.kafka.test.utils.KafkaTestUtils;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryMXBean;
+import java.lang.management.ThreadMXBean;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Consumer footprint of the user / order / payment record listeners against an embedded broker,
+ * listener concurrency 3 as in application-dev.yml:
+ * - per-topic: one container per @KafkaListener method (9 containers, 27 consumers)
+ * - dispatcher: one container per group, header filter + EventDispatcher (3 containers, 9 consumers)
+ * Reported: threads started (consumer, heartbeat and container threads), heap after GC, time until
+ * every partition is assigned and until the 90k pre-produced records are consumed. Handlers only
+ * count, so the numbers are the container overhead, not business logic.
+ */
+@Tag("benchmark")
+@EmbeddedKafka(partitions = 3, topics = {
+        KafkaTopics.USER_CREATED, KafkaTopics.USER_UPDATED, KafkaTopics.USER_DELETED,
+        KafkaTopics.ORDER_CREATED, KafkaTopics.ORDER_COMPLETED, KafkaTopics.ORDER_CANCELLED,
+        KafkaTopics.PAYMENT_INITIATED, KafkaTopics.PAYMENT_COMPLETED, KafkaTopics.PAYMENT_FAILED})
+class DispatcherContainerBenchmarkTest {
+
+    private static final Map<String, List<String>> GROUP_TOPICS = new LinkedHashMap<>();
+    private static final int CONCURRENCY = 3;
+    private static final int PARTITIONS = 3;
+    private static final int RECORDS_PER_TOPIC = 10_000;
+
+    static {
+        GROUP_TOPICS.put(KafkaTopics.GROUP_USER_SERVICE,
+                List.of(KafkaTopics.USER_CREATED, KafkaTopics.USER_UPDATED, KafkaTopics.USER_DELETED));
+        GROUP_TOPICS.put(KafkaTopics.GROUP_ORDER_SERVICE,
+                List.of(KafkaTopics.ORDER_CREATED, KafkaTopics.ORDER_COMPLETED, KafkaTopics.ORDER_CANCELLED));
+        GROUP_TOPICS.put(KafkaTopics.GROUP_PAYMENT_SERVICE,
+                List.of(KafkaTopics.PAYMENT_INITIATED, KafkaTopics.PAYMENT_COMPLETED, KafkaTopics.PAYMENT_FAILED));
+    }
+
+    private final ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+    private final MemoryMXBean memory = ManagementFactory.getMemoryMXBean();
+    private final List<ConcurrentMessageListenerContainer<String, Object>> containers = new ArrayList<>();
+    private Level rootLevel;
+    private DefaultKafkaConsumerFactory<String, Object> consumerFactory;
+
+    @BeforeEach
+    void setUp(EmbeddedKafkaBroker broker) {
+        Logger root = (Logger) LoggerFactory.getLogger(Logger.ROOT_LOGGER_NAME);
+        rootLevel = root.getLevel();
+        root.setLevel(Level.WARN);
+
+        Map<String, Object> consumerProps = KafkaTestUtils.consumerProps("unused", "false", broker);
+        consumerProps.put(ConsumerConfig.AUTO_OFFSET_RESET_CONFIG, "earliest");
+        consumerProps.put(ConsumerConfig.KEY_DESERIALIZER_CLASS_CONFIG, StringDeserializer.class);
+        consumerProps.put(ConsumerConfig.VALUE_DESERIALIZER_CLASS_CONFIG, StringDeserializer.class);
+        consumerFactory = new DefaultKafkaConsumerFactory<>(consumerProps);
+
+        Map<String, Object> producerProps = KafkaTestUtils.producerProps(broker);
+        producerProps.put(ProducerConfig.KEY_SERIALIZER_CLASS_CONFIG, StringSerializer.class);
+        producerProps.put(ProducerConfig.VALUE_SERIALIZER_CLASS_CONFIG, StringSerializer.class);
+        DefaultKafkaProducerFactory<String, Object> producerFactory = new DefaultKafkaProducerFactory<>(producerProps);
+        KafkaTemplate<String, Object> template = new KafkaTemplate<>(producerFactory);
+        for (List<String> topics : GROUP_TOPICS.values()) {
+            for (String topic : topics) {
+                byte[] eventType = eventType(topic);
+                for (int i = 0; i < RECORDS_PER_TOPIC; i++) {
+                    ProducerRecord<String, Object> record = new ProducerRecord<>(topic, "key-" + i, "payload-" + i);
+                    record.headers().add(EventTypeRecordFilter.EVENT_TYPE_HEADER, eventType);
+                    template.send(record);
+                }
+            }
+        }
+        template.flush();
+        producerFactory.destroy();
+    }
+
+    @AfterEach
+    void tearDown() {
+        stopContainers();
+        ((Logger) LoggerFactory.getLogger(Logger.ROOT_LOGGER_NAME)).setLevel(rootLevel);
+    }
+
+    @Test
+    void dispatcherContainersVersusPerTopicContainers() throws Exception {
+        // Two rounds, the first one warms up the JIT and the broker
+        Footprint perTopic = null;
+        Footprint dispatcher = null;
+        for (int round = 1; round <= 2; round++) {
+            perTopic = run("per-topic containers", round, this::startPerTopic);
+            dispatcher = run("dispatcher containers", round, this::startDispatcher);
+        }
+
+        // Threads follow the consumer count: 27 consumers vs 9
+        assertThat(perTopic.threads).isGreaterThanOrEqualTo(3 * dispatcher.threads);
+    }
+
+    private Footprint run(String name, int round, Starter starter) throws Exception {
+        long heapBefore = usedHeapAfterGc();
+        int threadsBefore = threads.getThreadCount();
+        CountDownLatch consumed = new CountDownLatch(GROUP_TOPICS.size() * 3 * RECORDS_PER_TOPIC);
+
+        long start = System.nanoTime();
+        starter.start("-" + name.charAt(0) + round, consumed);
+        for (ConcurrentMessageListenerContainer<String, Object> container : containers) {
+            ContainerTestUtils.waitForAssignment(container, container.getContainerProperties().getTopics().length
+                    * PARTITIONS);
+        }
+        double assignedSeconds = seconds(start);
+        assertThat(consumed.await(5, TimeUnit.MINUTES)).isTrue();
+        double consumedSeconds = seconds(start);
+
+        Footprint footprint = new Footprint(threads.getThreadCount() - threadsBefore,
+                (usedHeapAfterGc() - heapBefore) / (1024 * 1024));
+        System.out.printf("round %d  %-22s %2d containers  %2d threads  %4d MB heap"
+                        + "  assigned after %5.1f s  90k records consumed after %5.1f s%n",
+                round, name, containers.size(), footprint.threads, footprint.heapMegabytes,
+                assignedSeconds, consumedSeconds);
+        stopContainers();
+        return footprint;
+    }
+
+    private void startPerTopic(String suffix, CountDownLatch consumed) {
+        MessageListener<String, Object> counter = record -> consumed.countDown();
+        GROUP_TOPICS.forEach((group, topics) -> {
+            for (String topic : topics) {
+                start(group + suffix, new String[]{topic}, counter);
+            }
+        });
+    }
+
+    private void startDispatcher(String suffix, CountDownLatch consumed) {
+        AcknowledgingConsumerAwareMessageListener<String, Object> counter =
+                (record, acknowledgment, consumer) -> consumed.countDown();
+        EventTypeRecordFilter ignoreNothing = new EventTypeRecordFilter(List.of());
+        GROUP_TOPICS.forEach((group, topics) -> {
+            EventDispatcher dispatcher = new EventDispatcher("dispatcher-" + group);
+            Map<String, List<String>> accepted = new LinkedHashMap<>();
+            for (String topic : topics) {
+                String eventType = new String(eventType(topic), StandardCharsets.UTF_8);
+                dispatcher.register(topic, List.of(eventType), topic, counter);
+                accepted.put(topic, List.of(eventType));
+            }
+            start(group + suffix, topics.toArray(String[]::new),
+                    new FilteringMessageListenerAdapter<>(dispatcher, ignoreNothing.restrictedTo(accepted), true));
+        });
+    }
+
+    private void start(String groupId, String[] topics, Object listener) {
+        ContainerProperties properties = new ContainerProperties(topics);
+        properties.setGroupId(groupId);
+        properties.setMessageListener(listener);
+        ConcurrentMessageListenerContainer<String, Object> container =
+                new ConcurrentMessageListenerContainer<>(consumerFactory, properties);
+        container.setConcurrency(CONCURRENCY);
+        container.setBeanName(groupId + "-" + containers.size());
+        container.start();
+        containers.add(container);
+    }
+
+    private void stopContainers() {
+        containers.forEach(ConcurrentMessageListenerContainer::stop);
+        containers.clear();
+    }
+
+    private long usedHeapAfterGc() {
+        System.gc();
+        System.gc();
+        return memory.getHeapMemoryUsage().getUsed();
+    }
+
+    /**
+     * USER_CREATED for user-created etc., as the consumers' @HandlesEventTypes
+     */
+    private static byte[] eventType(String topic) {
+        return topic.toUpperCase(Locale.ROOT).replace('-', '_').getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static double seconds(long startNanos) {
+        return (System.nanoTime() - startNanos) / 1e9;
+    }
+
+    private interface Starter {
+
+        void start(String groupSuffix, CountDownLatch consumed);
+    }
+
+    private record Footprint(int threads, long heapMegabytes) {
+    }
+}
@@ -0,0 +1,61 @@
+package com.distributed_system.purchasement.common.service.kafka.filter;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class EventTypeRecordFilterTest {
+
+    private final EventTypeRecordFilter shared = new EventTypeRecordFilter(List.of("HEARTBEAT", " "));
+
+    @Test
+    void ignoredTypesAreDroppedEverywhere() {
+        assertThat(shared.filter(record("order-created", "HEARTBEAT"))).isTrue();
+        assertThat(shared.filter(record("order-created", "ORDER_CREATED"))).isFalse();
+        assertThat(shared.filter(record("order-created", null))).isFalse();
+    }
+
+    @Test
+    void restrictionsStayWithTheirOwnFilter() {
+        EventTypeRecordFilter groupA = shared.restrictedTo(Map.of("order-created", List.of("ORDER_CREATED")));
+        EventTypeRecordFilter groupB = shared.restrictedTo(Map.of());
+
+        assertThat(groupA.filter(record("order-created", "ORDER_UPDATED"))).isTrue();
+        assertThat(groupA.filter(record("order-created", "ORDER_CREATED"))).isFalse();
+        assertThat(groupA.filter(record("order-created", "HEARTBEAT"))).isTrue();
+
+        // Neither the other group nor the shared filter picked up group A's restriction
+        assertThat(groupB.filter(record("order-created", "ORDER_UPDATED"))).isFalse();
+        assertThat(shared.filter(record("order-created", "ORDER_UPDATED"))).isFalse();
+    }
+
+    @Test
+    void dropsAreCountedPerFilter() {
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        shared.bindTo(registry, "lazy-factory");
+        EventTypeRecordFilter group = shared.restrictedTo(Map.of("t", List.of("A"))).bindTo(registry, "dispatcher-g");
+
+        shared.filter(record("t", "HEARTBEAT"));
+        group.filter(record("t", "B"));
+        group.filter(record("t", "HEARTBEAT"));
+
+        assertThat(registry.get("kafka.listener.filtered").tag("filter", "lazy-factory").functionCounter().count())
+                .isEqualTo(1.0);
+        assertThat(registry.get("kafka.listener.filtered").tag("filter", "dispatcher-g").functionCounter().count())
+                .isEqualTo(2.0);
+    }
+
+    private static ConsumerRecord<String, Object> record(String topic, String eventType) {
+        ConsumerRecord<String, Object> record = new ConsumerRecord<>(topic, 0, 0L, "k", null);
+        if (eventType != null) {
+            record.headers().add(EventTypeRecordFilter.EVENT_TYPE_HEADER, eventType.getBytes(StandardCharsets.UTF_8));
+        }
+        return record;
+    }
+}
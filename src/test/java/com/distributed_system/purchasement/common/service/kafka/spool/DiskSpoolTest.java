@@ -0,0 +1,150 @@
+package com.distributed_system.purchasement.common.service.kafka.spool;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class DiskSpoolTest {
+
+    // 24 byte payloads + 8 byte header: two entries per 64 byte segment
+    private static final int SEGMENT_BYTES = 64;
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void appendPeekCommitInOrder() {
+        try (DiskSpool spool = new DiskSpool(directory, SEGMENT_BYTES, 8)) {
+            assertThat(spool.isEmpty()).isTrue();
+            for (int i = 0; i < 5; i++) {
+                assertThat(spool.append(payload(i))).isTrue();
+            }
+            assertThat(spool.pendingRecords()).isEqualTo(5);
+            assertThat(spool.pendingBytes()).isEqualTo(5 * 32);
+            assertThat(spool.segmentCount()).isEqualTo(3);
+
+            List<DiskSpool.Entry> first = spool.peek(2);
+            assertThat(first).extracting(entry -> text(entry.payload())).containsExactly(text(0), text(1));
+            // Peek does not consume
+            assertThat(spool.peek(2)).extracting(entry -> text(entry.payload())).containsExactly(text(0), text(1));
+
+            spool.commit(first.get(1), 2);
+            assertThat(spool.pendingRecords()).isEqualTo(3);
+            assertThat(spool.peek(10)).extracting(entry -> text(entry.payload()))
+                    .containsExactly(text(2), text(3), text(4));
+        }
+    }
+
+    @Test
+    void drainedSegmentsAreDeleted() throws IOException {
+        try (DiskSpool spool = new DiskSpool(directory, SEGMENT_BYTES, 8)) {
+            for (int i = 0; i < 6; i++) {
+                spool.append(payload(i));
+            }
+            assertThat(segmentFiles()).hasSize(3);
+
+            List<DiskSpool.Entry> entries = spool.peek(6);
+            spool.commit(entries.get(3), 4);
+            assertThat(segmentFiles()).hasSize(1);
+            assertThat(spool.segmentCount()).isEqualTo(1);
+
+            spool.commit(spool.peek(2).get(1), 2);
+            assertThat(spool.isEmpty()).isTrue();
+            assertThat(spool.pendingRecords()).isZero();
+            assertThat(spool.pendingBytes()).isZero();
+            // The write segment is kept
+            assertThat(segmentFiles()).hasSize(1);
+        }
+    }
+
+    @Test
+    void refusesWhenFullOrEntryTooLarge() {
+        try (DiskSpool spool = new DiskSpool(directory, SEGMENT_BYTES, 2)) {
+            for (int i = 0; i < 4; i++) {
+                assertThat(spool.append(payload(i))).isTrue();
+            }
+            assertThat(spool.append(payload(4))).isFalse();
+            assertThat(spool.append(new byte[SEGMENT_BYTES])).isFalse();
+
+            // Draining a segment makes room again
+            spool.commit(spool.peek(2).get(1), 2);
+            assertThat(spool.append(payload(4))).isTrue();
+        }
+    }
+
+    @Test
+    void reopenResumesFromTheCursor() {
+        try (DiskSpool spool = new DiskSpool(directory, SEGMENT_BYTES, 8)) {
+            for (int i = 0; i < 5; i++) {
+                spool.append(payload(i));
+            }
+            spool.commit(spool.peek(3).get(2), 3);
+            spool.force();
+        }
+
+        try (DiskSpool reopened = new DiskSpool(directory, SEGMENT_BYTES, 8)) {
+            assertThat(reopened.pendingRecords()).isEqualTo(2);
+            assertThat(reopened.peek(10)).extracting(entry -> text(entry.payload()))
+                    .containsExactly(text(3), text(4));
+
+            // Appends continue after the recovered data
+            reopened.append(payload(5));
+            assertThat(reopened.peek(10)).extracting(entry -> text(entry.payload()))
+                    .containsExactly(text(3), text(4), text(5));
+        }
+    }
+
+    @Test
+    void tornEntryEndsTheSegmentOnRecovery() throws IOException {
+        try (DiskSpool spool = new DiskSpool(directory, 256, 8)) {
+            for (int i = 0; i < 3; i++) {
+                spool.append(payload(i));
+            }
+        }
+        Path segment = segmentFiles().get(0);
+        // Flip a payload byte of the third entry: its CRC no longer matches
+        try (FileChannel channel = FileChannel.open(segment, StandardOpenOption.WRITE)) {
+            channel.write(ByteBuffer.wrap(new byte[]{'X'}), 2 * 32 + 8);
+        }
+
+        try (DiskSpool reopened = new DiskSpool(directory, 256, 8)) {
+            assertThat(reopened.pendingRecords()).isEqualTo(2);
+            assertThat(reopened.peek(10)).extracting(entry -> text(entry.payload()))
+                    .containsExactly(text(0), text(1));
+
+            // The torn tail is overwritten by the next append
+            reopened.append(payload(7));
+            assertThat(reopened.peek(10)).extracting(entry -> text(entry.payload()))
+                    .containsExactly(text(0), text(1), text(7));
+        }
+    }
+
+    private List<Path> segmentFiles() throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.filter(path -> path.getFileName().toString().endsWith(".seg")).sorted().toList();
+        }
+    }
+
+    private static byte[] payload(int i) {
+        return text(i).getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static String text(int i) {
+        return String.format("record-%017d", i);
+    }
+
+    private static String text(byte[] payload) {
+        return new String(payload, StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,126 @@
+package com.distributed_system.purchasement.common.service.orderindex;
+
+import com.distributed_system.purchasement.common.event.OrderEvent;
+import org.apache.kafka.common.TopicPartition;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryMXBean;
+import java.math.BigDecimal;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * 1M orders of 250k users:
+ * - retained heap of OrderIndex against HashMap<Long, OrderSummary>, measured as used heap after GC
+ * - restart cost: applying the 1M order-created events again (the in-process share of a replay,
+ *   without fetching them from the broker) against writing and loading a snapshot
+ * (lookup timings: OrderIndexBenchmark, -Pjmh)
+ */
+@Tag("benchmark")
+class OrderIndexBenchmarkTest {
+
+    private static final int ORDERS = 1_000_000;
+    private static final int ORDERS_PER_USER = 4;
+    private static final int BATCH = 500;
+    private static final long FIRST_ORDER_ID = 10_000_000L;
+    private static final long FIRST_USER_ID = 1_000_000L;
+
+    private final MemoryMXBean memory = ManagementFactory.getMemoryMXBean();
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void indexVersusHashMapOfSummaries() {
+        long before = usedHeapAfterGc();
+        OrderIndex index = build();
+        long indexBytes = usedHeapAfterGc() - before;
+        print("OrderIndex", indexBytes);
+        System.out.printf("%-28s %4d MB (memoryBytes)%n", "", index.memoryBytes() >> 20);
+        index = null;
+
+        before = usedHeapAfterGc();
+        Map<Long, OrderSummary> map = new HashMap<>();
+        for (int i = 0; i < ORDERS; i++) {
+            long orderId = FIRST_ORDER_ID + i;
+            long now = System.currentTimeMillis();
+            map.put(orderId, new OrderSummary(orderId, userId(i), OrderStatus.CREATED, total(i), now, now));
+        }
+        long mapBytes = usedHeapAfterGc() - before;
+        print("HashMap<Long, OrderSummary>", mapBytes);
+
+        assertThat(map).hasSize(ORDERS);
+        assertThat(indexBytes).isLessThan(mapBytes);
+    }
+
+    @Test
+    void snapshotRestoreVersusReplay() throws Exception {
+        Path file = dir.resolve("order-index.snapshot");
+        Map<TopicPartition, Long> offsets = Map.of(new TopicPartition("order-created", 0), (long) ORDERS);
+        // Two rounds, the first one warms up the JIT
+        for (int round = 1; round <= 2; round++) {
+            long start = System.nanoTime();
+            OrderIndex replayed = build();
+            double replaySeconds = seconds(start);
+
+            start = System.nanoTime();
+            long bytes = OrderIndexSnapshot.write(file, replayed, offsets);
+            double writeSeconds = seconds(start);
+
+            start = System.nanoTime();
+            OrderIndexSnapshot.Loaded loaded = OrderIndexSnapshot.load(file, ORDERS);
+            double loadSeconds = seconds(start);
+
+            System.out.printf("round %d  replay %.2f s  snapshot write %.2f s (%d MB)  load %.2f s%n",
+                    round, replaySeconds, writeSeconds, bytes >> 20, loadSeconds);
+            assertThat(loaded).isNotNull();
+            assertThat(loaded.index().size()).isEqualTo(ORDERS);
+            assertThat(loaded.index().findByUser(FIRST_USER_ID, 0, Long.MAX_VALUE, null, 10))
+                    .hasSize(ORDERS_PER_USER);
+        }
+    }
+
+    private static OrderIndex build() {
+        OrderIndex index = new OrderIndex(ORDERS);
+        List<OrderEvent> batch = new ArrayList<>(BATCH);
+        for (int i = 0; i < ORDERS; i++) {
+            batch.add(OrderEvent.created(FIRST_ORDER_ID + i, userId(i), List.of(), total(i)));
+            if (batch.size() == BATCH) {
+                index.applyAll(batch);
+                batch.clear();
+            }
+        }
+        return index;
+    }
+
+    private static long userId(int order) {
+        return FIRST_USER_ID + order / ORDERS_PER_USER;
+    }
+
+    private static BigDecimal total(int order) {
+        return BigDecimal.valueOf(1_000 + order % 50_000, 2);
+    }
+
+    private static void print(String name, long bytes) {
+        System.out.printf("%-28s %4d MB for %d orders, %3d bytes per order%n", name, bytes >> 20, ORDERS,
+                bytes / ORDERS);
+    }
+
+    private long usedHeapAfterGc() {
+        System.gc();
+        System.gc();
+        return memory.getHeapMemoryUsage().getUsed();
+    }
+
+    private static double seconds(long startNanos) {
+        return (System.nanoTime() - startNanos) / 1e9;
+    }
+}
@@ -0,0 +1,73 @@
+package com.distributed_system.purchasement.common.service.orderindex;
+
+import com.distributed_system.purchasement.common.event.OrderEvent;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.TimeZone;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+
+class OrderIndexTest {
+
+    private TimeZone defaultZone;
+
+    @BeforeEach
+    void saveZone() {
+        defaultZone = TimeZone.getDefault();
+    }
+
+    @AfterEach
+    void restoreZone() {
+        TimeZone.setDefault(defaultZone);
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {"UTC", "America/Los_Angeles", "Asia/Shanghai"})
+    void timesAreEpochMillisInAnyZone(String zone) {
+        TimeZone.setDefault(TimeZone.getTimeZone(zone));
+        OrderIndex index = new OrderIndex(16);
+
+        index.applyAll(List.of(OrderEvent.created(1L, 7L, List.of(), new BigDecimal("12.50"))));
+
+        OrderSummary summary = index.find(1).orElseThrow();
+        assertThat(summary.createdAt()).isCloseTo(System.currentTimeMillis(), within(5_000L));
+        assertThat(summary.updatedAt()).isEqualTo(summary.createdAt());
+        assertThat(summary.userId()).isEqualTo(7);
+        assertThat(summary.totalAmount()).isEqualByComparingTo("12.50");
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {"UTC", "America/Los_Angeles", "Asia/Shanghai"})
+    void eventWithoutTimestampIsNotTakenForAnOlderOne(String zone) {
+        TimeZone.setDefault(TimeZone.getTimeZone(zone));
+        OrderIndex index = new OrderIndex(16);
+        index.applyAll(List.of(OrderEvent.created(1L, 7L, List.of(), BigDecimal.TEN)));
+
+        OrderEvent completed = OrderEvent.completed(1L, 7L, BigDecimal.TEN);
+        completed.setTimestamp(null);
+
+        assertThat(index.applyAll(List.of(completed))).isEqualTo(1);
+        assertThat(index.find(1).orElseThrow().status()).isEqualTo(OrderStatus.COMPLETED);
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {"UTC", "Asia/Shanghai"})
+    void olderEventIsDropped(String zone) {
+        TimeZone.setDefault(TimeZone.getTimeZone(zone));
+        OrderIndex index = new OrderIndex(16);
+        OrderEvent cancelled = OrderEvent.cancelled(1L, 7L);
+        OrderEvent created = OrderEvent.created(1L, 7L, List.of(), BigDecimal.TEN);
+        created.setTimestamp(cancelled.getTimestamp().minusSeconds(5));
+
+        index.applyAll(List.of(cancelled));
+
+        assertThat(index.applyAll(List.of(created))).isZero();
+        assertThat(index.find(1).orElseThrow().status()).isEqualTo(OrderStatus.CANCELLED);
+    }
+}
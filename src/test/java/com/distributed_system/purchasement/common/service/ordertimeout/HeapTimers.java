@@ -0,0 +1,69 @@
+package com.distributed_system.purchasement.common.service.ordertimeout;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.PriorityQueue;
+
+/**
+ * Baseline for the timing wheel benchmarks: the usual JDK timer queue, a binary heap of timer objects
+ * ordered by deadline plus id -> timer; a cancelled timer stays in the heap until its deadline
+ * (as in ScheduledThreadPoolExecutor without remove-on-cancel)
+ */
+class HeapTimers {
+
+    private final PriorityQueue<Timer> queue = new PriorityQueue<>();
+    private final Map<Long, Timer> timersById = new HashMap<>();
+
+    boolean schedule(long id, long payload, long deadlineMs) {
+        if (timersById.containsKey(id)) {
+            return false;
+        }
+        Timer timer = new Timer(id, payload, deadlineMs);
+        timersById.put(id, timer);
+        queue.add(timer);
+        return true;
+    }
+
+    void cancel(long id) {
+        Timer timer = timersById.remove(id);
+        if (timer != null) {
+            timer.cancelled = true;
+        }
+    }
+
+    int advance(long nowMs, TimingWheel.ExpiryHandler handler) {
+        int expired = 0;
+        while (!queue.isEmpty() && queue.peek().deadlineMs <= nowMs) {
+            Timer timer = queue.poll();
+            if (!timer.cancelled) {
+                timersById.remove(timer.id);
+                expired++;
+                handler.expired(timer.id, timer.payload);
+            }
+        }
+        return expired;
+    }
+
+    int armedCount() {
+        return timersById.size();
+    }
+
+    private static final class Timer implements Comparable<Timer> {
+
+        private final long id;
+        private final long payload;
+        private final long deadlineMs;
+        private boolean cancelled;
+
+        private Timer(long id, long payload, long deadlineMs) {
+            this.id = id;
+            this.payload = payload;
+            this.deadlineMs = deadlineMs;
+        }
+
+        @Override
+        public int compareTo(Timer other) {
+            return Long.compare(deadlineMs, other.deadlineMs);
+        }
+    }
+}
@@ -0,0 +1,64 @@
+package com.distributed_system.purchasement.common.service.ordertimeout;
+
+import com.distributed_system.purchasement.common.constant.KafkaTopics;
+import com.distributed_system.purchasement.common.event.OrderEvent;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.common.header.internals.RecordHeaders;
+import org.apache.kafka.common.record.RecordBatch;
+import org.apache.kafka.common.record.TimestampType;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Optional;
+import java.util.TimeZone;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+
+class OrderTimeoutServiceTest {
+
+    private TimeZone defaultZone;
+
+    @BeforeEach
+    void saveZone() {
+        defaultZone = TimeZone.getDefault();
+    }
+
+    @AfterEach
+    void restoreZone() {
+        TimeZone.setDefault(defaultZone);
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {"UTC", "America/Los_Angeles", "Asia/Shanghai"})
+    void createdAtIsTheRecordTimestamp(String zone) {
+        TimeZone.setDefault(TimeZone.getTimeZone(zone));
+        OrderEvent event = OrderEvent.created(1L, 2L, List.of(), BigDecimal.ONE);
+        long recordTime = System.currentTimeMillis() - 1_000;
+
+        assertThat(OrderTimeoutService.createdAt(event, record(event, recordTime, TimestampType.CREATE_TIME)))
+                .isEqualTo(recordTime);
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {"UTC", "America/Los_Angeles", "Asia/Shanghai"})
+    void createdAtFallsBackToTheEventTimeInTheJvmZone(String zone) {
+        TimeZone.setDefault(TimeZone.getTimeZone(zone));
+        OrderEvent event = OrderEvent.created(1L, 2L, List.of(), BigDecimal.ONE);
+
+        long createdAt = OrderTimeoutService.createdAt(event,
+                record(event, RecordBatch.NO_TIMESTAMP, TimestampType.NO_TIMESTAMP_TYPE));
+
+        // Off by the zone offset (hours) when the local timestamp is read as UTC
+        assertThat(createdAt).isCloseTo(System.currentTimeMillis(), within(5_000L));
+    }
+
+    private static ConsumerRecord<String, Object> record(OrderEvent event, long timestamp, TimestampType type) {
+        return new ConsumerRecord<>(KafkaTopics.ORDER_CREATED, 0, 0, timestamp, type, 0, 0,
+                String.valueOf(event.getOrderId()), event, new RecordHeaders(), Optional.empty());
+    }
+}
@@ -0,0 +1,94 @@
+package com.distributed_system.purchasement.common.service.ordertimeout;
+
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryMXBean;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Timer memory of OrderTimeoutService (30 min timeout, 1s ticks, 4 x 64 slots), measured as used heap
+ * after GC:
+ * - 1M armed timers in TimingWheel against PriorityQueue + HashMap of timer objects (HeapTimers)
+ * - steady state over 3 hours of simulated traffic (600 orders/s, 9 in 10 paid after 60s): the wheel
+ *   reuses freed nodes, so its footprint stops growing once the first timeout has passed
+ * (per-order timings: TimingWheelBenchmark, -Pjmh)
+ */
+@Tag("benchmark")
+class TimingWheelBenchmarkTest {
+
+    private static final int TIMERS = 1_000_000;
+    private static final long TIMEOUT_MS = 30 * 60 * 1000L;
+    private static final int ORDERS_PER_SECOND = 600;
+    private static final int PAID_AFTER_SECONDS = 60;
+    private static final TimingWheel.ExpiryHandler IGNORE = (id, payload) -> {
+    };
+
+    private final MemoryMXBean memory = ManagementFactory.getMemoryMXBean();
+
+    @Test
+    void armedTimersInWheelVersusHeap() {
+        long before = usedHeapAfterGc();
+        TimingWheel wheel = new TimingWheel(1000, 6, 4, TIMERS, 0);
+        for (int i = 0; i < TIMERS; i++) {
+            wheel.schedule(i, i, TIMEOUT_MS * i / TIMERS + 1000);
+        }
+        long wheelBytes = usedHeapAfterGc() - before;
+        print("TimingWheel", wheelBytes);
+        assertThat(wheel.armedCount()).isEqualTo(TIMERS);
+        wheel = null;
+
+        before = usedHeapAfterGc();
+        HeapTimers heap = new HeapTimers();
+        for (int i = 0; i < TIMERS; i++) {
+            heap.schedule(i, i, TIMEOUT_MS * i / TIMERS + 1000);
+        }
+        long heapBytes = usedHeapAfterGc() - before;
+        print("PriorityQueue + HashMap", heapBytes);
+
+        assertThat(heap.armedCount()).isEqualTo(TIMERS);
+        assertThat(wheelBytes).isLessThan(heapBytes);
+    }
+
+    @Test
+    void wheelMemoryIsFlatUnderSteadyTraffic() {
+        long before = usedHeapAfterGc();
+        TimingWheel wheel = new TimingWheel(1000, 6, 4, TIMERS, 0);
+        long order = 0;
+        long firstTimeoutBytes = 0;
+        for (int halfHour = 1; halfHour <= 6; halfHour++) {
+            for (int second = 0; second < TIMEOUT_MS / 1000; second++) {
+                long nowMs = order * 1000 / ORDERS_PER_SECOND;
+                wheel.advance(nowMs, IGNORE);
+                for (int i = 0; i < ORDERS_PER_SECOND; i++, order++) {
+                    wheel.schedule(order, order, nowMs + TIMEOUT_MS);
+                    long paid = order - (long) PAID_AFTER_SECONDS * ORDERS_PER_SECOND;
+                    if (paid >= 0 && paid % 10 != 0) {
+                        wheel.close(paid, nowMs + TIMEOUT_MS);
+                    }
+                }
+            }
+            long bytes = usedHeapAfterGc() - before;
+            System.out.printf("after %3d min  %7d armed  %7d timers  %4d MB heap  %4d MB memoryBytes%n",
+                    halfHour * 30, wheel.armedCount(), wheel.size(), bytes >> 20, wheel.memoryBytes() >> 20);
+            if (halfHour == 2) {
+                firstTimeoutBytes = wheel.memoryBytes();
+            } else if (halfHour > 2) {
+                assertThat(wheel.memoryBytes()).isEqualTo(firstTimeoutBytes);
+            }
+        }
+    }
+
+    private static void print(String name, long bytes) {
+        System.out.printf("%-24s %4d MB for %d armed timers, %3d bytes per timer%n", name, bytes >> 20, TIMERS,
+                bytes / TIMERS);
+    }
+
+    private long usedHeapAfterGc() {
+        System.gc();
+        System.gc();
+        return memory.getHeapMemoryUsage().getUsed();
+    }
+}
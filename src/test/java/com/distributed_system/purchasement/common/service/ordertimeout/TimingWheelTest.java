@@ -0,0 +1,164 @@
+package com.distributed_system.purchasement.common.service.ordertimeout;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class TimingWheelTest {
+
+    // 3 levels x 4 slots of 1ms: levels span 4 / 16 / 64 ticks, so cascades happen every few ticks
+    private static final int BITS = 2;
+    private static final int LEVELS = 3;
+
+    @Test
+    void everyDeadlineFiresOnItsOwnTick() {
+        for (long start : new long[]{0, 1, 3, 5, 15, 63}) {
+            TimingWheel wheel = new TimingWheel(1, BITS, LEVELS, 16, start);
+            for (long deadline = start + 1; deadline <= start + 300; deadline++) {
+                assertThat(wheel.schedule(deadline, deadline * 10, deadline)).isTrue();
+            }
+
+            Map<Long, Long> firedAt = advanceTickByTick(wheel, start, start + 300);
+
+            for (long deadline = start + 1; deadline <= start + 300; deadline++) {
+                assertThat(firedAt.get(deadline)).as("start %d deadline %d", start, deadline).isEqualTo(deadline);
+            }
+            assertThat(wheel.armedCount()).isZero();
+            assertThat(wheel.size()).isZero();
+        }
+    }
+
+    @Test
+    void timersScheduledMidFlightFireOnTime() {
+        TimingWheel wheel = new TimingWheel(1, BITS, LEVELS, 16, 0);
+        Random random = new Random(3);
+        Map<Long, Long> deadlines = new HashMap<>();
+        Map<Long, Long> firedAt = new HashMap<>();
+        long id = 1;
+
+        for (long now = 1; now <= 2_000; now++) {
+            for (int i = 0; i < 3; i++) {
+                long deadline = now - 1 + random.nextInt(150);
+                wheel.schedule(id, 0, deadline);
+                deadlines.put(id++, deadline);
+            }
+            long tick = now;
+            wheel.advance(now, (expiredId, payload) -> firedAt.put(expiredId, tick));
+        }
+        firedAt.putAll(advanceTickByTick(wheel, 2_000, 2_200));
+
+        for (Map.Entry<Long, Long> entry : deadlines.entrySet()) {
+            // Scheduled at tick now-1: a deadline already reached fires on the next tick
+            long scheduledAt = (entry.getKey() - 1) / 3;
+            long expected = Math.max(entry.getValue(), scheduledAt + 1);
+            assertThat(firedAt.get(entry.getKey())).as("id %d", entry.getKey()).isEqualTo(expected);
+        }
+    }
+
+    @Test
+    void deadlineBeyondTopLevelIsParkedAndStillFiresOnTime() {
+        TimingWheel wheel = new TimingWheel(1, BITS, LEVELS, 16, 0);
+        wheel.schedule(1, 0, 1_000);
+
+        Map<Long, Long> firedAt = advanceTickByTick(wheel, 0, 1_100);
+
+        assertThat(firedAt).containsExactly(Map.entry(1L, 1_000L));
+    }
+
+    @Test
+    void largeAdvanceExpiresEverythingDue() {
+        TimingWheel wheel = new TimingWheel(1, BITS, LEVELS, 16, 0);
+        for (long deadline = 1; deadline <= 500; deadline++) {
+            wheel.schedule(deadline, 0, deadline);
+        }
+
+        assertThat(wheel.advance(250, (id, payload) -> { })).isEqualTo(250);
+        assertThat(wheel.armedCount()).isEqualTo(250);
+        assertThat(wheel.advance(500, (id, payload) -> { })).isEqualTo(250);
+        assertThat(wheel.armedCount()).isZero();
+    }
+
+    @Test
+    void payloadIsHandedBackAndDuplicateScheduleIgnored() {
+        TimingWheel wheel = new TimingWheel(1, BITS, LEVELS, 16, 0);
+        assertThat(wheel.schedule(7, 70, 5)).isTrue();
+        assertThat(wheel.schedule(7, 71, 9)).isFalse();
+
+        Map<Long, Long> payloads = new HashMap<>();
+        wheel.advance(10, payloads::put);
+
+        assertThat(payloads).containsExactly(Map.entry(7L, 70L));
+    }
+
+    @Test
+    void closedTimerDoesNotFireAndBlocksLateScheduleUntilItsEnd() {
+        TimingWheel wheel = new TimingWheel(1, BITS, LEVELS, 16, 0);
+        wheel.schedule(1, 0, 10);
+        wheel.close(1, 40);
+
+        assertThat(wheel.armedCount()).isZero();
+        assertThat(wheel.size()).isEqualTo(1);
+        assertThat(wheel.advance(20, (id, payload) -> { })).isZero();
+        assertThat(wheel.schedule(1, 0, 30)).isFalse();
+
+        wheel.advance(40, (id, payload) -> { });
+        assertThat(wheel.size()).isZero();
+        assertThat(wheel.schedule(1, 0, 50)).isTrue();
+        assertThat(wheel.advance(50, (id, payload) -> { })).isEqualTo(1);
+    }
+
+    @Test
+    void closeBeforeScheduleIgnoresTheSchedule() {
+        TimingWheel wheel = new TimingWheel(1, BITS, LEVELS, 16, 0);
+        wheel.close(1, 100);
+
+        assertThat(wheel.schedule(1, 0, 10)).isFalse();
+        assertThat(wheel.advance(100, (id, payload) -> { })).isZero();
+        assertThat(wheel.size()).isZero();
+    }
+
+    @Test
+    void handlerMayScheduleAgain() {
+        TimingWheel wheel = new TimingWheel(1, BITS, LEVELS, 16, 0);
+        wheel.schedule(1, 0, 5);
+
+        Map<Long, Long> firedAt = new HashMap<>();
+        for (long now = 1; now <= 30; now++) {
+            long tick = now;
+            wheel.advance(now, (id, payload) -> {
+                firedAt.merge(id, 1L, Long::sum);
+                if (tick < 20) {
+                    wheel.schedule(id, 0, tick + 5);
+                }
+            });
+        }
+
+        assertThat(firedAt).containsExactly(Map.entry(1L, 4L));
+    }
+
+    @Test
+    void nodesAreReusedAfterGrowth() {
+        TimingWheel wheel = new TimingWheel(1, BITS, LEVELS, 16, 0);
+        for (int round = 0; round < 3; round++) {
+            long base = round * 1_000L;
+            for (long id = 1; id <= 500; id++) {
+                wheel.schedule(base + id, 0, base + 500 + id);
+            }
+            assertThat(wheel.advance(base + 1_000, (id, payload) -> { })).isEqualTo(500);
+        }
+        assertThat(wheel.size()).isZero();
+    }
+
+    private static Map<Long, Long> advanceTickByTick(TimingWheel wheel, long fromMs, long toMs) {
+        Map<Long, Long> firedAt = new HashMap<>();
+        for (long now = fromMs + 1; now <= toMs; now++) {
+            long tick = now;
+            wheel.advance(now, (id, payload) -> firedAt.put(id, tick));
+        }
+        return firedAt;
+    }
+}
@@ -0,0 +1,125 @@
+package com.distributed_system.purchasement.common.service.outbox;
+
+import com.distributed_system.purchasement.common.codec.EventBinaryCodec;
+import com.distributed_system.purchasement.common.event.BaseEvent;
+import com.distributed_system.purchasement.common.event.OrderEvent;
+import com.distributed_system.purchasement.common.service.kafka.KafkaProducerService;
+import com.distributed_system.purchasement.entity.OutboxEvent;
+import com.distributed_system.purchasement.mapper.OutboxEventMapper;
+import com.distributed_system.purchasement.mapper.OutboxLeaseMapper;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class OutboxRelayTest {
+
+    private final OutboxEventMapper eventMapper = mock(OutboxEventMapper.class);
+    private final OutboxLeaseMapper leaseMapper = mock(OutboxLeaseMapper.class);
+    private final KafkaProducerService producer = mock(KafkaProducerService.class);
+    private OutboxRelay relay;
+
+    @BeforeEach
+    void setUp() {
+        relay = new OutboxRelay(eventMapper, leaseMapper, producer, 2);
+        ReflectionTestUtils.setField(relay, "enabled", true);
+        ReflectionTestUtils.setField(relay, "batchSize", 10);
+        ReflectionTestUtils.setField(relay, "maxBatchesPerRun", 5);
+        ReflectionTestUtils.setField(relay, "sendTimeoutMs", 5_000L);
+        ReflectionTestUtils.setField(relay, "maxAttempts", 3);
+        ReflectionTestUtils.setField(relay, "leaseMs", 60_000L);
+    }
+
+    @AfterEach
+    void tearDown() throws InterruptedException {
+        relay.shutdown();
+    }
+
+    @Test
+    void followerDoesNotRelayAndBacksOff() {
+        when(leaseMapper.acquire(anyString(), anyString(), anyLong())).thenReturn(0);
+
+        assertThat(relay.drain(5)).isZero();
+        assertThat(relay.drain(5)).isZero();
+
+        verify(leaseMapper, times(1)).createIfAbsent("outbox-relay");
+        // Second drain falls within lease-ms / 4 of the failed attempt
+        verify(leaseMapper, times(1)).acquire(anyString(), anyString(), anyLong());
+        verify(eventMapper, never()).claimBatch(anyString(), anyInt());
+    }
+
+    @Test
+    void leaseHolderRelaysInAggregateOrder() {
+        when(leaseMapper.acquire(anyString(), anyString(), anyLong())).thenReturn(1);
+        List<OutboxEvent> rows = List.of(row(1, "7"), row(2, "8"), row(3, "7"));
+        when(eventMapper.claimBatch(anyString(), eq(10))).thenReturn(rows.size());
+        when(eventMapper.selectClaimed(anyString())).thenReturn(rows);
+        when(producer.sendEvent(anyString(), anyString(), any())).thenReturn(CompletableFuture.completedFuture(null));
+
+        assertThat(relay.drain(5)).isEqualTo(3);
+
+        ArgumentCaptor<BaseEvent> aggregateSeven = ArgumentCaptor.forClass(BaseEvent.class);
+        verify(producer, times(2)).sendEvent(eq("order-created"), eq("7"), aggregateSeven.capture());
+        assertThat(aggregateSeven.getAllValues()).extracting(event -> ((OrderEvent) event).getUserId())
+                .containsExactly(1L, 3L);
+        ArgumentCaptor<List<Long>> sent = ArgumentCaptor.captor();
+        verify(eventMapper).markSent(sent.capture());
+        assertThat(sent.getValue()).containsExactlyInAnyOrder(1L, 2L, 3L);
+        // Short batch: caught up after one batch, lease renewed once
+        verify(leaseMapper, times(1)).acquire(anyString(), anyString(), eq(60_000L));
+    }
+
+    @Test
+    void lostLeaseStopsTheDrainBetweenBatches() {
+        when(leaseMapper.acquire(anyString(), anyString(), anyLong())).thenReturn(1, 0);
+        List<OutboxEvent> full = List.of(row(1, "1"), row(2, "2"), row(3, "3"), row(4, "4"), row(5, "5"),
+                row(6, "6"), row(7, "7"), row(8, "8"), row(9, "9"), row(10, "10"));
+        when(eventMapper.claimBatch(anyString(), eq(10))).thenReturn(full.size());
+        when(eventMapper.selectClaimed(anyString())).thenReturn(full);
+        when(producer.sendEvent(anyString(), anyString(), any())).thenReturn(CompletableFuture.completedFuture(null));
+
+        assertThat(relay.drain(5)).isEqualTo(10);
+
+        verify(eventMapper, times(1)).claimBatch(anyString(), anyInt());
+    }
+
+    @Test
+    void shutdownReleasesTheLeaseAndStopsDraining() throws InterruptedException {
+        when(leaseMapper.acquire(anyString(), anyString(), anyLong())).thenReturn(1);
+        relay.drain(1);
+
+        relay.shutdown();
+
+        verify(leaseMapper).release(eq("outbox-relay"), anyString());
+        assertThat(relay.drain(1)).isZero();
+        verify(leaseMapper, times(1)).acquire(anyString(), anyString(), anyLong());
+    }
+
+    private static OutboxEvent row(long id, String aggregateId) {
+        OutboxEvent row = new OutboxEvent();
+        row.setId(id);
+        row.setAggregateId(aggregateId);
+        row.setTopic("order-created");
+        // userId carries the row id so the send order can be checked
+        row.setPayload(EventBinaryCodec.encode(OrderEvent.created(Long.parseLong(aggregateId), id, List.of(),
+                BigDecimal.ONE)));
+        return row;
+    }
+}
@@ -0,0 +1,80 @@
+package com.distributed_system.purchasement.common.service.userstate;
+
+import com.distributed_system.purchasement.common.codec.UserStateCodec;
+import com.distributed_system.purchasement.common.collection.LongBytesMap;
+import com.distributed_system.purchasement.common.event.UserEvent;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryMXBean;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.function.Supplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Retained heap of 1M users in the UserStateView map (LongBytesMap of encoded states) against
+ * HashMap<Long, byte[]> and HashMap<Long, UserState>, measured as used heap after GC
+ * (lookup timings: LongBytesMapBenchmark, -Pjmh)
+ */
+@Tag("benchmark")
+class UserStateMemoryBenchmarkTest {
+
+    private static final int USERS = 1_000_000;
+    private static final long FIRST_USER_ID = 1_000_000L;
+
+    private final MemoryMXBean memory = ManagementFactory.getMemoryMXBean();
+
+    @Test
+    void encodedStatesInLongBytesMapVersusHashMaps() {
+        long bytesMap = retained(() -> {
+            LongBytesMap map = new LongBytesMap(USERS);
+            forEachUser((userId, value) -> map.put(userId, value));
+            return map;
+        }, "LongBytesMap (view)");
+        long boxedBytes = retained(() -> {
+            Map<Long, byte[]> map = new HashMap<>();
+            forEachUser(map::put);
+            return map;
+        }, "HashMap<Long, byte[]>");
+        long boxedStates = retained(() -> {
+            Map<Long, UserState> map = new HashMap<>();
+            forEachUser((userId, value) -> map.put(userId, UserStateCodec.decode(userId, value)));
+            return map;
+        }, "HashMap<Long, UserState>");
+
+        assertThat(bytesMap).isLessThan(boxedBytes);
+        assertThat(boxedBytes).isLessThan(boxedStates);
+    }
+
+    private long retained(Supplier<Object> build, String name) {
+        long before = usedHeapAfterGc();
+        Object map = build.get();
+        long bytes = usedHeapAfterGc() - before;
+        System.out.printf("%-28s %4d MB for %d users, %3d bytes per user%n", name, bytes >> 20, USERS,
+                bytes / USERS);
+        assertThat(map).isNotNull();
+        return bytes;
+    }
+
+    private static void forEachUser(UserValueConsumer consumer) {
+        for (int i = 0; i < USERS; i++) {
+            long userId = FIRST_USER_ID + i;
+            consumer.accept(userId, UserStateCodec.encode(UserEvent.updated(userId, "user" + userId,
+                    "user" + userId + "@example.com", 20 + i % 50)));
+        }
+    }
+
+    private long usedHeapAfterGc() {
+        System.gc();
+        System.gc();
+        return memory.getHeapMemoryUsage().getUsed();
+    }
+
+    private interface UserValueConsumer {
+
+        void accept(long userId, byte[] value);
+    }
+}